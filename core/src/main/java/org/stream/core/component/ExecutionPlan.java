@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Result of the static analysis of a {@link Graph}, computed once when the graph is loaded so that the runtime does
+ * not need to discover the structure of the graph hop by hop.
+ * @author guanxiong wei
+ *
+ */
+@Getter
+@Builder
+@ToString
+public class ExecutionPlan {
+
+    // Name of the analyzed graph.
+    private final String graphName;
+
+    // Nodes reachable from the start node, including the asynchronous and daemon nodes.
+    private final Set<String> reachableNodes;
+
+    // Nodes that can never be executed.
+    private final Set<String> unreachableNodes;
+
+    // Strongly connected node groups forming loops.
+    private final List<Set<String>> cycles;
+
+    // Loops none of whose nodes can exit via SUSPEND, the work-flow may spin in these loops without yielding.
+    private final List<Set<String>> cyclesWithoutSuspendExit;
+
+    // Max depth of nested sub work-flows, -1 if the sub work-flows invoke each other recursively.
+    private final int maxSubflowDepth;
+
+    // Asynchronous and daemon nodes that run in parallel with their host node, keyed by the host node.
+    private final Map<String, List<String>> asyncRegions;
+
+    // Human readable findings.
+    private final List<String> warnings;
+
+    /**
+     * Check if the graph has no loop, so that the runtime can skip dead loop detection.
+     * @return {@code true} if the graph contains no loop.
+     */
+    public boolean isAcyclic() {
+        return cycles.isEmpty();
+    }
+}
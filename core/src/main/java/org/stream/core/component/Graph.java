@@ -19,9 +19,15 @@ package org.stream.core.component;
 import java.util.List;
 
 import org.stream.core.execution.Engine;
+import org.stream.core.resource.Resource;
 import org.stream.core.runtime.GraphConfiguration;
+import org.stream.extension.intercept.InterceptorChain;
+import org.stream.extension.intercept.Interceptors;
+import org.stream.extension.memo.ResultMemoizer;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
  * Encapsulation of work-flow execution procedure definition. Each graph represents a single one procedure, which should be defined in a stand-alone file
@@ -62,6 +68,35 @@ public class Graph {
      */
     private String originalDefinition;
 
+    /**
+     * Version of the graph in the graph context, increased every time a changed definition is reloaded.
+     */
+    private long version;
+
+    /**
+     * Hash of the graph definition content, identifying the definition across reloads and JVMs.
+     */
+    private String contentHash;
+
+    /**
+     * Execution plan computed by static analysis when the graph is loaded.
+     */
+    private ExecutionPlan executionPlan;
+
+    /**
+     * Interceptor chain cached by {@link Interceptors#chainOf(Graph)}, replaced once the registrations change.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile InterceptorChain interceptorChain;
+
+    /**
+     * Result memoizer, absent if the graph's results are not memoized. Please refer to {@link GraphConfiguration#getMemoization()}.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private ResultMemoizer<List<Resource>> memoizer;
+
     /**
      * Please refer to {@link GraphConfiguration#getPrimaryResourceType()}
      */
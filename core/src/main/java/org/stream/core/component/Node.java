@@ -20,9 +20,13 @@ import java.util.List;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.stream.core.execution.NextSteps;
+import org.stream.core.sentinel.AdaptiveConcurrencyLimiter;
+import org.stream.extension.memo.NodeOutcome;
+import org.stream.extension.memo.ResultMemoizer;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
@@ -82,7 +86,7 @@ import lombok.extern.slf4j.Slf4j;
 @Builder
 @Data
 @Slf4j
-@ToString(exclude = {"graph"})
+@ToString
 public class Node {
 
     // Node name
@@ -95,6 +99,7 @@ public class Node {
     private NextSteps next;
 
     // Host graph, managing the brother nodes.
+    @ToString.Exclude
     private Graph graph;
 
     // Asynchronous dependencies.
@@ -126,6 +131,32 @@ public class Node {
      */
     private List<SubFlow> subflows;
 
+    /**
+     * Resources the node will need, prefetched by the engine while the predecessor nodes are running.
+     */
+    private List<Prefetch> prefetches;
+
+    /**
+     * Identity assigned by the profiler, 0 until the node is profiled for the first time.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile int profileId;
+
+    /**
+     * Adaptive concurrency limiter guarding the node, absent if the node is not limited.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Result memoizer, absent if the node's results are not memoized.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private ResultMemoizer<NodeOutcome> memoizer;
+
     /**
      * Perform the configured activity's job.
      * @return Activity execution result.
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.component;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Abstract of a resource a node declares it will need, so that the engine can prefetch it ahead of the node's execution.
+ * The path may contain placeholders like <code>{primary}</code> or <code>{primary.orderId}</code> which will be
+ * resolved against the primary resource of the work-flow.
+ * @author guanxiong wei
+ *
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Prefetch implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Resource authority value, the resource catalog uses it to locate the resource reader.
+    private String authority;
+
+    // Resource path template.
+    private String path;
+
+    // Time in milliseconds the activity would wait for the in-flight prefetch before giving up, 0 means no limit.
+    private long timeout;
+}
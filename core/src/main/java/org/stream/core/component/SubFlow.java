@@ -16,6 +16,9 @@
 
 package org.stream.core.component;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -28,7 +31,10 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class SubFlow {
+public class SubFlow implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     // Target procedure to be executed as sub workflow.
     private String target;
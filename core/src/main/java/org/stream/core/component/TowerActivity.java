@@ -25,6 +25,9 @@ import org.stream.core.exception.WorkFlowExecutionException;
 import org.stream.core.execution.WorkFlowContext;
 import org.stream.extension.io.StreamTransferData;
 import org.stream.extension.io.Tower;
+import org.stream.extension.trace.Span;
+import org.stream.extension.trace.SpanKind;
+import org.stream.extension.trace.Tracer;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -63,16 +66,21 @@ public class TowerActivity extends Activity {
 
         var resource = WorkFlowContext.resolveResource(WorkFlowContext.WORK_FLOW_TRANSFER_DATA_REFERENCE);
         var contextData = resource.resolveValue(StreamTransferData.class);
+        Span span = Tracer.startSpan(tower.getClass().getSimpleName(), SpanKind.CLIENT);
         try {
             var request = StreamTransferData.succeed(contextData.getObjects());
             var primary = WorkFlowContext.getPrimary();
             request.add("primary", (Serializable) primary.getValue());
+            // The remote service continues the trace under the tower call span.
+            Tracer.inject(request);
             StreamTransferData streamTransferData = tower.call(request);
+            streamTransferData.getObjects().remove(Tracer.TRACEPARENT);
             StreamTransferData.merge(contextData, streamTransferData);
             contextData.getObjects().remove("errorMessage");
             contextData.getObjects().remove("errorStack");
             return ActivityResult.valueOf(streamTransferData.getActivityResult());
         } catch (Exception e) {
+            span.recordException(e);
             log.error("Fail to call actor [{}]", tower.getClass().getName(), e);
             WorkFlowContext.markException(e);
             var streamTransferData = StreamTransferData.failed();
@@ -87,6 +95,8 @@ public class TowerActivity extends Activity {
                 log.error("Fail to save error stack in the activity context");
             }
             return ActivityResult.SUSPEND;
+        } finally {
+            span.end();
         }
     }
 }
@@ -33,8 +33,11 @@ import org.stream.extension.io.StreamTransferData;
 import org.stream.extension.io.StreamTransferDataStatus;
 import org.stream.extension.meta.Task;
 import org.stream.extension.meta.TaskStatus;
+import org.stream.extension.persist.SubmissionIndex;
 import org.stream.extension.persist.TaskPersister;
 import org.stream.extension.settings.Settings;
+import org.stream.extension.trace.Tracer;
+import org.stream.extension.utils.IdempotencyKeyExtractor;
 import org.stream.extension.utils.TaskIDGenerator;
 import org.stream.extension.utils.UUIDTaskIDGenerator;
 import org.stream.extension.utils.actionable.Tellme;
@@ -64,6 +67,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class AutoScheduledEngine implements Engine {
 
+    // Attempts to claim an idempotency key that keeps disappearing between the claim and the lookup.
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
     private int maxRetry = 10;
 
     private ResourceCatalog resourceCatalog;
@@ -78,6 +84,17 @@ public class AutoScheduledEngine implements Engine {
 
     private EventCenter eventCenter;
 
+    /**
+     * Extractor used to pick the idempotency key out of the primary resource, duplicate submissions
+     * will not be deduplicated if absent.
+     */
+    private IdempotencyKeyExtractor idempotencyKeyExtractor;
+
+    /**
+     * Index shared by the engines mapping idempotency keys to the tasks initiated for them.
+     */
+    private SubmissionIndex submissionIndex;
+
     /**
      * Not supported in auto scheduled engine, please do not use it.
      */
@@ -191,15 +208,33 @@ public class AutoScheduledEngine implements Engine {
                 .value(resource)
                 .build();
 
+        var key = idempotencyKey(graphName, primaryResource);
         var taskId = taskIDGenerator.generateTaskID(primaryResource);
 
+        if (key != null) {
+            var existing = claim(key, taskId);
+            if (existing != null) {
+                log.info("Duplicate submission [{}] coalesced into task [{}]", key, existing);
+                return existing;
+            }
+        }
+
         log.info("Task id [{}] assigned to the request", taskId);
 
         var graph = graphContext.getGraph(graphName);
 
         Tellme.tryIt(() -> {
                     StreamTransferData data = new StreamTransferData();
-                    Task task = initiateTask(taskId, graphName, primaryResource, data, graphContext, startNode);
+                    Task task;
+                    try {
+                        task = initiateTask(taskId, graphName, primaryResource, data, graphContext, startNode);
+                    } catch (Exception e) {
+                        if (key != null) {
+                            // Release the key so that the retries of the submission have a chance to go through.
+                            submissionIndex.remove(key);
+                        }
+                        throw e;
+                    }
                     EventsHelper.fireEvent(eventCenter, Event.of(WorkflowInitiatedEvent.class, task.getTaskId(),
                             graph.getStartNode()), false);
                     log.info("New task [{}] initiated", task.getTaskId());
@@ -215,6 +250,32 @@ public class AutoScheduledEngine implements Engine {
         return taskId;
     }
 
+    /**
+     * Claim the idempotency key for the task. The key may expire or be released by a failed submission between
+     * a failed claim and the lookup, in which case the claim is tried again.
+     * @return The task already holding the key, null if the key is claimed for the given task.
+     */
+    private String claim(final String key, final String taskId) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            if (submissionIndex.putIfAbsent(key, taskId)) {
+                return null;
+            }
+            var existing = submissionIndex.get(key);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        throw new WorkFlowExecutionException(String.format("Fail to claim the idempotency key [%s]", key));
+    }
+
+    private String idempotencyKey(final String graphName, final Resource primaryResource) {
+        if (idempotencyKeyExtractor == null || submissionIndex == null) {
+            return null;
+        }
+        var key = idempotencyKeyExtractor.extract(graphName, primaryResource);
+        return key == null ? null : graphName + "::" + key;
+    }
+
     private Task initiateTask(final String taskId, final String graphName, final Resource primaryResource,
             final StreamTransferData data, final GraphContext graphContext, final String startNode) throws Exception {
         var graph = graphContext.getGraph(graphName);
@@ -235,6 +296,7 @@ public class AutoScheduledEngine implements Engine {
         var task = Task.builder()
                 .application(application)
                 .graphName(graphName)
+                .graphVersion(graph.getContentHash())
                 .initiatedTime(System.currentTimeMillis())
                 .jsonfiedPrimaryResource(Jackson.json(primaryResource.getValue()))
                 .lastExecutionTime(System.currentTimeMillis())
@@ -245,6 +307,7 @@ public class AutoScheduledEngine implements Engine {
                 .taskId(taskId)
                 .build();
         data.add("primaryClass", primaryResource.getValue().getClass().getName());
+        Tracer.inject(data);
         var taskStep = TaskExecutionUtils.constructStep(graph, firstNode,
                 StreamTransferDataStatus.SUCCESS, data, task);
         taskPersister.initiateOrUpdateTask(task, true, taskStep);
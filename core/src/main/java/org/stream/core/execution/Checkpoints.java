@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.execution;
+
+import java.io.Serializable;
+
+import org.stream.core.component.ActivityResult;
+import org.stream.core.component.Node;
+import org.stream.extension.io.HessianIOSerializer;
+import org.stream.extension.io.StreamTransferData;
+import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskCheckpoint;
+import org.stream.extension.persist.TaskPersister;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Activity level checkpoints for long running activities executed by the {@link AutoScheduledEngine}.
+ * <p>
+ * By default a suspended node is re-executed from scratch when the task is retried. Activities paging through large
+ * datasets can periodically save their cursors by {@link #save(String, Serializable)}, the cursors are kept in the
+ * task's {@link StreamTransferData} and persisted as a delta without adding a task step.
+ * When the task resumes at the same node, the activity reads the last cursor back by {@link #get(String, Class)}
+ * and continues from there. Checkpoints are cleared once the node is done.
+ * <p>
+ * The methods should be invoked in the activity's thread, outside the auto scheduled engine they only touch
+ * the transfer data.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public final class Checkpoints {
+
+    private static final String PREFIX = "Stream::Checkpoint::";
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private Checkpoints() { }
+
+    /**
+     * Save the cursor and persist the checkpoint of the current node.
+     * @param name Cursor name, unique within the node.
+     * @param cursor Cursor value.
+     * @return {@code true} if the checkpoint is persisted, {@code false} if it is only kept in memory.
+     */
+    public static boolean save(final String name, final Serializable cursor) {
+        var data = transferData();
+        var scope = SCOPE.get();
+        if (data == null || scope == null) {
+            return false;
+        }
+        var prefix = prefix(scope.nodeName);
+        data.set(prefix + name, cursor);
+
+        var cursors = new StreamTransferData();
+        data.getObjects().forEach((key, value) -> {
+            if (key.startsWith(prefix)) {
+                cursors.set(key, value);
+            }
+        });
+        var checkpoint = TaskCheckpoint.builder()
+                .taskId(scope.taskId)
+                .nodeName(scope.nodeName)
+                .cursors(HessianIOSerializer.encode(cursors))
+                .sequence(++scope.sequence)
+                .createTime(System.currentTimeMillis())
+                .build();
+        try {
+            return scope.taskPersister.checkpoint(checkpoint);
+        } catch (Exception e) {
+            log.warn("Fail to save checkpoint [{}] of task [{}]", name, scope.taskId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Get the last saved cursor of the current node.
+     * @param <T> Cursor type.
+     * @param name Cursor name.
+     * @param clazz Cursor class.
+     * @return The last saved cursor, null if the node has not saved it yet.
+     */
+    public static <T> T get(final String name, final Class<T> clazz) {
+        var data = transferData();
+        var scope = SCOPE.get();
+        if (data == null || scope == null) {
+            return null;
+        }
+        return data.as(prefix(scope.nodeName) + name, clazz);
+    }
+
+    /**
+     * Perform the node with the checkpoint scope of the task open.
+     * @param task Task being executed.
+     * @param node Node to be performed.
+     * @param taskPersister Task persister.
+     * @return Activity result.
+     */
+    static ActivityResult perform(final Task task, final Node node, final TaskPersister taskPersister) {
+        SCOPE.set(new Scope(task.getTaskId(), node.getNodeName(), taskPersister));
+        try {
+            return TaskHelper.perform(node, ActivityResult.SUSPEND);
+        } finally {
+            SCOPE.remove();
+        }
+    }
+
+    /**
+     * Merge the persisted checkpoint into the transfer data if the task resumes at the node the checkpoint is saved in.
+     * The transfer data recovered from the latest step misses the cursors saved after the step. The checkpoint is only
+     * loaded if the latest step shows the node has checkpointed, so retries of the nodes never checkpointing do not pay
+     * for the extra read.
+     * @param task Task to be resumed.
+     * @param data Transfer data recovered from the latest step.
+     * @param taskPersister Task persister.
+     */
+    static void restore(final Task task, final StreamTransferData data, final TaskPersister taskPersister) {
+        var prefix = prefix(task.getNodeName());
+        if (data.getObjects().keySet().stream().noneMatch(key -> key.startsWith(prefix))) {
+            return;
+        }
+        var checkpoint = taskPersister.loadCheckpoint(task.getTaskId());
+        if (checkpoint == null || !task.getNodeName().equals(checkpoint.getNodeName())) {
+            return;
+        }
+        var cursors = HessianIOSerializer.decode(checkpoint.getCursors(), StreamTransferData.class);
+        data.getObjects().putAll(cursors.getObjects());
+        log.info("Task [{}] resumes at node [{}] from checkpoint [{}]", task.getTaskId(), checkpoint.getNodeName(),
+                checkpoint.getSequence());
+    }
+
+    /**
+     * Drop the checkpoint of the node once it is done, so the following steps do not carry the stale cursors.
+     * Nothing is done if the node never saves a checkpoint.
+     * @param task Task being executed.
+     * @param node Node which is done.
+     * @param taskPersister Task persister.
+     */
+    static void complete(final Task task, final Node node, final TaskPersister taskPersister) {
+        var data = transferData();
+        if (data == null) {
+            return;
+        }
+        var prefix = prefix(node.getNodeName());
+        if (data.getObjects().keySet().removeIf(key -> key.startsWith(prefix))) {
+            taskPersister.clearCheckpoint(task.getTaskId());
+        }
+    }
+
+    private static String prefix(final String nodeName) {
+        return PREFIX + nodeName + "::";
+    }
+
+    private static StreamTransferData transferData() {
+        if (!WorkFlowContext.isThereWorkingWorkFlow()) {
+            return null;
+        }
+        var resource = WorkFlowContext.resolveTransferDataResource();
+        return resource == null ? null : resource.resolveValue(StreamTransferData.class);
+    }
+
+    private static final class Scope {
+
+        private final String taskId;
+
+        private final String nodeName;
+
+        private final TaskPersister taskPersister;
+
+        private long sequence;
+
+        private Scope(final String taskId, final String nodeName, final TaskPersister taskPersister) {
+            this.taskId = taskId;
+            this.nodeName = nodeName;
+            this.taskPersister = taskPersister;
+        }
+    }
+}
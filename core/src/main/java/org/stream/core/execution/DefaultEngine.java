@@ -18,6 +18,7 @@ package org.stream.core.execution;
 
 import java.util.Calendar;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.CollectionUtils;
@@ -28,8 +29,13 @@ import org.stream.core.exception.WorkFlowExecutionException;
 import org.stream.core.execution.WorkFlow.WorkFlowStatus;
 import org.stream.core.resource.Resource;
 import org.stream.core.resource.ResourceTank;
+import org.stream.extension.memo.Fingerprints;
+import org.stream.extension.metrics.StreamMetrics;
 import org.stream.extension.state.DefaultExecutionStateSwitcher;
 import org.stream.extension.state.ExecutionStateSwitcher;
+import org.stream.extension.trace.Span;
+import org.stream.extension.trace.SpanKind;
+import org.stream.extension.trace.Tracer;
 
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +51,12 @@ public class DefaultEngine implements Engine {
 
     private static final ThreadLocal<Integer> ENTRANCE_TAG = new ThreadLocal<>();
 
+    // How many times a node suspended by its concurrency limit is retried in place before it is treated as failed.
+    private static final int MAX_LIMITED_RETRIES = 3;
+
+    // Upper bound in milliseconds of a single in place backoff, the caller's thread is blocked while backing off.
+    private static final int MAX_LIMITED_BACKOFF = 1000;
+
     static {
         ENTRANCE_TAG.set(0);
     }
@@ -144,6 +156,31 @@ public class DefaultEngine implements Engine {
         // Deduce work-flow procedure definition graph.
         var graph = deduceGraph(graphName, graphContext);
 
+        // Only the complete executions of the entry graphs are memoized, nested graphs share the resource tank of the caller.
+        boolean nested = ENTRANCE_TAG.get() != null && ENTRANCE_TAG.get() != 0;
+        if (graph.getMemoizer() == null || startNode != null || nested) {
+            return run(graphContext, graph, graphName, resource, autoRecord, autoClean, startNode).resourceTank();
+        }
+
+        Execution[] executed = {null};
+        List<Resource> resources = graph.getMemoizer().memoize(Fingerprints.of(resource), () -> {
+            executed[0] = run(graphContext, graph, graphName, resource, autoRecord, autoClean, startNode);
+            return executed[0].resourceTank().getResources().values().stream().map(Resource::copy).toList();
+        }, value -> !executed[0].failed());
+        if (executed[0] != null) {
+            return executed[0].resourceTank();
+        }
+
+        // Memoized, hand out a fresh tank with copies so that the callers can not change the memoized resources.
+        var resourceTank = new ResourceTank();
+        resourceTank.setGraphName(graphName);
+        resources.forEach(memoized -> resourceTank.addResource(memoized.copy()));
+        return resourceTank;
+    }
+
+    private Execution run(final GraphContext graphContext, final Graph graph, final String graphName, final Resource resource,
+            final boolean autoRecord, final boolean autoClean, final String startNode) {
+
         // Pre-set work-flow context flags.
         boolean isWorkflowEntryGraph = false;
         if (ENTRANCE_TAG.get() == null || ENTRANCE_TAG.get() == 0) {
@@ -157,14 +194,18 @@ public class DefaultEngine implements Engine {
         // Execute
         execute(context, graph, autoRecord, startNode, graphContext);
         var resourceTank = context.getResourceTank();
+        boolean failed = context.getE() != null;
 
         // Clean context.
         clear(context, autoClean, isWorkflowEntryGraph);
 
         // Return.
-        return resourceTank;
+        return new Execution(resourceTank, failed);
     }
 
+    // Resource tank produced by an execution and whether any exception was raised during the execution.
+    private record Execution(ResourceTank resourceTank, boolean failed) { }
+
     private Graph deduceGraph(final String graphName, final GraphContext graphContext) {
         var graph = graphContext.getGraph(graphName);
         if (graph == null) {
@@ -243,7 +284,9 @@ public class DefaultEngine implements Engine {
         workFlow.setPrimaryResourceReference(null);
         workFlow.getRecords().clear();
         workFlow.getAsyncTaskReferences().clear();
+        workFlow.getPrefetches().clear();
         workFlow.setResourceTank(new ResourceTank());
+        workFlow.getResourceTank().setGraphName(graph.getGraphName());
     }
 
     private void useCurrentWorkflowAsParentWorkflow(final WorkFlow workFlow, final Graph graph) {
@@ -259,7 +302,9 @@ public class DefaultEngine implements Engine {
             final boolean autoRecord, final String startNode,
             final GraphContext graphContext) {
 
+        workFlow.setGraphContext(graphContext);
         Node previous = null;
+        int limitedRetries = 0;
         Node executionNode = graph.getStartNode();
         if (startNode != null) {
             executionNode = graph.getNode(startNode);
@@ -269,44 +314,65 @@ public class DefaultEngine implements Engine {
                         startNode, graph.getGraphName()));
             }
         }
-        while (executionNode != null && !WorkFlowContext.provide().isRebooting()) {
-
-            if (isStuckInDeadLoop(executionNode, previous)) {
-                WorkFlowContext.markException(new WorkFlowExecutionException("Next execution node should not be the same with the previous one."));
-                break;
+        long start = System.nanoTime();
+        Span span = Tracer.startSpan(graph.getGraphName(), SpanKind.INTERNAL);
+        try {
+            while (executionNode != null && !WorkFlowContext.provide().isRebooting()) {
+
+                if (isStuckInDeadLoop(executionNode, previous)) {
+                    WorkFlowContext.markException(new WorkFlowExecutionException("Next execution node should not be the same with the previous one."));
+                    break;
+                }
+
+                if (autoRecord) {
+                    ExecutionRecord executionRecord = ExecutionRecord.builder()
+                            .time(Calendar.getInstance().getTime())
+                            .description(String.format("Begin to enter the node [%s]", executionNode.getNodeName()))
+                            .build();
+                    workFlow.keepRecord(executionRecord);
+                }
+
+                previous = executionNode;
+                var activityResult = TaskHelper.perform(executionNode, ActivityResult.FAIL);
+
+                if (ActivityResult.SUSPEND.equals(activityResult)) {
+                    if (!TaskHelper.isLimited()) {
+                        activityResult = processSuspendCase(executionNode);
+                    } else if (limitedRetries < MAX_LIMITED_RETRIES) {
+                        // Nobody persists the synchronous work-flow, back off and retry the same node in place.
+                        backoff(executionNode, limitedRetries++);
+                        previous = null;
+                        continue;
+                    } else {
+                        activityResult = ActivityResult.FAIL;
+                    }
+                }
+                limitedRetries = 0;
+
+                executionNode = TaskHelper.traverse(executionNode,
+                        executionStateSwitcher,
+                        activityResult,
+                        (engine, context, graphName) -> {
+                            Resource primary = WorkFlowContext.getPrimary();
+                            return engine.execute(context, graphName, primary, false);
+                        },
+                        graphContext,
+                        this);
             }
-
-            if (autoRecord) {
-                ExecutionRecord executionRecord = ExecutionRecord.builder()
-                        .time(Calendar.getInstance().getTime())
-                        .description(String.format("Begin to enter the node [%s]", executionNode.getNodeName()))
-                        .build();
-                workFlow.keepRecord(executionRecord);
-            }
-
-            previous = executionNode;
-            var activityResult = TaskHelper.perform(executionNode, ActivityResult.FAIL);
-
-            if (ActivityResult.SUSPEND.equals(activityResult)) {
-                activityResult = processSuspendCase(executionNode);
-            }
-
-            executionNode = TaskHelper.traverse(executionNode,
-                    executionStateSwitcher,
-                    activityResult,
-                    (engine, context, graphName) -> {
-                        Resource primary = WorkFlowContext.getPrimary();
-                        return engine.execute(context, graphName, primary, false);
-                    },
-                    graphContext,
-                    this);
+        } finally {
+            span.end();
         }
+        StreamMetrics.recordGraph(graph.getGraphName(), System.nanoTime() - start);
     }
 
     private boolean isStuckInDeadLoop(final Node next, final Node previous) {
         return next.equals(previous);
     }
 
+    /**
+     * Synchronous work-flows are not persisted, so a suspended node waits for its first retry interval on the caller's
+     * thread before the work-flow moves on; keep the intervals of the nodes used in synchronous graphs short.
+     */
     private ActivityResult processSuspendCase(final Node node) {
 
         if (!CollectionUtils.isEmpty(node.getIntervals())) {
@@ -320,6 +386,19 @@ public class DefaultEngine implements Engine {
         return ActivityResult.SUCCESS;
     }
 
+    /**
+     * Back off on the caller's thread before retrying a node suspended by its concurrency limit, the backoff doubles
+     * on every attempt and is bounded by {@link #MAX_LIMITED_BACKOFF}.
+     */
+    private void backoff(final Node node, final int attempt) {
+        try {
+            Thread.sleep(Math.min(MAX_LIMITED_BACKOFF, (long) TaskHelper.getLimitedBackoff(node) << attempt));
+        } catch (InterruptedException e) {
+            log.warn("Thread interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Clean work-flow context before exiting.
      * @param context Work-flow runtime context.
@@ -39,6 +39,6 @@ public class DynamicGraphContext extends GraphContext {
             log.info("Graph [{}] is changed, original definition \n [{}] \n while updated definition is \n [{}]",
                     graph.getGraphName(), originalGraph.getOriginalDefinition(), graph.getOriginalDefinition());
         }
-        graphs.put(graph.getGraphName(), graph);
+        upgradeGraph(graph);
     }
 }
@@ -19,11 +19,15 @@ package org.stream.core.execution;
 import org.stream.core.component.ActivityResult;
 import org.stream.core.component.Node;
 import org.stream.core.resource.Resource;
+import org.stream.extension.io.StreamTransferData;
 import org.stream.extension.meta.Task;
 import org.stream.extension.pattern.RetryPattern;
 import org.stream.extension.persist.TaskPersister;
 import org.stream.extension.state.DefaultExecutionStateSwitcher;
 import org.stream.extension.state.ExecutionStateSwitcher;
+import org.stream.extension.trace.Span;
+import org.stream.extension.trace.SpanKind;
+import org.stream.extension.trace.Tracer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -75,25 +79,34 @@ public class ExecutionRunner implements Runnable {
      */
     @Override
     public void run() {
+        var data = dataResource.resolveValue(StreamTransferData.class);
+        try (Span span = Tracer.startSpan(task.getGraphName(), SpanKind.SERVER, Tracer.extract(data))) {
+            span.setAttribute("stream.task", task.getTaskId());
+            execute();
+        }
+    }
+
+    private void execute() {
         WorkFlowContext.setUpWorkFlow().start();
         WorkFlowContext.attachResource(dataResource);
         WorkFlowContext.attachPrimaryResource(primaryResource);
-        var graph = graphContext.getGraph(task.getGraphName());
+        var graph = graphContext.getGraph(task.getGraphName(), task.getGraphVersion());
         var node = graph.getStartNode();
         Node last = null;
 
         ActivityResult activityResult = null;
         while (node != null && taskPersister.tryLock(task.getTaskId())) {
             log.trace("Execute graph [{}] at node [{}]", graph.getGraphName(), node.getNodeName());
-            activityResult = TaskHelper.perform(node, ActivityResult.SUSPEND);
+            activityResult = Checkpoints.perform(task, node, taskPersister);
             log.trace("Execution result [{}]", activityResult.name());
 
             if (activityResult.equals(ActivityResult.SUSPEND)) {
                 log.info("Task suspended, will try to run locally if possible");
-                TaskExecutionUtils.suspend(task, node, taskPersister, pattern, graphContext, this.engine);
+                TaskExecutionUtils.suspend(task, node, taskPersister, pattern, graphContext, this.engine, TaskHelper.isLimited());
                 return;
             }
 
+            Checkpoints.complete(task, node, taskPersister);
             TaskExecutionUtils.updateTask(task, node, taskPersister, graph, activityResult);
             last = node;
             node = TaskHelper.traverse(node,
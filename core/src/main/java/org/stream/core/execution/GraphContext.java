@@ -16,6 +16,7 @@
 
 package org.stream.core.execution;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -23,21 +24,47 @@ import org.stream.core.component.Activity;
 import org.stream.core.component.ActivityRepository;
 import org.stream.core.component.Graph;
 import org.stream.core.component.Node;
+import org.stream.core.resource.ResourceCatalog;
+import org.stream.extension.metrics.StreamMetrics;
 
+import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Encapsulation of graph context, generally one application holds an graph context instance.
  * If there are mutil applications running
  * in the same JVM, then there should be multi {@link GraphContext} instances.
+  * <p>
+  * Graphs can be upgraded in run-time via {@link #upgradeGraph(Graph)}, the previous versions are retained so that
+  * the work-flows and tasks started on them can keep running on the same definition.
   */
+@Slf4j
 public class GraphContext {
 
     @Setter
     private ActivityRepository activityRepository;
 
+    /**
+     * Resource catalog used to prefetch the resources declared by the nodes, prefetching is disabled if absent.
+     */
+    @Setter
+    @Getter
+    private ResourceCatalog resourceCatalog;
+
     protected Map<String, Graph> graphs = new ConcurrentHashMap<>();
 
+    /**
+     * Retained versions of the graphs keyed by graph name and content hash, in the order they were installed.
+     */
+    protected Map<String, Map<String, Graph>> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Max versions retained for each graph, the oldest ones are dropped first.
+     */
+    @Setter
+    private int maxRetainedVersions = 16;
+
     /**
      * Check if an {@link Activity} instance exist in the graph context.
      * Generally, each {@link Activity} instance should be related to an {@link Node} instance, meanwhile that {@link Node}
@@ -63,7 +90,36 @@ public class GraphContext {
      * @param graph Graph instance to be added.
      */
     public void addGraph(final Graph graph) {
-        graphs.putIfAbsent(graph.getGraphName(), graph);
+        if (graphs.putIfAbsent(graph.getGraphName(), graph) == null) {
+            graph.setVersion(1);
+            retain(graph);
+        }
+    }
+
+    /**
+     * Atomically replace the graph with a new version. Work-flows already running keep the graph instance they
+     * started with, new executions will pick up the new version. The graph is not replaced if its content hash is the
+     * same as the current version's.
+     * @param graph The new version of the graph.
+     * @return The graph installed in the context after the upgrade.
+     */
+    public Graph upgradeGraph(final Graph graph) {
+        Graph installed = graphs.compute(graph.getGraphName(), (name, current) -> {
+            if (current != null && graph.getContentHash() != null && graph.getContentHash().equals(current.getContentHash())) {
+                return current;
+            }
+            graph.setVersion(current == null ? 1 : current.getVersion() + 1);
+            return graph;
+        });
+        if (installed == graph) {
+            retain(graph);
+            if (graph.getNodes() != null) {
+                StreamMetrics.retainNodes(graph.getGraphName(), graph.getNodes().stream().map(Node::getNodeName).toList());
+            }
+            log.info("Graph [{}] upgraded to version [{}] with content hash [{}]", graph.getGraphName(), graph.getVersion(),
+                    graph.getContentHash());
+        }
+        return installed;
     }
 
     /**
@@ -75,6 +131,43 @@ public class GraphContext {
         return graphs.get(graphName);
     }
 
+    /**
+     * Get a specific version of the graph, falling back to the current version if the version is not specified or
+     * no longer retained.
+     * @param graphName The graph instance's name.
+     * @param contentHash Content hash of the graph version, see {@link Graph#getContentHash()}.
+     * @return {@linkplain Graph} instance.
+     */
+    public Graph getGraph(final String graphName, final String contentHash) {
+        if (contentHash != null) {
+            Map<String, Graph> retained = versions.get(graphName);
+            if (retained != null) {
+                synchronized (retained) {
+                    Graph graph = retained.get(contentHash);
+                    if (graph != null) {
+                        return graph;
+                    }
+                }
+            }
+        }
+        return graphs.get(graphName);
+    }
+
+    private void retain(final Graph graph) {
+        if (graph.getContentHash() == null) {
+            return;
+        }
+        Map<String, Graph> retained = versions.computeIfAbsent(graph.getGraphName(), name -> new LinkedHashMap<>());
+        synchronized (retained) {
+            retained.put(graph.getContentHash(), graph);
+            var iterator = retained.keySet().iterator();
+            while (retained.size() > maxRetainedVersions && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
     /**
      * Return how many graphs have been registered in the context.
      * @return The quantity of graphs registered in the context.
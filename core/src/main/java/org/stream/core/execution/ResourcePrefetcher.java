@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.execution;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.collections.CollectionUtils;
+import org.stream.core.component.Node;
+import org.stream.core.component.Prefetch;
+import org.stream.core.exception.ResourceReadingException;
+import org.stream.core.exception.WorkFlowExecutionException;
+import org.stream.core.execution.WorkFlow.WorkFlowStatus;
+import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceAuthority;
+import org.stream.core.resource.ResourceCatalog;
+import org.stream.core.resource.ResourceURL;
+import org.stream.extension.settings.Settings;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prefetch the resources declared by the nodes into the work-flow's resource tank, so that the I/O of the next node
+ * overlaps with the execution of the current one.
+ * <p>
+ * Every time a node is about to be performed, the resources declared by the node itself and by its success successor
+ * are read in one batch through the {@link ResourceCatalog} registered in the {@link GraphContext} on a dedicated
+ * executor, so that prefetches neither wait behind nor crowd out the async tasks. If the executor is saturated the
+ * resources are read on the calling thread. Activities resolve the prefetched resources via
+ * {@link WorkFlowContext#resolveResource(ResourceURL)}, which waits for in-flight prefetches instead of missing them;
+ * if the prefetch fails or times out the resource is read on demand, so a {@code null} result always means the
+ * resource does not exist. Prefetches finishing after the work-flow is closed are not attached to its resource tank.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+final class ResourcePrefetcher {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{primary(?:\\.([^}]+))?\\}");
+
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    // Prefetch execution pool, the pool size can be customized via system property stream.prefetch.pool.size.
+    private static Executor executor = new ThreadPoolExecutor(
+            Integer.getInteger(Settings.STREAM_PREFETCH_POOL_SIZE, Runtime.getRuntime().availableProcessors() * 2),
+            Integer.getInteger(Settings.STREAM_PREFETCH_POOL_SIZE, Runtime.getRuntime().availableProcessors() * 2),
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(200), runnable -> {
+                Thread thread = new Thread(runnable, "stream-prefetch-" + THREAD_INDEX.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private ResourcePrefetcher() { }
+
+    /**
+     * Get the executor running the prefetches.
+     * @return Prefetch executor.
+     */
+    static Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Replace the executor running the prefetches.
+     * @param prefetchExecutor Executor to be used.
+     */
+    static void setExecutor(final Executor prefetchExecutor) {
+        executor = prefetchExecutor;
+    }
+
+    /**
+     * Start prefetching the resources needed by the node and its success successor.
+     * @param workFlow Current running work-flow.
+     * @param node Node to be performed.
+     */
+    static void prefetch(final WorkFlow workFlow, final Node node) {
+        ResourceCatalog catalog = resolveCatalog(workFlow);
+        if (catalog == null) {
+            return;
+        }
+        Map<ResourceURL, Long> urls = new LinkedHashMap<>();
+        collect(workFlow, catalog, node, urls);
+        if (node.getNext() != null && node.getNext().onSuccess() != null) {
+            collect(workFlow, catalog, node.getNext().onSuccess(), urls);
+        }
+        if (urls.isEmpty()) {
+            return;
+        }
+
+        Map<ResourceURL, CompletableFuture<Resource>> futures = new LinkedHashMap<>();
+        urls.forEach((url, timeout) -> {
+            CompletableFuture<Resource> future = new CompletableFuture<>();
+            if (workFlow.getPrefetches().putIfAbsent(url.getPath(), timeout > 0
+                    ? future.copy().orTimeout(timeout, TimeUnit.MILLISECONDS) : future) == null) {
+                futures.put(url, future);
+            }
+        });
+        if (futures.isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(() -> load(workFlow, catalog, futures));
+        } catch (RejectedExecutionException e) {
+            log.warn("Prefetch executor is saturated, resources [{}] of workflow [{}] are read on the calling thread",
+                    futures.keySet(), workFlow.getWorkFlowId());
+            load(workFlow, catalog, futures);
+        }
+    }
+
+    private static void load(final WorkFlow workFlow, final ResourceCatalog catalog,
+            final Map<ResourceURL, CompletableFuture<Resource>> futures) {
+        try {
+            Map<ResourceURL, Resource> resources = catalog.readResources(futures.keySet());
+            futures.forEach((url, future) -> {
+                Resource resource = resources.get(url);
+                attach(workFlow, url, resource);
+                future.complete(resource);
+            });
+        } catch (Exception e) {
+            log.warn("Fail to prefetch resources [{}] for workflow [{}]", futures.keySet(), workFlow.getWorkFlowId(), e);
+            futures.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            futures.keySet().forEach(url -> workFlow.getPrefetches().remove(url.getPath()));
+        }
+    }
+
+    /**
+     * Wait for an in-flight prefetch, read the resource on demand if the prefetch fails or times out.
+     * @param workFlow Work-flow the prefetch belongs to.
+     * @param url Resource url.
+     * @param future Prefetch future.
+     * @return Prefetched resource, {@code null} if the resource does not exist.
+     */
+    static Resource await(final WorkFlow workFlow, final ResourceURL url, final CompletableFuture<Resource> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            log.warn("Prefetch of resource [{}] is not completed, read it on demand", url.getPath(), e);
+        }
+        Resource resource;
+        try {
+            resource = resolveCatalog(workFlow).readResource(url);
+        } catch (ResourceReadingException e) {
+            throw new WorkFlowExecutionException(String.format("Fail to read resource [%s]", url.getPath()), e);
+        }
+        attach(workFlow, url, resource);
+        return resource;
+    }
+
+    // Attach the resource under its url unless the work-flow has been closed in the meantime.
+    private static void attach(final WorkFlow workFlow, final ResourceURL url, final Resource resource) {
+        if (resource == null || workFlow.getStatus() == WorkFlowStatus.CLOSED) {
+            return;
+        }
+        workFlow.attachResource(resource.getResourceURL() == null ? Resource.builder()
+                .resourceURL(url)
+                .resourceReference(resource.getResourceReference())
+                .value(resource.getValue())
+                .build() : resource);
+    }
+
+    /**
+     * Resolve the resource path template against the primary resource.
+     * @param template Path template, <code>{primary}</code> is replaced with the primary resource itself and
+     *          <code>{primary.a.b}</code> with its nested property <code>a.b</code>.
+     * @param primary Primary resource value.
+     * @return Resolved path, or {@code null} if any placeholder can not be resolved.
+     */
+    static String resolvePath(final String template, final Object primary) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder path = new StringBuilder();
+        while (matcher.find()) {
+            Object value;
+            try {
+                value = matcher.group(1) == null ? primary : PropertyUtils.getNestedProperty(primary, matcher.group(1));
+            } catch (Exception e) {
+                log.debug("Fail to resolve placeholder [{}] of prefetch path [{}]", matcher.group(), template, e);
+                return null;
+            }
+            if (value == null) {
+                return null;
+            }
+            matcher.appendReplacement(path, Matcher.quoteReplacement(String.valueOf(value)));
+        }
+        matcher.appendTail(path);
+        return path.toString();
+    }
+
+    private static void collect(final WorkFlow workFlow, final ResourceCatalog catalog, final Node node,
+            final Map<ResourceURL, Long> urls) {
+        List<Prefetch> prefetches = node.getPrefetches();
+        if (CollectionUtils.isEmpty(prefetches)) {
+            return;
+        }
+        Resource primary = workFlow.getPrimary();
+        for (Prefetch prefetch : prefetches) {
+            ResourceAuthority authority = catalog.getAuthority(prefetch.getAuthority());
+            if (authority == null) {
+                log.warn("No resource reader registered for authority [{}] declared by node [{}]", prefetch.getAuthority(),
+                        node.getNodeName());
+                continue;
+            }
+            String path = resolvePath(prefetch.getPath(), primary == null ? null : primary.getValue());
+            if (path == null || workFlow.getResourceTank().resolve(path) != null) {
+                continue;
+            }
+            urls.putIfAbsent(new ResourceURL(path, authority), prefetch.getTimeout());
+        }
+    }
+
+    private static ResourceCatalog resolveCatalog(final WorkFlow workFlow) {
+        for (WorkFlow current = workFlow; current != null; current = current.getParent()) {
+            if (current.getGraphContext() != null) {
+                return current.getGraphContext().getResourceCatalog();
+            }
+        }
+        return null;
+    }
+}
@@ -28,12 +28,16 @@ import org.stream.extension.io.StreamTransferDataStatus;
 import org.stream.extension.meta.Task;
 import org.stream.extension.meta.TaskStatus;
 import org.stream.extension.meta.TaskStep;
+import org.stream.extension.metrics.StreamMetrics;
 import org.stream.extension.pattern.RetryPattern;
 import org.stream.extension.pattern.defaults.EqualTimeIntervalPattern;
 import org.stream.extension.pattern.defaults.ScheduledTimeIntervalPattern;
 import org.stream.extension.persist.TaskPersister;
 import org.stream.extension.state.DefaultExecutionStateSwitcher;
 import org.stream.extension.state.ExecutionStateSwitcher;
+import org.stream.extension.trace.Span;
+import org.stream.extension.trace.SpanKind;
+import org.stream.extension.trace.Tracer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -105,11 +109,21 @@ public class RetryRunner implements Runnable {
         if (!check(task)) {
             return;
         }
+        if (task.getNextExecutionTime() > 0) {
+            StreamMetrics.recordDelayQueueLag(System.currentTimeMillis() - task.getNextExecutionTime());
+        }
 
         var data = taskPersister.retrieveData(task.getTaskId());
+        try (Span span = Tracer.startSpan(task.getGraphName(), SpanKind.SERVER, Tracer.extract(data))) {
+            span.setAttribute("stream.task", task.getTaskId()).setAttribute("stream.retry", task.getRetryTimes());
+            execute(task, data);
+        }
+    }
+
+    private void execute(final Task task, final StreamTransferData data) {
         Resource primaryResource = preparePrimaryResource(data, task);
 
-        TaskHelper.prepare(task.getGraphName(), primaryResource, graphContext);
+        TaskHelper.prepare(task.getGraphName(), task.getGraphVersion(), primaryResource, graphContext);
         WorkFlowContext.attachResource(Resource.builder()
                 .resourceReference(WorkFlowContext.WORK_FLOW_TRANSFER_DATA_REFERENCE)
                 .value(data)
@@ -117,20 +131,24 @@ public class RetryRunner implements Runnable {
 
         ActivityResult activityResult = null;
         var node = TaskHelper.deduceNode(task, graphContext);
+        Checkpoints.restore(task, data, taskPersister);
 
         while (node != null && taskPersister.tryLock(task.getTaskId())) {
             log.info("Retry runner execute node [{}] for task [{}]", node.getNodeName(), task.getTaskId());
-            activityResult = TaskHelper.perform(node, ActivityResult.SUSPEND);
+            activityResult = Checkpoints.perform(task, node, taskPersister);
             if (ActivityResult.SUSPEND.equals(activityResult)) {
-                if (task.getRetryTimes() == MAX_RETRY) {
+                // Suspensions caused by the concurrency limit are not the node's failures, they do not use up the retries.
+                boolean limited = TaskHelper.isLimited();
+                if (!limited && task.getRetryTimes() == MAX_RETRY) {
                     activityResult = ActivityResult.FAIL;
                     completedWithFailure = true;
                 } else {
-                    suspend(task, node, data, this.engine);
+                    suspend(task, node, data, this.engine, limited);
                     WorkFlowContext.reboot();
                     return;
                 }
             }
+            Checkpoints.complete(task, node, taskPersister);
             var taskStep = TaskExecutionUtils.constructStep(node.getGraph(), node,
                     TaskExecutionUtils.STATUS_MAPPING.get(activityResult), data, task);
             TaskHelper.updateTask(task, node, TaskStatus.PROCESSING.code());
@@ -167,7 +185,14 @@ public class RetryRunner implements Runnable {
             return false;
         }
 
-        if (task.getStatus() == TaskStatus.COMPLETED.code() || task.getStatus() == TaskStatus.FAILED.code()) {
+        if (task.getStatus() == TaskStatus.CANCELLED.code()) {
+            // Cancelled by the administrator, drop it silently without firing any completion event.
+            taskPersister.removeHub(taskId);
+            taskPersister.releaseLock(taskId);
+            return false;
+        }
+
+        if (TaskStatus.isTerminal(task.getStatus())) {
             taskPersister.complete(task, TaskHelper.deduceNode(task, graphContext));
             return false;
         }
@@ -194,21 +219,22 @@ public class RetryRunner implements Runnable {
         }
     }
 
-    private void suspend(final Task task, final Node node, final StreamTransferData data, final Engine engine) {
+    private void suspend(final Task task, final Node node, final StreamTransferData data, final Engine engine,
+            final boolean limited) {
         // Persist workflow status to persistent layer.
         var taskStep = TaskExecutionUtils.constructStep(node.getGraph(), node, StreamTransferDataStatus.SUSPEND, data, task);
         task.setLastExecutionTime(System.currentTimeMillis());
-        if (task.getNodeName().contentEquals(node.getNodeName())) {
-            task.setRetryTimes(task.getRetryTimes() + 1);
-        } else {
+        if (!task.getNodeName().contentEquals(node.getNodeName())) {
             task.setRetryTimes(0);
+        } else if (!limited) {
+            task.setRetryTimes(task.getRetryTimes() + 1);
         }
-        updateLastExecutionTimeAndSuspend(node, task, taskStep, engine);
+        int interval = limited ? TaskHelper.getLimitedBackoff(node) : TaskHelper.getInterval(node, retryPattern, task.getRetryTimes());
+        updateLastExecutionTimeAndSuspend(node, task, taskStep, engine, interval);
     }
 
     private void updateLastExecutionTimeAndSuspend(final Node node, final Task task, final TaskStep taskStep,
-            final Engine engine) {
-        int interval = TaskHelper.getInterval(node, retryPattern, task.getRetryTimes());
+            final Engine engine, final int interval) {
         task.setNextExecutionTime(task.getLastExecutionTime() + interval);
         task.setNodeName(node.getNodeName());
         task.setStatus(TaskStatus.PENDING.code());
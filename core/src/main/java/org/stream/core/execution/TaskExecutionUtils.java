@@ -54,7 +54,8 @@ public final class TaskExecutionUtils {
 
     /**
      * Before executing the activity, we'd check if the node contains asynchronous dependency nodes,
-     * if yes, we should construct some asynchronous tasks then turn back to the normal procedure.
+     * if yes, we should construct some asynchronous tasks then turn back to the normal procedure. Resources declared
+     * by the node and its success successor are prefetched at the same time.
      * @param node Next node to be executed.
      */
     public static void prepareAsyncTasks(final Node node) {
@@ -64,6 +65,7 @@ public final class TaskExecutionUtils {
         if (node.getDaemons() != null) {
             TaskHelper.runDaemons(WorkFlowContext.provide(), node);
         }
+        ResourcePrefetcher.prefetch(WorkFlowContext.provide(), node);
     }
 
     /**
@@ -112,6 +114,7 @@ public final class TaskExecutionUtils {
      * @param pattern Retry pattern, determine when to retry the target.
      * @param graphContext Graph context.
      * @param engine Workflow execution engine.
+     * @param limited Flag indicating the node was suspended by its concurrency limit.
      */
     public static void suspend(
             final Task task,
@@ -119,8 +122,9 @@ public final class TaskExecutionUtils {
             final TaskPersister taskPersister,
             final RetryPattern pattern,
             final GraphContext graphContext,
-            final Engine engine) {
-        int interval = TaskHelper.suspend(task, node, taskPersister, pattern);
+            final Engine engine,
+            final boolean limited) {
+        int interval = TaskHelper.suspend(task, node, taskPersister, pattern, limited);
         TaskHelper.retryLocalIfPossible(interval, task.getTaskId(), graphContext, taskPersister, pattern, engine);
         log.info("Task [{}] suspended for interval [{}] at node [{}]", task.getTaskId(),
                 interval, node.getNodeName());
@@ -16,7 +16,11 @@
 
 package org.stream.core.execution;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -27,24 +31,35 @@ import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.SphU;
-import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
 import org.stream.core.component.ActivityResult;
 import org.stream.core.component.AsyncActivity;
 import org.stream.core.component.Graph;
 import org.stream.core.component.Node;
 import org.stream.core.runtime.ResourceHelper;
 import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceCatalog;
 import org.stream.core.resource.ResourceTank;
+import org.stream.core.sentinel.AdaptiveConcurrencyLimiter;
+import org.stream.extension.intercept.InterceptorChain;
 import org.stream.extension.intercept.Interceptors;
 import org.stream.extension.io.StreamTransferData;
 import org.stream.extension.io.StreamTransferDataStatus;
+import org.stream.extension.memo.Fingerprints;
+import org.stream.extension.memo.NodeOutcome;
+import org.stream.extension.memo.ResultMemoizer;
 import org.stream.extension.meta.Task;
 import org.stream.extension.meta.TaskStatus;
 import org.stream.extension.meta.TaskStep;
+import org.stream.extension.metrics.StreamMetrics;
 import org.stream.extension.pattern.RetryPattern;
+import org.stream.extension.profile.Profiler;
 import org.stream.extension.persist.TaskPersister;
 import org.stream.extension.state.ExecutionStateSwitcher;
+import org.stream.extension.trace.Span;
+import org.stream.extension.trace.SpanKind;
+import org.stream.extension.trace.Tracer;
 import org.stream.extension.utils.TripleFunction;
 
 import lombok.extern.slf4j.Slf4j;
@@ -67,6 +82,12 @@ public final class TaskHelper {
     private static final ScheduledExecutorService LOCAL_RETRY_SCHEDULER = new ScheduledThreadPoolExecutor(100,
             EXECUTOR_SERVICE.getThreadFactory());
 
+    // Set when the latest node performed by the current thread was suspended by the concurrency limit.
+    private static final ThreadLocal<Boolean> LIMITED = new ThreadLocal<>();
+
+    // Backoff used for the nodes throttled by sentinel flow rules, which have no limiter configuration.
+    private static final int DEFAULT_LIMITED_BACKOFF = 100;
+
     private TaskHelper() { }
 
     /**
@@ -77,12 +98,26 @@ public final class TaskHelper {
      * @return Chosen graph.
      */
     public static Graph prepare(final String graphName, final Resource primaryResource, final GraphContext graphContext) {
+        return prepare(graphName, null, primaryResource, graphContext);
+    }
+
+    /**
+     * Prepare execution context for the incoming request on the specific version of the graph.
+     * @param graphName Graph name that the request asks.
+     * @param graphVersion Content hash of the graph version, the current version will be used if absent.
+     * @param primaryResource Primary resource that will be shared between all the nodes.
+     * @param graphContext Graph context.
+     * @return Chosen graph.
+     */
+    public static Graph prepare(final String graphName, final String graphVersion, final Resource primaryResource,
+            final GraphContext graphContext) {
         WorkFlowContext.setUpWorkFlow();
         WorkFlow workflow = WorkFlowContext.provide();
         workflow.setResourceTank(new ResourceTank());
+        workflow.setGraphContext(graphContext);
         WorkFlowContext.attachPrimaryResource(primaryResource);
 
-        Graph graph = graphContext.getGraph(graphName);
+        Graph graph = graphContext.getGraph(graphName, graphVersion);
         WorkFlowContext.visitGraph(graph);
         return graph;
     }
@@ -94,7 +129,98 @@ public final class TaskHelper {
      * @return Execution result.
      */
     public static ActivityResult perform(final Node node, final ActivityResult defaultResult) {
+        boolean profiled = Profiler.enter(node);
+        Span span = Tracer.startSpan(node.getNodeName(), SpanKind.INTERNAL);
+        long start = System.nanoTime();
+        ActivityResult result = null;
+        LIMITED.remove();
+        try {
+            result = doPerform(node, defaultResult);
+            return result;
+        } finally {
+            StreamMetrics.recordNode(node.getGraph().getGraphName(), node.getNodeName(), result, System.nanoTime() - start);
+            span.setAttribute("stream.graph", node.getGraph().getGraphName()).setAttribute("stream.result", result);
+            if (result == ActivityResult.FAIL) {
+                span.setError("Node failed");
+            }
+            span.end();
+            Profiler.exit(profiled);
+        }
+    }
+
+    /**
+     * Check if the latest node performed by the current thread was suspended because its concurrency limit
+     * was reached rather than by the node itself, the flag is cleared once read.
+     * @return {@code true} if the node was limited.
+     */
+    public static boolean isLimited() {
+        boolean limited = LIMITED.get() != null;
+        LIMITED.remove();
+        return limited;
+    }
+
+    /**
+     * Get the time to wait before a node suspended by its concurrency limit is tried again.
+     * @param node Limited node.
+     * @return Backoff in milliseconds.
+     */
+    public static int getLimitedBackoff(final Node node) {
+        return node.getConcurrencyLimiter() == null ? DEFAULT_LIMITED_BACKOFF : node.getConcurrencyLimiter().getBackoff();
+    }
+
+    private static ActivityResult doPerform(final Node node, final ActivityResult defaultResult) {
+        ResultMemoizer<NodeOutcome> memoizer = node.getMemoizer();
+        if (memoizer == null) {
+            return performLimited(node, defaultResult);
+        }
+
+        ResourceTank resourceTank = WorkFlowContext.provide().getResourceTank();
+        Exception previous = WorkFlowContext.extractException();
+        boolean[] computed = {false};
+        NodeOutcome outcome = memoizer.memoize(Fingerprints.of(WorkFlowContext.getPrimary()), () -> {
+            computed[0] = true;
+            Set<Resource> existing = Collections.newSetFromMap(new IdentityHashMap<>());
+            existing.addAll(resourceTank.getResources().values());
+            ActivityResult result = performLimited(node, defaultResult);
+            // Memoize copies, the attached resources may still be changed by the following nodes.
+            List<Resource> attached = resourceTank.getResources().values().stream()
+                    .filter(resource -> !existing.contains(resource))
+                    .map(Resource::copy)
+                    .toList();
+            return new NodeOutcome(result, attached);
+        }, value -> value.result() != ActivityResult.SUSPEND && WorkFlowContext.extractException() == previous);
+        if (!computed[0]) {
+            outcome.resources().forEach(memoized -> resourceTank.addResource(memoized.copy()));
+        }
+        return outcome.result();
+    }
+
+    private static ActivityResult performLimited(final Node node, final ActivityResult defaultResult) {
+        AdaptiveConcurrencyLimiter limiter = node.getConcurrencyLimiter();
+        if (limiter == null) {
+            return execute(node, defaultResult);
+        }
+        if (!limiter.tryAcquire()) {
+            return limited(node);
+        }
+        long start = System.nanoTime();
+        try {
+            return execute(node, defaultResult);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private static ActivityResult limited(final Node node) {
+        log.debug("Node [{}] of graph [{}] reaches its concurrency limit", node.getNodeName(), node.getGraph().getGraphName());
+        StreamMetrics.recordLimited(node.getGraph().getGraphName(), node.getNodeName());
+        LIMITED.set(Boolean.TRUE);
+        return ActivityResult.SUSPEND;
+    }
+
+    private static ActivityResult execute(final Node node, final ActivityResult defaultResult) {
         TaskExecutionUtils.prepareAsyncTasks(node);
+        ResourceCatalog.openBatchScope();
         try {
             // Invoke interceptors before we execute the actions
             Interceptors.before(node);
@@ -114,6 +240,9 @@ public final class TaskHelper {
             WorkFlowContext.markException(e);
             Interceptors.onError(node, e);
             return defaultResult;
+        } finally {
+            // Reads batched by the node but never waited on should not leak into the next node.
+            ResourceCatalog.closeBatchScope();
         }
     }
 
@@ -123,12 +252,20 @@ public final class TaskHelper {
             entry = SphU.entry(node.getGraph().getGraphName() + "::" + node.getNodeName());
             return node.perform();
         } catch (Exception e) {
+            if (e instanceof FlowException) {
+                // Throttled rather than broken, let the engine retry the node later.
+                return limited(node);
+            }
             if (e instanceof BlockException) {
                 log.error("Node [{}] is degraded", node.getNodeName());
             } else {
-                Tracer.traceEntry(e, entry);
+                com.alibaba.csp.sentinel.Tracer.traceEntry(e, entry);
             }
             return ActivityResult.FAIL;
+        } finally {
+            if (entry != null) {
+                entry.exit();
+            }
         }
     }
 
@@ -156,11 +293,28 @@ public final class TaskHelper {
      */
     public static int suspend(final Task task, final Node node, final TaskPersister taskPersister,
             final RetryPattern pattern) {
+        return suspend(task, node, taskPersister, pattern, false);
+    }
+
+    /**
+     * Suspend the current work-flow and save data to Redis so that back-end runners have chances
+     * to retry this procedure.
+     * @param task Task to be suspended.
+     * @param node Current working on node.
+     * @param taskPersister Task persister.
+     * @param pattern Retry suspended case pattern.
+     * @param limited Flag indicating the node was suspended by its concurrency limit, the task is retried after
+     *          the limiter's backoff instead of the retry pattern's interval.
+     *
+     * @return Retry interval.
+     */
+    public static int suspend(final Task task, final Node node, final TaskPersister taskPersister,
+            final RetryPattern pattern, final boolean limited) {
         // Persist work-flow status to persistent layer.
         StreamTransferData data = WorkFlowContext.resolve(WorkFlowContext.WORK_FLOW_TRANSFER_DATA_REFERENCE,
                 StreamTransferData.class);
         TaskHelper.updateTask(task, node, TaskStatus.PENDING.code());
-        int interval = getInterval(node, pattern, 0);
+        int interval = limited ? getLimitedBackoff(node) : getInterval(node, pattern, 0);
         task.setNextExecutionTime(task.getLastExecutionTime() + interval);
         TaskStep taskStep = TaskExecutionUtils.constructStep(node.getGraph(), node, StreamTransferDataStatus.SUSPEND, data, task);
         taskPersister.suspend(task, interval, taskStep, node);
@@ -251,7 +405,13 @@ public final class TaskHelper {
                         .findAny()
                         .get()
                         .getGraph();
-                ResourceTank response = function.apply(engine, context, graph);
+                ResourceTank response;
+                boolean profiled = Profiler.enterSubflow(startNode);
+                try {
+                    response = function.apply(engine, context, graph);
+                } finally {
+                    Profiler.exitSubflow(profiled);
+                }
                 Resource primary = WorkFlowContext.getPrimary();
                 response.getResources().values().forEach(resource -> {
                     if (!Objects.equals(primary, resource)) {
@@ -272,22 +432,29 @@ public final class TaskHelper {
      */
     public static void setUpAsyncTasks(final WorkFlow workFlow, final Node node) {
         node.getAsyncDependencies().forEach(async -> {
-            Callable<ActivityResult> job = () -> {
+            Callable<ActivityResult> job = Tracer.wrap(() -> {
                 AsyncActivity asyncActivity = (AsyncActivity) async.getActivity();
                 String primaryResourceReference = workFlow.getPrimary() == null ? null : workFlow.getPrimary().getResourceReference();
                 asyncActivity.linkUp(workFlow.getResourceTank(), primaryResourceReference);
                 asyncActivity.getNode().set(async);
                 asyncActivity.getHost().set(node);
                 ActivityResult activityResult = ActivityResult.FAIL;
+                InterceptorChain chain = Interceptors.chainOf(node.getGraph());
+                Span span = Tracer.startSpan(async.getNodeName(), SpanKind.INTERNAL);
                 try {
+                    chain.beforeAsync(node, async);
                     activityResult = async.perform();
+                    chain.afterAsync(node, async, activityResult);
                 } catch (Exception e) {
                     log.warn(async.getNodeName() + " async task failed for workflow [{}]", workFlow.getWorkFlowId());
+                    chain.onAsyncError(node, async, e);
+                    span.recordException(e);
                 } finally {
                     asyncActivity.cleanUp();
+                    span.setAttribute("stream.host", node.getNodeName()).setAttribute("stream.result", activityResult).end();
                 }
                 return activityResult;
-            };
+            });
             var task = new FutureTask<>(job);
             var taskWrapper = Resource.builder()
                     .value(task)
@@ -306,20 +473,27 @@ public final class TaskHelper {
      */
     public static void runDaemons(final WorkFlow workFlow, final Node node) {
         node.getDaemons().forEach(async -> {
-            Runnable job = () -> {
+            Runnable job = Tracer.wrap(() -> {
                 AsyncActivity asyncActivity = (AsyncActivity) async.getActivity();
                 String primaryResourceReference = workFlow.getPrimary() == null ? null : workFlow.getPrimary().getResourceReference();
                 asyncActivity.linkUp(workFlow.getResourceTank(), primaryResourceReference);
                 asyncActivity.getNode().set(async);
                 asyncActivity.getHost().set(node);
+                InterceptorChain chain = Interceptors.chainOf(node.getGraph());
+                Span span = Tracer.startSpan(async.getNodeName(), SpanKind.INTERNAL);
                 try {
+                    chain.beforeAsync(node, async);
                     asyncActivity.act();
+                    chain.afterAsync(node, async, null);
                 } catch (Throwable throwable) {
                     log.warn("Attention, daemon activity is throwing exception", throwable);
+                    chain.onAsyncError(node, async, throwable);
+                    span.recordException(throwable);
                 } finally {
                     asyncActivity.cleanUp();
+                    span.setAttribute("stream.host", node.getNodeName()).end();
                 }
-            };
+            });
             WorkFlowContext.submit(job);
         });
     }
@@ -335,7 +509,7 @@ public final class TaskHelper {
         String nodeName = task.getNodeName();
 
         Node node = null;
-        Graph graph = graphContext.getGraph(graphName);
+        Graph graph = graphContext.getGraph(graphName, task.getGraphVersion());
         if (graph == null) {
             return null;
         }
@@ -22,6 +22,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.FutureTask;
 
 import org.stream.core.component.Graph;
@@ -139,6 +141,13 @@ public class WorkFlow {
     @Getter(value = AccessLevel.PROTECTED)
     private Map<String, List<String>> asyncTaskReferences;
 
+    /**
+     * In-flight resource prefetches keyed by the resource path, resolving a resource by url will wait for the
+     * prefetch to complete instead of missing it.
+     */
+    @Getter(value = AccessLevel.PACKAGE)
+    private final Map<String, CompletableFuture<Resource>> prefetches = new ConcurrentHashMap<>();
+
     /**
      * Default constructor.
      */
@@ -209,6 +218,13 @@ public class WorkFlow {
      */
     protected Resource resolveResource(final ResourceURL url) {
         var resource = resourceTank.resolve(url.getPath());
+        if (resource == null) {
+            // The prefetch removes itself once done, so look it up only once.
+            var prefetch = prefetches.get(url.getPath());
+            if (prefetch != null) {
+                resource = ResourcePrefetcher.await(this, url, prefetch);
+            }
+        }
         if (resource == null && parent != null) {
             resource = parent.resolveResource(url);
         }
@@ -222,6 +238,7 @@ public class WorkFlow {
      */
     protected void visitGraph(final Graph graph) {
         graphs.put(graph.getGraphName(), graph);
+        resourceTank.setGraphName(graph.getGraphName());
     }
 
     /**
@@ -31,6 +31,7 @@ import org.stream.core.execution.WorkFlow.WorkFlowStatus;
 import org.stream.core.resource.Resource;
 import org.stream.core.resource.ResourceURL;
 import org.stream.extension.io.StreamTransferData;
+import org.stream.extension.profile.Profiler;
 import org.stream.extension.settings.Settings;
 
 import com.mongodb.annotations.ThreadSafe;
@@ -182,6 +183,8 @@ public final class WorkFlowContext {
             }
         });
         current.setStatus(WorkFlowStatus.CLOSED);
+        // The resources are left to the clients, stop charging them against the global budget.
+        current.getResourceTank().detach();
     }
 
     /**
@@ -369,15 +372,19 @@ public final class WorkFlowContext {
         var begin = System.currentTimeMillis();
         var left = expireTime;
         if (list != null && !list.isEmpty()) {
-            for (String reference : list) {
-                var resource = resolve(reference, FutureTask.class);
-                if (resource.isDone()) {
-                    log.info("Async task has been done before the method");
-                    System.out.println("Async task has been done before the method");
-                    continue;
+            long waitStart = System.nanoTime();
+            try {
+                for (String reference : list) {
+                    var resource = resolve(reference, FutureTask.class);
+                    if (resource.isDone()) {
+                        log.info("Async task has been done before the method");
+                        continue;
+                    }
+                    resource.get(left, TimeUnit.MILLISECONDS);
+                    left -= System.currentTimeMillis() - begin;
                 }
-                resource.get(left, TimeUnit.MILLISECONDS);
-                left -= System.currentTimeMillis() - begin;
+            } finally {
+                Profiler.recordAsyncWait(System.nanoTime() - waitStart);
             }
         }
     }
@@ -16,6 +16,10 @@
 
 package org.stream.core.resource;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Abstract implement of {@link ResourceReader}
  */
@@ -31,6 +35,36 @@ public abstract class AbstractResourceReader<T> implements ResourceReader {
                 .build();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<ResourceURL, Resource> readAll(final Collection<ResourceURL> resourceURLs) {
+        Map<ResourceURL, Resource> result = new LinkedHashMap<>();
+        doReadAll(resourceURLs).forEach((resourceURL, value) -> result.put(resourceURL, Resource.builder()
+                .resourceURL(resourceURL)
+                .value(value)
+                .build()));
+        return result;
+    }
+
+    /**
+     * Read a batch of objects from the resource-specific storage, subclasses should override it if the storage
+     * supports batch query. Default implementation reads the objects one by one.
+     * @param resourceURLs References to the objects.
+     * @return Objects found keyed by their references.
+     */
+    protected Map<ResourceURL, T> doReadAll(final Collection<ResourceURL> resourceURLs) {
+        Map<ResourceURL, T> result = new LinkedHashMap<>();
+        for (ResourceURL resourceURL : resourceURLs) {
+            T value = doRead(resourceURL);
+            if (value != null) {
+                result.put(resourceURL, value);
+            }
+        }
+        return result;
+    }
+
     /**
      * Read an object from the resource-specific storage.
      * @param resourceURL A reference to the object.
@@ -61,4 +61,24 @@ public interface Cache {
      */
     void setResourceExpired(final Resource resource);
 
+    /**
+     * Check if the cached resource should be reloaded in the background before it expires. Implementations supporting
+     * refresh-ahead should return {@code true} only once per cached value, so that only one reload is triggered.
+     * @param resourceURL Resource url.
+     * @return {@code true} if the resource should be refreshed, otherwise {@code false}.
+     */
+    default boolean shouldRefresh(final ResourceURL resourceURL) {
+        return false;
+    }
+
+    /**
+     * Remaining time to live of the cached resource, used by the tiered caches to keep the copies in the upper levels
+     * from outliving the cached one.
+     * @param resourceURL Resource url.
+     * @return Remaining time to live in milliseconds, negative if unknown or the resource never expires.
+     */
+    default long remainingTtl(final ResourceURL resourceURL) {
+        return -1;
+    }
+
 }
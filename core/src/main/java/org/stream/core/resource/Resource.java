@@ -108,6 +108,19 @@ public class Resource {
         throw new ClassCastException();
     }
 
+    /**
+     * Copy the resource so that the copy can be attached to another resource tank without the changes made through
+     * one of them being visible to the other, the value object itself is shared.
+     * @return Resource copy.
+     */
+    public Resource copy() {
+        return Resource.builder()
+                .resourceReference(getResourceReference())
+                .resourceURL(getResourceURL())
+                .value(getValue())
+                .build();
+    }
+
     // CHECKSTYLE:OFF
     /**
      * Resource builder.
@@ -16,13 +16,29 @@
 
 package org.stream.core.resource;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.stream.core.exception.ResourceReadingException;
+import org.stream.core.resource.cache.CacheStatistics;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Resource catalog used to store resources and fetch resources, basically it will delegate the action to
@@ -34,7 +50,19 @@ import lombok.Setter;
  * to get the real value of the {@link Resource} then store it to their data repository, also they should realize the way
  * how to retrieve the real value by {@link ResourceURL} then decorate it into an standard instance of {@link Resource} so that
  * other components in the framework can use it freely.
+ *
+ * Concurrent reads missing the same resource are coalesced, only one of them loads the resource from the reader while
+ * the others wait for the result. If the cache asks for refresh-ahead via {@link Cache#shouldRefresh(ResourceURL)},
+ * the resource is reloaded by the {@link #refreshExecutor} while the cached value is returned.
+ *
+ * Resources can also be read in batches via {@link #readResources(Collection)}, or asynchronously via
+ * {@link #readResourceAsync(ResourceURL)} which works like a data loader: reads issued by the same thread are collected,
+ * deduplicated and loaded in one batch per authority when any of the futures is waited on, when
+ * {@link #maxBatchSize} reads are pending, or when the enclosing batch scope is closed (see {@link #openBatchScope()}).
+ * The engine opens a batch scope around every node, reads issued outside of any scope are dispatched immediately so
+ * that nothing is left pending on pooled threads.
  */
+@Slf4j
 @Setter
 @Getter
 public class ResourceCatalog {
@@ -43,6 +71,26 @@ public class ResourceCatalog {
 
     private Map<String, ResourceReader> readers = new HashMap<>();
 
+    // Executor reloading the resources ahead of expiration.
+    private Executor refreshExecutor = ForkJoinPool.commonPool();
+
+    private final CacheStatistics statistics = new CacheStatistics();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<ResourceURL, CompletableFuture<Resource>> loading = new ConcurrentHashMap<>();
+
+    // Max pending asynchronous reads before they are dispatched automatically.
+    private int maxBatchSize = 100;
+
+    @Getter(AccessLevel.NONE)
+    private final ThreadLocal<PendingBatch> pendingBatch = new ThreadLocal<>();
+
+    // Batches with pending reads collected by the current thread, among all the catalogs.
+    private static final ThreadLocal<List<PendingBatch>> PENDING_BATCHES = ThreadLocal.withInitial(LinkedList::new);
+
+    // Depth of the batch scopes opened by the current thread.
+    private static final ThreadLocal<int[]> BATCH_SCOPES = ThreadLocal.withInitial(() -> new int[1]);
+
     /**
      * Register a resource reader instance.
      * @param reader The reader instance needed to register.
@@ -51,6 +99,16 @@ public class ResourceCatalog {
         this.readers.put(reader.resolve().getValue(), reader);
     }
 
+    /**
+     * Find the resource authority registered with the authority value.
+     * @param authority Authority value.
+     * @return The resource authority, {@code null} if no reader is registered for it.
+     */
+    public ResourceAuthority getAuthority(final String authority) {
+        ResourceReader reader = readers.get(authority);
+        return reader == null ? null : reader.resolve();
+    }
+
     private ResourceReader resolve(final ResourceURL resourceURL) {
         return readers.get(resourceURL.getResourceAuthority().getValue());
     }
@@ -67,20 +125,243 @@ public class ResourceCatalog {
             throw new ResourceReadingException("ResourceURL should not be null!");
         }
         if (cache != null && (result = cache.get(resourceURL)) != null) {
+            statistics.recordHit();
+            if (cache.shouldRefresh(resourceURL)) {
+                refresh(resourceURL);
+            }
+            return result;
+        }
+        statistics.recordMiss();
+        return load(resourceURL);
+    }
+
+    /**
+     * Read a batch of resources. Duplicated urls are read once, cached resources are served from the cache and the
+     * others are read in one batch per authority via {@link ResourceReader#readAll(Collection)}; resources being
+     * loaded by other threads are waited for instead of being read again.
+     * @param resourceURLs Resource urls.
+     * @return Resources found keyed by their urls, urls not found are absent.
+     * @throws ResourceReadingException ResourceReadingException.
+     */
+    public Map<ResourceURL, Resource> readResources(final Collection<ResourceURL> resourceURLs) throws ResourceReadingException {
+        Map<ResourceURL, Resource> result = new LinkedHashMap<>();
+        Map<String, List<ResourceURL>> misses = new LinkedHashMap<>();
+        for (ResourceURL resourceURL : new LinkedHashSet<>(resourceURLs)) {
+            if (resourceURL == null || resourceURL.getResourceAuthority() == null) {
+                throw new ResourceReadingException("ResourceURL should not be null!");
+            }
+            Resource cached = cache == null ? null : cache.get(resourceURL);
+            if (cached != null) {
+                statistics.recordHit();
+                result.put(resourceURL, cached);
+                continue;
+            }
+            statistics.recordMiss();
+            misses.computeIfAbsent(resourceURL.getResourceAuthority().getValue(), k -> new LinkedList<>()).add(resourceURL);
+        }
+
+        Map<ResourceURL, CompletableFuture<Resource>> waiting = new LinkedHashMap<>();
+        for (List<ResourceURL> group : misses.values()) {
+            Map<ResourceURL, CompletableFuture<Resource>> owned = new LinkedHashMap<>();
+            for (ResourceURL resourceURL : group) {
+                CompletableFuture<Resource> future = new CompletableFuture<>();
+                CompletableFuture<Resource> inflight = loading.putIfAbsent(resourceURL, future);
+                if (inflight != null) {
+                    statistics.recordCoalescedLoad();
+                    waiting.put(resourceURL, inflight);
+                } else {
+                    owned.put(resourceURL, future);
+                }
+            }
+            if (!owned.isEmpty()) {
+                result.putAll(loadBatch(owned));
+            }
+        }
+        for (Map.Entry<ResourceURL, CompletableFuture<Resource>> entry : waiting.entrySet()) {
+            Resource resource = await(entry.getValue());
+            if (resource != null) {
+                result.put(entry.getKey(), resource);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read the resource asynchronously. The read is queued in the current thread's pending batch and dispatched
+     * together with the other pending reads when any of the returned futures is waited on via {@code get()} or
+     * {@code join()}, when the pending batch is full or when the enclosing batch scope is closed.
+     * If the current thread has no batch scope open, the read is dispatched immediately.
+     * @param resourceURL Resource url.
+     * @return Future of the resource, completed with {@code null} if the resource is not found.
+     */
+    public CompletableFuture<Resource> readResourceAsync(final ResourceURL resourceURL) {
+        if (resourceURL == null || resourceURL.getResourceAuthority() == null) {
+            CompletableFuture<Resource> future = new CompletableFuture<>();
+            future.completeExceptionally(new ResourceReadingException("ResourceURL should not be null!"));
+            return future;
+        }
+        PendingBatch batch = pendingBatch.get();
+        if (batch == null || batch.dispatched) {
+            batch = new PendingBatch(this);
+            pendingBatch.set(batch);
+            PENDING_BATCHES.get().add(batch);
+        }
+        BatchedFuture future = batch.add(resourceURL);
+        if (BATCH_SCOPES.get()[0] == 0 || batch.size() >= maxBatchSize) {
+            batch.dispatch();
+        }
+        return future;
+    }
+
+    /**
+     * Open a batch scope on the current thread, asynchronous reads issued until the scope is closed are collected
+     * in batches. Scopes can be nested, every call must be paired with {@link #closeBatchScope()} in a finally block.
+     */
+    public static void openBatchScope() {
+        BATCH_SCOPES.get()[0]++;
+    }
+
+    /**
+     * Close the batch scope opened by the current thread and dispatch the reads still pending.
+     */
+    public static void closeBatchScope() {
+        int[] depth = BATCH_SCOPES.get();
+        try {
+            dispatchPendingReads();
+        } finally {
+            if (--depth[0] <= 0) {
+                BATCH_SCOPES.remove();
+            }
+        }
+    }
+
+    /**
+     * Dispatch all the asynchronous reads collected by the current thread.
+     */
+    public static void dispatchPendingReads() {
+        List<PendingBatch> batches = PENDING_BATCHES.get();
+        if (batches.isEmpty()) {
+            PENDING_BATCHES.remove();
+            return;
+        }
+        List<PendingBatch> copy = new ArrayList<>(batches);
+        PENDING_BATCHES.remove();
+        for (PendingBatch batch : copy) {
+            batch.dispatch();
+        }
+    }
+
+    private Map<ResourceURL, Resource> loadBatch(final Map<ResourceURL, CompletableFuture<Resource>> owned)
+            throws ResourceReadingException {
+        ResourceURL first = owned.keySet().iterator().next();
+        try {
+            ResourceReader reader = resolve(first);
+            if (reader == null) {
+                throw new ResourceReadingException(String.format("There is no reader registered for this resourceURL represented resource authority [%s]",
+                        first.getResourceAuthority().getValue()));
+            }
+            long start = System.nanoTime();
+            Map<ResourceURL, Resource> loaded;
+            try {
+                loaded = owned.size() == 1 ? single(first, reader.read(first)) : reader.readAll(owned.keySet());
+            } catch (RuntimeException e) {
+                statistics.recordLoad(System.nanoTime() - start, false);
+                throw e;
+            }
+            statistics.recordLoad(System.nanoTime() - start, true);
+            for (Map.Entry<ResourceURL, CompletableFuture<Resource>> entry : owned.entrySet()) {
+                Resource resource = loaded.get(entry.getKey());
+                if (cache != null && resource != null) {
+                    cache.put(entry.getKey(), resource);
+                }
+                entry.getValue().complete(resource);
+            }
+            return loaded;
+        } catch (ResourceReadingException | RuntimeException e) {
+            owned.values().forEach(future -> future.completeExceptionally(e));
+            throw e;
+        } finally {
+            owned.forEach(loading::remove);
+        }
+    }
+
+    private Map<ResourceURL, Resource> single(final ResourceURL resourceURL, final Resource resource) {
+        Map<ResourceURL, Resource> result = new HashMap<>();
+        if (resource != null) {
+            result.put(resourceURL, resource);
+        }
+        return result;
+    }
+
+    private Resource load(final ResourceURL resourceURL) throws ResourceReadingException {
+        CompletableFuture<Resource> future = new CompletableFuture<>();
+        CompletableFuture<Resource> inflight = loading.putIfAbsent(resourceURL, future);
+        if (inflight != null) {
+            // Another thread is loading the same resource, wait for its result.
+            statistics.recordCoalescedLoad();
+            return await(inflight);
+        }
+        try {
+            Resource result = doLoad(resourceURL);
+            future.complete(result);
             return result;
+        } catch (ResourceReadingException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(resourceURL, future);
         }
+    }
+
+    private Resource doLoad(final ResourceURL resourceURL) throws ResourceReadingException {
         ResourceReader reader = resolve(resourceURL);
         if (reader == null) {
             throw new ResourceReadingException(String.format("There is no reader registered for this resourceURL represented resource authority [%s]",
                     resourceURL.getResourceAuthority().getValue()));
         }
-        result = reader.read(resourceURL);
-        if (cache != null) {
+        long start = System.nanoTime();
+        Resource result;
+        try {
+            result = reader.read(resourceURL);
+        } catch (RuntimeException e) {
+            statistics.recordLoad(System.nanoTime() - start, false);
+            throw e;
+        }
+        statistics.recordLoad(System.nanoTime() - start, true);
+        if (cache != null && result != null) {
             cache.put(resourceURL, result);
         }
         return result;
     }
 
+    private void refresh(final ResourceURL resourceURL) {
+        statistics.recordRefresh();
+        refreshExecutor.execute(() -> {
+            try {
+                load(resourceURL);
+            } catch (Exception e) {
+                log.warn("Fail to refresh resource [{}], the cached value will be used until it expires", resourceURL.getPath(), e);
+            }
+        });
+    }
+
+    private Resource await(final CompletableFuture<Resource> future) throws ResourceReadingException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceReadingException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResourceReadingException) {
+                throw (ResourceReadingException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ResourceReadingException(e.getCause());
+        }
+    }
+
     /**
      * Retrieve the resource from the cache speeding up performance.
      * @param resourceURL Resource url.
@@ -119,4 +400,73 @@ public class ResourceCatalog {
         cache.setResourceExpired(resource);
     }
 
+    /**
+     * Asynchronous reads collected by one thread for one catalog.
+     */
+    private static final class PendingBatch {
+        private final ResourceCatalog catalog;
+        private final Map<ResourceURL, BatchedFuture> futures = new LinkedHashMap<>();
+        private volatile boolean dispatched = false;
+
+        private PendingBatch(final ResourceCatalog catalog) {
+            this.catalog = catalog;
+        }
+
+        private synchronized BatchedFuture add(final ResourceURL resourceURL) {
+            return futures.computeIfAbsent(resourceURL, k -> new BatchedFuture(this));
+        }
+
+        private synchronized int size() {
+            return futures.size();
+        }
+
+        private void dispatch() {
+            Map<ResourceURL, BatchedFuture> batch;
+            synchronized (this) {
+                if (dispatched) {
+                    return;
+                }
+                dispatched = true;
+                batch = new LinkedHashMap<>(futures);
+            }
+            if (catalog.pendingBatch.get() == this) {
+                catalog.pendingBatch.remove();
+            }
+            try {
+                Map<ResourceURL, Resource> resources = catalog.readResources(batch.keySet());
+                batch.forEach((resourceURL, future) -> future.complete(resources.get(resourceURL)));
+            } catch (Exception e) {
+                batch.values().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+    }
+
+    /**
+     * Future dispatching its batch before being waited on, so that callers will never wait for a batch nobody dispatches.
+     */
+    private static final class BatchedFuture extends CompletableFuture<Resource> {
+        private final PendingBatch batch;
+
+        private BatchedFuture(final PendingBatch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public Resource get() throws InterruptedException, ExecutionException {
+            batch.dispatch();
+            return super.get();
+        }
+
+        @Override
+        public Resource get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            batch.dispatch();
+            return super.get(timeout, unit);
+        }
+
+        @Override
+        public Resource join() {
+            batch.dispatch();
+            return super.join();
+        }
+    }
 }
@@ -16,6 +16,11 @@
 
 package org.stream.core.resource;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Encapsulation of resource reader.
  * Stream provides an Resource-oriented-architecture abstraction to help read resource from the resource storage. Customers can
@@ -31,6 +36,33 @@ public interface ResourceReader {
      */
     Resource read(final ResourceURL resourceURL);
 
+    /**
+     * Read a batch of resources, readers backed by storages supporting batch query should override it to load all
+     * the resources in one round trip. Default implementation reads the resources one by one.
+     * @param resourceURLs Resource urls, all of them belong to this reader's authority.
+     * @return Resources found keyed by their urls, urls not found are absent.
+     */
+    default Map<ResourceURL, Resource> readAll(final Collection<ResourceURL> resourceURLs) {
+        Map<ResourceURL, Resource> result = new LinkedHashMap<>();
+        for (ResourceURL resourceURL : resourceURLs) {
+            Resource resource = read(resourceURL);
+            if (resource != null) {
+                result.put(resourceURL, resource);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read the resource asynchronously. Default implementation reads the resource in the common fork-join pool,
+     * readers having non-blocking clients should override it.
+     * @param resourceURL Resource url.
+     * @return Future of the resource.
+     */
+    default CompletableFuture<Resource> readAsync(final ResourceURL resourceURL) {
+        return CompletableFuture.supplyAsync(() -> read(resourceURL));
+    }
+
     /**
      * Resolve the reader's resource authority.
      * @return ResourceAuthority
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.resource;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rough estimation of the heap bytes retained by resource values, used by {@link ResourceTank} to account memory.
+ * Common value types are estimated directly, other objects are walked reflectively up to a limited number of
+ * objects; the estimation is extrapolated beyond that limit, so it should be treated as a magnitude rather than an
+ * exact figure.
+ * <p>
+ * {@link #sample(Object)} is the cheap variant used on the attaching path, it only walks a part of the values of each
+ * class and estimates the others from the average of their class.
+ * @author guanxiong wei
+ *
+ */
+public final class ResourceSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+
+    private static final int REFERENCE = 8;
+
+    private static final int MAX_VISITS = 10_000;
+
+    private static final int SAMPLED_VISITS = 256;
+
+    // One value in this number of values of the same class is walked by the sampling estimation.
+    private static final int SAMPLING_INTERVAL = 16;
+
+    private static final ClassValue<ClassEstimate> CLASS_ESTIMATES = new ClassValue<>() {
+        @Override
+        protected ClassEstimate computeValue(final Class<?> type) {
+            return new ClassEstimate();
+        }
+    };
+
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(final Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        }
+    };
+
+    private ResourceSizeEstimator() { }
+
+    /**
+     * Estimate the bytes retained by the value.
+     * @param value Resource value.
+     * @return Estimated bytes.
+     */
+    public static long estimate(final Object value) {
+        return estimate(value, MAX_VISITS);
+    }
+
+    /**
+     * Estimate the bytes retained by the value cheaply. Strings, boxed primitives and primitive arrays are estimated
+     * directly; for the other classes the first value and then one value in {@value #SAMPLING_INTERVAL} are walked
+     * through at most {@value #SAMPLED_VISITS} objects, the rest are estimated with the average bytes per element
+     * (collections, maps and arrays) or per value of the class walked before.
+     * @param value Resource value.
+     * @return Estimated bytes.
+     */
+    public static long sample(final Object value) {
+        if (value == null) {
+            return 0;
+        }
+        long size = direct(value);
+        if (size >= 0) {
+            return size;
+        }
+        ClassEstimate classEstimate = CLASS_ESTIMATES.get(value.getClass());
+        long units = units(value);
+        long perUnit = classEstimate.perUnit;
+        if (classEstimate.values.getAndIncrement() % SAMPLING_INTERVAL != 0 && perUnit >= 0) {
+            return perUnit * units;
+        }
+        size = estimate(value, SAMPLED_VISITS);
+        classEstimate.record(size / units);
+        return size;
+    }
+
+    /**
+     * Estimate the bytes retained by the value walking at most the given number of objects.
+     * @param value Resource value.
+     * @param maxVisits Max objects to be walked before extrapolating.
+     * @return Estimated bytes.
+     */
+    public static long estimate(final Object value, final int maxVisits) {
+        if (value == null) {
+            return 0;
+        }
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(value);
+        long size = 0;
+        long rootSize = 0;
+        int visits = 0;
+        while (!pending.isEmpty()) {
+            Object current = pending.pop();
+            if (!visited.add(current)) {
+                continue;
+            }
+            if (++visits > maxVisits) {
+                // Extrapolate with the average size of the objects visited so far except the root, which is
+                // usually the container holding references to all the others.
+                long average = visits > 2 ? (size - rootSize) / (visits - 2) : size;
+                return size + average * (pending.size() + 1);
+            }
+            size += shallow(current, pending);
+            if (visits == 1) {
+                rootSize = size;
+            }
+        }
+        return size;
+    }
+
+    // Size of the values estimated without walking, -1 for the others.
+    private static long direct(final Object value) {
+        if (value instanceof String string) {
+            return OBJECT_HEADER + 24 + string.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            return OBJECT_HEADER + 8;
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray() && type.getComponentType().isPrimitive()) {
+            return OBJECT_HEADER + (long) Array.getLength(value) * primitiveSize(type.getComponentType());
+        }
+        return -1;
+    }
+
+    private static long units(final Object value) {
+        long units = 1;
+        if (value instanceof Collection<?> collection) {
+            units = collection.size();
+        } else if (value instanceof Map<?, ?> map) {
+            units = map.size();
+        } else if (value.getClass().isArray()) {
+            units = Array.getLength(value);
+        }
+        return Math.max(units, 1);
+    }
+
+    private static long shallow(final Object value, final Deque<Object> pending) {
+        long direct = direct(value);
+        if (direct >= 0) {
+            return direct;
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                push(Array.get(value, i), pending);
+            }
+            return OBJECT_HEADER + (long) length * REFERENCE;
+        }
+        if (value instanceof Collection<?> collection) {
+            collection.forEach(element -> push(element, pending));
+            return OBJECT_HEADER + (long) collection.size() * (REFERENCE + OBJECT_HEADER);
+        }
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((k, v) -> {
+                push(k, pending);
+                push(v, pending);
+            });
+            return OBJECT_HEADER + (long) map.size() * (2 * REFERENCE + OBJECT_HEADER);
+        }
+        long size = OBJECT_HEADER;
+        for (Field field : FIELDS.get(type)) {
+            Class<?> fieldType = field.getType();
+            if (fieldType.isPrimitive()) {
+                size += primitiveSize(fieldType);
+                continue;
+            }
+            size += REFERENCE;
+            try {
+                if (field.trySetAccessible()) {
+                    push(field.get(value), pending);
+                }
+            } catch (IllegalAccessException e) {
+                // Inaccessible fields are counted as references only.
+            }
+        }
+        return size;
+    }
+
+    private static void push(final Object value, final Deque<Object> pending) {
+        if (value != null && !(value instanceof Class)) {
+            pending.push(value);
+        }
+    }
+
+    private static int primitiveSize(final Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    // Average bytes per element, or per value, of the values of a class walked so far.
+    private static final class ClassEstimate {
+        private final AtomicLong values = new AtomicLong();
+        private volatile long perUnit = -1;
+
+        private void record(final long bytes) {
+            long previous = perUnit;
+            perUnit = previous < 0 ? bytes : (previous * 3 + bytes) / 4;
+        }
+    }
+}
@@ -16,35 +16,160 @@
 
 package org.stream.core.resource;
 
+import java.io.Serializable;
+import java.lang.ref.Cleaner;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.stream.extension.io.HessianIOSerializer;
+import org.stream.extension.settings.Settings;
 
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * A tank to store {@link Resource} instances in memory.
+ * <p>
+ * Tanks created by the engine only spill when {@link Settings#RESOURCE_TANK_SPILL_ENABLED} is set, otherwise they
+ * keep every resource in memory and do not estimate their sizes at all. Spilled values are read back as Hessian
+ * copies, so once spilling is enabled the activities must not keep changing the objects they attached.
+ * <p>
+ * The tank estimates the bytes retained by each attached resource. Once the resources kept in memory exceed the
+ * per work-flow budget, or the resources of all the work-flows exceed the global budget, the least recently resolved
+ * serializable resources are spilled to the {@link SpillStore} and replaced by {@link SpilledResource}s which load
+ * the values back lazily. Resources larger than the spill threshold are spilled as soon as they are attached.
+ * Work-flow internal resources, whose references start with <code>Stream::Workflow::</code>, are changed in place by the
+ * engine and are never spilled.
+ * <p>
+ * To keep attaching cheap, values are estimated by {@link ResourceSizeEstimator#sample(Object)}, which walks a small
+ * sample of the objects for a part of the values of each class only; the full estimation is only done when the sample
+ * shows the value is getting close to the spill threshold. Cold resources are picked with a second chance queue
+ * instead of sorting the resources by their last access.
+ * Budgets are configured via {@link Settings#RESOURCE_TANK_WORKFLOW_BUDGET}, {@link Settings#RESOURCE_TANK_GLOBAL_BUDGET}
+ * and {@link Settings#RESOURCE_TANK_SPILL_THRESHOLD}.
  * @author guanxiong wei
  *
  */
-@Getter
+@Slf4j
 public class ResourceTank {
 
+    private static final long WORKFLOW_BUDGET = Long.getLong(Settings.RESOURCE_TANK_WORKFLOW_BUDGET, 64L * 1024 * 1024);
+
+    private static final long GLOBAL_BUDGET = Long.getLong(Settings.RESOURCE_TANK_GLOBAL_BUDGET, 512L * 1024 * 1024);
+
+    private static final long SPILL_THRESHOLD = Long.getLong(Settings.RESOURCE_TANK_SPILL_THRESHOLD, 8L * 1024 * 1024);
+
+    private static final boolean SPILL_ENABLED = Boolean.getBoolean(Settings.RESOURCE_TANK_SPILL_ENABLED);
+
+    private static final AtomicLong GLOBAL_RESIDENT_BYTES = new AtomicLong();
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private static final String RESERVED_PREFIX = "Stream::Workflow::";
+
     /**
      * Graph instance hold resources storage, once the work-flow begin to execute on a graph, the engine will initiate a thread local
      * variable to store {@linkplain Resource}s for the execution request.
      * If an internal Node of the graph will invoke another graph, then both these two graph instances will share that one resource tank,
      * determined at the entry point of the execution procedure.
      */
+    @Getter
     private final ConcurrentHashMap<String, Resource> resources = new ConcurrentHashMap<>();
 
+    private final Map<String, Footprint> footprints = new ConcurrentHashMap<>();
+
+    // Keys of the resources kept in memory in the order they were queued, guarded by the tank.
+    private final LinkedHashMap<String, Footprint> residents = new LinkedHashMap<>();
+
+    private final boolean spillEnabled;
+
+    private final long budget;
+
+    private final long spillThreshold;
+
+    private final SpillStore store;
+
+    private final Accounting accounting = new Accounting();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Getter
+    private volatile String graphName = "default";
+
+    private volatile ResourceTankStatistics statistics = ResourceTankStatistics.of(graphName);
+
+    /**
+     * Constructor using the budgets configured by system properties and the JVM wide spill store, spilling only if
+     * {@link Settings#RESOURCE_TANK_SPILL_ENABLED} is set.
+     */
+    public ResourceTank() {
+        this(WORKFLOW_BUDGET, SPILL_THRESHOLD, null, SPILL_ENABLED);
+    }
+
+    /**
+     * Constructor of a spilling tank.
+     * @param budget Estimated bytes the tank may keep in memory.
+     * @param spillThreshold Resources estimated larger than this amount of bytes are spilled as soon as they are attached.
+     * @param store Spill store, the JVM wide one will be used if {@code null}.
+     */
+    public ResourceTank(final long budget, final long spillThreshold, final SpillStore store) {
+        this(budget, spillThreshold, store, true);
+    }
+
+    private ResourceTank(final long budget, final long spillThreshold, final SpillStore store, final boolean spillEnabled) {
+        this.budget = budget;
+        this.spillThreshold = spillThreshold;
+        this.store = store;
+        this.spillEnabled = spillEnabled;
+        CLEANER.register(this, accounting::detach);
+    }
+
+    /**
+     * Set the name of the graph the tank serves, statistics are recorded under this name.
+     * @param graphName Graph name.
+     */
+    public void setGraphName(final String graphName) {
+        this.graphName = graphName;
+        this.statistics = ResourceTankStatistics.of(graphName);
+    }
+
     /**
      * Add a new resource object into the resource tank.
      * @param resource Resource to added to the tank.
      */
     public void addResource(final Resource resource) {
-        if (resource.getResourceURL() != null) {
-            resources.put(resource.getResourceURL().getPath(), resource);
-        } else {
-            resources.put(resource.getResourceReference(), resource);
+        String key = resource.getResourceURL() != null ? resource.getResourceURL().getPath() : resource.getResourceReference();
+        statistics.getAttached().increment();
+        if (!spillEnabled) {
+            resources.put(key, resource);
+            return;
+        }
+        long size = resource instanceof SpilledResource ? 0 : estimate(resource.getValue());
+        statistics.getAttachedBytes().add(size);
+
+        synchronized (this) {
+            Resource stored = resource;
+            if (size >= spillThreshold) {
+                SpilledResource spilled = spill(resource);
+                if (spilled != null) {
+                    stored = spilled;
+                    size = 0;
+                }
+            }
+            resources.put(key, stored);
+            Footprint footprint = new Footprint(size, clock.incrementAndGet());
+            Footprint previous = footprints.put(key, footprint);
+            residents.remove(key);
+            if (size > 0) {
+                residents.put(key, footprint);
+            }
+            accounting.charge(size - (previous == null ? 0 : previous.size));
+            if (accounting.resident > budget || GLOBAL_RESIDENT_BYTES.get() > GLOBAL_BUDGET) {
+                spillCold();
+            }
         }
     }
 
@@ -54,14 +179,161 @@ public class ResourceTank {
      * @return Resource instance if existed.
      */
     public Resource resolve(final String resourceReference) {
-        return resources.get(resourceReference);
+        Resource resource = resources.get(resourceReference);
+        if (resource != null) {
+            Footprint footprint = footprints.get(resourceReference);
+            if (footprint != null) {
+                footprint.lastAccess = clock.incrementAndGet();
+            }
+        }
+        return resource;
     }
 
     /**
      * Remove a resource.
      * @param resourceReference Resource reference.
      */
-    public void remove(final String resourceReference) {
+    public synchronized void remove(final String resourceReference) {
         resources.remove(resourceReference);
+        residents.remove(resourceReference);
+        Footprint previous = footprints.remove(resourceReference);
+        if (previous != null) {
+            accounting.charge(-previous.size);
+        }
+    }
+
+    /**
+     * Estimated bytes of the resources kept in memory by this tank.
+     * @return Estimated bytes.
+     */
+    public long getResidentBytes() {
+        return accounting.resident;
+    }
+
+    /**
+     * Estimated bytes of the resources kept in memory by all the work-flows.
+     * @return Estimated bytes.
+     */
+    public static long getGlobalResidentBytes() {
+        return GLOBAL_RESIDENT_BYTES.get();
+    }
+
+    /**
+     * Stop charging the global budget for the resources kept by this tank, invoked when the work-flow owning the tank
+     * is closed; the resources are still available to the clients holding the tank.
+     */
+    public void detach() {
+        accounting.detach();
+    }
+
+    private long estimate(final Object value) {
+        long sample = ResourceSizeEstimator.sample(value);
+        return sample >= spillThreshold / 2 ? ResourceSizeEstimator.estimate(value) : sample;
+    }
+
+    // Charge the budget for a spilled value loaded back into memory, with its serialized length as the estimation.
+    private synchronized void reload(final String key, final SpilledResource spilled) {
+        Footprint previous = footprints.get(key);
+        if (resources.get(key) != spilled || previous == null) {
+            return;
+        }
+        long size = spilled.getSlot().getLength();
+        Footprint footprint = new Footprint(size, clock.incrementAndGet());
+        footprints.put(key, footprint);
+        residents.put(key, footprint);
+        accounting.charge(size - previous.size);
+    }
+
+    // Spill the cold resources until the tank is back under 3/4 of its budget and the global budget is respected.
+    // Resources resolved since they were queued get a second chance and are queued again, so each resource is
+    // visited at most twice.
+    private void spillCold() {
+        long target = budget / 4 * 3;
+        int chances = residents.size() * 2;
+        Iterator<Map.Entry<String, Footprint>> iterator = residents.entrySet().iterator();
+        while (chances-- > 0 && (accounting.resident > target || GLOBAL_RESIDENT_BYTES.get() > GLOBAL_BUDGET)) {
+            if (!iterator.hasNext()) {
+                iterator = residents.entrySet().iterator();
+                if (!iterator.hasNext()) {
+                    return;
+                }
+            }
+            Map.Entry<String, Footprint> candidate = iterator.next();
+            String key = candidate.getKey();
+            Footprint footprint = candidate.getValue();
+            iterator.remove();
+            if (footprint.lastAccess > footprint.queued) {
+                // Re-queued at the tail, the iterator is renewed since the map has changed.
+                footprint.queued = clock.incrementAndGet();
+                residents.put(key, footprint);
+                iterator = residents.entrySet().iterator();
+                continue;
+            }
+            SpilledResource spilled = spill(resources.get(key));
+            if (spilled != null) {
+                resources.put(key, spilled);
+                footprints.put(key, new Footprint(0, footprint.lastAccess));
+                accounting.charge(-footprint.size);
+            }
+        }
+    }
+
+    private SpilledResource spill(final Resource resource) {
+        if (resource == null || (resource instanceof SpilledResource loadable && !loadable.isLoaded())
+                || (resource.getResourceReference() != null && resource.getResourceReference().startsWith(RESERVED_PREFIX))
+                || !(resource.getValue() instanceof Serializable)) {
+            return null;
+        }
+        String key = resource.getResourceURL() != null ? resource.getResourceURL().getPath() : resource.getResourceReference();
+        try {
+            SpillStore spillStore = store == null ? SpillStore.getInstance() : store;
+            byte[] data = HessianIOSerializer.encode(resource.getValue());
+            SpilledResource[] holder = new SpilledResource[1];
+            SpilledResource spilled = new SpilledResource(resource, spillStore.write(data), spillStore, statistics,
+                    () -> reload(key, holder[0]));
+            holder[0] = spilled;
+            statistics.getSpilled().increment();
+            statistics.getSpilledBytes().add(data.length);
+            return spilled;
+        } catch (Exception e) {
+            log.debug("Fail to spill resource [{}] of graph [{}]", resource.getResourceReference(), graphName, e);
+            statistics.getSpillFailures().increment();
+            return null;
+        }
+    }
+
+    private static final class Footprint {
+        // Estimated bytes kept in memory, 0 for spilled resources.
+        private final long size;
+        private volatile long lastAccess;
+        // Clock when the footprint was queued as a spill candidate.
+        private long queued;
+
+        private Footprint(final long size, final long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+            this.queued = lastAccess;
+        }
+    }
+
+    // Kept apart from the tank so that the cleaner can release the global charge once the tank is collected.
+    private static final class Accounting {
+        private volatile long resident = 0;
+        private long charged = 0;
+        private boolean detached = false;
+
+        private synchronized void charge(final long delta) {
+            resident += delta;
+            if (!detached) {
+                charged += delta;
+                GLOBAL_RESIDENT_BYTES.addAndGet(delta);
+            }
+        }
+
+        private synchronized void detach() {
+            GLOBAL_RESIDENT_BYTES.addAndGet(-charged);
+            charged = 0;
+            detached = true;
+        }
     }
 }
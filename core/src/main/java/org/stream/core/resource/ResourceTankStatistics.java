@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.resource;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * Per graph statistics of the resources attached to the work-flows' {@link ResourceTank}s.
+ * @author guanxiong wei
+ *
+ */
+@Getter
+public final class ResourceTankStatistics {
+
+    private static final Map<String, ResourceTankStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+    private final String graphName;
+
+    // Resources attached and their estimated bytes.
+    private final LongAdder attached = new LongAdder();
+    private final LongAdder attachedBytes = new LongAdder();
+
+    // Resources spilled to disk and their serialized bytes.
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder spilledBytes = new LongAdder();
+
+    // Spilled values read back from disk.
+    private final LongAdder loads = new LongAdder();
+
+    // Resources that should be spilled but failed to be serialized.
+    private final LongAdder spillFailures = new LongAdder();
+
+    private ResourceTankStatistics(final String graphName) {
+        this.graphName = graphName;
+    }
+
+    /**
+     * Get the statistics of the graph.
+     * @param graphName Graph name.
+     * @return Statistics of the graph.
+     */
+    public static ResourceTankStatistics of(final String graphName) {
+        return STATISTICS.computeIfAbsent(graphName, ResourceTankStatistics::new);
+    }
+
+    /**
+     * Get the statistics of all the graphs.
+     * @return Statistics keyed by graph name.
+     */
+    public static Map<String, ResourceTankStatistics> all() {
+        return Collections.unmodifiableMap(STATISTICS);
+    }
+}
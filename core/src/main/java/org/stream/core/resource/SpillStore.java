@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.stream.extension.settings.Settings;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local file storage for spilled resources. Spilled bytes are appended to fixed size segment files with positional
+ * writes and read back with positional reads, so reading them back only touches the pages needed and leaves the
+ * rest to the OS page cache.
+ * Space is reclaimed per segment: a segment file is closed and deleted as soon as all the slots allocated from it
+ * are freed; the segments still alive when the JVM exits are deleted by a shutdown hook registered once per store.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public final class SpillStore {
+
+    private static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static volatile SpillStore instance;
+
+    private final Path directory;
+
+    private final long segmentSize;
+
+    private Segment current;
+
+    private final Set<Segment> openSegments = ConcurrentHashMap.newKeySet();
+
+    private boolean hooked = false;
+
+    @Getter
+    private final AtomicLong liveBytes = new AtomicLong();
+
+    @Getter
+    private final AtomicInteger segments = new AtomicInteger();
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /**
+     * Constructor.
+     * @param directory Directory the segment files are created in.
+     * @param segmentSize Size of each segment file.
+     */
+    public SpillStore(final Path directory, final long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Get the JVM wide spill store, the segment files are created in the directory configured by
+     * {@link Settings#RESOURCE_TANK_SPILL_DIRECTORY}.
+     * @return The shared spill store.
+     */
+    public static SpillStore getInstance() {
+        if (instance == null) {
+            synchronized (SpillStore.class) {
+                if (instance == null) {
+                    instance = new SpillStore(Path.of(System.getProperty(Settings.RESOURCE_TANK_SPILL_DIRECTORY,
+                            System.getProperty("java.io.tmpdir"))), DEFAULT_SEGMENT_SIZE);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Write the bytes to the store.
+     * @param data Bytes to be spilled.
+     * @return Slot where the bytes are stored.
+     * @throws IOException Exception thrown when the segment file can not be created or written.
+     */
+    public synchronized Slot write(final byte[] data) throws IOException {
+        if (current == null || current.capacity - current.position < data.length) {
+            Segment previous = current;
+            current = newSegment(Math.max(segmentSize, data.length));
+            if (previous != null) {
+                previous.seal();
+            }
+        }
+        int offset = current.position;
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            current.channel.write(buffer, offset + buffer.position());
+        }
+        current.position += data.length;
+        current.live.incrementAndGet();
+        liveBytes.addAndGet(data.length);
+        return new Slot(current, offset, data.length);
+    }
+
+    /**
+     * Read the bytes stored in the slot.
+     * @param slot Slot returned by {@link #write(byte[])}.
+     * @return Stored bytes.
+     */
+    public byte[] read(final Slot slot) {
+        if (slot.freed) {
+            throw new IllegalStateException("Spilled slot has been freed");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(slot.length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (slot.segment.channel.read(buffer, slot.offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of spill segment " + slot.segment.file.getAbsolutePath());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Free the slot, the segment file will be closed and deleted once all its slots are freed.
+     * @param slot Slot to be freed.
+     */
+    public void free(final Slot slot) {
+        synchronized (slot) {
+            if (slot.freed) {
+                return;
+            }
+            slot.freed = true;
+        }
+        liveBytes.addAndGet(-slot.length);
+        if (slot.segment.live.decrementAndGet() == 0) {
+            synchronized (this) {
+                if (slot.segment != current) {
+                    slot.segment.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Close and delete all the segments, the slots allocated before can no longer be read.
+     */
+    public synchronized void close() {
+        openSegments.forEach(Segment::delete);
+        current = null;
+    }
+
+    private Segment newSegment(final long capacity) throws IOException {
+        Files.createDirectories(directory);
+        if (!hooked) {
+            hooked = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "stream-spill-cleaner"));
+        }
+        File file = directory.resolve("stream-spill-" + ProcessHandle.current().pid() + "-"
+                + sequence.incrementAndGet() + ".seg").toFile();
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Segment segment = new Segment(file, channel, (int) capacity);
+        openSegments.add(segment);
+        segments.incrementAndGet();
+        return segment;
+    }
+
+    /**
+     * Location of spilled bytes.
+     */
+    public static final class Slot {
+        private final Segment segment;
+        private final int offset;
+        @Getter
+        private final int length;
+        private volatile boolean freed = false;
+
+        private Slot(final Segment segment, final int offset, final int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final class Segment {
+        private final File file;
+        private final FileChannel channel;
+        private final int capacity;
+        private final AtomicInteger live = new AtomicInteger();
+        private int position = 0;
+        private boolean deleted = false;
+
+        private Segment(final File file, final FileChannel channel, final int capacity) {
+            this.file = file;
+            this.channel = channel;
+            this.capacity = capacity;
+        }
+
+        // Invoked when the segment is no longer the one being appended to.
+        private void seal() {
+            if (live.get() == 0) {
+                delete();
+            }
+        }
+
+        // Invoked while holding the store's monitor.
+        private void delete() {
+            if (deleted) {
+                return;
+            }
+            deleted = true;
+            openSegments.remove(this);
+            segments.decrementAndGet();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Fail to close spill segment [{}]", file.getAbsolutePath(), e);
+            }
+            if (!file.delete()) {
+                log.warn("Fail to delete spill segment [{}]", file.getAbsolutePath());
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.resource;
+
+import java.lang.ref.Cleaner;
+import java.util.Objects;
+
+import org.stream.extension.io.HessianIOSerializer;
+
+import lombok.Getter;
+
+/**
+ * A resource whose value has been spilled to the {@link SpillStore} by the {@link ResourceTank}. The value is read
+ * back lazily the first time it is needed and kept in memory afterwards, so that changes made in place on the value
+ * are not lost; the tank charges its budget for the loaded value and may spill it again later. The spilled bytes are
+ * freed once the resource itself is no longer reachable.
+ * <p>
+ * {@link #equals(Object)}, {@link #hashCode()} and {@link #toString()} never load the value.
+ * @author guanxiong wei
+ *
+ */
+public class SpilledResource extends Resource {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    @Getter
+    private final SpillStore.Slot slot;
+
+    private final SpillStore store;
+
+    private final ResourceTankStatistics statistics;
+
+    private final Runnable onLoad;
+
+    @Getter
+    private volatile boolean loaded = false;
+
+    /**
+     * Constructor.
+     * @param origin The original resource.
+     * @param slot Slot the value is spilled to.
+     * @param store Spill store holding the value.
+     * @param statistics Statistics of the graph the resource belongs to.
+     */
+    public SpilledResource(final Resource origin, final SpillStore.Slot slot, final SpillStore store,
+            final ResourceTankStatistics statistics) {
+        this(origin, slot, store, statistics, null);
+    }
+
+    /**
+     * Constructor.
+     * @param origin The original resource.
+     * @param slot Slot the value is spilled to.
+     * @param store Spill store holding the value.
+     * @param statistics Statistics of the graph the resource belongs to.
+     * @param onLoad Callback invoked once the value is loaded back, may be {@code null}.
+     */
+    public SpilledResource(final Resource origin, final SpillStore.Slot slot, final SpillStore store,
+            final ResourceTankStatistics statistics, final Runnable onLoad) {
+        this.slot = slot;
+        this.store = store;
+        this.statistics = statistics;
+        this.onLoad = onLoad;
+        setResourceReference(origin.getResourceReference());
+        setResourceURL(origin.getResourceURL());
+        CLEANER.register(this, () -> store.free(slot));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getValue() {
+        if (loaded) {
+            return super.getValue();
+        }
+        synchronized (this) {
+            if (!loaded) {
+                super.setValue(HessianIOSerializer.decode(store.read(slot), Object.class));
+                loaded = true;
+                statistics.getLoads().increment();
+                if (onLoad != null) {
+                    onLoad.run();
+                }
+            }
+        }
+        return super.getValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setValue(final Object value) {
+        super.setValue(value);
+        loaded = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SpilledResource spilled)) {
+            return false;
+        }
+        return slot == spilled.slot && Objects.equals(getResourceReference(), spilled.getResourceReference())
+                && Objects.equals(getResourceURL(), spilled.getResourceURL());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(getResourceReference(), getResourceURL());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "SpilledResource(resourceReference=" + getResourceReference() + ", resourceURL=" + getResourceURL()
+                + ", length=" + slot.getLength() + ", loaded=" + loaded + ")";
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.resource.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.stream.extension.metrics.MetricsRegistry;
+
+/**
+ * Statistics of a cache, counters are cumulative since the cache is created.
+ * @author guanxiong wei
+ *
+ */
+public class CacheStatistics {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Record a load from the backend.
+     * @param nanos Time cost in nanoseconds.
+     * @param success Load result.
+     */
+    public void recordLoad(final long nanos, final boolean success) {
+        loads.increment();
+        loadNanos.add(nanos);
+        if (!success) {
+            loadFailures.increment();
+        }
+    }
+
+    /**
+     * Record a request served by a load already in flight instead of starting a new one.
+     */
+    public void recordCoalescedLoad() {
+        coalescedLoads.increment();
+    }
+
+    public void recordRefresh() {
+        refreshes.increment();
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long loads() {
+        return loads.sum();
+    }
+
+    public long loadFailures() {
+        return loadFailures.sum();
+    }
+
+    public long coalescedLoads() {
+        return coalescedLoads.sum();
+    }
+
+    public long refreshes() {
+        return refreshes.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Hit rate, 1.0 if nothing has been requested.
+     * @return Hit rate.
+     */
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 1.0 : (double) hit / total;
+    }
+
+    /**
+     * Average load time in microseconds.
+     * @return Average load time.
+     */
+    public long averageLoadMicros() {
+        long count = loads.sum();
+        return count == 0 ? 0 : loadNanos.sum() / count / 1000;
+    }
+
+    /**
+     * Expose the statistics as gauges tagged with the cache name.
+     * @param registry Metrics registry.
+     * @param cache Cache name.
+     */
+    public void register(final MetricsRegistry registry, final String cache) {
+        registry.gauge("stream.cache.hit.rate", this::hitRate, "cache", cache);
+        registry.gauge("stream.cache.hits", this::hits, "cache", cache);
+        registry.gauge("stream.cache.misses", this::misses, "cache", cache);
+        registry.gauge("stream.cache.load.failures", this::loadFailures, "cache", cache);
+        registry.gauge("stream.cache.evictions", this::evictions, "cache", cache);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, hitRate=%.4f, loads=%d, loadFailures=%d, averageLoadMicros=%d, "
+                + "coalescedLoads=%d, refreshes=%d, evictions=%d", hits(), misses(), hitRate(), loads(), loadFailures(),
+                averageLoadMicros(), coalescedLoads(), refreshes(), evictions());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.resource.cache;
+
+/**
+ * Count-min sketch with 4-bit counters estimating the access frequency of keys, used by {@link NearCache} as the
+ * TinyLFU admission filter. Counters are halved once the number of increments reaches ten times the capacity, so
+ * that the history fades and the sketch adapts to the changes of the workload.
+ * <p>
+ * Not thread safe, callers should guard it.
+ * @author guanxiong wei
+ *
+ */
+public class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+
+    private final int tableMask;
+
+    private final int sampleSize;
+
+    private int size;
+
+    /**
+     * Constructor.
+     * @param maximumSize Max entries of the cache the sketch serves.
+     */
+    public FrequencySketch(final long maximumSize) {
+        int maximum = (int) Math.min(Math.max(maximumSize, 16), 1 << 30);
+        int length = Integer.highestOneBit(maximum - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * maximum;
+    }
+
+    /**
+     * Estimated frequency of the key, up to 15.
+     * @param hashCode Key hash code.
+     * @return Estimated frequency.
+     */
+    public int frequency(final int hashCode) {
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hashCode, i);
+            int offset = counterOffset(hashCode, i);
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xfL));
+        }
+        return frequency;
+    }
+
+    /**
+     * Increase the frequency of the key.
+     * @param hashCode Key hash code.
+     */
+    public void increment(final int hashCode) {
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hashCode, i);
+            int offset = counterOffset(hashCode, i);
+            if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = size / 2;
+    }
+
+    private int indexOf(final int hashCode, final int i) {
+        long hash = (hashCode + SEEDS[i]) * SEEDS[i];
+        hash += hash >>> 32;
+        return ((int) hash) & tableMask;
+    }
+
+    private int counterOffset(final int hashCode, final int i) {
+        // Each long holds 16 counters, pick one for each hash function.
+        int spread = hashCode * 0x9e3779b9 >>> (i * 8);
+        return ((spread & 3) + (i << 2)) << 2;
+    }
+}
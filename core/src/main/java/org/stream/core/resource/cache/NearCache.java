@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.resource.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.stream.core.resource.Cache;
+import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceURL;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Per-JVM bounded {@link Cache} using W-TinyLFU eviction with real per-entry time to live.
+ * <p>
+ * New entries are put in a small LRU window (1% of the capacity); entries evicted from the window compete with the
+ * LRU victim of the main space and are admitted only if they are accessed more frequently according to the
+ * {@link FrequencySketch}, so one-off reads can not flush the hot entries. The main space is a segmented LRU,
+ * entries hit in the probation segment are promoted to the protected segment (80% of the main space).
+ * <p>
+ * Reads do not take the lock: entries are looked up in a concurrent map and the accesses are recorded in a bounded
+ * buffer, which is replayed against the sketch and the LRU segments by whichever thread gets the lock first, either
+ * a writer or a reader finding the buffer half full. Accesses offered to a full buffer are dropped, the eviction
+ * policy only needs a sample of them.
+ * <p>
+ * Entries are refreshed ahead: after {@link #refreshAheadRatio} of the time to live has passed,
+ * {@link #shouldRefresh(ResourceURL)} returns {@code true} once, so that the loader can reload the entry in the
+ * background while the cached value is still served.
+ * @author guanxiong wei
+ *
+ */
+public class NearCache implements Cache {
+
+    private static final int ACCESS_BUFFER_SIZE = 128;
+
+    private static final int DRAIN_THRESHOLD = ACCESS_BUFFER_SIZE / 2;
+
+    private final ConcurrentHashMap<ResourceURL, Entry> data = new ConcurrentHashMap<>();
+
+    private final Queue<ResourceURL> accessBuffer = new ArrayBlockingQueue<>(ACCESS_BUFFER_SIZE);
+
+    // Guards the segments and the sketch.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LinkedHashMap<ResourceURL, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LinkedHashMap<ResourceURL, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LinkedHashMap<ResourceURL, Entry> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final FrequencySketch sketch;
+
+    private final int windowMaximum;
+
+    private final int mainMaximum;
+
+    private final int protectedMaximum;
+
+    private final long defaultTtl;
+
+    // Part of the time to live after which the entry should be refreshed, non-positive value disables refresh-ahead.
+    @Setter
+    private double refreshAheadRatio = 0.8;
+
+    @Getter
+    private final CacheStatistics statistics = new CacheStatistics();
+
+    /**
+     * Constructor.
+     * @param maximumSize Max entries to be cached.
+     * @param defaultTtl Default time to live in milliseconds for the entries put without ttl.
+     */
+    public NearCache(final int maximumSize, final long defaultTtl) {
+        int maximum = Math.max(maximumSize, 2);
+        this.windowMaximum = Math.max(1, maximum / 100);
+        this.mainMaximum = maximum - windowMaximum;
+        this.protectedMaximum = (int) (mainMaximum * 0.8);
+        this.defaultTtl = defaultTtl;
+        this.sketch = new FrequencySketch(maximum);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Resource get(final ResourceURL resourceURL) {
+        Entry entry = data.get(resourceURL);
+        recordAccess(resourceURL);
+        if (entry == null) {
+            statistics.recordMiss();
+            return null;
+        }
+        if (entry.expireTime <= System.currentTimeMillis()) {
+            expire(resourceURL, entry);
+            statistics.recordMiss();
+            return null;
+        }
+        statistics.recordHit();
+        return entry.resource;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final ResourceURL resourceURL, final Resource resource) {
+        putWithTtl(resourceURL, resource, defaultTtl);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final ResourceURL resourceURL, final Resource resource, final int ttl) {
+        putWithTtl(resourceURL, resource, TimeUnit.SECONDS.toMillis(ttl));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isResourceExpired(final Resource resource) {
+        Entry entry = resource.getResourceURL() == null ? null : data.get(resource.getResourceURL());
+        return entry == null || entry.expireTime <= System.currentTimeMillis();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setResourceExpired(final Resource resource) {
+        lock.lock();
+        try {
+            remove(resource.getResourceURL());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean shouldRefresh(final ResourceURL resourceURL) {
+        Entry entry = data.get(resourceURL);
+        if (entry == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (entry) {
+            if (entry.expireTime <= now || entry.refreshTime > now) {
+                return false;
+            }
+            // Only one caller gets the chance to refresh, until the entry is put again.
+            entry.refreshTime = Long.MAX_VALUE;
+        }
+        statistics.recordRefresh();
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long remainingTtl(final ResourceURL resourceURL) {
+        Entry entry = data.get(resourceURL);
+        return entry == null ? -1 : Math.max(0, entry.expireTime - System.currentTimeMillis());
+    }
+
+    /**
+     * Number of entries cached, including the expired ones not yet cleaned.
+     * @return Cache size.
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Put a resource to the cache with the time to live in milliseconds.
+     * @param resourceURL Resource url.
+     * @param resource Resource.
+     * @param ttl Time to live in milliseconds.
+     */
+    void putWithTtl(final ResourceURL resourceURL, final Resource resource, final long ttl) {
+        long now = System.currentTimeMillis();
+        long refreshTime = refreshAheadRatio > 0 ? now + (long) (ttl * refreshAheadRatio) : Long.MAX_VALUE;
+        lock.lock();
+        try {
+            drainAccesses();
+            Entry entry = data.get(resourceURL);
+            if (entry != null) {
+                synchronized (entry) {
+                    entry.resource = resource;
+                    entry.expireTime = now + ttl;
+                    entry.refreshTime = refreshTime;
+                }
+                return;
+            }
+            entry = new Entry(resource, now + ttl, refreshTime);
+            data.put(resourceURL, entry);
+            window.put(resourceURL, entry);
+            if (window.size() > windowMaximum) {
+                Iterator<Map.Entry<ResourceURL, Entry>> iterator = window.entrySet().iterator();
+                Map.Entry<ResourceURL, Entry> candidate = iterator.next();
+                iterator.remove();
+                admit(candidate.getKey(), candidate.getValue(), now);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordAccess(final ResourceURL key) {
+        // Lossy, the access is dropped if the buffer is full.
+        accessBuffer.offer(key);
+        if (accessBuffer.size() >= DRAIN_THRESHOLD && lock.tryLock()) {
+            try {
+                drainAccesses();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void drainAccesses() {
+        ResourceURL key;
+        while ((key = accessBuffer.poll()) != null) {
+            sketch.increment(hash(key));
+            touch(key);
+        }
+    }
+
+    private void expire(final ResourceURL key, final Entry entry) {
+        lock.lock();
+        try {
+            // The entry may have been put again since it was read.
+            if (data.get(key) == entry && entry.expireTime <= System.currentTimeMillis()) {
+                remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void admit(final ResourceURL key, final Entry entry, final long now) {
+        if (probation.size() + protectedSegment.size() < mainMaximum) {
+            probation.put(key, entry);
+            return;
+        }
+        LinkedHashMap<ResourceURL, Entry> segment = probation.isEmpty() ? protectedSegment : probation;
+        Iterator<Map.Entry<ResourceURL, Entry>> iterator = segment.entrySet().iterator();
+        Map.Entry<ResourceURL, Entry> victim = iterator.next();
+        statistics.recordEviction();
+        if (victim.getValue().expireTime <= now || sketch.frequency(hash(key)) > sketch.frequency(hash(victim.getKey()))) {
+            iterator.remove();
+            data.remove(victim.getKey());
+            probation.put(key, entry);
+        } else {
+            // The candidate is rejected.
+            data.remove(key);
+        }
+    }
+
+    private void touch(final ResourceURL key) {
+        if (window.get(key) != null || protectedSegment.get(key) != null) {
+            return;
+        }
+        Entry entry = probation.remove(key);
+        if (entry != null) {
+            // Promote to the protected segment, demote the eldest protected entry if it is full.
+            protectedSegment.put(key, entry);
+            if (protectedSegment.size() > protectedMaximum) {
+                Iterator<Map.Entry<ResourceURL, Entry>> iterator = protectedSegment.entrySet().iterator();
+                Map.Entry<ResourceURL, Entry> demoted = iterator.next();
+                iterator.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+    }
+
+    private void remove(final ResourceURL key) {
+        if (key == null || data.remove(key) == null) {
+            return;
+        }
+        if (window.remove(key) == null && protectedSegment.remove(key) == null) {
+            probation.remove(key);
+        }
+    }
+
+    private int hash(final ResourceURL key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+        private volatile Resource resource;
+        private volatile long expireTime;
+        private volatile long refreshTime;
+
+        private Entry(final Resource resource, final long expireTime, final long refreshTime) {
+            this.resource = resource;
+            this.expireTime = expireTime;
+            this.refreshTime = refreshTime;
+        }
+    }
+}
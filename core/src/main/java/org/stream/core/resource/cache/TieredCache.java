@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.resource.cache;
+
+import org.stream.core.resource.Cache;
+import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceURL;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Two levels {@link Cache}, a {@link NearCache} in front of a remote cache shared by all the workers, for example
+ * {@link org.stream.core.resource.sample.RedisCache}. Reads check the near cache first and promote the remote hits
+ * into it with their remaining time to live, writes and invalidation go to both levels. Failures of the remote cache
+ * are logged and treated as misses.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class TieredCache implements Cache {
+
+    @Getter
+    private final NearCache nearCache;
+
+    @Setter
+    private Cache remoteCache;
+
+    /**
+     * Constructor.
+     * @param nearCache Near cache.
+     * @param remoteCache Remote cache.
+     */
+    public TieredCache(final NearCache nearCache, final Cache remoteCache) {
+        this.nearCache = nearCache;
+        this.remoteCache = remoteCache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Resource get(final ResourceURL resourceURL) {
+        Resource resource = nearCache.get(resourceURL);
+        if (resource != null || remoteCache == null) {
+            return resource;
+        }
+        try {
+            resource = remoteCache.get(resourceURL);
+        } catch (Exception e) {
+            log.warn("Fail to read resource [{}] from the remote cache", resourceURL.getPath(), e);
+            return null;
+        }
+        if (resource != null) {
+            promote(resourceURL, resource);
+        }
+        return resource;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final ResourceURL resourceURL, final Resource resource) {
+        nearCache.put(resourceURL, resource);
+        if (remoteCache == null) {
+            return;
+        }
+        try {
+            remoteCache.put(resourceURL, resource);
+        } catch (Exception e) {
+            log.warn("Fail to write resource [{}] to the remote cache", resourceURL.getPath(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final ResourceURL resourceURL, final Resource resource, final int ttl) {
+        nearCache.put(resourceURL, resource, ttl);
+        if (remoteCache == null) {
+            return;
+        }
+        try {
+            remoteCache.put(resourceURL, resource, ttl);
+        } catch (Exception e) {
+            log.warn("Fail to write resource [{}] to the remote cache", resourceURL.getPath(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isResourceExpired(final Resource resource) {
+        boolean expired = nearCache.isResourceExpired(resource);
+        if (!expired || remoteCache == null) {
+            return expired;
+        }
+        try {
+            return remoteCache.isResourceExpired(resource);
+        } catch (Exception e) {
+            log.warn("Fail to check resource [{}] in the remote cache", resource.getResourceURL().getPath(), e);
+            return true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setResourceExpired(final Resource resource) {
+        nearCache.setResourceExpired(resource);
+        if (remoteCache == null) {
+            return;
+        }
+        try {
+            remoteCache.setResourceExpired(resource);
+        } catch (Exception e) {
+            log.warn("Fail to expire resource [{}] in the remote cache", resource.getResourceURL().getPath(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean shouldRefresh(final ResourceURL resourceURL) {
+        return nearCache.shouldRefresh(resourceURL);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long remainingTtl(final ResourceURL resourceURL) {
+        return nearCache.remainingTtl(resourceURL);
+    }
+
+    private void promote(final ResourceURL resourceURL, final Resource resource) {
+        long ttl;
+        try {
+            ttl = remoteCache.remainingTtl(resourceURL);
+        } catch (Exception e) {
+            log.warn("Fail to read the time to live of resource [{}] from the remote cache", resourceURL.getPath(), e);
+            ttl = -1;
+        }
+        if (ttl < 0) {
+            // Unknown, fall back to the default time to live of the near cache.
+            nearCache.put(resourceURL, resource);
+        } else if (ttl > 0) {
+            nearCache.putWithTtl(resourceURL, resource, ttl);
+        }
+    }
+}
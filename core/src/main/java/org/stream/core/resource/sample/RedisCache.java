@@ -16,16 +16,27 @@
 
 package org.stream.core.resource.sample;
 
+import java.io.Serializable;
+import java.util.Base64;
+
 import org.stream.core.resource.Cache;
 import org.stream.core.resource.Resource;
 import org.stream.core.resource.ResourceURL;
 import org.stream.extension.clients.RedisClient;
+import org.stream.extension.io.HessianIOSerializer;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * A cache using redis as remote data storage.
+ * <p>
+ * Resources are stored as Base64 encoded Hessian bytes of the resource reference and the value, which keeps the value
+ * type instead of turning it into maps like the Json form does, so only resources with {@link Serializable} values
+ * are cached. Entries written in the former Json form are still readable.
  * @author guanxiongwei
  *
  */
+@Slf4j
 public class RedisCache implements Cache {
 
     @javax.annotation.Resource
@@ -37,7 +48,18 @@ public class RedisCache implements Cache {
     @Override
     public Resource get(final ResourceURL resourceURL) {
         String content = redisClient.get(resourceURL.getPath());
-        return Resource.parse(content);
+        if (content == null) {
+            return null;
+        }
+        if (content.startsWith("{")) {
+            return Resource.parse(content);
+        }
+        Object[] fields = HessianIOSerializer.decode(Base64.getDecoder().decode(content), Object[].class);
+        return Resource.builder()
+                .resourceURL(resourceURL)
+                .resourceReference((String) fields[0])
+                .value(fields[1])
+                .build();
     }
 
     /**
@@ -45,7 +67,10 @@ public class RedisCache implements Cache {
      */
     @Override
     public void put(final ResourceURL resourceURL, final Resource resource) {
-        redisClient.set(resourceURL.getPath(), resource.toString());
+        String content = encode(resourceURL, resource);
+        if (content != null) {
+            redisClient.set(resourceURL.getPath(), content);
+        }
     }
 
     /**
@@ -56,7 +81,7 @@ public class RedisCache implements Cache {
 
         assert resource.getResourceURL() != null;
 
-        return redisClient.get(resource.getResourceURL().getPath()) != null;
+        return redisClient.get(resource.getResourceURL().getPath()) == null;
     }
 
     /**
@@ -71,7 +96,33 @@ public class RedisCache implements Cache {
      * {@inheritDoc}
      */
     @Override
-    public void put(ResourceURL resourceURL, Resource resource, int ttl) {
-        redisClient.setWithExpireTime(resourceURL.getPath(), resource.toString(), ttl);
+    public void put(final ResourceURL resourceURL, final Resource resource, final int ttl) {
+        String content = encode(resourceURL, resource);
+        if (content != null) {
+            redisClient.setWithExpireTime(resourceURL.getPath(), content, ttl);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long remainingTtl(final ResourceURL resourceURL) {
+        try {
+            long ttl = redisClient.pttl(resourceURL.getPath());
+            return ttl < 0 ? -1 : ttl;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    private String encode(final ResourceURL resourceURL, final Resource resource) {
+        if (resource.getValue() != null && !(resource.getValue() instanceof Serializable)) {
+            log.warn("Resource [{}] is not cached, value type [{}] is not serializable", resourceURL.getPath(),
+                    resource.getValue().getClass().getName());
+            return null;
+        }
+        Object[] fields = {resource.getResourceReference(), resource.getValue()};
+        return Base64.getEncoder().encodeToString(HessianIOSerializer.encode(fields));
     }
 }
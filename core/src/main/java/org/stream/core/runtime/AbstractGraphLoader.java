@@ -22,6 +22,9 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -29,6 +32,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.annotation.Resource;
 
@@ -37,8 +43,10 @@ import org.springframework.context.ApplicationContext;
 import org.stream.core.component.Activity;
 import org.stream.core.component.ActivityResult;
 import org.stream.core.component.ActivityResult.Visitor;
+import org.stream.core.component.ExecutionPlan;
 import org.stream.core.component.Graph;
 import org.stream.core.component.Node;
+import org.stream.core.component.Prefetch;
 import org.stream.core.component.TowerActivity;
 import org.stream.core.exception.GraphLoadException;
 import org.stream.core.execution.AsyncPair;
@@ -48,10 +56,16 @@ import org.stream.core.execution.NextSteps.NextStepType;
 import org.stream.core.execution.StepPair;
 import org.stream.core.runtime.NodeConfiguration.AsyncNodeConfiguration;
 import org.stream.core.runtime.NodeConfiguration.DaemonNodeConfiguration;
+import org.stream.core.sentinel.AdaptiveConcurrencyLimiter;
+import org.stream.core.sentinel.ConcurrencyLimitConfiguration;
 import org.stream.core.sentinel.SentinelConfiguration;
 import org.stream.core.sentinel.SentinelRuleType;
 import org.stream.extension.io.Tower;
+import org.stream.extension.memo.MemoizationConfiguration;
+import org.stream.extension.memo.ResultMemoizer;
+import org.stream.extension.metrics.StreamMetrics;
 
+import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 
 import lombok.Data;
@@ -80,21 +94,140 @@ public abstract class AbstractGraphLoader implements GraphLoader {
 
     protected List<String> graphFilePaths = new LinkedList<>();
 
+    // Load state of the graph sources, used to reload the changed definitions.
+    private final Map<String, GraphSourceState> sources = new ConcurrentHashMap<>();
+
+    // Cache of validated graph configurations keyed by content hash, no cache if absent.
+    private GraphDefinitionCache definitionCache;
+
+    // Parallelism used to load graphs in batch.
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // Time in milliseconds spent loading each graph source, in the order they complete.
+    private final Map<String, Long> loadTimes = new ConcurrentHashMap<>();
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Graph loadGraphFromSource(final String sourcePath) throws GraphLoadException {
         log.info("Trying to load graph from [{}] now", sourcePath);
-        try (InputStream inputStream = loadInputStream(sourcePath)) {
-            Graph graph = loadGraph(inputStream, sourcePath);
-            graph.setOriginalDefinition(sourcePath);
+        GraphSourceState state = new GraphSourceState();
+        try (InputStream inputStream = loadInputStreamIfModified(sourcePath, state)) {
+            if (inputStream == null) {
+                throw new GraphLoadException(String.format("Graph definition is not available at [%s]", sourcePath));
+            }
+            Graph graph = compile(buildStringInput(inputStream), sourcePath);
+            graphContext.addGraph(graph);
+            state.setGraphName(graph.getGraphName());
+            sources.put(sourcePath, state);
             return graph;
         } catch (Exception e) {
             throw wrap(e);
         }
     }
 
+    /**
+     * Load the graphs from the sources in parallel with a fork-join pool sized by {@link #parallelism}. All the sources
+     * are tried even if some of them fail, the time spent on each source is logged and kept in {@link #loadTimes}.
+     * @param sourcePaths Source paths of the graph definitions.
+     * @return Graphs loaded.
+     * @throws GraphLoadException Exception thrown when any of the graphs fails to load, failures of the other graphs
+     *          are added as suppressed exceptions.
+     */
+    public List<Graph> loadGraphs(final Collection<String> sourcePaths) throws GraphLoadException {
+        long start = System.currentTimeMillis();
+        List<Graph> graphs = Collections.synchronizedList(new ArrayList<>(sourcePaths.size()));
+        List<GraphLoadException> failures = Collections.synchronizedList(new ArrayList<>());
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.submit(() -> sourcePaths.parallelStream().forEach(sourcePath -> {
+                long begin = System.currentTimeMillis();
+                try {
+                    graphs.add(loadGraphFromSource(sourcePath));
+                } catch (GraphLoadException e) {
+                    failures.add(e);
+                } finally {
+                    loadTimes.put(sourcePath, System.currentTimeMillis() - begin);
+                }
+            })).get();
+        } catch (ExecutionException e) {
+            throw wrap(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GraphLoadException(e);
+        } finally {
+            pool.shutdown();
+        }
+        report(sourcePaths, System.currentTimeMillis() - start);
+        if (!failures.isEmpty()) {
+            GraphLoadException exception = failures.get(0);
+            failures.subList(1, failures.size()).forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return graphs;
+    }
+
+    private void report(final Collection<String> sourcePaths, final long elapsed) {
+        log.info("[{}] graphs loaded in [{}] milliseconds with parallelism [{}]", sourcePaths.size(), elapsed, parallelism);
+        sourcePaths.stream()
+                .filter(loadTimes::containsKey)
+                .sorted(Comparator.comparingLong(loadTimes::get).reversed())
+                .forEach(sourcePath -> log.info("Graph [{}] loaded in [{}] milliseconds", sourcePath, loadTimes.get(sourcePath)));
+    }
+
+    /**
+     * Reload the graph from the source if the definition has been changed since it was loaded last time, the new
+     * version will be swapped into the graph context atomically via {@link GraphContext#upgradeGraph(Graph)}.
+     * Work-flows and tasks started on the previous version keep running on it. The change detection state of the
+     * source is only updated once the changed definition is compiled, so a failed reload is retried next time.
+     * @param sourcePath Source path of the graph definition.
+     * @return The graph installed in the graph context after reloading.
+     * @throws GraphLoadException Exception thrown when the changed definition can not be loaded, the previous version
+     *          is kept in this case.
+     */
+    public Graph reloadGraphFromSource(final String sourcePath) throws GraphLoadException {
+        GraphSourceState state = sources.computeIfAbsent(sourcePath, path -> new GraphSourceState());
+        GraphSourceState candidate = state.copy();
+        try (InputStream inputStream = loadInputStreamIfModified(sourcePath, candidate)) {
+            Graph current = state.getGraphName() == null ? null : graphContext.getGraph(state.getGraphName());
+            if (inputStream == null) {
+                return current;
+            }
+            String json = buildStringInput(inputStream);
+            if (current != null && hash(json).equals(current.getContentHash())) {
+                sources.put(sourcePath, candidate);
+                return current;
+            }
+            log.info("Graph definition changed at [{}], reloading", sourcePath);
+            Graph graph = compile(json, sourcePath);
+            Graph installed = graphContext.upgradeGraph(graph);
+            candidate.setGraphName(graph.getGraphName());
+            sources.put(sourcePath, candidate);
+            return installed;
+        } catch (Exception e) {
+            throw wrap(e);
+        }
+    }
+
+    /**
+     * Get the source paths of the graphs loaded by this loader.
+     * @return Source paths.
+     */
+    public Set<String> getLoadedSources() {
+        return sources.keySet();
+    }
+
+    /**
+     * Get the name of the graph loaded from the source.
+     * @param sourcePath Source path of the graph definition.
+     * @return Graph name, {@code null} if the source has not been loaded.
+     */
+    public String getLoadedGraphName(final String sourcePath) {
+        GraphSourceState state = sources.get(sourcePath);
+        return state == null ? null : state.getGraphName();
+    }
+
     private GraphLoadException wrap(final Exception e) {
         GraphLoadException throwable;
         if (e instanceof GraphLoadException) {
@@ -114,8 +247,23 @@ public abstract class AbstractGraphLoader implements GraphLoader {
      */
     protected abstract InputStream loadInputStream(final String sourcePath) throws GraphLoadException;
 
-    private Graph loadGraph(final InputStream inputStream, final String sourcePath) throws GraphLoadException {
+    /**
+     * Load input stream from the source path only if the definition may have been changed since the last load.
+     * Implementations able to detect changes cheaply (e.g. via file modification time or HTTP validators) should
+     * override this method and keep what they need in the state; the default implementation always loads the
+     * definition and leaves the change detection to the content hash.
+     * @param sourcePath Path to the graph definition file.
+     * @param state Load state of the source, updated by the implementations.
+     * @return Input stream of the graph file, or {@code null} if the definition is not modified.
+     * @throws GraphLoadException Graph load exception.
+     */
+    protected InputStream loadInputStreamIfModified(final String sourcePath, final GraphSourceState state) throws GraphLoadException {
+        return loadInputStream(sourcePath);
+    }
+
+    private Graph compile(final String json, final String sourcePath) throws GraphLoadException {
         Graph graph = new Graph();
+        graph.setContentHash(hash(json));
         // error cause
         StringBuilder cause = new StringBuilder(100);
         // Node and it's successor node pairs.
@@ -126,8 +274,16 @@ public abstract class AbstractGraphLoader implements GraphLoader {
         List<AsyncPair> daemonPairs = new LinkedList<>();
         // Tracked nodes in the graph.
         Map<String, Node> knowNodes = new HashMap<>();
+        String cacheKey = graph.getContentHash() + (circuitChecking ? "-c" : "");
+        GraphConfiguration graphConfiguration = definitionCache == null ? null : definitionCache.get(cacheKey);
+        boolean cached = graphConfiguration != null;
         try {
-            parse(graph, inputStream, stepPairs, asyncPairs, daemonPairs, knowNodes, cause);
+            if (!cached) {
+                log.info("Graph definition [{}] parsed from the input source", json);
+                graphConfiguration = GSON.fromJson(json, GraphConfiguration.class);
+                checkGraphConfiguration(graphConfiguration);
+            }
+            parse(graph, graphConfiguration, stepPairs, asyncPairs, daemonPairs, knowNodes, cause);
         } catch (IOException e) {
             throw new GraphLoadException("Failed to load graph configuration information from the definition file " + sourcePath, e);
         } catch (ClassNotFoundException e) {
@@ -137,20 +293,31 @@ public abstract class AbstractGraphLoader implements GraphLoader {
         } catch (IllegalAccessException e) {
             throw new GraphLoadException(String.format("No access to class [%s]", cause), e);
         }
-        if (circuitChecking) {
+        if (circuitChecking && !cached) {
             checkCircuit(graph);
         }
-        graphContext.addGraph(graph);
+        if (!cached && definitionCache != null) {
+            definitionCache.put(cacheKey, graphConfiguration);
+        }
+        ExecutionPlan executionPlan = GraphAnalyzer.analyze(graph, graphContext::getGraph);
+        executionPlan.getWarnings().forEach(warning -> log.warn("Graph [{}]: {}", graph.getGraphName(), warning));
+        graph.setExecutionPlan(executionPlan);
+        graph.setOriginalDefinition(sourcePath);
         return graph;
     }
 
-    private void parse(final Graph graph, final InputStream input, final List<StepPair> stepPairs, final List<AsyncPair> asyncPairs, final List<AsyncPair> daemonPairs,
-            final Map<String, Node> knowNodes, final StringBuilder cause) throws GraphLoadException, ClassNotFoundException,
+    private static String hash(final String json) {
+        return Hashing.sha256().hashString(json, StandardCharsets.UTF_8).toString();
+    }
+
+    private void parse(final Graph graph, final GraphConfiguration graphConfiguration, final List<StepPair> stepPairs, final List<AsyncPair> asyncPairs,
+            final List<AsyncPair> daemonPairs, final Map<String, Node> knowNodes, final StringBuilder cause) throws GraphLoadException, ClassNotFoundException,
                     InstantiationException, IllegalAccessException, IOException {
-        String json = buildStringInput(input);
-        log.info("Graph definition [{}] parsed from the input source", json);
-        GraphConfiguration graphConfiguration = parseGraphConfiguration(json, graph);
+        graph.setGraphName(graphConfiguration.getGraphName());
         graph.setPrimaryResourceType(graphConfiguration.getPrimaryResourceType());
+        if (graphConfiguration.getMemoization() != null) {
+            graph.setMemoizer(new ResultMemoizer<>(graphConfiguration.getGraphName(), graphConfiguration.getMemoization()));
+        }
         NodeConfiguration[] nodes = graphConfiguration.getNodes();
         List<Node> staticNodes = new ArrayList<>();
         for (NodeConfiguration nodeConfiguration : nodes) {
@@ -167,13 +334,6 @@ public abstract class AbstractGraphLoader implements GraphLoader {
         resolveDaemonDependencies(daemonPairs, knowNodes);
     }
 
-    private GraphConfiguration parseGraphConfiguration(final String compressedInputString, final Graph graph) throws GraphLoadException {
-        GraphConfiguration graphConfiguration = GSON.fromJson(compressedInputString, GraphConfiguration.class);
-        checkGraphConfiguration(graphConfiguration);
-        graph.setGraphName(graphConfiguration.getGraphName());
-        return graphConfiguration;
-    }
-
     private void setDefaultHandlers(final Graph graph, final List<Node> staticNodes, final Map<String, Node> knowNodes,
             final GraphConfiguration graphConfiguration) {
         graph.setNodes(staticNodes);
@@ -200,6 +360,10 @@ public abstract class AbstractGraphLoader implements GraphLoader {
                 .nodeName(currentNodeName)
                 .next(new NextSteps())
                 .subflows(nodeConfiguration.getSubflows())
+                .prefetches(nodeConfiguration.getPrefetches())
+                .concurrencyLimiter(initiateConcurrencyLimiter(graph, nodeConfiguration))
+                .memoizer(nodeConfiguration.getMemoization() == null ? null
+                        : new ResultMemoizer<>(graph.getGraphName() + "::" + currentNodeName, nodeConfiguration.getMemoization()))
                 .build();
 
         staticNodes.add(node);
@@ -209,7 +373,8 @@ public abstract class AbstractGraphLoader implements GraphLoader {
         addSentinelHook(graph, nodeConfiguration);
     }
 
-    private Activity initiateActivity(final String providerClass, final StringBuilder cause) throws ClassNotFoundException, GraphLoadException {
+    // Synchronized so that graphs loaded in parallel share one activity instance per provider class.
+    private synchronized Activity initiateActivity(final String providerClass, final StringBuilder cause) throws ClassNotFoundException, GraphLoadException {
         if (!graphContext.isActivityRegistered(providerClass)) {
             cause.append(providerClass);
             Class<?> clazz = Class.forName(providerClass);
@@ -352,6 +517,13 @@ public abstract class AbstractGraphLoader implements GraphLoader {
         if (nodes == null || nodes.length == 0) {
             throw new GraphLoadException("No node definition information found in the graph definition file!");
         }
+        checkMemoizationConfiguration(graphConfiguration.getMemoization(), "graph " + graphName);
+    }
+
+    private void checkMemoizationConfiguration(final MemoizationConfiguration memoization, final String owner) throws GraphLoadException {
+        if (memoization != null && (memoization.getTtl() <= 0 || memoization.getMaxSize() <= 0)) {
+            throw new GraphLoadException(String.format("Memoization ttl and max size of %s should be positive", owner));
+        }
     }
 
     private void checkNodeConfiguration(final NodeConfiguration nodeConfiguration) throws GraphLoadException {
@@ -363,6 +535,23 @@ public abstract class AbstractGraphLoader implements GraphLoader {
         if (providerClass == null || !providerClass.contains(".")) {
             throw new GraphLoadException("Provider class name is not correct or not specified!");
         }
+        if (nodeConfiguration.getPrefetches() != null) {
+            for (Prefetch prefetch : nodeConfiguration.getPrefetches()) {
+                if (prefetch == null || prefetch.getAuthority() == null || prefetch.getPath() == null) {
+                    throw new GraphLoadException(String.format("Prefetch authority and path should be specified for node [%s]", nodeName));
+                }
+            }
+        }
+        ConcurrencyLimitConfiguration limit = nodeConfiguration.getConcurrencyLimit();
+        if (limit != null && (limit.getMinLimit() < 1 || limit.getMinLimit() > limit.getMaxLimit()
+                || limit.getSmoothing() <= 0 || limit.getSmoothing() > 1 || limit.getTolerance() < 1)) {
+            throw new GraphLoadException(String.format("Concurrency limit configuration of node [%s] is not correct", nodeName));
+        }
+        checkMemoizationConfiguration(nodeConfiguration.getMemoization(), "node " + nodeName);
+        if (nodeConfiguration.getMemoization() != null
+                && (ArrayUtils.isNotEmpty(nodeConfiguration.getAsyncDependencies()) || ArrayUtils.isNotEmpty(nodeConfiguration.getDaemons()))) {
+            throw new GraphLoadException(String.format("Memoized node [%s] should not have asynchronous dependencies", nodeName));
+        }
     }
 
     private List<StepPair> setUpNextSteps(final NodeConfiguration nodeConfiguration, final String predecessorNode) {
@@ -459,7 +648,16 @@ public abstract class AbstractGraphLoader implements GraphLoader {
         nodes.remove(child.getNodeName());
     }
 
-    private void addSentinelHook(final Graph graph, final NodeConfiguration nodeConfiguration) {
+    private AdaptiveConcurrencyLimiter initiateConcurrencyLimiter(final Graph graph, final NodeConfiguration nodeConfiguration) {
+        if (nodeConfiguration.getConcurrencyLimit() == null) {
+            return null;
+        }
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(nodeConfiguration.getConcurrencyLimit());
+        StreamMetrics.registerConcurrencyLimit(graph.getGraphName(), nodeConfiguration.getNodeName(), limiter);
+        return limiter;
+    }
+
+    private synchronized void addSentinelHook(final Graph graph, final NodeConfiguration nodeConfiguration) {
         if (nodeConfiguration.getSentinelConfiguration() != null) {
             for (SentinelConfiguration sentinelConfiguration : nodeConfiguration.getSentinelConfiguration()) {
                 SentinelRuleType sentinelRuleType = SentinelRuleType.fromType(sentinelConfiguration.getType());
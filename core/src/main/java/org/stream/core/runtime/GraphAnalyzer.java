@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.runtime;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.stream.core.component.Condition;
+import org.stream.core.component.ExecutionPlan;
+import org.stream.core.component.Graph;
+import org.stream.core.component.Node;
+import org.stream.core.component.SubFlow;
+import org.stream.core.execution.NextSteps;
+
+/**
+ * Load-time static analyzer of graphs, computing the reachability of the nodes, the loops, the depth of nested sub
+ * work-flows and the asynchronous regions of a graph into an {@link ExecutionPlan}.
+ * <p>
+ * The transitions considered are the ones the engine may follow at runtime: success, fail (falling back to the
+ * default error node), suspend, check and condition steps; invoking a sub work-flow returns to the success step.
+ * @author guanxiong wei
+ *
+ */
+public final class GraphAnalyzer {
+
+    private GraphAnalyzer() { }
+
+    /**
+     * Analyze the graph.
+     * @param graph Graph to be analyzed.
+     * @param graphs Function to look up the other graphs by name, used to analyze the nested sub work-flows.
+     * @return Execution plan of the graph.
+     */
+    public static ExecutionPlan analyze(final Graph graph, final Function<String, Graph> graphs) {
+        List<String> warnings = new LinkedList<>();
+        Map<String, List<Node>> edges = new LinkedHashMap<>();
+        for (Node node : graph.getNodes()) {
+            edges.put(node.getNodeName(), successors(graph, node));
+        }
+
+        Set<String> reachable = reachable(graph, edges);
+        Set<String> unreachable = new LinkedHashSet<>(edges.keySet());
+        unreachable.removeAll(reachable);
+        if (!unreachable.isEmpty()) {
+            warnings.add(String.format("Nodes %s can never be executed", unreachable));
+        }
+
+        List<Set<String>> cycles = new Tarjan(edges).run();
+        List<Set<String>> unguarded = new ArrayList<>();
+        for (Set<String> cycle : cycles) {
+            boolean suspendable = cycle.stream()
+                    .map(graph::getNode)
+                    .anyMatch(node -> node.getNext() != null && node.getNext().onSuspend() != null);
+            if (!suspendable) {
+                unguarded.add(cycle);
+                warnings.add(String.format("Nodes %s form a loop without any SUSPEND exit", cycle));
+            }
+        }
+
+        int depth = subflowDepth(graph, graphs, new HashSet<>(), warnings);
+
+        Map<String, List<String>> asyncRegions = new LinkedHashMap<>();
+        for (Node node : graph.getNodes()) {
+            List<String> region = new ArrayList<>();
+            names(node.getAsyncDependencies(), region);
+            names(node.getDaemons(), region);
+            if (!region.isEmpty()) {
+                asyncRegions.put(node.getNodeName(), Collections.unmodifiableList(region));
+            }
+        }
+
+        return ExecutionPlan.builder()
+                .graphName(graph.getGraphName())
+                .reachableNodes(Collections.unmodifiableSet(reachable))
+                .unreachableNodes(Collections.unmodifiableSet(unreachable))
+                .cycles(Collections.unmodifiableList(cycles))
+                .cyclesWithoutSuspendExit(Collections.unmodifiableList(unguarded))
+                .maxSubflowDepth(depth)
+                .asyncRegions(Collections.unmodifiableMap(asyncRegions))
+                .warnings(Collections.unmodifiableList(warnings))
+                .build();
+    }
+
+    /**
+     * Collect the nodes a node may transfer to, including the graph's default error node when the node has no failure step.
+     * @param graph Graph the node belongs to.
+     * @param node Source node.
+     * @return Distinct successors of the node.
+     */
+    public static List<Node> successors(final Graph graph, final Node node) {
+        List<Node> successors = new ArrayList<>();
+        NextSteps next = node.getNext();
+        if (next != null) {
+            add(successors, next.onSuccess());
+            add(successors, next.onFail() != null || node == graph.getDefaultErrorNode() ? next.onFail() : graph.getDefaultErrorNode());
+            add(successors, next.onSuspend());
+            add(successors, next.onCheck());
+        }
+        if (node.getConditions() != null) {
+            for (Condition condition : node.getConditions()) {
+                add(successors, graph.getNode(condition.getNextStep()));
+            }
+        }
+        return successors;
+    }
+
+    private static void add(final List<Node> successors, final Node node) {
+        // Compare by identity, nodes' equals walks through the whole graph.
+        if (node != null && successors.stream().noneMatch(successor -> successor == node)) {
+            successors.add(node);
+        }
+    }
+
+    private static Set<String> reachable(final Graph graph, final Map<String, List<Node>> edges) {
+        Set<String> reachable = new LinkedHashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        if (graph.getStartNode() != null) {
+            pending.push(graph.getStartNode());
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (!reachable.add(node.getNodeName())) {
+                continue;
+            }
+            edges.getOrDefault(node.getNodeName(), Collections.emptyList()).forEach(pending::push);
+            if (node.getAsyncDependencies() != null) {
+                node.getAsyncDependencies().forEach(pending::push);
+            }
+            if (node.getDaemons() != null) {
+                node.getDaemons().forEach(pending::push);
+            }
+        }
+        return reachable;
+    }
+
+    private static int subflowDepth(final Graph graph, final Function<String, Graph> graphs, final Set<String> visiting,
+            final List<String> warnings) {
+        if (!visiting.add(graph.getGraphName())) {
+            warnings.add(String.format("Graph [%s] invokes itself recursively via sub work-flows", graph.getGraphName()));
+            return -1;
+        }
+        int depth = 0;
+        for (Node node : graph.getNodes()) {
+            if (CollectionUtils.isEmpty(node.getSubflows())) {
+                continue;
+            }
+            for (SubFlow subFlow : node.getSubflows()) {
+                Graph child = graphs.apply(subFlow.getGraph());
+                if (child == null) {
+                    // The graph may be loaded later, count it as a leaf.
+                    depth = Math.max(depth, 1);
+                    continue;
+                }
+                int childDepth = subflowDepth(child, graphs, visiting, warnings);
+                if (childDepth < 0) {
+                    visiting.remove(graph.getGraphName());
+                    return -1;
+                }
+                depth = Math.max(depth, childDepth + 1);
+            }
+        }
+        visiting.remove(graph.getGraphName());
+        return depth;
+    }
+
+    private static void names(final List<Node> nodes, final List<String> names) {
+        if (nodes != null) {
+            nodes.forEach(node -> names.add(node.getNodeName()));
+        }
+    }
+
+    // Tarjan's strongly connected components algorithm, only the components forming loops are returned.
+    private static final class Tarjan {
+        private final Map<String, List<Node>> edges;
+        private final Map<String, Integer> index = new HashMap<>();
+        private final Map<String, Integer> low = new HashMap<>();
+        private final Deque<String> stack = new ArrayDeque<>();
+        private final Set<String> onStack = new HashSet<>();
+        private final List<Set<String>> cycles = new ArrayList<>();
+        private int counter = 0;
+
+        private Tarjan(final Map<String, List<Node>> edges) {
+            this.edges = edges;
+        }
+
+        private List<Set<String>> run() {
+            for (String node : edges.keySet()) {
+                if (!index.containsKey(node)) {
+                    connect(node);
+                }
+            }
+            return cycles;
+        }
+
+        private void connect(final String node) {
+            index.put(node, counter);
+            low.put(node, counter);
+            counter++;
+            stack.push(node);
+            onStack.add(node);
+            boolean selfLoop = false;
+            for (Node successor : edges.getOrDefault(node, Collections.emptyList())) {
+                String next = successor.getNodeName();
+                if (next.equals(node)) {
+                    selfLoop = true;
+                }
+                if (!index.containsKey(next)) {
+                    connect(next);
+                    low.put(node, Math.min(low.get(node), low.get(next)));
+                } else if (onStack.contains(next)) {
+                    low.put(node, Math.min(low.get(node), index.get(next)));
+                }
+            }
+            if (low.get(node).equals(index.get(node))) {
+                Set<String> component = new LinkedHashSet<>();
+                String member;
+                do {
+                    member = stack.pop();
+                    onStack.remove(member);
+                    component.add(member);
+                } while (!member.equals(node));
+                if (component.size() > 1 || selfLoop) {
+                    cycles.add(Collections.unmodifiableSet(component));
+                }
+            }
+        }
+    }
+}
@@ -16,8 +16,13 @@
 
 package org.stream.core.runtime;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 import org.stream.core.component.ActivityResult;
 import org.stream.core.execution.AutoScheduledEngine;
+import org.stream.core.execution.DefaultEngine;
+import org.stream.extension.memo.MemoizationConfiguration;
 
 import lombok.Data;
 
@@ -27,7 +32,10 @@ import lombok.Data;
  * graph definition file, which has a suffix ".graph"
  */
 @Data
-public class GraphConfiguration {
+public class GraphConfiguration implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * Graph name, after the graph is loaded, the application can use the graph by getting from the graph context using
@@ -57,4 +65,10 @@ public class GraphConfiguration {
      * Serializing framework will use it to serialize the resource when communicate with the remote actors.
      */
     private String primaryResourceType;
+
+    /**
+     * Result memoization configuration, once specified the {@link DefaultEngine} memoizes the resource tanks produced by the graph
+     * keyed by the fingerprint of the primary resource. Only graphs which are pure functions of the primary resource should turn it on.
+     */
+    private MemoizationConfiguration memoization;
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.runtime;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.stream.extension.io.HessianIOSerializer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content-hashed cache of parsed and validated graph configurations. Graph definitions whose content hash is found in
+ * the cache skip JSON parsing, configuration checking and circuit checking, only the activities need to be resolved.
+ * <p>
+ * Entries are kept in memory and, if a directory is specified, persisted to the directory so that unchanged
+ * definitions are not validated again across restarts. Entries are immutable by content, so stale files never need
+ * to be invalidated; files that can not be read are treated as misses.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class GraphDefinitionCache {
+
+    private static final String SUFFIX = ".graphcache";
+
+    private final Map<String, GraphConfiguration> entries = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    /**
+     * Constructor of memory only cache.
+     */
+    public GraphDefinitionCache() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     * @param directory Directory the entries are persisted to, {@code null} to keep them in memory only.
+     */
+    public GraphDefinitionCache(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the validated configuration of the definition.
+     * @param key Content hash based key of the definition.
+     * @return Cached configuration, {@code null} if absent.
+     */
+    public GraphConfiguration get(final String key) {
+        GraphConfiguration configuration = entries.get(key);
+        if (configuration != null || directory == null) {
+            return configuration;
+        }
+        Path file = directory.resolve(key + SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            configuration = HessianIOSerializer.decode(Files.readAllBytes(file), GraphConfiguration.class);
+            entries.putIfAbsent(key, configuration);
+            return configuration;
+        } catch (Exception e) {
+            log.warn("Fail to read cached graph definition [{}], it will be parsed again", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Cache the validated configuration of the definition.
+     * @param key Content hash based key of the definition.
+     * @param configuration Validated configuration.
+     */
+    public void put(final String key, final GraphConfiguration configuration) {
+        entries.put(key, configuration);
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            // Write to a temporary file first so that concurrent readers never see a partial entry.
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, HessianIOSerializer.encode(configuration));
+            Files.move(temp, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Fail to persist graph definition cache entry [{}]", key, e);
+        }
+    }
+}
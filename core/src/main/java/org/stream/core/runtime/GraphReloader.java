@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.runtime;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.stream.core.component.Graph;
+import org.stream.core.exception.GraphLoadException;
+import org.stream.core.execution.GraphContext;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Watcher reloading the changed graph definitions without restarting the engine.
+ * <p>
+ * The reloader polls all the sources loaded by the {@link AbstractGraphLoader} every {@link #interval} milliseconds,
+ * local files are checked by modification time and HTTP sources by conditional requests, changed definitions are
+ * compiled and swapped into the {@link GraphContext} atomically. In-flight work-flows and persisted tasks keep the
+ * version they started on. A definition failing to load is logged and the previous version is kept.
+ * <p>
+ * Spring applications get a reloader started once the graphs are loaded by the auto configuration, either by
+ * defining a reloader bean or by setting {@link org.stream.extension.settings.Settings#GRAPH_RELOAD_INTERVAL}.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class GraphReloader {
+
+    @Setter
+    private AbstractGraphLoader graphLoader;
+
+    // Time interval in milliseconds between two rounds.
+    @Setter
+    private long interval = 30 * 1000L;
+
+    @Setter
+    private ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stream-graph-reloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Getter
+    private final AtomicLong reloadedGraphs = new AtomicLong();
+
+    @Getter
+    private final AtomicLong failedReloads = new AtomicLong();
+
+    /**
+     * Initiate the back-end worker to reload the changed graphs periodically.
+     */
+    public void init() {
+        scheduledExecutorService.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (Exception e) {
+                log.warn("Fail to reload graphs", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Graph reloader initiated with interval [{}] milliseconds", interval);
+    }
+
+    /**
+     * Stop the back-end worker.
+     */
+    public void destroy() {
+        scheduledExecutorService.shutdownNow();
+    }
+
+    /**
+     * Run one round of reloading.
+     * @return Number of graphs upgraded in this round.
+     */
+    public int reload() {
+        int upgraded = 0;
+        for (String source : new ArrayList<>(graphLoader.getLoadedSources())) {
+            try {
+                Graph current = currentVersion(source);
+                Graph reloaded = graphLoader.reloadGraphFromSource(source);
+                if (reloaded != null && reloaded != current) {
+                    upgraded++;
+                    reloadedGraphs.incrementAndGet();
+                }
+            } catch (GraphLoadException e) {
+                failedReloads.incrementAndGet();
+                log.warn("Fail to reload graph from [{}], the current version is kept", source, e);
+            }
+        }
+        return upgraded;
+    }
+
+    private Graph currentVersion(final String source) {
+        String graphName = graphLoader.getLoadedGraphName(source);
+        return graphName == null ? null : graphLoader.getGraphContext().getGraph(graphName);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.runtime;
+
+import lombok.Data;
+
+/**
+ * Load state of a graph definition source, kept by the graph loaders to detect whether the definition has been
+ * changed since it was loaded last time.
+ * @author guanxiong wei
+ *
+ */
+@Data
+public class GraphSourceState {
+
+    // Name of the graph loaded from the source.
+    private String graphName;
+
+    // Entity tag returned by the remote server.
+    private String etag;
+
+    // Last modification time of the source in milliseconds.
+    private long lastModified;
+
+    /**
+     * Copy the state.
+     * @return A new state with the same values.
+     */
+    public GraphSourceState copy() {
+        GraphSourceState copy = new GraphSourceState();
+        copy.setGraphName(graphName);
+        copy.setEtag(etag);
+        copy.setLastModified(lastModified);
+        return copy;
+    }
+}
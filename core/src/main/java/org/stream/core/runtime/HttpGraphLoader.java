@@ -25,26 +25,55 @@ import java.net.URL;
 
 import org.stream.core.exception.GraphLoadException;
 
+import lombok.Setter;
+
 /**
  * A enhanced graph loader that be used to load or reload graphs that changes can be done in run-time.
  */
 public class HttpGraphLoader extends AbstractGraphLoader {
 
+    // Time in milliseconds to wait for the remote server to respond.
+    @Setter
+    private int readTimeout = 5000;
+
     /**
      * {@inheritDoc}
      */
     @Override
     protected InputStream loadInputStream(final String sourcePath) throws GraphLoadException {
+        return loadInputStreamIfModified(sourcePath, new GraphSourceState());
+    }
+
+    /**
+     * {@inheritDoc}
+     * Conditional requests are sent with the entity tag and modification time returned last time, so the definition
+     * is only transferred when the server reports it is changed.
+     */
+    @Override
+    protected InputStream loadInputStreamIfModified(final String sourcePath, final GraphSourceState state) throws GraphLoadException {
         try {
             URI uri = new URI(sourcePath);
             URL url = uri.toURL();
             HttpURLConnection httpURLConnection = (HttpURLConnection) url.openConnection();
             httpURLConnection.setConnectTimeout(3000);
+            httpURLConnection.setReadTimeout(readTimeout);
+            if (state.getEtag() != null) {
+                httpURLConnection.setRequestProperty("If-None-Match", state.getEtag());
+            }
+            if (state.getLastModified() > 0) {
+                httpURLConnection.setIfModifiedSince(state.getLastModified());
+            }
             httpURLConnection.connect();
             int code = httpURLConnection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                httpURLConnection.disconnect();
+                return null;
+            }
             if (code != 200) {
                 throw new GraphLoadException("Fail to connection to remote server");
             }
+            state.setEtag(httpURLConnection.getHeaderField("ETag"));
+            state.setLastModified(httpURLConnection.getLastModified());
             return httpURLConnection.getInputStream();
         } catch (URISyntaxException e) {
             throw new GraphLoadException("Unavailable uri", e);
@@ -16,16 +16,22 @@
 
 package org.stream.core.runtime;
 
+import java.io.File;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
 
 import org.springframework.util.CollectionUtils;
 import org.stream.core.exception.GraphLoadException;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * Graph helper who is responsible to load graphs from specific graph definition files in local disk.
  * Basically a graph definition file should be named with suffix ".graph" and the file content
  * should be stored as standard json string of object {@link GraphConfiguration}.
  */
+@Slf4j
 public class LocalGraphLoader extends AbstractGraphLoader {
 
     /**
@@ -45,9 +51,30 @@ public class LocalGraphLoader extends AbstractGraphLoader {
         if (CollectionUtils.isEmpty(graphFilePaths)) {
             throw new GraphLoadException("Graph definition file paths not specified!");
         }
-        for (String path : graphFilePaths) {
-            loadGraphFromSource(path);
+        loadGraphs(graphFilePaths);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Definitions located in the file system are skipped if their modification time is not changed, definitions
+     * packaged in jars are always loaded and compared by content hash.
+     */
+    @Override
+    protected InputStream loadInputStreamIfModified(final String sourcePath, final GraphSourceState state) throws GraphLoadException {
+        String path = sourcePath.endsWith(".graph") ? sourcePath : sourcePath + ".graph";
+        URL url = getClass().getResource(DEFAULT_GRAPH_FILE_PATH_PREFIX + path);
+        if (url != null && "file".equals(url.getProtocol())) {
+            try {
+                long lastModified = new File(url.toURI()).lastModified();
+                if (lastModified > 0 && lastModified == state.getLastModified()) {
+                    return null;
+                }
+                state.setLastModified(lastModified);
+            } catch (URISyntaxException e) {
+                log.warn("Fail to resolve the modification time of graph [{}]", url, e);
+            }
         }
+        return loadInputStream(sourcePath);
     }
 
     /**
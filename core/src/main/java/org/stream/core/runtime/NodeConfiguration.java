@@ -16,14 +16,19 @@
 
 package org.stream.core.runtime;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.List;
 
 import org.stream.core.component.Activity;
 import org.stream.core.component.ActivityResult;
 import org.stream.core.component.Condition;
+import org.stream.core.component.Prefetch;
 import org.stream.core.component.SubFlow;
 import org.stream.core.execution.AutoScheduledEngine;
+import org.stream.core.sentinel.ConcurrencyLimitConfiguration;
 import org.stream.core.sentinel.SentinelConfiguration;
+import org.stream.extension.memo.MemoizationConfiguration;
 import org.stream.extension.io.Tower;
 
 import lombok.Data;
@@ -34,7 +39,10 @@ import lombok.Setter;
  * Node configuration encapsulation, which is used to initiate a node in a graph.
  */
 @Data
-public class NodeConfiguration {
+public class NodeConfiguration implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * The node's name, precise of the purpose of the node.
@@ -106,6 +114,12 @@ public class NodeConfiguration {
      */
     private List<SubFlow> subflows;
 
+    /**
+     * Resources the node will need, the engine will prefetch them into the work-flow resource tank
+     * while the predecessor nodes are still running.
+     */
+    private List<Prefetch> prefetches;
+
     /**
      * The flag indicated it the node is degradable,
      * once the engine found that this node is not available and the flag is set as true,
@@ -118,6 +132,19 @@ public class NodeConfiguration {
      */
     private SentinelConfiguration[] sentinelConfiguration;
 
+    /**
+     * Adaptive concurrency limit configuration, once specified the engine limits the concurrent executions
+     * of the node based on the observed latency and suspends the node when the limit is reached.
+     */
+    private ConcurrencyLimitConfiguration concurrencyLimit;
+
+    /**
+     * Result memoization configuration, once specified the engine memoizes the node's activity result and the resources
+     * it attaches keyed by the fingerprint of the primary resource. Only nodes which are pure functions of the primary resource
+     * and have no asynchronous dependencies should turn it on.
+     */
+    private MemoizationConfiguration memoization;
+
     /**
      * Encapsulation of asynchronous Node configuration, which is used to initiate an asynchronous node.
      * These async activities will be shutdown once the workflow is finished.
@@ -128,7 +155,11 @@ public class NodeConfiguration {
      */
     @Setter
     @Getter
-    public static class AsyncNodeConfiguration {
+    public static class AsyncNodeConfiguration implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
         private String asyncNode;
 
         private long timeout;
@@ -139,7 +170,11 @@ public class NodeConfiguration {
      */
     @Setter
     @Getter
-    public static class DaemonNodeConfiguration {
+    public static class DaemonNodeConfiguration implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
         private String daemonNode;
     }
 
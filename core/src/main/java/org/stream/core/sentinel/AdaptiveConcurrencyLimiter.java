@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.sentinel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gradient based adaptive concurrency limiter guarding one node. The limiter keeps a slowly moving long term
+ * latency as the baseline and compares it with the average latency of the latest sampling window; while the
+ * short term latency stays around the baseline the limit grows by a small queue headroom, once the node slows
+ * down (queueing somewhere behind it) the limit shrinks proportionally to the gradient.
+ * <p>
+ * Acquiring and releasing only touch a couple of atomic variables, the estimation runs once per window on the
+ * thread that closes the window.
+ * @author guanxiong wei
+ *
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // Weight of a window in the long term latency, roughly the average of the latest 20 windows.
+    private static final double LONG_TERM_WEIGHT = 0.05;
+
+    // Lower bound of the gradient so one slow window never halves the limit more than once.
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final ConcurrencyLimitConfiguration configuration;
+
+    private final long windowNanos;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final AtomicInteger peakInflight = new AtomicInteger();
+
+    private final LongAdder windowLatency = new LongAdder();
+
+    private final LongAdder windowSamples = new LongAdder();
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    private volatile double limit;
+
+    private double longTermLatency;
+
+    /**
+     * Constructor.
+     * @param configuration Limit configuration.
+     */
+    public AdaptiveConcurrencyLimiter(final ConcurrencyLimitConfiguration configuration) {
+        this.configuration = configuration;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getWindowMillis());
+        this.limit = clamp(configuration.getInitialLimit());
+    }
+
+    /**
+     * Try to occupy a slot, the caller should invoke {@link #release(long)} once the work is done if and only if
+     * this method returns {@code true}.
+     * @return {@code true} if the concurrency limit is not reached.
+     */
+    public boolean tryAcquire() {
+        int current = inflight.incrementAndGet();
+        if (current > (int) limit) {
+            inflight.decrementAndGet();
+            return false;
+        }
+        if (current > peakInflight.get()) {
+            peakInflight.accumulateAndGet(current, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * Release the slot occupied by {@link #tryAcquire()} and feed the observed latency back to the limiter.
+     * @param nanos Time cost of the work in nanoseconds.
+     */
+    public void release(final long nanos) {
+        inflight.decrementAndGet();
+        windowLatency.add(nanos);
+        windowSamples.increment();
+
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowSamples.sum() >= configuration.getMinWindowSamples()
+                && windowStart.compareAndSet(start, now)) {
+            long samples = windowSamples.sumThenReset();
+            long latency = windowLatency.sumThenReset();
+            if (samples > 0) {
+                estimate((double) latency / samples, peakInflight.getAndSet(inflight.get()));
+            }
+        }
+    }
+
+    /**
+     * Current concurrency limit.
+     * @return Concurrency limit.
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Number of works currently holding a slot.
+     * @return Inflight works.
+     */
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * Milliseconds to wait before retrying a limited work in place.
+     * @return Backoff in milliseconds.
+     */
+    public int getBackoff() {
+        return configuration.getBackoff();
+    }
+
+    private synchronized void estimate(final double shortTermLatency, final int peak) {
+        if (longTermLatency == 0) {
+            longTermLatency = shortTermLatency;
+        } else {
+            longTermLatency = longTermLatency * (1 - LONG_TERM_WEIGHT) + shortTermLatency * LONG_TERM_WEIGHT;
+        }
+        // Latency improved a lot (e.g. the downstream recovered), let the baseline catch up quickly.
+        if (longTermLatency > shortTermLatency * 2) {
+            longTermLatency *= 0.95;
+        }
+
+        double current = limit;
+        // The node did not even use half of the limit, the latency tells nothing about a higher limit.
+        if (peak < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, configuration.getTolerance() * longTermLatency / shortTermLatency));
+        // Only grow while the node is not slower than the baseline, otherwise the baseline drifting up under a sustained
+        // slow down would let the limit climb back within the tolerance.
+        double headroom = shortTermLatency <= longTermLatency ? Math.sqrt(current) : 0;
+        double estimated = current * gradient + headroom;
+        double smoothing = configuration.getSmoothing();
+        limit = clamp(current * (1 - smoothing) + estimated * smoothing);
+    }
+
+    private double clamp(final double value) {
+        return Math.max(configuration.getMinLimit(), Math.min(configuration.getMaxLimit(), value));
+    }
+}
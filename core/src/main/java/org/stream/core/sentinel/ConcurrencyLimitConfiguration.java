@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.core.sentinel;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+import lombok.Data;
+
+/**
+ * Adaptive concurrency limit configuration at node level. Instead of a static threshold the engine
+ * tunes the number of concurrent executions allowed on the node from the observed latency,
+ * the values here only bound and damp the adjustment.
+ * @author guanxiong wei
+ *
+ */
+@Data
+public class ConcurrencyLimitConfiguration implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Concurrency limit used before any latency is observed.
+    private int initialLimit = 20;
+
+    // Lower bound of the limit.
+    private int minLimit = 1;
+
+    // Upper bound of the limit.
+    private int maxLimit = 200;
+
+    // Weight of the new estimation when updating the limit, in range (0, 1].
+    private double smoothing = 0.2;
+
+    // How much the short term latency may exceed the long term one before the limit is reduced.
+    private double tolerance = 1.5;
+
+    // Length of a sampling window in milliseconds, the limit is re-estimated once per window.
+    private int windowMillis = 1000;
+
+    // Minimal samples a window should collect before the limit is re-estimated.
+    private int minWindowSamples = 10;
+
+    // Milliseconds the default engine waits before retrying a limited node in place.
+    private int backoff = 100;
+}
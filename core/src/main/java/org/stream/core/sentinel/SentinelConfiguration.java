@@ -16,13 +16,19 @@
 
 package org.stream.core.sentinel;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 import lombok.Data;
 
 /**
  * Sentinel configuration at node level.
  */
 @Data
-public class SentinelConfiguration {
+public class SentinelConfiguration implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     // Throttle type, by exceptional rate or rt.
     private String type;
@@ -1,5 +1,6 @@
 package org.stream.core.sentinel;
 
+import com.alibaba.csp.sentinel.slots.block.AbstractRule;
 import com.alibaba.csp.sentinel.slots.block.Rule;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
@@ -7,9 +8,10 @@ import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.ToIntFunction;
 
 /**
  * Sentinel rule type.
@@ -36,8 +38,9 @@ public enum SentinelRuleType {
             degradeRule.setStatIntervalMs(sentinelConfiguration.getDuration());
             degradeRule.setResource(sentinelConfiguration.getResourceName());
             degradeRule.setGrade(sentinelConfiguration.getGrade());
-            List<DegradeRule> degradeRules = Collections.singletonList(degradeRule);
-            DegradeRuleManager.loadRules(degradeRules);
+            synchronized (SentinelRuleType.class) {
+                DegradeRuleManager.loadRules(merge(DegradeRuleManager.getRules(), degradeRule, DegradeRule::getGrade));
+            }
         }
     },
 
@@ -56,13 +59,30 @@ public enum SentinelRuleType {
             flowRule.setCount(sentinelConfiguration.getValueThreshold());
             flowRule.setResource(sentinelConfiguration.getResourceName());
             flowRule.setGrade(sentinelConfiguration.getGrade());
-            List<FlowRule> flowRules = Collections.singletonList(flowRule);
-            FlowRuleManager.loadRules(flowRules);
+            synchronized (SentinelRuleType.class) {
+                FlowRuleManager.loadRules(merge(FlowRuleManager.getRules(), flowRule, FlowRule::getGrade));
+            }
         }
     };
 
+    /**
+     * Add the rule described by the configuration, the rules already loaded for the other resources are kept,
+     * a rule with the same resource and grade is replaced so that reloading a graph does not pile up rules.
+     * @param sentinelConfiguration Sentinel configuration.
+     */
     public abstract void addRule(final SentinelConfiguration sentinelConfiguration);
 
+    private static <T extends AbstractRule> List<T> merge(final List<T> existing, final T rule, final ToIntFunction<T> grade) {
+        List<T> merged = new ArrayList<>(existing.size() + 1);
+        for (T candidate : existing) {
+            if (!Objects.equals(candidate.getResource(), rule.getResource()) || grade.applyAsInt(candidate) != grade.applyAsInt(rule)) {
+                merged.add(candidate);
+            }
+        }
+        merged.add(rule);
+        return merged;
+    }
+
     private final String type;
 
     SentinelRuleType(final String type) {
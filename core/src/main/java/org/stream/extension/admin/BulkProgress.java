@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.admin;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Progress of a bulk administration operation.
+ * @author guanxiong wei
+ *
+ */
+@Getter
+@ToString
+public class BulkProgress {
+
+    // Operation name.
+    private final String operation;
+
+    // Tasks returned by the storage.
+    private long scanned;
+
+    // Tasks the operation succeeded on.
+    private long succeeded;
+
+    // Tasks the operation failed on.
+    private long failed;
+
+    // Tasks filtered out, in an unexpected status or being processed by the runners.
+    private long skipped;
+
+    // Pages walked through.
+    private int pages;
+
+    // Id of the last scanned task, can be used as the cursor to resume the operation.
+    private String lastTaskId;
+
+    BulkProgress(final String operation) {
+        this.operation = operation;
+    }
+
+    void scanned(final String taskId) {
+        scanned++;
+        lastTaskId = taskId;
+    }
+
+    void succeeded() {
+        succeeded++;
+    }
+
+    void failed() {
+        failed++;
+    }
+
+    void skipped() {
+        skipped++;
+    }
+
+    void paged() {
+        pages++;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.admin;
+
+/**
+ * Listener notified after every page processed by a bulk administration operation.
+ * @author guanxiong wei
+ *
+ */
+@FunctionalInterface
+public interface BulkProgressListener {
+
+    /**
+     * Invoked after a page of tasks is processed.
+     * @param progress Accumulated progress.
+     * @return {@code false} to stop the operation after the current page, {@code true} to continue.
+     */
+    boolean onProgress(final BulkProgress progress);
+}
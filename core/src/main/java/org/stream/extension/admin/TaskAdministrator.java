@@ -17,19 +17,29 @@
 package org.stream.extension.admin;
 
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.stream.core.component.Graph;
 import org.stream.core.exception.StreamException;
+import org.stream.core.execution.GraphContext;
+import org.stream.extension.io.HessianIOSerializer;
+import org.stream.extension.io.StreamTransferData;
 import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskQuery;
 import org.stream.extension.meta.TaskStatus;
 import org.stream.extension.meta.TaskStep;
+import org.stream.extension.meta.TaskStepQuery;
 import org.stream.extension.persist.TaskPersister;
 import org.stream.extension.persist.TaskStepStorage;
 import org.stream.extension.persist.TaskStorage;
 
+import com.google.common.util.concurrent.RateLimiter;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -41,6 +51,10 @@ import lombok.extern.slf4j.Slf4j;
  * a task was posted through, restart a failed task soon.
  * If this class is needed,
  * please let the spring location scanner scan this package.
+ * <p>
+ * The bulk operations walk through the tasks matching a {@link TaskQuery} page by page, each task is locked
+ * and re-checked before it is updated, tasks being processed by the runners are skipped. The operations are
+ * throttled by the given rate so that a recovery wave does not overload the cluster.
  * @author weiguanxiong.
  *
  */
@@ -48,6 +62,9 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public final class TaskAdministrator {
 
+    // Delay before a re-ran task is picked up by the retry runners.
+    private static final long RERUN_DELAY = 100;
+
     @Resource
     private TaskPersister taskPersister;
 
@@ -57,8 +74,12 @@ public final class TaskAdministrator {
     @Resource
     private TaskStepStorage taskStepStorage;
 
+    @Autowired(required = false)
+    private GraphContext graphContext;
+
     /**
-     * Get all the task steps for the specific task.
+     * Get all the task steps for the specific task, including their payloads.
+     * For tasks with many steps, prefer {@link #getSteps(TaskStepQuery)}.
      * @param taskId Target task's id.
      * @return Task step list for the task.
      */
@@ -71,6 +92,30 @@ public final class TaskAdministrator {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get a page of the task's steps in time order, the payloads are not loaded unless
+     * {@link TaskStepQuery#isWithPayload()} is set. Use {@link TaskStepQuery#next(TaskStep)} to get the following page.
+     * @param query Step query.
+     * @return Step page.
+     */
+    public List<TaskStep> getSteps(final TaskStepQuery query) {
+        return taskStepStorage.getSteps(query);
+    }
+
+    /**
+     * Load the transfer data payload of one step.
+     * @param taskId Target task's id.
+     * @param stepId Step id.
+     * @return Decoded transfer data, null if the step does not exist or has no payload.
+     */
+    public StreamTransferData getStepPayload(final String taskId, final long stepId) {
+        TaskStep taskStep = taskStepStorage.getStep(taskId, stepId);
+        if (taskStep == null || taskStep.getStreamTransferData() == null) {
+            return null;
+        }
+        return HessianIOSerializer.decode(taskStep.getStreamTransferData(), StreamTransferData.class);
+    }
+
     /**
      * Re-run the failed task if possible.
      * @param taskId Target task's id
@@ -89,12 +134,171 @@ public final class TaskAdministrator {
             throw new StreamException("Task is not completed, it will be automatically re-run in the near future");
         }
 
+        if (!taskPersister.tryLock(taskId)) {
+            throw new StreamException("Task is being processed");
+        }
+        boolean rescheduled = false;
+        try {
+            rescheduled = reschedule(task);
+            return rescheduled;
+        } finally {
+            if (!rescheduled) {
+                restore(taskId);
+            }
+            taskPersister.releaseLock(taskId);
+        }
+    }
+
+    /**
+     * Re-run the failed, pending or cancelled tasks matching the query from their current nodes.
+     * Pending tasks will be picked up immediately instead of waiting for the retry interval.
+     * @param query Task query.
+     * @param permitsPerSecond Max tasks to be re-ran per second.
+     * @param listener Progress listener, may be null.
+     * @return Operation progress.
+     */
+    public BulkProgress reRunTasks(final TaskQuery query, final double permitsPerSecond, final BulkProgressListener listener) {
+        return bulk("rerun", query, permitsPerSecond, listener, this::isRecoverable, this::reschedule);
+    }
+
+    /**
+     * Move the failed, pending or cancelled tasks matching the query to the target node and run them from there.
+     * @param query Task query.
+     * @param nodeName Target node name, it should exist in the graph version the tasks are running on.
+     * @param permitsPerSecond Max tasks to be moved per second.
+     * @param listener Progress listener, may be null.
+     * @return Operation progress.
+     */
+    public BulkProgress moveTasks(final TaskQuery query, final String nodeName, final double permitsPerSecond,
+            final BulkProgressListener listener) {
+        return bulk("move", query, permitsPerSecond, listener, this::isRecoverable, task -> {
+            if (graphContext != null) {
+                Graph graph = graphContext.getGraph(task.getGraphName(), task.getGraphVersion());
+                if (graph == null || graph.getNode(nodeName) == null) {
+                    log.warn("Node [{}] does not exist in the graph of task [{}]", nodeName, task.getTaskId());
+                    return false;
+                }
+            }
+            task.setNodeName(nodeName);
+            return reschedule(task);
+        });
+    }
+
+    /**
+     * Cancel the failed or pending tasks matching the query, the cancelled tasks will never be run again unless
+     * they are re-ran manually.
+     * @param query Task query.
+     * @param permitsPerSecond Max tasks to be cancelled per second.
+     * @param listener Progress listener, may be null.
+     * @return Operation progress.
+     */
+    public BulkProgress cancelTasks(final TaskQuery query, final double permitsPerSecond, final BulkProgressListener listener) {
+        return bulk("cancel", query, permitsPerSecond, listener,
+                task -> task.getStatus() == TaskStatus.FAILED.code() || task.getStatus() == TaskStatus.PENDING.code(),
+                task -> {
+                    task.setStatus(TaskStatus.CANCELLED.code());
+                    task.setLastExecutionTime(System.currentTimeMillis());
+                    if (!taskStorage.update(task)) {
+                        return false;
+                    }
+                    taskPersister.removeHub(task.getTaskId());
+                    return true;
+                });
+    }
+
+    private BulkProgress bulk(final String operation, final TaskQuery query, final double permitsPerSecond,
+            final BulkProgressListener listener, final Predicate<Task> eligible, final Predicate<Task> action) {
+        RateLimiter rateLimiter = RateLimiter.create(permitsPerSecond);
+        BulkProgress progress = new BulkProgress(operation);
+        TaskQuery criteria = query.toBuilder().afterTaskId(null).build();
+        TaskQuery current = query;
+        while (true) {
+            List<Task> tasks;
+            try {
+                tasks = taskStorage.queryTasks(current);
+            } catch (UnsupportedOperationException e) {
+                log.error("Bulk operation [{}] is not supported by the task storage", operation, e);
+                throw e;
+            }
+            for (Task task : tasks) {
+                progress.scanned(task.getTaskId());
+                if (!eligible.test(task) || (query.getFilter() != null && !query.getFilter().test(task))) {
+                    progress.skipped();
+                    continue;
+                }
+                rateLimiter.acquire();
+                apply(task.getTaskId(), criteria, eligible, action, progress);
+            }
+            progress.paged();
+            log.info("Bulk operation progress {}", progress);
+            boolean proceed = listener == null || listener.onProgress(progress);
+            if (!proceed || tasks.size() < current.getLimit()) {
+                return progress;
+            }
+            current = current.next(tasks.get(tasks.size() - 1));
+        }
+    }
+
+    private void apply(final String taskId, final TaskQuery criteria, final Predicate<Task> eligible, final Predicate<Task> action,
+            final BulkProgress progress) {
+        if (!taskPersister.tryLock(taskId)) {
+            progress.skipped();
+            return;
+        }
+        boolean applied = false;
+        try {
+            // Re-check under the lock, the task may have been moved on since the page was queried.
+            Task task = taskStorage.query(taskId);
+            if (task == null || !eligible.test(task) || !criteria.matches(task)) {
+                progress.skipped();
+            } else if (action.test(task)) {
+                applied = true;
+                progress.succeeded();
+            } else {
+                progress.failed();
+            }
+        } catch (Exception e) {
+            log.warn("Bulk operation fails on task [{}]", taskId, e);
+            progress.failed();
+        } finally {
+            if (!applied) {
+                restore(taskId);
+            }
+            taskPersister.releaseLock(taskId);
+        }
+    }
+
+    /**
+     * Locking the task takes it off the retry queue, put it back when the task is left as it was.
+     */
+    private void restore(final String taskId) {
+        try {
+            Task task = taskStorage.query(taskId);
+            if (task == null) {
+                taskPersister.removeHub(taskId);
+            } else {
+                taskPersister.restore(task);
+            }
+        } catch (Exception e) {
+            log.error("Fail to restore the queues of task [{}]", taskId, e);
+        }
+    }
+
+    private boolean isRecoverable(final Task task) {
+        int status = task.getStatus();
+        return status == TaskStatus.FAILED.code() || status == TaskStatus.PENDING.code() || status == TaskStatus.CANCELLED.code();
+    }
+
+    private boolean reschedule(final Task task) {
         task.setStatus(TaskStatus.PENDING.code());
         task.setRetryTimes(0);
         task.setLastExecutionTime(System.currentTimeMillis());
-        task.setNextExecutionTime(System.currentTimeMillis() + 100);
-        taskStorage.update(task);
-
+        task.setNextExecutionTime(System.currentTimeMillis() + RERUN_DELAY);
+        if (!taskPersister.reschedule(task, RERUN_DELAY)) {
+            return false;
+        }
+        // Re-ran tasks do not resume from the cursors saved by the previous attempts after their latest step.
+        taskPersister.clearCheckpoint(task.getTaskId());
         return true;
     }
 }
@@ -20,19 +20,32 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ApplicationContextEvent;
+import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.stream.core.exception.GraphLoadException;
 import org.stream.core.runtime.AbstractGraphLoader;
 import org.stream.core.runtime.GraphLoader;
+import org.stream.core.runtime.GraphReloader;
+import org.stream.extension.settings.Settings;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Load the graphs once the application context is refreshed. If a {@link GraphReloader} bean is defined, or the
+ * system property {@link Settings#GRAPH_RELOAD_INTERVAL} is set, the changed graph definitions are reloaded
+ * periodically until the application context is closed; the reloader bean should not be initiated by the container.
+ * @author guanxiong wei
+ *
+ */
 @Slf4j
 public class AutoGraphLoader implements ApplicationListener<ApplicationContextEvent> {
 
+    private GraphReloader graphReloader;
+
     /**
      * {@inheritDoc}
      */
@@ -41,10 +54,40 @@ public class AutoGraphLoader implements ApplicationListener<ApplicationContextEv
         if (event instanceof ContextRefreshedEvent) {
             try {
                 loadGraphsIfPossible(event.getApplicationContext());
+                startReloaderIfNeeded(event.getApplicationContext());
             } catch (Exception e) {
                 log.error("Fail to register strategy config reload listener, please restart the app if possible");
                 throw new RuntimeException(e);
             }
+        } else if (event instanceof ContextClosedEvent) {
+            stopReloader();
+        }
+    }
+
+    private synchronized void startReloaderIfNeeded(final ApplicationContext applicationContext) {
+        if (graphReloader != null) {
+            return;
+        }
+        GraphReloader reloader = applicationContext.getBeansOfType(GraphReloader.class).values().stream()
+                .findFirst()
+                .orElse(null);
+        if (reloader == null) {
+            long interval = Long.getLong(Settings.GRAPH_RELOAD_INTERVAL, 0L);
+            if (interval <= 0) {
+                return;
+            }
+            reloader = new GraphReloader();
+            reloader.setInterval(interval);
+        }
+        reloader.setGraphLoader((AbstractGraphLoader) applicationContext.getBean(GraphLoader.class));
+        reloader.init();
+        graphReloader = reloader;
+    }
+
+    private synchronized void stopReloader() {
+        if (graphReloader != null) {
+            graphReloader.destroy();
+            graphReloader = null;
         }
     }
 
@@ -53,18 +96,16 @@ public class AutoGraphLoader implements ApplicationListener<ApplicationContextEv
         if (applicationContext.getBean("graphs") instanceof List<?>) {
             @SuppressWarnings("unchecked")
             List<String> graphs = (List<String>) applicationContext.getBean("graphs");
-            for (String path : graphs) {
-                graphLoader.loadGraphFromSource(path);
-            }
+            graphLoader.loadGraphs(graphs);
         } else {
             ClassLoader classLoader = getClass().getClassLoader();
             PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
             Resource[] resources = resolver.getResources("classpath:graph/*.graph");
+            List<String> graphs = new ArrayList<>(resources.length);
             for (Resource resource : resources) {
-                    graphLoader.loadGraphFromSource(resource.getFilename());
+                graphs.add(resource.getFilename());
             }
+            graphLoader.loadGraphs(graphs);
         }
     }
-
-    
 }
@@ -51,6 +51,7 @@ import org.stream.extension.executors.TaskExecutor;
 import org.stream.extension.executors.ThreadPoolTaskExecutor;
 import org.stream.extension.lock.Lock;
 import org.stream.extension.lock.providers.RedisClusterBasedLock;
+import org.stream.extension.metrics.MetricsRegistry;
 import org.stream.extension.monitor.StatusMonitor;
 import org.stream.extension.pattern.RetryPattern;
 import org.stream.extension.pattern.defaults.ScheduledTimeIntervalPattern;
@@ -64,8 +65,8 @@ import org.stream.extension.persist.TaskPersister;
 import org.stream.extension.persist.TaskPersisterImpl;
 import org.stream.extension.persist.TaskStepStorage;
 import org.stream.extension.persist.TaskStorage;
+import org.stream.extension.utils.SnowflakeTaskIDGenerator;
 import org.stream.extension.utils.TaskIDGenerator;
-import org.stream.extension.utils.UUIDTaskIDGenerator;
 
 @Configuration
 public class PremiumAutoScheduleEngineConfiguration {
@@ -91,6 +92,7 @@ public class PremiumAutoScheduleEngineConfiguration {
     public GraphContext graphContext() {
         GraphContext graphContext = new GraphContext();
         graphContext.setActivityRepository(activityRepository());
+        graphContext.setResourceCatalog(resourceCatalog());
         return graphContext;
     }
 
@@ -140,7 +142,8 @@ public class PremiumAutoScheduleEngineConfiguration {
                 .resourceCatalog(resourceCatalog())
                 .statusMonitor(statusMonitor())
                 .taskExecutor(taskExecutor())
-                .taskIDGenerator(containsBean(TaskIDGenerator.class) ? applicationContext.getBean(TaskIDGenerator.class) : new UUIDTaskIDGenerator())
+                .taskIDGenerator(containsBean(TaskIDGenerator.class) ? applicationContext.getBean(TaskIDGenerator.class) : new SnowflakeTaskIDGenerator(
+                        SnowflakeTaskIDGenerator.assignWorkerId(redisClient(), environment.getProperty("application"))))
                 .taskPersister(taskPersister())
                 .build();
     }
@@ -213,6 +216,7 @@ public class PremiumAutoScheduleEngineConfiguration {
     public ResourceCatalog resourceCatalog() {
         ResourceCatalog resourceCatalog = new ResourceCatalog();
         resourceCatalog.setCache(cache());
+        resourceCatalog.getStatistics().register(MetricsRegistry.getDefault(), "resource-catalog");
         return resourceCatalog;
     }
 
@@ -20,9 +20,12 @@ import org.stream.core.execution.AutoScheduledEngine;
 import org.stream.core.resource.ResourceCatalog;
 import org.stream.extension.events.EventCenter;
 import org.stream.extension.executors.TaskExecutor;
+import org.stream.extension.metrics.MetricsRegistry;
 import org.stream.extension.monitor.StatusMonitor;
 import org.stream.extension.persist.RedisService;
+import org.stream.extension.persist.SubmissionIndex;
 import org.stream.extension.persist.TaskPersister;
+import org.stream.extension.utils.IdempotencyKeyExtractor;
 import org.stream.extension.utils.TaskIDGenerator;
 
 public final class AutoScheduleEngineBuilder {
@@ -47,6 +50,10 @@ public final class AutoScheduleEngineBuilder {
 
     private RedisService redisService;
 
+    private IdempotencyKeyExtractor idempotencyKeyExtractor;
+
+    private SubmissionIndex submissionIndex;
+
     private int maxRetry = 20;
 
     public static AutoScheduleEngineBuilder builder() {
@@ -93,6 +100,16 @@ public final class AutoScheduleEngineBuilder {
         return this;
     }
 
+    public AutoScheduleEngineBuilder idempotencyKeyExtractor(final IdempotencyKeyExtractor idempotencyKeyExtractor) {
+        this.idempotencyKeyExtractor = idempotencyKeyExtractor;
+        return this;
+    }
+
+    public AutoScheduleEngineBuilder submissionIndex(final SubmissionIndex submissionIndex) {
+        this.submissionIndex = submissionIndex;
+        return this;
+    }
+
     public AutoScheduledEngine build() {
         autoScheduledEngine = new AutoScheduledEngine();
         autoScheduledEngine.setApplication(application);
@@ -102,8 +119,11 @@ public final class AutoScheduleEngineBuilder {
         autoScheduledEngine.setEventCenter(eventCenter);
         autoScheduledEngine.setResourceCatalog(resourceCatalog);
         autoScheduledEngine.setMaxRetry(maxRetry);
+        autoScheduledEngine.setIdempotencyKeyExtractor(idempotencyKeyExtractor);
+        autoScheduledEngine.setSubmissionIndex(submissionIndex);
         statusMonitor.setTaskExecutor(taskExecutor);
         statusMonitor.setRedisService(redisService);
+        statusMonitor.register(MetricsRegistry.getDefault(), String.valueOf(application));
         return autoScheduledEngine;
     }
 }
@@ -16,29 +16,46 @@
 
 package org.stream.extension.clients;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
 
 import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * {@link MessageClient} implementation.
+ * <p>
+ * Records pulled from Kafka are dispatched by per-partition lanes: each assigned partition has its own buffer and worker
+ * handing the records over to the per-key queues consumed by {@link #pullMessage(String)}, so a slow key only holds back
+ * the partitions it lives in. Offsets are tracked per partition and only contiguous processed offsets are committed,
+ * partitions buffering too many unprocessed records are paused until the consumers catch up. Offsets are treated as
+ * committed only once the broker acknowledges them, failed commits are retried on the following polls, including the
+ * idle ones.
  * @author guanxiong wei
  *
  */
@@ -57,13 +74,30 @@ public class KafkaClientImpl implements MessageClient {
     @Setter
     private String group;
 
-    private KafkaConsumer<String, byte[]> consumer;
+    // Capacity of the per-key queues.
+    @Setter
+    private int keyQueueCapacity = 100;
+
+    // Partition will be paused once its unprocessed records reach the high watermark.
+    @Setter
+    private int highWatermark = 1000;
+
+    // Paused partition will be resumed once its unprocessed records drop to the low watermark.
+    @Setter
+    private int lowWatermark = 200;
+
+    @Setter
+    private long pollTimeout = 3000;
+
+    private org.apache.kafka.clients.consumer.Consumer<String, byte[]> consumer;
     private KafkaProducer<String, byte[]> producer;
     private Properties consumerProperties;
     private Properties producerProperties;
-    private ConcurrentHashMap<String, BlockingQueue<byte[]>> repository = new ConcurrentHashMap<>();
-    private AtomicInteger accounter = new AtomicInteger();
+    private ConcurrentHashMap<String, BlockingQueue<PendingMessage>> repository = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, PartitionLane> lanes = new ConcurrentHashMap<>();
+    private final ThreadLocal<PendingMessage> current = new ThreadLocal<>();
     private ExecutorService service;
+    private final ExecutorService laneService = Executors.newCachedThreadPool();
 
     /**
      * Initiate method to start up Kafka client.
@@ -81,47 +115,146 @@ public class KafkaClientImpl implements MessageClient {
         service.submit(() -> {
             while (true) {
                 try {
-                    ConsumerRecords<String, byte[]> records = consumer.poll(3000);
-                    for (ConsumerRecord<String, byte[]> record : records) {
-                        log.info("Reveive kafka message from topic [{}] with key [{}]", topic, record.key());
-                        repository.get(record.key()).offer(record.value());
-                        accounter.incrementAndGet();
-                    }
-                    while (accounter.get() != 0) {
-                        Thread.sleep(5);
-                    }
-                    consumer.commitSync();
+                    pollOnce();
                 } catch (Exception e) {
                     log.warn("Something wrong happened during message pulling process", e);
                     consumer.close();
                     consumer = null;
+                    closeLanes(lanes.keySet());
                     initiateConsumer();
                 }
             }
         });
     }
 
+    /**
+     * Pull records once, dispatch them to the lanes, pause or resume the partitions and commit the processed offsets.
+     */
+    void pollOnce() {
+        ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(pollTimeout));
+        for (TopicPartition partition : records.partitions()) {
+            PartitionLane lane = lanes.computeIfAbsent(partition, this::createLane);
+            for (ConsumerRecord<String, byte[]> record : records.records(partition)) {
+                log.debug("Reveive kafka message from topic [{}] with key [{}]", topic, record.key());
+                lane.offer(record);
+            }
+        }
+        applyBackpressure();
+        commitProcessed(false);
+    }
+
     private void initiateConfig() {
         consumerProperties = getDefaultConsumerProperties();
         producerProperties = getDefaultProduderProperties();
         consumerProperties.put("bootstrap.servers", getServers());
         producerProperties.put("bootstrap.servers", getServers());
-        for (String key : getKeys()) {
-            repository.put(key, new LinkedBlockingQueue<>(100));
+        if (getKeys() != null) {
+            getKeys().forEach(this::subscribe);
         }
     }
 
     private void initiateKafkaStuffs() {
         producer = new KafkaProducer<>(producerProperties);
-        service = Executors.newFixedThreadPool(keys.size());
+        service = Executors.newSingleThreadExecutor();
         initiateConsumer();
     }
 
     private void initiateConsumer() {
+        initiateConsumer(new KafkaConsumer<>(consumerProperties));
+    }
+
+    /**
+     * Subscribe the topic with the consumer.
+     * @param kafkaConsumer Kafka consumer.
+     */
+    void initiateConsumer(final org.apache.kafka.clients.consumer.Consumer<String, byte[]> kafkaConsumer) {
         List<String> subscribe = new LinkedList<>();
         subscribe.add(topic);
-        consumer = new KafkaConsumer<>(consumerProperties);
-        consumer.subscribe(subscribe);
+        consumer = kafkaConsumer;
+        consumer.subscribe(subscribe, new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(final Collection<TopicPartition> partitions) {
+                // Commit what has been processed before the partitions are handed over to other consumers.
+                commitProcessed(true);
+                closeLanes(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(final Collection<TopicPartition> partitions) {
+                log.info("Partitions [{}] assigned", partitions);
+            }
+        });
+    }
+
+    private PartitionLane createLane(final TopicPartition partition) {
+        PartitionLane lane = new PartitionLane(partition);
+        laneService.submit(lane::work);
+        log.info("Lane for partition [{}] created", partition);
+        return lane;
+    }
+
+    private void closeLanes(final Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionLane lane = lanes.remove(partition);
+            if (lane != null) {
+                lane.closed = true;
+            }
+        }
+    }
+
+    private void applyBackpressure() {
+        for (PartitionLane lane : lanes.values()) {
+            int unprocessed = lane.tracker.pendingCount();
+            if (!lane.paused && unprocessed >= highWatermark) {
+                consumer.pause(Collections.singleton(lane.partition));
+                lane.paused = true;
+                log.info("Partition [{}] paused with [{}] records unprocessed", lane.partition, unprocessed);
+            } else if (lane.paused && unprocessed <= lowWatermark) {
+                consumer.resume(Collections.singleton(lane.partition));
+                lane.paused = false;
+                log.info("Partition [{}] resumed", lane.partition);
+            }
+        }
+    }
+
+    private void commitProcessed(final boolean sync) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        Map<TopicPartition, OffsetTracker> trackers = new HashMap<>();
+        for (PartitionLane lane : lanes.values()) {
+            long offset = lane.tracker.poll();
+            if (offset >= 0) {
+                offsets.put(lane.partition, new OffsetAndMetadata(offset));
+                trackers.put(lane.partition, lane.tracker);
+            }
+        }
+        if (offsets.isEmpty()) {
+            return;
+        }
+        if (sync) {
+            try {
+                consumer.commitSync(offsets);
+                acknowledge(offsets, trackers, null);
+            } catch (Exception e) {
+                acknowledge(offsets, trackers, e);
+            }
+            return;
+        }
+        consumer.commitAsync(offsets, (committed, e) -> acknowledge(offsets, trackers, e));
+    }
+
+    private void acknowledge(final Map<TopicPartition, OffsetAndMetadata> offsets,
+            final Map<TopicPartition, OffsetTracker> trackers, final Exception e) {
+        if (e != null) {
+            log.warn("Fail to commit offsets [{}], they will be committed again with the following polls", offsets, e);
+        }
+        for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : offsets.entrySet()) {
+            OffsetTracker tracker = trackers.get(entry.getKey());
+            if (e == null) {
+                tracker.committed(entry.getValue().offset());
+            } else {
+                tracker.failed(entry.getValue().offset());
+            }
+        }
     }
 
     private Properties getDefaultProduderProperties() {
@@ -131,6 +264,7 @@ public class KafkaClientImpl implements MessageClient {
         props.put("batch.size", "16384");
         props.put("linger.ms", "10");
         props.put("buffer.memory", "33554432");
+        props.put("compression.type", "lz4");
         props.put("group.id", group);
         props.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
         props.put("value.serializer", "org.apache.kafka.common.serialization.ByteArraySerializer");
@@ -172,14 +306,50 @@ public class KafkaClientImpl implements MessageClient {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sendMessage(final String topic, final String key, final byte[] data, final Consumer<Exception> callback) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<String, byte[]>(topic, key, data);
+        try {
+            producer.send(record, (metadata, exception) -> callback.accept(exception));
+        } catch (Exception e) {
+            // Serialization or buffer exhausted errors are thrown directly instead of being passed to the callback.
+            callback.accept(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(final String key) {
+        queue(key);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public byte[] pullMessage(final String key) {
+        PendingMessage previous = current.get();
+        if (previous != null) {
+            // The caller did not mark the previous message as consumed, treat it as consumed so the partition will not be stuck.
+            log.warn("Message at offset [{}] of partition [{}] is not marked as consumed", previous.offset, previous.lane.partition);
+            previous.complete();
+            current.remove();
+        }
         try {
-            return repository.get(key).take();
+            // Wait with timeout so that idle consumers get the chance to quit.
+            PendingMessage message = queue(key).poll(pollTimeout, TimeUnit.MILLISECONDS);
+            if (message == null) {
+                return null;
+            }
+            current.set(message);
+            return message.value;
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return null;
         }
     }
@@ -189,8 +359,87 @@ public class KafkaClientImpl implements MessageClient {
      */
     @Override
     public boolean markAsConsumed() {
-        accounter.decrementAndGet();
+        PendingMessage message = current.get();
+        if (message == null) {
+            return false;
+        }
+        current.remove();
+        message.complete();
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long backlog(final String key) {
+        BlockingQueue<PendingMessage> queue = repository.get(key);
+        return queue == null ? 0 : queue.size();
+    }
+
+    private BlockingQueue<PendingMessage> queue(final String key) {
+        // Keys not configured at start up get their queues once their consumers show up.
+        return repository.computeIfAbsent(key, k -> new LinkedBlockingQueue<>(keyQueueCapacity));
+    }
+
+    @AllArgsConstructor
+    private static final class PendingMessage {
+        private final PartitionLane lane;
+        private final long offset;
+        private final byte[] value;
+
+        private void complete() {
+            lane.tracker.complete(offset);
+        }
+    }
+
+    /**
+     * Worker lane of one partition, buffers the records pulled from the partition and hands them over to the per-key
+     * queues in order.
+     */
+    private final class PartitionLane {
+        private final TopicPartition partition;
+        private final OffsetTracker tracker = new OffsetTracker();
+        private final BlockingQueue<ConsumerRecord<String, byte[]>> buffer = new LinkedBlockingQueue<>();
+        private volatile boolean paused = false;
+        private volatile boolean closed = false;
+
+        private PartitionLane(final TopicPartition partition) {
+            this.partition = partition;
+        }
+
+        private void offer(final ConsumerRecord<String, byte[]> record) {
+            tracker.track(record.offset());
+            buffer.offer(record);
+        }
+
+        private void work() {
+            while (!closed) {
+                try {
+                    ConsumerRecord<String, byte[]> record = buffer.poll(pollTimeout, TimeUnit.MILLISECONDS);
+                    if (record == null) {
+                        continue;
+                    }
+                    BlockingQueue<PendingMessage> queue = record.key() == null ? null : repository.get(record.key());
+                    if (queue == null) {
+                        log.warn("No consumer for key [{}], skip message at offset [{}] of partition [{}]",
+                                record.key(), record.offset(), partition);
+                        tracker.complete(record.offset());
+                        continue;
+                    }
+                    PendingMessage message = new PendingMessage(this, record.offset(), record.value());
+                    // Block until the key's consumers catch up, only this partition will be held back.
+                    while (!closed && !queue.offer(message, pollTimeout, TimeUnit.MILLISECONDS)) {
+                        log.debug("Queue of key [{}] is full", record.key());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.warn("Lane of partition [{}] error", partition, e);
+                }
+            }
+            log.info("Lane for partition [{}] closed", partition);
+        }
+    }
 }
@@ -16,6 +16,8 @@
 
 package org.stream.extension.clients;
 
+import java.util.function.Consumer;
+
 /**
  * Kafka client.
  *
@@ -40,6 +42,38 @@ public interface MessageClient {
      */
     public boolean sendMessage(final String topic, final String key, final byte[] data);
 
+    /**
+     * Send a message (with key) to the kafka queue asynchronously, the callback will be invoked once the message is
+     * acknowledged by the server, with {@code null} if the message is delivered successfully, otherwise the failure cause.
+     * <p>
+     * Default implementation sends the message synchronously and notifies the callback immediately.
+     * @param topic The topic the record will be appended to
+     * @param key  The key that will be included in the record
+     * @param data The record contents
+     * @param callback Delivery callback.
+     */
+    default void sendMessage(final String topic, final String key, final byte[] data, final Consumer<Exception> callback) {
+        Exception cause = null;
+        try {
+            if (!sendMessage(topic, key, data)) {
+                cause = new IllegalStateException("Message rejected by the client");
+            }
+        } catch (Exception e) {
+            cause = e;
+        }
+        callback.accept(cause);
+    }
+
+    /**
+     * Prepare the client to hand over messages of the key, invoked when consumers of the key are registered so that
+     * messages received before the first pull are not dropped.
+     * <p>
+     * Default implementation does nothing.
+     * @param key Message key.
+     */
+    default void subscribe(final String key) {
+    }
+
     /**
      * Pull messages from the Kafaka queue according to the topic.
      * @param key Message topic.
@@ -53,4 +87,14 @@ public interface MessageClient {
      * @return Manipulation result.
      */
     public boolean markAsConsumed();
+
+    /**
+     * Number of messages of the key pulled from the queue service but not yet handed over to the consumers, used to
+     * decide if more consumers are needed.
+     * @param key Message key.
+     * @return Backlog size, 0 if unknown.
+     */
+    default long backlog(final String key) {
+        return 0;
+    }
 }
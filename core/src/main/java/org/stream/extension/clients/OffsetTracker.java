@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.clients;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Offset tracker of one partition, records the offsets handed over to the consumers and the offsets processed
+ * by them so that only contiguous processed offsets will be committed even if records are processed out of order.
+ * <p>
+ * The committed watermark only advances once the commit is acknowledged by the broker, an offset whose commit failed
+ * will be returned again by the next {@link #poll()}.
+ * @author guanxiong wei
+ *
+ */
+public class OffsetTracker {
+
+    // Offsets delivered but not processed yet.
+    private final NavigableSet<Long> pending = new TreeSet<>();
+
+    // Next offset expected to be tracked.
+    private long next = -1;
+
+    // Offset acknowledged by the broker last time.
+    private long committed = -1;
+
+    // Offset being committed, waiting for the acknowledgement.
+    private long committing = -1;
+
+    /**
+     * Track an offset delivered to the consumers.
+     * @param offset Record offset.
+     */
+    public synchronized void track(final long offset) {
+        pending.add(offset);
+        next = Math.max(next, offset + 1);
+    }
+
+    /**
+     * Mark the offset as processed.
+     * @param offset Record offset.
+     */
+    public synchronized void complete(final long offset) {
+        pending.remove(offset);
+    }
+
+    /**
+     * Number of offsets delivered but not processed yet.
+     * @return Pending offsets number.
+     */
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Offset to be committed, all the records before it have been processed. The returned offset is treated as being
+     * committed, subsequent calls will return -1 until more records are processed or the commit fails.
+     * @return Offset to commit, or -1 if nothing new can be committed.
+     */
+    public synchronized long poll() {
+        long candidate = pending.isEmpty() ? next : pending.first();
+        if (candidate <= Math.max(committed, committing)) {
+            return -1;
+        }
+        committing = candidate;
+        return candidate;
+    }
+
+    /**
+     * Acknowledge the commit of the offset returned by {@link #poll()}.
+     * @param offset Committed offset.
+     */
+    public synchronized void committed(final long offset) {
+        committed = Math.max(committed, offset);
+    }
+
+    /**
+     * Report the failure of committing the offset returned by {@link #poll()}, so it will be committed again.
+     * @param offset Offset failed to be committed.
+     */
+    public synchronized void failed(final long offset) {
+        if (committing == offset) {
+            committing = committed;
+        }
+    }
+
+    /**
+     * Offset acknowledged by the broker last time.
+     * @return Committed offset, or -1 if nothing has been committed.
+     */
+    public synchronized long committed() {
+        return committed;
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.stream.extension.clients;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -24,6 +26,16 @@ import org.stream.extension.settings.Settings;
 /**
  * Redis service client.
  * Only define partial functions that Redis provides. This client should only be used by the Stream framework itself.
+ * <p>
+ * {@link #zcard(String)}, {@link #incr(String)}, {@link #eval(String, List, List)}, {@link #setnx(String, String, int)}
+ * and {@link #pttl(String)} are optional operations whose default implementations throw {@link UnsupportedOperationException}, implementations
+ * must override them when the components relying on them are wired: {@link #eval(String, List, List)} for the lua
+ * based {@link org.stream.extension.lock.providers.LeaseBasedRedisLock}, {@link #setnx(String, String, int)} for
+ * {@link org.stream.extension.persist.RedisSubmissionIndex}, {@link #incr(String)} for
+ * {@link org.stream.extension.utils.SnowflakeTaskIDGenerator} and {@link #zcard(String)} for the queue size gauges of
+ * {@link org.stream.extension.monitor.StatusMonitor}, {@link #pttl(String)} is used by
+ * {@link org.stream.core.resource.sample.RedisCache} and treated as unknown when not supported. Use {@link #supports(RedisClient, String, Class...)} to check
+ * them at wiring time.
  * @author weiguanxiong
  *
  */
@@ -152,6 +164,26 @@ public interface RedisClient {
      */
     long getListSize(final String list);
 
+    /**
+     * Get the number of members of a sorted set.
+     * Default implementation throws {@link UnsupportedOperationException}.
+     * @param set Target sorted set.
+     * @return Sorted set size.
+     */
+    default long zcard(final String set) {
+        throw new UnsupportedOperationException("ZCARD is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Get the remaining time to live of the key.
+     * Default implementation throws {@link UnsupportedOperationException}.
+     * @param key Redis key.
+     * @return Remaining time to live in milliseconds, -1 if the key has no expire time, -2 if the key does not exist.
+     */
+    default long pttl(final String key) {
+        throw new UnsupportedOperationException("PTTL is not supported by " + getClass().getName());
+    }
+
     /**
      * Update the specific key's expire time if exits and the stored value matches the expected one.
      * Add more {@link Settings#LOCK_EXPIRE_TIME} milliseconds.
@@ -160,4 +192,70 @@ public interface RedisClient {
      * @return <code>true</code> If condition fulfills and operation succeeds otherwise {@code false}
      */
     boolean updateKeyExpireTimeIfMatch(final String key, final String expectedValue);
+
+    /**
+     * Increase the number stored at the key by one, the key will be set as 0 before the operation if it does not exist.
+     * Default implementation throws {@link UnsupportedOperationException}.
+     * @param key Redis key.
+     * @return Value after increment.
+     */
+    default long incr(final String key) {
+        throw new UnsupportedOperationException("INCR is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Evaluate the lua script, all the keys should be in the same hash slot.
+     * Default implementation throws {@link UnsupportedOperationException}.
+     * @param script Lua script.
+     * @param keys Keys referred by the script as {@code KEYS}.
+     * @param args Arguments referred by the script as {@code ARGV}.
+     * @return Script result.
+     */
+    default Object eval(final String script, final List<String> keys, final List<String> args) {
+        throw new UnsupportedOperationException("Lua scripts are not supported by " + getClass().getName());
+    }
+
+    /**
+     * Batch version of {@link #updateKeyExpireTimeIfMatch(String, String)}, implementations are encouraged to override it
+     * with as few round trips as possible. Default implementation updates the keys one by one.
+     * @param keys Redis keys.
+     * @param expectedValues Expected values of the keys, in the same order as the keys.
+     * @return Update results in the same order as the keys.
+     */
+    default List<Boolean> updateKeysExpireTimeIfMatch(final List<String> keys, final List<String> expectedValues) {
+        List<Boolean> results = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            results.add(updateKeyExpireTimeIfMatch(keys.get(i), expectedValues.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Set the key only and if only the key did not exist, with the specific expire time.
+     * Default implementation throws {@link UnsupportedOperationException}.
+     * @param key Redis key.
+     * @param value Value attached to the key.
+     * @param seconds Expire time in seconds.
+     * @return {@code true} if the key is set, {@code false} if it already exists.
+     */
+    default boolean setnx(final String key, final String value, final int seconds) {
+        throw new UnsupportedOperationException("SET NX EX is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Check if the client implements the optional operation, so that components can fail fast at wiring time instead of
+     * failing on the first call.
+     * @param client Redis client.
+     * @param name Operation name.
+     * @param parameterTypes Parameter types of the operation.
+     * @return {@code true} if the client overrides the default implementation.
+     */
+    static boolean supports(final RedisClient client, final String name, final Class<?>... parameterTypes) {
+        try {
+            Method method = client.getClass().getMethod(name, parameterTypes);
+            return !method.isDefault();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
 }
@@ -16,8 +16,12 @@
 
 package org.stream.extension.clients;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -29,6 +33,7 @@ import lombok.Setter;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.JedisClusterCRC16;
 
 /**
  * Default implementation of {@linkplain RedisClient}
@@ -36,6 +41,16 @@ import redis.clients.jedis.params.SetParams;
 @Setter @Getter
 public class RedisClientImpl implements RedisClient {
 
+    private static final String BATCH_RENEW_SCRIPT = "local result = {};\n"
+            + "for i, key in ipairs(KEYS) do\n"
+            + "if redis.call('GET', key) == ARGV[i] then\n"
+            + "result[i] = redis.call('PEXPIRE', key, ARGV[#KEYS + 1]);\n"
+            + "else\n"
+            + "result[i] = 0;\n"
+            + "end;\n"
+            + "end;\n"
+            + "return result;";
+
     private JedisCluster jedisCluster;
 
     private String nodes;
@@ -205,6 +220,38 @@ public class RedisClientImpl implements RedisClient {
         return jedisCluster.llen(list);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long zcard(final String set) {
+        return jedisCluster.zcard(set);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long incr(final String key) {
+        return jedisCluster.incr(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long pttl(final String key) {
+        return jedisCluster.pttl(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean setnx(final String key, final String value, final int seconds) {
+        return "ok".equalsIgnoreCase(jedisCluster.set(key, value, SetParams.setParams().nx().ex(seconds)));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -222,6 +269,45 @@ public class RedisClientImpl implements RedisClient {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object eval(final String script, final List<String> keys, final List<String> args) {
+        return jedisCluster.eval(script, keys, args);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The keys are grouped by hash slot, each group is updated by one lua script call.
+     */
+    @Override
+    public List<Boolean> updateKeysExpireTimeIfMatch(final List<String> keys, final List<String> expectedValues) {
+        if (!Settings.LUA_SUPPORTED) {
+            return RedisClient.super.updateKeysExpireTimeIfMatch(keys, expectedValues);
+        }
+        Map<Integer, List<Integer>> slots = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            slots.computeIfAbsent(JedisClusterCRC16.getSlot(keys.get(i)), k -> new ArrayList<>()).add(i);
+        }
+        Boolean[] results = new Boolean[keys.size()];
+        for (List<Integer> indexes : slots.values()) {
+            List<String> slotKeys = new ArrayList<>(indexes.size());
+            List<String> args = new ArrayList<>(indexes.size() + 1);
+            for (int index : indexes) {
+                slotKeys.add(keys.get(index));
+                args.add(expectedValues.get(index));
+            }
+            args.add(String.valueOf(Settings.LOCK_EXPIRE_TIME));
+            @SuppressWarnings("unchecked")
+            List<Long> responses = (List<Long>) jedisCluster.eval(BATCH_RENEW_SCRIPT, slotKeys, args);
+            for (int i = 0; i < indexes.size(); i++) {
+                results[indexes.get(i)] = responses.get(i) == 1L;
+            }
+        }
+        return Arrays.asList(results);
+    }
+
     private String buildLuaScript(final String key, final String expectedValue) {
         if (StringUtils.isNotBlank(Settings.UPDATE_EXPIRE_TIME_LUA_SCRIPT)) {
             return Settings.UPDATE_EXPIRE_TIME_LUA_SCRIPT;
@@ -17,6 +17,7 @@
 package org.stream.extension.events;
 
 import org.stream.core.component.Node;
+import org.stream.extension.trace.Tracer;
 import org.stream.extension.utils.actionable.Tellme;
 import org.stream.extension.utils.actionable.Value;
 
@@ -41,6 +42,9 @@ public abstract class Event {
     // Current node.
     private String node;
 
+    // W3C traceparent of the trace the event is fired in, listeners continue the trace.
+    private String traceparent;
+
     /**
      * Return the type of the event.
      * @return Event type.
@@ -56,7 +60,7 @@ public abstract class Event {
      * Construct a new instance of event. Concrete class type is specified by the input parameter clazz.
      * @param clazz Concrete event subclass type.
      * @param trigger Object that triggers this event.
-     * @param node Current node.
+     * @param node Current node, null if the task is completed without a node.
      * @return New instance of the target event subclass.
      */
     @SuppressWarnings("unchecked")
@@ -65,10 +69,14 @@ public abstract class Event {
         Tellme.tryIt(() -> {
                     value.change(clazz.getDeclaredConstructor().newInstance());
                     Event event = value.get(clazz);
-                    event.setGraph(node.getGraph().getGraphName());
-                    event.setNode(node.getNodeName());
+                    // Tasks whose node is missing (e.g. the graph was upgraded) complete without a node.
+                    if (node != null) {
+                        event.setGraph(node.getGraph().getGraphName());
+                        event.setNode(node.getNodeName());
+                    }
                     event.setTime(System.currentTimeMillis());
                     event.setTrigger(trigger);
+                    event.setTraceparent(Tracer.currentTraceparent());
                 })
                 .incase(Exception.class)
                 .thenFix(e -> {
@@ -80,6 +88,7 @@ public abstract class Event {
                     };
                     event.setTime(System.currentTimeMillis());
                     event.setTrigger(trigger);
+                    event.setTraceparent(Tracer.currentTraceparent());
                     Tellme.when(node != null).then(() -> {
                         assert node != null;
                         event.setGraph(node.getGraph().getGraphName());
@@ -44,6 +44,17 @@ public interface EventCenter {
      */
     void registerListener(final Class<? extends Event> event, final Listener listener);
 
+    /**
+     * Register the event listener with options controlling how the events will be delivered.
+     * Implementations not supporting the options will register the listener with default behavior.
+     * @param event Event type that the listener interested in.
+     * @param listener Event listener.
+     * @param options Listener options.
+     */
+    default void registerListener(final Class<? extends Event> event, final Listener listener, final ListenerOptions options) {
+        registerListener(event, listener);
+    }
+
     /**
      * Remove a listener from the event center.
      * @param listener Listener to be removed.
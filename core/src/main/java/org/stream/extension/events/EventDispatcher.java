@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.events;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.stream.extension.clients.MessageClient;
+import org.stream.extension.io.HessianIOSerializer;
+import org.stream.extension.trace.Span;
+import org.stream.extension.trace.SpanKind;
+import org.stream.extension.trace.TraceContext;
+import org.stream.extension.trace.Tracer;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dispatcher pulling events from the message queue service and notifying the registered listeners.
+ * <p>
+ * Each event type has its own group of workers, starting with {@link #minWorkers} workers; the group grows when the
+ * backlog reported by {@link MessageClient#backlog(String)} keeps exceeding {@link #scaleUpBacklog} events per worker
+ * and shrinks after being idle for a while. Event types having ordered listeners are always served by one worker.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class EventDispatcher {
+
+    @Setter
+    private MessageClient messageClient;
+
+    @Setter
+    private ListenerRegistry registry;
+
+    // Callback invoked when a listener keeps failing to handle an event, only the failing listener is passed.
+    @Setter
+    private BiConsumer<Event, ListenerRegistration> failureHandler = (event, registration) ->
+            log.error("Handler [{}] gives up the event [{}] triggered by [{}]",
+                    registration.getListener().getClass().getSimpleName(), event.getClass().getSimpleName(), event.getTrigger());
+
+    // Attempts to deliver an event to a listener failing it before handing it to the failure handler.
+    @Setter
+    private int maxAttempts = 3;
+
+    // Delay in milliseconds before delivering an event again to the listener failing it, doubled on every attempt.
+    @Setter
+    private long retryDelay = 100;
+
+    @Setter
+    private int minWorkers = 1;
+
+    @Setter
+    private int maxWorkers = 8;
+
+    // Backlog per worker that triggers scaling up.
+    @Setter
+    private int scaleUpBacklog = 20;
+
+    // Consecutive idle checks before scaling down.
+    @Setter
+    private int scaleDownIdleRounds = 5;
+
+    // Time interval in milliseconds to check the backlog.
+    @Setter
+    private long scaleInterval = 1000;
+
+    private final Map<Class<? extends Event>, WorkerGroup> groups = new ConcurrentHashMap<>();
+
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+
+    private final ScheduledExecutorService scaler = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile boolean running = false;
+
+    /**
+     * Start workers for all the event types registered so far and the back-end scaler.
+     */
+    public void start() {
+        running = true;
+        for (Class<? extends Event> clazz : registry.eventTypes()) {
+            ensureWorkers(clazz);
+        }
+        scaler.scheduleWithFixedDelay(this::scale, scaleInterval, scaleInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Make sure the event type has workers, used when listeners are registered after the dispatcher is started.
+     * @param clazz Event type.
+     */
+    public void ensureWorkers(final Class<? extends Event> clazz) {
+        if (!running) {
+            return;
+        }
+        groups.computeIfAbsent(clazz, k -> {
+            WorkerGroup group = new WorkerGroup(k);
+            for (int i = 0; i < Math.max(1, minWorkers); i++) {
+                group.startWorker();
+            }
+            return group;
+        });
+    }
+
+    /**
+     * Stop all the workers.
+     */
+    public void stop() {
+        running = false;
+        scaler.shutdownNow();
+        workers.shutdown();
+    }
+
+    /**
+     * Current number of workers serving the event type.
+     * @param clazz Event type.
+     * @return Workers number.
+     */
+    public int workers(final Class<? extends Event> clazz) {
+        WorkerGroup group = groups.get(clazz);
+        return group == null ? 0 : group.size.get();
+    }
+
+    private void scale() {
+        try {
+            for (WorkerGroup group : groups.values()) {
+                group.scale();
+            }
+        } catch (Exception e) {
+            log.warn("Fail to scale event workers", e);
+        }
+    }
+
+    /**
+     * Deliver the event to one listener, a failed delivery is retried later for the failing listener only.
+     * @return {@code false} if interrupted.
+     */
+    private boolean deliver(final Event event, final ListenerRegistration registration, final int attempt, final Span span) {
+        try {
+            registration.handle(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("Handler [{}] failed to handle the event [{}] at attempt [{}]",
+                    registration.getListener().getClass().getSimpleName(), event.getClass().getSimpleName(), attempt, e);
+            if (span != null) {
+                span.recordException(e);
+            }
+            if (attempt < maxAttempts && running) {
+                try {
+                    scaler.schedule(() -> workers.execute(() -> deliver(event, registration, attempt + 1, null)),
+                            retryDelay << (attempt - 1), TimeUnit.MILLISECONDS);
+                    return true;
+                } catch (RejectedExecutionException rejected) {
+                    log.warn("Dispatcher is stopped, give up retrying the event [{}]", event.getClass().getSimpleName());
+                }
+            }
+            failureHandler.accept(event, registration);
+        }
+        return true;
+    }
+
+    private final class WorkerGroup {
+        private final Class<? extends Event> clazz;
+        private final String key;
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger retiring = new AtomicInteger();
+        private int idleRounds = 0;
+
+        private WorkerGroup(final Class<? extends Event> clazz) {
+            this.clazz = clazz;
+            this.key = clazz.getSimpleName();
+            messageClient.subscribe(key);
+        }
+
+        private void scale() {
+            int max = registry.isOrdered(clazz) ? 1 : Math.max(minWorkers, maxWorkers);
+            int current = size.get() - retiring.get();
+            if (current > max) {
+                retiring.incrementAndGet();
+                return;
+            }
+            long backlog = messageClient.backlog(key);
+            if (backlog > (long) current * scaleUpBacklog && current < max) {
+                idleRounds = 0;
+                startWorker();
+                log.info("Scale up workers of event [{}] to [{}] with backlog [{}]", key, current + 1, backlog);
+                return;
+            }
+            if (backlog == 0 && ++idleRounds >= scaleDownIdleRounds && current > Math.max(1, minWorkers)) {
+                idleRounds = 0;
+                retiring.incrementAndGet();
+                log.info("Scale down workers of event [{}] to [{}]", key, current - 1);
+            }
+        }
+
+        private void startWorker() {
+            size.incrementAndGet();
+            workers.submit(this::work);
+        }
+
+        private boolean retire() {
+            int value = retiring.get();
+            while (value > 0) {
+                if (retiring.compareAndSet(value, value - 1)) {
+                    return true;
+                }
+                value = retiring.get();
+            }
+            return false;
+        }
+
+        private void work() {
+            log.info("Listener notify worker [{}] start working to pull event message for key [{}]",
+                    Thread.currentThread().getName(), key);
+            try {
+                while (running && !retire()) {
+                    dispatchOnce();
+                }
+            } finally {
+                size.decrementAndGet();
+            }
+        }
+
+        private void dispatchOnce() {
+            try {
+                byte[] message = messageClient.pullMessage(key);
+                if (message == null) {
+                    return;
+                }
+                Event event = HessianIOSerializer.decode(message, clazz);
+                try (Span span = Tracer.startSpan(key, SpanKind.CONSUMER, TraceContext.parse(event.getTraceparent()))) {
+                    for (ListenerRegistration registration : registry.getRegistrations(clazz)) {
+                        if (!deliver(event, registration, 1, span)) {
+                            return;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Listener notification error", e);
+            } finally {
+                messageClient.markAsConsumed();
+            }
+        }
+    }
+}
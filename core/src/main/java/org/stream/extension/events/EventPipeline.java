@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.events;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.stream.extension.clients.MessageClient;
+import org.stream.extension.io.ReusableHessianEncoder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outbound pipeline delivering events to the message queue service in batches.
+ * <p>
+ * The worker blocks on the pending queue for at most {@link #pollTimeout} milliseconds, drains up to {@link #batchSize}
+ * events, encodes them with a reused buffer and hands them over to the {@link MessageClient} asynchronously. Delivery
+ * results are reported through callbacks, events failed to be delivered are kept in a retry buffer whose memory
+ * footprint is bounded by {@link #maxRetryBufferBytes}; events that can not be buffered or exceed {@link #maxAttempts}
+ * are dropped and counted. Events offered while the pending queue is full are rejected and counted separately, the
+ * rejections are logged once every {@link #REJECTION_LOG_INTERVAL} events so a flood does not flood the log too.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class EventPipeline {
+
+    private static final int REJECTION_LOG_INTERVAL = 1000;
+
+    @Setter
+    private MessageClient messageClient;
+
+    @Setter
+    private String topic;
+
+    // Max events to be drained from the pending queue in one batch.
+    @Setter
+    private int batchSize = 200;
+
+    // Max time in milliseconds the worker will block waiting for new events.
+    @Setter
+    private long pollTimeout = 100;
+
+    // Max bytes of encoded events kept in the retry buffer.
+    @Setter
+    private long maxRetryBufferBytes = 16 * 1024 * 1024L;
+
+    // Max delivery attempts of an event before it is dropped.
+    @Setter
+    private int maxAttempts = 5;
+
+    // Base back off time in milliseconds before a failed event is re-sent.
+    @Setter
+    private long retryBackoff = 200;
+
+    private final BlockingQueue<Event> pendingEvents;
+
+    private final Deque<PendingRecord> retryBuffer = new ConcurrentLinkedDeque<>();
+
+    private final AtomicLong retryBufferBytes = new AtomicLong();
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final ReusableHessianEncoder encoder = new ReusableHessianEncoder(1024);
+
+    private volatile boolean running = true;
+
+    @Getter
+    private final AtomicLong sent = new AtomicLong();
+
+    @Getter
+    private final AtomicLong failed = new AtomicLong();
+
+    @Getter
+    private final AtomicLong retried = new AtomicLong();
+
+    @Getter
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Events rejected because the pending queue is full.
+    @Getter
+    private final AtomicLong rejected = new AtomicLong();
+
+    // Time in milliseconds between the oldest event of the latest batch being fired and it being handed over to the client.
+    @Getter
+    private volatile long lagMillis;
+
+    /**
+     * Constructor.
+     * @param capacity Capacity of the pending queue, events fired when the queue is full will be dropped.
+     */
+    public EventPipeline(final int capacity) {
+        this.pendingEvents = new LinkedBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Put an event into the pipeline.
+     * @param event Event to be delivered.
+     * @return {@code true} if the event is accepted, {@code false} if the pipeline is full.
+     */
+    public boolean offer(final Event event) {
+        if (pendingEvents.offer(event)) {
+            return true;
+        }
+        long count = rejected.incrementAndGet();
+        if (count % REJECTION_LOG_INTERVAL == 1) {
+            log.error("Event pipeline is full, drop event [{}], [{}] events rejected so far", event.type(), count);
+        }
+        return false;
+    }
+
+    /**
+     * Number of events not yet acknowledged by the message queue service, including pending, in-flight and
+     * buffered for retrying events.
+     * @return Event backlog size.
+     */
+    public long backlog() {
+        return (long) pendingEvents.size() + inflight.get() + retryBuffer.size();
+    }
+
+    /**
+     * Current memory in bytes occupied by the retry buffer.
+     * @return Retry buffer bytes.
+     */
+    public long retryBufferBytes() {
+        return retryBufferBytes.get();
+    }
+
+    /**
+     * Create the worker delivering events to the message queue service, the worker runs until {@link #shutdown(long)}
+     * is invoked.
+     * @return Pipeline worker.
+     */
+    public Runnable createWorker() {
+        return () -> {
+            log.info("Pipeline worker [{}] started working to transfer event message to Kafka queue service", Thread.currentThread().getName());
+            List<Event> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    processOnce(batch, pollTimeout);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    log.warn("Event pipeline error", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Stop the worker and flush the remaining events, waiting at most timeout milliseconds for the acknowledgements.
+     * @param timeout Max time in milliseconds to wait.
+     */
+    public void shutdown(final long timeout) {
+        running = false;
+        long deadline = System.currentTimeMillis() + timeout;
+        List<Event> batch = new ArrayList<>(batchSize);
+        try {
+            while (System.currentTimeMillis() < deadline && backlog() > 0) {
+                processOnce(batch, 10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long remaining = backlog();
+        if (remaining > 0) {
+            dropped.addAndGet(remaining);
+            log.warn("[{}] events are not delivered before the pipeline is shut down", remaining);
+        }
+    }
+
+    // Synchronized so that the flushing thread and the worker will never share the encoder at the same time.
+    private synchronized void processOnce(final List<Event> batch, final long timeout) throws InterruptedException {
+        resendFailedEvents();
+        Event head = pendingEvents.poll(timeout, TimeUnit.MILLISECONDS);
+        if (head == null) {
+            return;
+        }
+        batch.clear();
+        batch.add(head);
+        pendingEvents.drainTo(batch, batchSize - 1);
+        if (head.getTime() > 0) {
+            lagMillis = System.currentTimeMillis() - head.getTime();
+        }
+        for (Event event : batch) {
+            byte[] data;
+            try {
+                data = encoder.encode(event);
+            } catch (Exception e) {
+                // Encoding failure will never recover by retrying.
+                dropped.incrementAndGet();
+                log.warn("Fail to encode event [{}], drop it", event.type(), e);
+                continue;
+            }
+            send(new PendingRecord(event.getClass().getSimpleName(), data, 0, 0));
+        }
+        batch.clear();
+    }
+
+    private void resendFailedEvents() {
+        long now = System.currentTimeMillis();
+        int size = retryBuffer.size();
+        for (int i = 0; i < size; i++) {
+            PendingRecord record = retryBuffer.pollFirst();
+            if (record == null) {
+                return;
+            }
+            if (record.nextAttemptTime > now) {
+                retryBuffer.offerLast(record);
+                continue;
+            }
+            retryBufferBytes.addAndGet(-record.data.length);
+            retried.incrementAndGet();
+            send(record);
+        }
+    }
+
+    private void send(final PendingRecord record) {
+        inflight.incrementAndGet();
+        messageClient.sendMessage(topic, record.key, record.data, e -> {
+            inflight.decrementAndGet();
+            if (e == null) {
+                sent.incrementAndGet();
+                return;
+            }
+            failed.incrementAndGet();
+            log.warn("Fail to deliver event [{}], attempts [{}]", record.key, record.attempts + 1, e);
+            buffer(record);
+        });
+    }
+
+    private void buffer(final PendingRecord record) {
+        int attempts = record.attempts + 1;
+        if (attempts >= maxAttempts) {
+            dropped.incrementAndGet();
+            log.warn("Event [{}] exceeds max delivery attempts, drop it", record.key);
+            return;
+        }
+        long size = record.data.length;
+        if (retryBufferBytes.addAndGet(size) > maxRetryBufferBytes) {
+            retryBufferBytes.addAndGet(-size);
+            dropped.incrementAndGet();
+            log.warn("Retry buffer is full, drop event [{}]", record.key);
+            return;
+        }
+        long backoff = retryBackoff << Math.min(attempts - 1, 10);
+        retryBuffer.offerLast(new PendingRecord(record.key, record.data, attempts, System.currentTimeMillis() + backoff));
+    }
+
+    @AllArgsConstructor
+    private static final class PendingRecord {
+        private final String key;
+        private final byte[] data;
+        private final int attempts;
+        private final long nextAttemptTime;
+    }
+}
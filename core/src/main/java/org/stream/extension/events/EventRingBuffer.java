@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.events;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer single-consumer ring buffer in the spirit of the disruptor.
+ * <p>
+ * Producers claim sequences with CAS on the cursor and publish the slot by writing its sequence into the
+ * published array, the consumer drains contiguous published slots in batches. No lock is involved on either side.
+ * @author guanxiong wei
+ *
+ * @param <T> Element type.
+ */
+public class EventRingBuffer<T> {
+
+    private static final long FULL_BACKOFF_NANOS = 1000;
+
+    private final Object[] entries;
+
+    private final int mask;
+
+    // Sequence published in each slot, the slot is readable when it equals the expected sequence.
+    private final AtomicLongArray published;
+
+    // Latest claimed sequence.
+    private final AtomicLong cursor = new AtomicLong(-1);
+
+    // Latest consumed sequence.
+    private final AtomicLong consumed = new AtomicLong(-1);
+
+    /**
+     * Constructor.
+     * @param capacity Expected capacity, will be rounded up to power of two.
+     */
+    public EventRingBuffer(final int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.entries = new Object[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Publish an element, waiting at most the timeout if the buffer is full.
+     * @param element Element to be published.
+     * @param timeoutNanos Max time in nanoseconds to wait for free slot.
+     * @return {@code true} if published, {@code false} if the buffer keeps full during the timeout.
+     */
+    public boolean publish(final T element, final long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long sequence;
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            if (next - entries.length > consumed.get()) {
+                if (System.nanoTime() - deadline > 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+                continue;
+            }
+            if (cursor.compareAndSet(current, next)) {
+                sequence = next;
+                break;
+            }
+        }
+        int index = (int) (sequence & mask);
+        entries[index] = element;
+        // Volatile write makes the element visible to the consumer reading the published sequence.
+        published.set(index, sequence);
+        return true;
+    }
+
+    /**
+     * Drain published elements to the batch list, should only be invoked by the single consumer thread.
+     * @param batch List to hold the drained elements.
+     * @param max Max elements to drain.
+     * @return Number of elements drained.
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(final List<T> batch, final int max) {
+        long start = consumed.get() + 1;
+        long end = start;
+        while (end - start < max && published.get((int) (end & mask)) == end) {
+            end++;
+        }
+        for (long sequence = start; sequence < end; sequence++) {
+            int index = (int) (sequence & mask);
+            batch.add((T) entries[index]);
+            entries[index] = null;
+        }
+        if (end > start) {
+            consumed.set(end - 1);
+        }
+        return (int) (end - start);
+    }
+
+    /**
+     * Number of elements claimed but not consumed yet.
+     * @return Backlog size.
+     */
+    public long backlog() {
+        return cursor.get() - consumed.get();
+    }
+
+    /**
+     * Buffer capacity.
+     * @return Capacity.
+     */
+    public int capacity() {
+        return entries.length;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.stream.extension.trace.Span;
+import org.stream.extension.trace.TraceContext;
+import org.stream.extension.trace.Tracer;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process implementation of {@link EventCenter}, events are delivered to the listeners living in the same JVM
+ * through a {@link EventRingBuffer} without serialization or message queue round trip.
+ * <p>
+ * Listeners registered with {@link ListenerOptions#isRemote()} are registered on the {@link #remoteEventCenter}
+ * (typically a {@link MemoryEventCenter}), events of their types are also forwarded to it so they can be consumed
+ * by other processes.
+ * <p>
+ * One consumer thread drains the ring buffer in batches. Listeners registered with {@link ListenerOptions#isOrdered()}
+ * are notified by the consumer itself, so they receive the events in the order they are published; the other
+ * listeners are notified by a pool of {@link #workers} threads, each of them honouring its
+ * {@link ListenerOptions#getConcurrency()}. When the workers are saturated the consumer delivers the events itself,
+ * so a slow listener slows down the consumer and eventually the producers instead of piling up events in memory.
+ * <p>
+ * The consumer spins briefly when the ring buffer runs dry and then parks until a producer wakes it up.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class InProcessEventCenter implements EventCenter {
+
+    private static final int SPIN_TRIES = 100;
+
+    // Ring buffer capacity, will be rounded up to power of two.
+    @Setter
+    private int capacity = 16384;
+
+    // Max events consumed in one batch.
+    @Setter
+    private int batchSize = 256;
+
+    // Max time in milliseconds producers wait when the ring buffer is full before dropping the event.
+    @Setter
+    private long publishTimeout = 10;
+
+    // Threads notifying the unordered listeners, non-positive value means the consumer notifies all the listeners.
+    @Setter
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    // Event center delivering events to the remote listeners, optional.
+    @Setter
+    private EventCenter remoteEventCenter;
+
+    @Getter
+    private final ListenerRegistry registry = new ListenerRegistry();
+
+    private final Set<Class<?>> remoteTypes = ConcurrentHashMap.newKeySet();
+
+    private EventRingBuffer<Event> ringBuffer;
+
+    private Thread consumer;
+
+    private ThreadPoolExecutor workerPool;
+
+    private volatile boolean running = false;
+
+    // Set by the consumer before parking, producers only pay for an unpark when the consumer is asleep.
+    private volatile boolean sleeping = false;
+
+    @Getter
+    private final AtomicLong published = new AtomicLong();
+
+    @Getter
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Getter
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Initiate the ring buffer and the consumer thread.
+     */
+    public void init() {
+        ringBuffer = new EventRingBuffer<>(capacity);
+        if (workers > 0) {
+            workerPool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(batchSize), r -> {
+                        Thread thread = new Thread(r, "stream-in-process-event-worker");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        running = true;
+        consumer = new Thread(this::consume, "stream-in-process-event-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+        log.info("In process event center initiated with ring buffer capacity [{}]", ringBuffer.capacity());
+    }
+
+    /**
+     * Stop the consumer thread after delivering the events in the ring buffer.
+     */
+    public void shutdown() {
+        running = false;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(10));
+                if (workerPool != null) {
+                    workerPool.shutdown();
+                    workerPool.awaitTermination(10, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Number of events published but not consumed yet.
+     * @return Backlog size.
+     */
+    public long backlog() {
+        return ringBuffer == null ? 0 : ringBuffer.backlog();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fireEvent(final Event event) {
+        if (ringBuffer == null) {
+            throw new IllegalStateException("Event center is not initiated");
+        }
+        if ("Anony".equals(event.type())) {
+            log.warn("Unsupported event type");
+            return;
+        }
+        forwardRemote(event, false);
+        if (registry.getRegistrations(event.getClass()).isEmpty()) {
+            return;
+        }
+        if (ringBuffer.publish(event, TimeUnit.MILLISECONDS.toNanos(publishTimeout))) {
+            published.incrementAndGet();
+            if (sleeping) {
+                LockSupport.unpark(consumer);
+            }
+        } else {
+            dropped.incrementAndGet();
+            log.warn("Event ring buffer is full, drop event [{}]", event.type());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fireSyncEvent(final Event event) {
+        forwardRemote(event, true);
+        notifyListeners(event, registry.getRegistrations(event.getClass()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerListener(final Class<? extends Event> event, final Listener listener) {
+        registerListener(event, listener, ListenerOptions.DEFAULT);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerListener(final Class<? extends Event> event, final Listener listener, final ListenerOptions options) {
+        if (options != null && options.isRemote()) {
+            if (remoteEventCenter == null) {
+                throw new IllegalStateException("Remote event center is not configured");
+            }
+            remoteTypes.add(event);
+            remoteEventCenter.registerListener(event, listener, options);
+            return;
+        }
+        registry.register(event, listener, options);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeListener(final Listener listener) {
+        registry.remove(listener);
+        if (remoteEventCenter != null) {
+            remoteEventCenter.removeListener(listener);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerMultiChannelListener(final List<Class<? extends Event>> events, final Listener listener) {
+        for (Class<? extends Event> clazz : events) {
+            if (Event.class.isAssignableFrom(clazz)) {
+                registerListener(clazz, listener);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Listener> getListenerListByEventType(final Class<?> type) {
+        if (!Event.class.isAssignableFrom(type)) {
+            return Collections.emptyList();
+        }
+        return registry.getListeners(type);
+    }
+
+    private void forwardRemote(final Event event, final boolean sync) {
+        if (remoteEventCenter == null || !remoteTypes.contains(event.getClass())) {
+            return;
+        }
+        EventsHelper.fireEvent(remoteEventCenter, event, sync);
+    }
+
+    private void consume() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        int idle = 0;
+        while (running || ringBuffer.backlog() > 0) {
+            if (ringBuffer.drainTo(batch, batchSize) == 0) {
+                if (++idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    park();
+                }
+                continue;
+            }
+            idle = 0;
+            for (Event event : batch) {
+                dispatch(event);
+            }
+            batch.clear();
+        }
+        log.info("In process event consumer stopped");
+    }
+
+    private void park() {
+        sleeping = true;
+        // Re-check after announcing the sleep, a producer publishing before it saw no sleeping consumer.
+        if (running && ringBuffer.backlog() == 0) {
+            LockSupport.park(this);
+        }
+        sleeping = false;
+    }
+
+    private void dispatch(final Event event) {
+        List<ListenerRegistration> registrations = registry.getRegistrations(event.getClass());
+        if (workerPool == null) {
+            notifyListeners(event, registrations);
+            return;
+        }
+        List<ListenerRegistration> ordered = new ArrayList<>(registrations.size());
+        List<ListenerRegistration> unordered = new ArrayList<>(registrations.size());
+        for (ListenerRegistration registration : registrations) {
+            (registration.getOptions().isOrdered() ? ordered : unordered).add(registration);
+        }
+        if (!unordered.isEmpty()) {
+            workerPool.execute(() -> notifyListeners(event, unordered));
+        }
+        if (!ordered.isEmpty()) {
+            notifyListeners(event, ordered);
+        }
+    }
+
+    private void notifyListeners(final Event event, final List<ListenerRegistration> registrations) {
+        // Listeners run under the trace the event was fired in.
+        try (Span scope = Tracer.attach(TraceContext.parse(event.getTraceparent()))) {
+            for (ListenerRegistration registration : registrations) {
+                try {
+                    registration.handle(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.warn("Handler [{}] failed to handle the event [{}]", registration.getListener().getClass().getSimpleName(),
+                            event.type(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.events;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Options of a registered {@link Listener}, controlling how the events will be delivered to it.
+ * Options are immutable, so the {@link #DEFAULT} instance can be shared by all the registrations.
+ * @author guanxiong wei
+ *
+ */
+@Value
+@Builder(toBuilder = true)
+public class ListenerOptions {
+
+    /**
+     * Default options, events are delivered concurrently without limitation.
+     */
+    public static final ListenerOptions DEFAULT = ListenerOptions.builder().build();
+
+    // Max number of events the listener can handle at the same time, non-positive value means unlimited.
+    @Builder.Default
+    private int concurrency = 0;
+
+    // Deliver events of the same type to the listener one by one in the order they are received.
+    @Builder.Default
+    private boolean ordered = false;
+
+    // The listener lives in another process, events should be delivered to it through the message queue service.
+    @Builder.Default
+    private boolean remote = false;
+}
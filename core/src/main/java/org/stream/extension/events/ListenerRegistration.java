@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.events;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * A {@link Listener} registered in the {@link ListenerRegistry} along with its options and handling statistics.
+ * @author guanxiong wei
+ *
+ */
+public class ListenerRegistration {
+
+    @Getter
+    private final Listener listener;
+
+    @Getter
+    private final ListenerOptions options;
+
+    private final Semaphore permits;
+
+    private final LongAdder handled = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Constructor.
+     * @param listener Listener to be registered.
+     * @param options Listener options.
+     */
+    public ListenerRegistration(final Listener listener, final ListenerOptions options) {
+        this.listener = listener;
+        this.options = options == null ? ListenerOptions.DEFAULT : options;
+        int concurrency = this.options.isOrdered() ? 1 : this.options.getConcurrency();
+        this.permits = concurrency > 0 ? new Semaphore(concurrency, true) : null;
+    }
+
+    /**
+     * Deliver the event to the listener respecting the concurrency limitation, recording the handling latency.
+     * Exceptions thrown by the listener will be propagated to the caller.
+     * @param event Event to be handled.
+     * @throws InterruptedException Thrown when interrupted waiting for permits.
+     */
+    public void handle(final Event event) throws InterruptedException {
+        if (permits != null) {
+            permits.acquire();
+        }
+        long start = System.nanoTime();
+        try {
+            listener.handle(event);
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            long cost = System.nanoTime() - start;
+            handled.increment();
+            totalNanos.add(cost);
+            maxNanos.accumulateAndGet(cost, Math::max);
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Number of events handled by the listener, including the failed ones.
+     * @return Handled events number.
+     */
+    public long handled() {
+        return handled.sum();
+    }
+
+    /**
+     * Number of events the listener failed to handle.
+     * @return Failed events number.
+     */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * Average handling latency in microseconds.
+     * @return Average latency.
+     */
+    public long averageLatencyMicros() {
+        long count = handled.sum();
+        return count == 0 ? 0 : totalNanos.sum() / count / 1000;
+    }
+
+    /**
+     * Max handling latency in microseconds.
+     * @return Max latency.
+     */
+    public long maxLatencyMicros() {
+        return maxNanos.get() / 1000;
+    }
+}
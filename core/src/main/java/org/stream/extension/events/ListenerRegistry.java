@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.events;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of event listeners. Registrations are kept in copy-on-write arrays so that dispatchers can iterate
+ * them without locking while listeners are being registered or removed.
+ * @author guanxiong wei
+ *
+ */
+public class ListenerRegistry {
+
+    private final Map<Class<? extends Event>, List<ListenerRegistration>> registrations = new ConcurrentHashMap<>();
+
+    /**
+     * Register a listener.
+     * @param eventClass Event type the listener is interested in.
+     * @param listener Listener to be registered.
+     * @param options Listener options.
+     * @return The registration.
+     */
+    public ListenerRegistration register(final Class<? extends Event> eventClass, final Listener listener,
+            final ListenerOptions options) {
+        ListenerRegistration registration = new ListenerRegistration(listener, options);
+        registrations.computeIfAbsent(eventClass, k -> new CopyOnWriteArrayList<>()).add(registration);
+        return registration;
+    }
+
+    /**
+     * Remove the listener from all the event types.
+     * @param listener Listener to be removed.
+     */
+    public void remove(final Listener listener) {
+        for (List<ListenerRegistration> list : registrations.values()) {
+            list.removeIf(registration -> registration.getListener() == listener);
+        }
+    }
+
+    /**
+     * Get registrations of the event type, the returned list is a snapshot safe to iterate.
+     * @param eventClass Event type.
+     * @return Registrations.
+     */
+    public List<ListenerRegistration> getRegistrations(final Class<?> eventClass) {
+        List<ListenerRegistration> list = registrations.get(eventClass);
+        return list == null ? Collections.emptyList() : List.copyOf(list);
+    }
+
+    /**
+     * Get listeners of the event type.
+     * @param eventClass Event type.
+     * @return Listeners.
+     */
+    public List<Listener> getListeners(final Class<?> eventClass) {
+        return getRegistrations(eventClass).stream()
+                .map(ListenerRegistration::getListener)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Check if any listener of the event type requires ordered delivery.
+     * @param eventClass Event type.
+     * @return {@code true} if events of the type should be delivered in order.
+     */
+    public boolean isOrdered(final Class<?> eventClass) {
+        return getRegistrations(eventClass).stream().anyMatch(registration -> registration.getOptions().isOrdered());
+    }
+
+    /**
+     * Event types having listeners registered.
+     * @return Event types.
+     */
+    public Set<Class<? extends Event>> eventTypes() {
+        return registrations.keySet();
+    }
+}
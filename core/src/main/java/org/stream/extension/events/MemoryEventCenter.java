@@ -17,40 +17,62 @@
 package org.stream.extension.events;
 
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import org.stream.core.runtime.Jackson;
 import org.stream.extension.clients.MessageClient;
 import org.stream.extension.io.HessianIOSerializer;
+import org.stream.extension.metrics.MetricsRegistry;
 
+import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Default implementation of {@link EventCenter}.
  * <p>
- * All the events will be stored in Memory first, then assign back-end worker to push all the events to Kafka Queue.
+ * All the events will be stored in Memory first, then assign back-end worker to push all the events to Kafka Queue
+ * in batches through the {@link EventPipeline}. Events fired before {@link #init()} are kept in the pipeline and sent
+ * once the event center is initiated.
  * @author guanxiong wei
  *
  */
 @Slf4j
 public class MemoryEventCenter implements EventCenter {
 
-    private final BlockingQueue<Event> pendingEvents = new LinkedBlockingQueue<>();
-
     @Setter
     private MessageClient kafkaClient;
 
-    private final Map<Class<? extends Event>, List<Listener>> listeners = new ConcurrentHashMap<>();
+    // Max events kept in memory waiting to be sent.
+    @Setter
+    private int capacity = 100000;
+
+    // Max events sent to Kafka in one batch.
+    @Setter
+    private int batchSize = 200;
+
+    // Max bytes of the events kept in memory for retrying after failing to be sent.
+    @Setter
+    private long maxRetryBufferBytes = 16 * 1024 * 1024L;
+
+    // Max time in milliseconds to flush pending events when the JVM is shutting down.
+    @Setter
+    private long shutdownTimeout = 10 * 1000L;
 
-    private final Object monitor = new Object();
+    @Getter
+    private volatile EventPipeline pipeline;
+
+    @Getter
+    private final ListenerRegistry registry = new ListenerRegistry();
+
+    // Max workers pulling events of one type, workers are scaled between 1 and the limit according to the backlog.
+    @Setter
+    private int maxWorkersPerEventType = 8;
+
+    @Getter
+    private volatile EventDispatcher dispatcher;
 
     private ExecutorService service;
 
@@ -74,7 +96,7 @@ public class MemoryEventCenter implements EventCenter {
             log.warn("Unsupported event type");
             return;
         }
-        pendingEvents.offer(event);
+        pipeline().offer(event);
     }
 
     /**
@@ -82,10 +104,20 @@ public class MemoryEventCenter implements EventCenter {
      */
     @Override
     public void registerListener(final Class<? extends Event> eventClass, final Listener listener) {
-        synchronized (monitor) {
-            listeners.computeIfAbsent(eventClass, k -> new LinkedList<>());
+        registerListener(eventClass, listener, ListenerOptions.DEFAULT);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerListener(final Class<? extends Event> eventClass, final Listener listener,
+            final ListenerOptions options) {
+        registry.register(eventClass, listener, options);
+        if (dispatcher != null) {
+            // Registered after the event center is initiated, start workers for the event type if needed.
+            dispatcher.ensureWorkers(eventClass);
         }
-        listeners.get(eventClass).add(listener);
     }
 
     /**
@@ -93,9 +125,7 @@ public class MemoryEventCenter implements EventCenter {
      */
     @Override
     public void removeListener(final Listener listener) {
-        for (List<Listener> eventListeners : listeners.values()) {
-            eventListeners.remove(listener);
-        }
+        registry.remove(listener);
     }
 
     /**
@@ -115,11 +145,11 @@ public class MemoryEventCenter implements EventCenter {
      */
     @Override
     public List<Listener> getListenerListByEventType(final Class<?> type) {
-        if (!type.getSuperclass().isAssignableFrom(Event.class)) {
+        if (!Event.class.isAssignableFrom(type)) {
             // Only event type can be key of the map.
             return Collections.emptyList();
         }
-        return listeners.get(type);
+        return registry.getListeners(type);
     }
 
     /**
@@ -143,27 +173,40 @@ public class MemoryEventCenter implements EventCenter {
         }
     }
 
+    private void registerGauges(final EventPipeline eventPipeline) {
+        MetricsRegistry metricsRegistry = MetricsRegistry.getDefault();
+        String name = String.valueOf(topic);
+        metricsRegistry.gauge("stream.events.lag", eventPipeline::getLagMillis, "topic", name);
+        metricsRegistry.gauge("stream.events.backlog", eventPipeline::backlog, "topic", name);
+        metricsRegistry.gauge("stream.events.dropped", () -> eventPipeline.getDropped().get(), "topic", name);
+        metricsRegistry.gauge("stream.events.rejected", () -> eventPipeline.getRejected().get(), "topic", name);
+        metricsRegistry.gauge("stream.events.failed", () -> eventPipeline.getFailed().get(), "topic", name);
+    }
+
     /**
      * Initiate new threads to process the events.
      * Our strategy is to send a message to Kafka cluster for each event,
      * let the Kafaka consumers to process the event asynchronously.
      */
     public void init() {
-        // We just create a thread pool with threads up limit (1 + number of event types * 2).
-        service = Executors.newFixedThreadPool(1 + listeners.keySet().size() * 2);
+        service = Executors.newSingleThreadExecutor();
         log.info("Event center initiating...");
         log.info("Find kafka topic [{}]", topic);
-        Runnable pipeline = createPipelineWorker();
-        service.submit(pipeline);
+        EventPipeline eventPipeline = pipeline();
+        eventPipeline.setMessageClient(kafkaClient);
+        eventPipeline.setTopic(topic);
+        service.submit(eventPipeline.createWorker());
+        registerGauges(eventPipeline);
+        registerStopHook();
         if (!sendOnly) {
             log.info("Register event listeners");
-            for (Class<? extends Event> clazz : listeners.keySet()) {
-                // Assign two threads to process one kind of event.
-                service.submit(createListenerNotifiers(clazz));
-                service.submit(createListenerNotifiers(clazz));
-            }
+            EventDispatcher eventDispatcher = new EventDispatcher();
+            eventDispatcher.setMessageClient(kafkaClient);
+            eventDispatcher.setRegistry(registry);
+            eventDispatcher.setMaxWorkers(maxWorkersPerEventType);
+            dispatcher = eventDispatcher;
+            eventDispatcher.start();
             log.info("Event center initiated.");
-            registerStopHook();
             return;
         }
 
@@ -171,65 +214,30 @@ public class MemoryEventCenter implements EventCenter {
                 + " messages are over accumulated");
     }
 
-    private Runnable createPipelineWorker() {
-        Runnable producer = new Runnable() {
-            @Override
-            public void run() {
-                log.info("Pipeline worker [{}] started working to transfer event message to Kafka queue service", Thread.currentThread().getName());
-                while (true) {
-                    retrieveAndProcess(false);
-                }
-            }
-        };
-        return producer;
-    }
-
-    private void retrieveAndProcess(final boolean discarded) {
-        Event event = pendingEvents.poll();
-        kafkaClient.sendMessage(topic, event.getClass().getSimpleName(), HessianIOSerializer.encode(event));
-    }
-
-    private Runnable createListenerNotifiers(final Class<? extends Event> clazz) {
-        log.info("Create event type [{}] listener notify worker", clazz.getSimpleName());
-        Runnable worker = new Runnable() {
-            @Override
-            public void run() {
-                log.info("Listener notify worker [{}] start working to pull event message from Kafka queue service for topic [{}] and key [{}]",
-                        Thread.currentThread().getName(), topic, clazz.getSimpleName());
-                while (true) {
-                    try {
-                        byte[] message = kafkaClient.pullMessage(clazz.getSimpleName());
-                        log.info("Incoming event [{}]", message);
-                        if (message == null) {
-                            continue;
-                        }
-                        Event event = HessianIOSerializer.decode(message, clazz);
-                        if (listeners.containsKey(clazz)) {
-                            for (Listener listener : listeners.get(clazz)) {
-                                try {
-                                    listener.handle(event);
-                                } catch (Exception e) {
-                                    fireEvent(event);
-                                    log.warn("Handler [{}] failed to handle the event message [{}]", listener.getClass().getSimpleName(), message);
-                                }
-                            }
-                        }
-                        kafkaClient.markAsConsumed();
-                    } catch (Exception e) {
-                        log.warn("Listener notification error", e);
-                    }
-                }
+    // The pipeline is created by the first event or init(), whichever comes first.
+    private EventPipeline pipeline() {
+        EventPipeline current = pipeline;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (pipeline == null) {
+                EventPipeline eventPipeline = new EventPipeline(capacity);
+                eventPipeline.setBatchSize(batchSize);
+                eventPipeline.setMaxRetryBufferBytes(maxRetryBufferBytes);
+                pipeline = eventPipeline;
             }
-        };
-        return worker;
+            return pipeline;
+        }
     }
 
     private void registerStopHook() {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             shuttingDown = true;
-            while (!pendingEvents.isEmpty()) {
-                retrieveAndProcess(true);
+            if (dispatcher != null) {
+                dispatcher.stop();
             }
+            pipeline.shutdown(shutdownTimeout);
         }));
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.intercept;
+
+import org.stream.core.component.ActivityResult;
+import org.stream.core.component.Node;
+
+/**
+ * Interceptors that also want to observe the asynchronous dependencies and daemons submitted by the nodes,
+ * for example to open a tracing span per asynchronous activity. The asynchronous callbacks are invoked on the
+ * thread running the asynchronous activity, not on the thread executing the host node.
+ * @author guanxiong wei
+ *
+ */
+public interface AsyncInterceptor extends Interceptor {
+
+    /**
+     * Action to be invoked before the asynchronous activity.
+     * @param host Node the asynchronous activity is submitted by.
+     * @param async Asynchronous node.
+     */
+    default void beforeAsync(final Node host, final Node async) {
+    }
+
+    /**
+     * Action to be invoked after the asynchronous activity.
+     * @param host Node the asynchronous activity is submitted by.
+     * @param async Asynchronous node.
+     * @param activityResult Activity result, {@code null} for daemons.
+     */
+    default void afterAsync(final Node host, final Node async, final ActivityResult activityResult) {
+    }
+
+    /**
+     * Action to be triggered when an unexpected error arose from the asynchronous activity.
+     * @param host Node the asynchronous activity is submitted by.
+     * @param async Asynchronous node.
+     * @param t Throwable from the asynchronous activity.
+     */
+    default void onAsyncError(final Node host, final Node async, final Throwable t) {
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.intercept;
+
+import java.util.List;
+
+import org.stream.core.component.ActivityResult;
+import org.stream.core.component.Node;
+
+import lombok.Getter;
+
+/**
+ * Immutable chain of the interceptors registered for a graph, compiled once when the interceptors are registered
+ * so that node executions iterate a plain array instead of looking the interceptors up. Every chain is stamped
+ * with the version of the registrations it was compiled from, graphs caching a chain compare the stamp with
+ * the latest registration version to detect staleness.
+ * @author guanxiong wei
+ *
+ */
+public final class InterceptorChain {
+
+    private static final Interceptor[] NONE = new Interceptor[0];
+    private static final AsyncInterceptor[] NO_ASYNC = new AsyncInterceptor[0];
+
+    private final Interceptor[] interceptors;
+
+    private final AsyncInterceptor[] asyncInterceptors;
+
+    @Getter
+    private final long version;
+
+    InterceptorChain(final List<Interceptor> interceptors, final long version) {
+        this.interceptors = interceptors.toArray(NONE);
+        this.asyncInterceptors = interceptors.stream()
+                .filter(AsyncInterceptor.class::isInstance)
+                .map(AsyncInterceptor.class::cast)
+                .toArray(AsyncInterceptor[]::new);
+        this.version = version;
+    }
+
+    static InterceptorChain empty(final long version) {
+        return new InterceptorChain(List.of(), version);
+    }
+
+    public boolean isEmpty() {
+        return interceptors.length == 0;
+    }
+
+    public boolean hasAsyncInterceptors() {
+        return asyncInterceptors.length > 0;
+    }
+
+    /**
+     * Invoke interceptors before the node's activity.
+     * @param node Node to be executed.
+     */
+    public void before(final Node node) {
+        for (Interceptor interceptor : interceptors) {
+            interceptor.before(node);
+        }
+    }
+
+    /**
+     * Invoke interceptors after the node's activity.
+     * @param node Node just been executed.
+     * @param activityResult Activity result.
+     */
+    public void after(final Node node, final ActivityResult activityResult) {
+        for (Interceptor interceptor : interceptors) {
+            interceptor.after(node, activityResult);
+        }
+    }
+
+    /**
+     * Invoke interceptors when an unexpected error arose from the node.
+     * @param node Current node.
+     * @param t Throwable from the node.
+     */
+    public void onError(final Node node, final Throwable t) {
+        for (Interceptor interceptor : interceptors) {
+            interceptor.onError(node, t);
+        }
+    }
+
+    /**
+     * Invoke asynchronous interceptors before the asynchronous activity.
+     * @param host Host node.
+     * @param async Asynchronous node.
+     */
+    public void beforeAsync(final Node host, final Node async) {
+        for (AsyncInterceptor interceptor : asyncInterceptors) {
+            interceptor.beforeAsync(host, async);
+        }
+    }
+
+    /**
+     * Invoke asynchronous interceptors after the asynchronous activity.
+     * @param host Host node.
+     * @param async Asynchronous node.
+     * @param activityResult Activity result.
+     */
+    public void afterAsync(final Node host, final Node async, final ActivityResult activityResult) {
+        for (AsyncInterceptor interceptor : asyncInterceptors) {
+            interceptor.afterAsync(host, async, activityResult);
+        }
+    }
+
+    /**
+     * Invoke asynchronous interceptors when an unexpected error arose from the asynchronous activity.
+     * @param host Host node.
+     * @param async Asynchronous node.
+     * @param t Throwable from the asynchronous activity.
+     */
+    public void onAsyncError(final Node host, final Node async, final Throwable t) {
+        for (AsyncInterceptor interceptor : asyncInterceptors) {
+            interceptor.onAsyncError(host, async, t);
+        }
+    }
+}
@@ -33,8 +33,6 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class InterceptorLoader implements ApplicationContextAware {
 
-    private static final Map<String, List<Interceptor>> INTERCEPTORS = new HashMap<>();
-
     /**
      * {@inheritDoc}
      */
@@ -45,11 +43,11 @@ public class InterceptorLoader implements ApplicationContextAware {
             log.warn("No interceptors are configured for this application");
             return;
         }
+        Map<String, List<Interceptor>> grouped = new HashMap<>();
         for (Interceptor interceptor : interceptors.values()) {
-            List<Interceptor> target = INTERCEPTORS.getOrDefault(interceptor.targetGraph(), Collections.emptyList());
-            target.add(interceptor);
+            grouped.computeIfAbsent(interceptor.targetGraph(), key -> new ArrayList<>()).add(interceptor);
         }
-        Interceptors.merge(INTERCEPTORS);
+        Interceptors.merge(grouped);
     }
 
 }
\ No newline at end of file
@@ -16,39 +16,74 @@
 
 package org.stream.extension.intercept;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.stream.core.component.ActivityResult;
+import org.stream.core.component.Graph;
 import org.stream.core.component.Node;
 
 import lombok.NonNull;
 
 /**
  * Interceptors facility.
+ * <p>
+ * Registered interceptors are compiled into one immutable {@link InterceptorChain} per graph. Registrations replace
+ * the whole snapshot atomically and bump its version; graphs cache their chain and resolve it again only when the
+ * version changes, so executing a node of a graph without interceptors costs one volatile read.
  */
 public final class Interceptors {
 
-    private static final Map<String, List<Interceptor>> REGISTERED_INTERCEPTORS = new HashMap<>();
+    private static volatile Snapshot snapshot = new Snapshot(0, Collections.emptyMap());
 
     private Interceptors() { }
 
     /**
      * Merge more interceptors.
-     * @param elements New added interceptors.
+     * @param elements New added interceptors keyed by target graph name.
      */
-    public static void merge(@NonNull  Map<String, List<Interceptor>> elements) {
-        List<Interceptor> merged = new LinkedList<>();
+    public static synchronized void merge(@NonNull final Map<String, List<Interceptor>> elements) {
+        Snapshot current = snapshot;
+        Map<String, List<Interceptor>> registered = new HashMap<>();
+        current.registered.forEach((graph, interceptors) -> registered.put(graph, new ArrayList<>(interceptors)));
         for (Entry<String, List<Interceptor>> entry : elements.entrySet()) {
-            if (REGISTERED_INTERCEPTORS.containsKey(entry.getKey())) {
-                merged.addAll(REGISTERED_INTERCEPTORS.get(entry.getKey()));
-            }
-            merged.addAll(entry.getValue());
-            REGISTERED_INTERCEPTORS.put(entry.getKey(), merged);
+            registered.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).addAll(entry.getValue());
         }
+        snapshot = new Snapshot(current.version + 1, registered);
+    }
+
+    /**
+     * Register an interceptor for the graph returned by {@link Interceptor#targetGraph()}.
+     * @param interceptor Interceptor to be registered.
+     */
+    public static void register(@NonNull final Interceptor interceptor) {
+        merge(Map.of(interceptor.targetGraph(), List.of(interceptor)));
+    }
+
+    /**
+     * Remove all the registered interceptors.
+     */
+    public static synchronized void clear() {
+        snapshot = new Snapshot(snapshot.version + 1, Collections.emptyMap());
+    }
+
+    /**
+     * Get the interceptor chain of the graph.
+     * @param graph Target graph.
+     * @return Interceptor chain, never {@code null}.
+     */
+    public static InterceptorChain chainOf(final Graph graph) {
+        Snapshot current = snapshot;
+        InterceptorChain chain = graph.getInterceptorChain();
+        if (chain == null || chain.getVersion() != current.version) {
+            chain = current.chains.getOrDefault(graph.getGraphName(), current.empty);
+            graph.setInterceptorChain(chain);
+        }
+        return chain;
     }
 
     /**
@@ -56,7 +91,10 @@ public final class Interceptors {
      * @param node Node to be executed.
      */
     public static void before(final Node node) {
-        onTemplate(null, node, 1);
+        InterceptorChain chain = chainOf(node.getGraph());
+        if (!chain.isEmpty()) {
+            chain.before(node);
+        }
     }
 
     /**
@@ -65,7 +103,10 @@ public final class Interceptors {
      * @param activityResult Activity result.
      */
     public static void after(final Node node, final ActivityResult activityResult) {
-        onTemplate(activityResult, node, 2);
+        InterceptorChain chain = chainOf(node.getGraph());
+        if (!chain.isEmpty()) {
+            chain.after(node, activityResult);
+        }
     }
 
     /**
@@ -74,29 +115,28 @@ public final class Interceptors {
      * @param t Throwable from the node.
      */
     public static void onError(final Node node, final Throwable t) {
-        onTemplate(t, node, 3);
+        InterceptorChain chain = chainOf(node.getGraph());
+        if (!chain.isEmpty()) {
+            chain.onError(node, t);
+        }
     }
 
-    private static void onTemplate(final Object input, final Node node, final int type) {
-        var graph = node.getGraph();
-        var graphName = graph.getGraphName();
-        
-        var candidates = REGISTERED_INTERCEPTORS.get(graphName);
-        if (candidates == null) return; // No interceptors configured.
-        for (Interceptor interceptor : candidates) {
-            switch (type) {
-                case 1:
-                    interceptor.before(node);
-                    break;
-                case 2:
-                    interceptor.after(node, (ActivityResult) input);
-                    break;
-                case 3:
-                    interceptor.onError(node, (Throwable) input);
-                    break;
-                default:
-                    break;
-            }
+    /**
+     * Immutable view of the registrations and the chains compiled from them.
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final Map<String, List<Interceptor>> registered;
+        private final Map<String, InterceptorChain> chains;
+        private final InterceptorChain empty;
+
+        Snapshot(final long version, final Map<String, List<Interceptor>> registered) {
+            this.version = version;
+            this.registered = Collections.unmodifiableMap(registered);
+            Map<String, InterceptorChain> compiled = new HashMap<>();
+            registered.forEach((graph, interceptors) -> compiled.put(graph, new InterceptorChain(interceptors, version)));
+            this.chains = Collections.unmodifiableMap(compiled);
+            this.empty = InterceptorChain.empty(version);
         }
     }
-}
\ No newline at end of file
+}
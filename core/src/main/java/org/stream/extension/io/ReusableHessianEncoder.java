@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.io;
+
+import java.io.ByteArrayOutputStream;
+
+import org.stream.core.exception.WorkFlowExecutionException;
+
+import com.caucho.hessian.io.Hessian2Output;
+import com.caucho.hessian.io.SerializerFactory;
+
+/**
+ * Hessian encoder reusing the underlying output buffer and {@link Hessian2Output} between invocations,
+ * suitable for hot loops encoding a lot of objects one after another like the event pipeline.
+ * <p>
+ * Instances are not thread safe, each worker thread should hold its own encoder.
+ * @author guanxiong wei
+ *
+ */
+public class ReusableHessianEncoder {
+
+    private static final SerializerFactory SERIALIZER_FACTORY = new SerializerFactory();
+
+    // Buffers grown beyond this size will be dropped after use so that one huge object will not pin the memory forever.
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    private final int initialCapacity;
+
+    private ByteArrayOutputStream buffer;
+
+    private final Hessian2Output out;
+
+    /**
+     * Constructor.
+     * @param initialCapacity Initial capacity of the reused buffer.
+     */
+    public ReusableHessianEncoder(final int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.buffer = new ByteArrayOutputStream(initialCapacity);
+        this.out = new Hessian2Output(buffer);
+        this.out.setSerializerFactory(SERIALIZER_FACTORY);
+    }
+
+    /**
+     * Encode the object to hessian bytes, the result is compatible with {@link HessianIOSerializer#decode(byte[], Class)}.
+     * @param obj Target object.
+     * @return Hessian framework encoded bytes.
+     */
+    public byte[] encode(final Object obj) {
+        try {
+            out.init(buffer);
+            out.writeObject(obj);
+            out.flush();
+            return buffer.toByteArray();
+        } catch (Exception e) {
+            throw new WorkFlowExecutionException(e);
+        } finally {
+            recycle();
+        }
+    }
+
+    private void recycle() {
+        if (buffer.size() > MAX_RETAINED_CAPACITY) {
+            buffer = new ByteArrayOutputStream(initialCapacity);
+        } else {
+            buffer.reset();
+        }
+    }
+}
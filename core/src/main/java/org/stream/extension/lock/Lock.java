@@ -47,4 +47,15 @@ public interface Lock {
      * @return {@code true} if no-one holds the lock or the lock is hold by the current thread, otherwise {@code false}.
      */
     boolean isLegibleOwner(final String key);
+
+    /**
+     * Get the fencing token of the lock hold by the current process. Fencing tokens increase monotonically each time
+     * the lock is grabbed, storages can reject writes carrying a token smaller than the persisted one so that a
+     * stale owner, for example one paused by GC longer than the lease, can not overwrite the new owner's updates.
+     * @param key lock key.
+     * @return Fencing token, 0 if the lock is not hold or the implementation does not support fencing tokens.
+     */
+    default long fencingToken(final String key) {
+        return 0;
+    }
 }
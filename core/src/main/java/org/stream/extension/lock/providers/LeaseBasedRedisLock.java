@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.lock.providers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import javax.annotation.Resource;
+
+import org.stream.extension.clients.RedisClient;
+import org.stream.extension.lock.Lock;
+import org.stream.extension.settings.Settings;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis based {@link Lock} keeping the leases hold by the current process in memory.
+ * <p>
+ * Leases are renewed by a background renewer every {@link #renewInterval} milliseconds for all the locks hold
+ * by this process, so owners no longer need to call {@link #tryLock(String, BiFunction)} in time to keep the lock,
+ * and both {@link #tryLock(String, BiFunction)} on a hold lock and {@link #isLegibleOwner(String)} are answered
+ * locally without network round trip. A lease failing to be renewed is dropped immediately.
+ * <p>
+ * Each successful acquisition gets a fencing token from a per lock counter, increased by the same lua script grabbing
+ * the lock so no extra round trip is paid. The counter key is hash-tagged into the lock key's slot. The token is attached
+ * to the task update by {@link org.stream.extension.persist.TaskPersisterImpl} so that storages can reject updates from
+ * stale owners. A process whose lease is lost is not a legible owner any more, so its writes are rejected instead of
+ * going out without a token.
+ * <p>
+ * Without lua support the counter is read and written back with the retention as expire time right after the lock is
+ * grabbed, which is safe as long as only the lock owner bumps it. Locks are released by compare-and-delete, so a stale
+ * owner never deletes the lock grabbed by others.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class LeaseBasedRedisLock implements Lock {
+
+    // Grab the lock and increase its fencing token counter atomically, returns 0 if the lock is hold by others.
+    private static final String ACQUIRE_SCRIPT = "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then\n"
+            + "local token = redis.call('INCR', KEYS[2]);\n"
+            + "redis.call('PEXPIRE', KEYS[2], ARGV[3]);\n"
+            + "return token;\n"
+            + "end;\n"
+            + "return 0;";
+
+    // Delete the lock only if it is still hold by the caller.
+    private static final String RELEASE_SCRIPT = "if redis.call('GET', KEYS[1]) == ARGV[1] then\n"
+            + "return redis.call('DEL', KEYS[1]);\n"
+            + "end;\n"
+            + "return 0;";
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stream-lock-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Resource
+    @Setter
+    private RedisClient redisClient;
+
+    // Time interval in milliseconds to renew the leases, should be much smaller than the lock expire time.
+    @Setter
+    private long renewInterval = Settings.LOCK_EXPIRE_TIME / 3;
+
+    // Time in milliseconds the fencing token counters are kept after the last acquisition, should be much longer than
+    // any pause a stale owner could experience, default 7 days.
+    @Setter
+    private long tokenRetention = 7 * 24 * 3600 * 1000L;
+
+    // Grab and release the lock with lua scripts, otherwise the lock owner bumps the counter with plain commands.
+    @Setter
+    private boolean luaSupported = Settings.LUA_SUPPORTED;
+
+    /**
+     * Start the background lease renewer.
+     */
+    public void init() {
+        if (luaSupported && !RedisClient.supports(redisClient, "eval", String.class, List.class, List.class)) {
+            throw new IllegalStateException("Lua is enabled but " + redisClient.getClass().getName()
+                    + " does not support scripts");
+        }
+        renewer.scheduleWithFixedDelay(this::renew, renewInterval, renewInterval, TimeUnit.MILLISECONDS);
+        log.info("Lease renewer started with interval [{}] milliseconds", renewInterval);
+    }
+
+    /**
+     * Stop the background lease renewer, leases hold will expire later.
+     */
+    public void destroy() {
+        renewer.shutdownNow();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryLock(final String key, final BiFunction<String, Long, Boolean> postAction) {
+        long current = System.currentTimeMillis();
+        String threadName = Thread.currentThread().getName();
+        Lease lease = leases.get(key);
+        if (lease != null && lease.isValid(current)) {
+            if (lease.owner.equals(threadName)) {
+                return true;
+            }
+            log.info("Another thread in the jvm is processing the task, skip");
+            return false;
+        }
+
+        if (lease != null) {
+            // The lease was not renewed in time, the lock could have been transferred to other workers.
+            log.warn("Lease of task [{}] hold by thread [{}] expired, will try to grab the lock", key, lease.owner);
+            leases.remove(key, lease);
+        }
+
+        return requireLock(key, current, threadName, postAction);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean release(final String key) {
+        Lease lease = leases.remove(key);
+        if (lease == null || !lease.isValid(System.currentTimeMillis())) {
+            // Lease expired, let other workers to release the lock.
+            return true;
+        }
+
+        if (luaSupported) {
+            Object deleted = redisClient.eval(RELEASE_SCRIPT, List.of(genLock(key)), List.of(lease.value));
+            return deleted instanceof Long number && number > 0;
+        }
+        // Not atomic, but narrows the window a stale owner could delete the lock grabbed by others to a round trip.
+        return lease.value.equals(redisClient.get(genLock(key))) && redisClient.del(genLock(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLegibleOwner(final String key) {
+        Lease lease = leases.get(key);
+        if (lease != null) {
+            return lease.isValid(System.currentTimeMillis());
+        }
+
+        // Not locked by this process, legible only if nobody has ever grabbed the lock, a process that lost its lease
+        // should not write with no fencing token.
+        return redisClient.get(genLock(key)) == null && redisClient.get(genToken(key)) == null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long fencingToken(final String key) {
+        Lease lease = leases.get(key);
+        return lease == null ? 0 : lease.token;
+    }
+
+    /**
+     * Number of leases hold by the current process.
+     * @return Lease number.
+     */
+    public int leases() {
+        return leases.size();
+    }
+
+    private boolean requireLock(final String key, final long current, final String threadName,
+            final BiFunction<String, Long, Boolean> postAction) {
+        log.info("Try to grab the lock for task [{}] at time [{}] by thread [{}]", key, current, threadName);
+        String value = Settings.HOST_NAME + "_" + current;
+        long token = acquire(key, value);
+        if (token <= 0) {
+            log.info("Another worker is processing the task");
+            return false;
+        }
+
+        leases.put(key, new Lease(threadName, value, token, current));
+        log.info("Thread [{}] Grab the lock for task [{}] with fencing token [{}]", threadName, key, token);
+        postAction.apply(key, current);
+        return true;
+    }
+
+    private long acquire(final String key, final String value) {
+        if (luaSupported) {
+            Object token = redisClient.eval(ACQUIRE_SCRIPT, List.of(genLock(key), genToken(key)),
+                    List.of(value, String.valueOf(Settings.LOCK_EXPIRE_TIME), String.valueOf(tokenRetention)));
+            return token instanceof Long number ? number : 0;
+        }
+        if (redisClient.setnxWithExpireTime(genLock(key), value) != 1L) {
+            return 0;
+        }
+        // Only the lock owner writes the counter, so reading and writing back is race free.
+        String last = redisClient.get(genToken(key));
+        long token = last == null ? 1 : Long.parseLong(last) + 1;
+        redisClient.setWithExpireTime(genToken(key), String.valueOf(token), (int) (tokenRetention / 1000));
+        return token;
+    }
+
+    private void renew() {
+        long start = System.currentTimeMillis();
+        List<Map.Entry<String, Lease>> entries = new ArrayList<>(leases.entrySet());
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(entries.size());
+        List<String> values = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Lease> entry : entries) {
+            keys.add(genLock(entry.getKey()));
+            values.add(entry.getValue().value);
+        }
+        List<Boolean> results;
+        try {
+            results = redisClient.updateKeysExpireTimeIfMatch(keys, values);
+        } catch (Exception e) {
+            // Keep the leases, they will expire locally if the following renewals keep failing.
+            log.warn("Lease renewal error", e);
+            return;
+        }
+        int renewed = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Map.Entry<String, Lease> entry = entries.get(i);
+            if (Boolean.TRUE.equals(results.get(i))) {
+                entry.getValue().renewedTime = start;
+                renewed++;
+            } else {
+                log.warn("Fail renewing the lease of task [{}], the lock could be expired and transferred to other workers",
+                        entry.getKey());
+                leases.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        log.debug("[{}] leases renewed in [{}] milliseconds", renewed, System.currentTimeMillis() - start);
+    }
+
+    private String genLock(final String taskId) {
+        return taskId + "_lock";
+    }
+
+    private String genToken(final String taskId) {
+        // Hash tag of the lock key, so the lock and its counter live in the same slot.
+        return "{" + genLock(taskId) + "}_fencing";
+    }
+
+    private static final class Lease {
+        private final String owner;
+        private final String value;
+        private final long token;
+        private volatile long renewedTime;
+
+        private Lease(final String owner, final String value, final long token, final long renewedTime) {
+            this.owner = owner;
+            this.value = value;
+            this.token = token;
+            this.renewedTime = renewedTime;
+        }
+
+        private boolean isValid(final long current) {
+            return current - renewedTime < Settings.LOCK_EXPIRE_TIME;
+        }
+    }
+}
@@ -16,8 +16,8 @@
 
 package org.stream.extension.lock.providers;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 import javax.annotation.Resource;
@@ -38,8 +38,8 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class RedisClusterBasedLock implements Lock {
 
-    private final Map<String, String> processingTasks = new HashMap<>();
-    private final Map<String, Long> lockingTimes = new HashMap<>();
+    private final Map<String, String> processingTasks = new ConcurrentHashMap<>();
+    private final Map<String, Long> lockingTimes = new ConcurrentHashMap<>();
 
     @Resource
     @Setter
@@ -75,7 +75,7 @@ public class RedisClusterBasedLock implements Lock {
         if (isProcessing(key) && !owner) {
             log.info("Another thread in the jvm is processing the task, skip");
             // Duplicate thread in the same host.
-            long lockingTime = lockingTimes.get(key);
+            long lockingTime = lockingTimes.getOrDefault(key, 0L);
             if (current - lockingTime >= Settings.LOCK_EXPIRE_TIME) {
                 // The owner thread must be crashed or stuck, and the lock must be expired or refreshed by other workers.
                 // Try to grab the lock, if succeeded, kick off the previous owner.
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.lock.providers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import javax.annotation.Resource;
+
+import org.stream.extension.lock.Lock;
+import org.stream.extension.meta.TaskLock;
+import org.stream.extension.persist.TaskLockStorage;
+import org.stream.extension.settings.Settings;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link Lock} implementation built on {@link TaskLockStorage}, so deployments having a transactional database
+ * do not need Redis just for locking.
+ * <p>
+ * Locks are grabbed with version based compare-and-set and are leased for {@link #leaseTime} milliseconds, an expired
+ * lease can be taken over by other workers. Owners extend their leases when {@link #tryLock(String, BiFunction)} is
+ * invoked after half of the lease time. The lock version increases on every change and is used as the fencing token,
+ * storages can put the lock update and the task update in one statement or transaction.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class StorageBasedLock implements Lock {
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    @Resource
+    @Setter
+    private TaskLockStorage taskLockStorage;
+
+    @Setter
+    private long leaseTime = Settings.LOCK_EXPIRE_TIME;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryLock(final String key, final BiFunction<String, Long, Boolean> postAction) {
+        long current = System.currentTimeMillis();
+        String owner = genOwner();
+        Lease lease = leases.get(key);
+        if (lease != null && lease.expireTime > current) {
+            if (!lease.owner.equals(owner)) {
+                log.info("Another thread in the jvm is processing the task, skip");
+                return false;
+            }
+            if (lease.expireTime - current > leaseTime / 2) {
+                return true;
+            }
+            // Extend the lease if we have held the lock for a long time.
+            return extend(key, lease, current);
+        }
+        if (lease != null) {
+            leases.remove(key, lease);
+        }
+
+        TaskLock taskLock = taskLockStorage.query(key);
+        if (taskLock == null) {
+            return initiate(key, owner, current, postAction);
+        }
+        if (!isAvailable(taskLock, current)) {
+            log.info("Another worker is processing the task");
+            return false;
+        }
+        TaskLock update = next(taskLock, owner, current + leaseTime);
+        if (!taskLockStorage.compareAndSet(update)) {
+            log.info("Another worker grabbed the lock for task [{}]", key);
+            return false;
+        }
+        return acquired(update, current, postAction);
+    }
+
+    /**
+     * Try to grab the locks of a batch of tasks with one batch query and one batch compare-and-set if the storage
+     * supports, tasks without lock initiated will be initiated one by one.
+     * @param keys Lock keys.
+     * @param postAction Action to be executed for each lock grabbed.
+     * @return Keys of the locks grabbed.
+     */
+    public Set<String> tryLockAll(final List<String> keys, final BiFunction<String, Long, Boolean> postAction) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptySet();
+        }
+        long current = System.currentTimeMillis();
+        String owner = genOwner();
+        Set<String> missing = new HashSet<>(keys);
+        List<TaskLock> updates = new LinkedList<>();
+        for (TaskLock taskLock : taskLockStorage.batchQuery(new ArrayList<>(keys))) {
+            missing.remove(taskLock.getTaskId());
+            if (isAvailable(taskLock, current)) {
+                updates.add(next(taskLock, owner, current + leaseTime));
+            }
+        }
+
+        Set<String> locked = new HashSet<>();
+        if (!updates.isEmpty()) {
+            Set<String> updated = new HashSet<>(taskLockStorage.batchCompareAndSet(updates));
+            for (TaskLock update : updates) {
+                if (updated.contains(update.getTaskId()) && acquired(update, current, postAction)) {
+                    locked.add(update.getTaskId());
+                }
+            }
+        }
+        for (String key : missing) {
+            if (initiate(key, owner, current, postAction)) {
+                locked.add(key);
+            }
+        }
+        log.info("[{}] of [{}] locks grabbed in batch", locked.size(), keys.size());
+        return locked;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean release(final String key) {
+        Lease lease = leases.remove(key);
+        if (lease == null || lease.expireTime <= System.currentTimeMillis()) {
+            // Lease expired, the lock could have been grabbed by others.
+            return true;
+        }
+        TaskLock released = TaskLock.builder()
+                .taskId(key)
+                .version(lease.version + 1)
+                .owner(null)
+                .expireTime(0)
+                .build();
+        return taskLockStorage.compareAndSet(released);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLegibleOwner(final String key) {
+        Lease lease = leases.get(key);
+        if (lease != null) {
+            return lease.expireTime > System.currentTimeMillis();
+        }
+        // No local lease, legible only if the stored lock is still hold by the current thread, a missing or expired lock
+        // could be grabbed by others at any time.
+        TaskLock taskLock = taskLockStorage.query(key);
+        return taskLock != null && genOwner().equals(taskLock.getOwner())
+                && taskLock.getExpireTime() > System.currentTimeMillis();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long fencingToken(final String key) {
+        Lease lease = leases.get(key);
+        return lease == null ? 0 : lease.version;
+    }
+
+    private boolean initiate(final String key, final String owner, final long current,
+            final BiFunction<String, Long, Boolean> postAction) {
+        TaskLock taskLock = TaskLock.builder()
+                .taskId(key)
+                .version(0)
+                .owner(owner)
+                .expireTime(current + leaseTime)
+                .build();
+        try {
+            if (taskLockStorage.initiate(taskLock) == 1) {
+                return acquired(taskLock, current, postAction);
+            }
+        } catch (Exception e) {
+            // Typically duplicate key, initiated by another worker concurrently.
+            log.info("Fail to initiate the lock for task [{}]", key, e);
+        }
+        return false;
+    }
+
+    private boolean extend(final String key, final Lease lease, final long current) {
+        TaskLock update = TaskLock.builder()
+                .taskId(key)
+                .version(lease.version + 1)
+                .owner(lease.owner)
+                .expireTime(current + leaseTime)
+                .build();
+        if (taskLockStorage.compareAndSet(update)) {
+            leases.put(key, new Lease(lease.owner, update.getVersion(), update.getExpireTime()));
+            log.info("Lock info refreshed");
+            return true;
+        }
+        log.warn("Fail refreshing the lock expire time, the lock could be expired and transferred to other workers");
+        leases.remove(key, lease);
+        return false;
+    }
+
+    private boolean acquired(final TaskLock taskLock, final long current, final BiFunction<String, Long, Boolean> postAction) {
+        leases.put(taskLock.getTaskId(), new Lease(taskLock.getOwner(), taskLock.getVersion(), taskLock.getExpireTime()));
+        log.info("Thread [{}] Grab the lock for task [{}] with version [{}]", Thread.currentThread().getName(),
+                taskLock.getTaskId(), taskLock.getVersion());
+        postAction.apply(taskLock.getTaskId(), current);
+        return true;
+    }
+
+    private boolean isAvailable(final TaskLock taskLock, final long current) {
+        return taskLock.getOwner() == null || taskLock.getExpireTime() <= current;
+    }
+
+    private TaskLock next(final TaskLock taskLock, final String owner, final long expireTime) {
+        return TaskLock.builder()
+                .id(taskLock.getId())
+                .taskId(taskLock.getTaskId())
+                .version(taskLock.getVersion() + 1)
+                .owner(owner)
+                .expireTime(expireTime)
+                .build();
+    }
+
+    private String genOwner() {
+        return Settings.HOST_NAME + "_" + Thread.currentThread().getName();
+    }
+
+    private static final class Lease {
+        private final String owner;
+        private final int version;
+        private final long expireTime;
+
+        private Lease(final String owner, final int version, final long expireTime) {
+            this.owner = owner;
+            this.version = version;
+            this.expireTime = expireTime;
+        }
+    }
+}
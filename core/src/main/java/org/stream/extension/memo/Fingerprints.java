@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.memo;
+
+import org.stream.core.resource.Resource;
+import org.stream.extension.io.HessianIOSerializer;
+
+import com.google.common.hash.Hashing;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fingerprints of the primary resources, used as the memoization keys. Two resources share the same fingerprint
+ * if their values are serialized to the same bytes.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public final class Fingerprints {
+
+    private Fingerprints() { }
+
+    /**
+     * Compute the fingerprint of the resource value.
+     * @param resource Resource.
+     * @return Fingerprint, null if the resource is absent or its value can not be serialized.
+     */
+    public static String of(final Resource resource) {
+        if (resource == null || resource.getValue() == null) {
+            return null;
+        }
+        try {
+            return Hashing.murmur3_128().hashBytes(HessianIOSerializer.encode(resource.getValue())).toString();
+        } catch (Exception e) {
+            log.debug("Fail to fingerprint resource [{}]", resource.getResourceReference(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.memo;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+import lombok.Data;
+
+/**
+ * Result memoization configuration at graph or node level. Memoization should only be turned on for graphs
+ * and nodes whose outcome is a pure function of the primary resource.
+ * @author guanxiong wei
+ *
+ */
+@Data
+public class MemoizationConfiguration implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Time to live of the memoized results in milliseconds.
+    private long ttl = 60 * 1000;
+
+    // Max number of memoized results, the least recently used ones are evicted first.
+    private long maxSize = 10000;
+}
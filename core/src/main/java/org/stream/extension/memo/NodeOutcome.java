@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.memo;
+
+import java.util.List;
+
+import org.stream.core.component.ActivityResult;
+import org.stream.core.resource.Resource;
+
+/**
+ * Memoized outcome of a node: the activity result and the resources the node attached to the work-flow.
+ * @param result Activity result.
+ * @param resources Resources attached by the node.
+ * @author guanxiong wei
+ */
+public record NodeOutcome(ActivityResult result, List<Resource> resources) { }
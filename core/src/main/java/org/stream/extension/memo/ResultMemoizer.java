@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.memo;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.stream.extension.metrics.Counter;
+import org.stream.extension.metrics.MetricsRegistry;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Bounded, expiring memoization of results by key with single-flight loading: while a result is being computed,
+ * concurrent callers asking for the same key wait for it instead of computing it again. Results rejected by the
+ * cacheable predicate are handed to the computing caller only, the waiting callers then compute their own ones.
+ * @param <V> Result type.
+ * @author guanxiong wei
+ *
+ */
+public class ResultMemoizer<V> {
+
+    public static final String HITS = "stream.memo.hits";
+    public static final String MISSES = "stream.memo.misses";
+
+    private final Cache<String, V> cache;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    /**
+     * Constructor.
+     * @param name Memoizer name, used as the metric tag.
+     * @param configuration Memoization configuration.
+     */
+    public ResultMemoizer(final String name, final MemoizationConfiguration configuration) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(configuration.getMaxSize())
+                .expireAfterWrite(configuration.getTtl(), TimeUnit.MILLISECONDS)
+                .build();
+        this.hits = MetricsRegistry.getDefault().counter(HITS, "name", name);
+        this.misses = MetricsRegistry.getDefault().counter(MISSES, "name", name);
+    }
+
+    /**
+     * Get the memoized result of the key, or compute it.
+     * @param key Memoization key, the result is computed without memoization if it is null.
+     * @param action Action computing the result.
+     * @param cacheable Predicate telling if the computed result can be memoized.
+     * @return Result.
+     */
+    @SuppressWarnings("unchecked")
+    public V memoize(final String key, final Supplier<V> action, final Predicate<V> cacheable) {
+        if (key == null) {
+            return action.get();
+        }
+        V memoized = cache.getIfPresent(key);
+        if (memoized != null) {
+            hits.increment();
+            return memoized;
+        }
+
+        boolean[] computed = {false};
+        try {
+            V result = cache.get(key, () -> {
+                computed[0] = true;
+                V value = action.get();
+                if (!cacheable.test(value)) {
+                    throw new Uncacheable(value);
+                }
+                return value;
+            });
+            (computed[0] ? misses : hits).increment();
+            return result;
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            misses.increment();
+            Throwable cause = e.getCause();
+            if (!computed[0]) {
+                // The computation we waited for failed or is not cacheable, compute our own result.
+                return action.get();
+            }
+            if (cause instanceof Uncacheable uncacheable) {
+                return (V) uncacheable.value;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Drop all the memoized results.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Number of the memoized results.
+     * @return Size.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    private static final class Uncacheable extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Object value;
+
+        Uncacheable(final Object value) {
+            super(null, null, false, false);
+            this.value = value;
+        }
+    }
+}
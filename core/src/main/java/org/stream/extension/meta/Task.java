@@ -79,6 +79,12 @@ public class Task implements Serializable {
     // Time the task is initiated.
     private long initiatedTime;
 
+    // Fencing token of the lock hold by the worker updating the task, storages may reject updates with smaller tokens.
+    private long fencingToken;
+
+    // Content hash of the graph definition the task started on, the task keeps running on it after the graph is reloaded.
+    private String graphVersion;
+
     /**
      * Parse {@linkplain Task} entity from Jsonfied string.
      * @param content Jsonfied string.
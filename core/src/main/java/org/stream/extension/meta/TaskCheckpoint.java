@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.meta;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Activity level checkpoint of a task, saved while the activity is still running so that
+ * a resumed execution can continue from the last cursor instead of redoing the whole node.
+ * @author guanxiong wei
+ *
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class TaskCheckpoint implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 6316524079843151742L;
+
+    // Task id.
+    private String taskId;
+
+    // Node the checkpoint is saved in, a checkpoint is only restored when the task resumes at the same node.
+    private String nodeName;
+
+    // Hessian encoded stream transfer data holding the checkpoint entries of the node only.
+    private byte[] cursors;
+
+    // Sequence of the checkpoint within the current attempt.
+    private long sequence;
+
+    // Create time.
+    private long createTime;
+}
@@ -19,6 +19,7 @@ package org.stream.extension.meta;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * Abstract of a real task for one execution plan.
@@ -27,6 +28,7 @@ import lombok.Data;
  */
 @Data
 @AllArgsConstructor
+@NoArgsConstructor
 @Builder
 public class TaskLock {
 
@@ -34,6 +36,13 @@ public class TaskLock {
 
     private String taskId;
 
+    // Increased by one on each successful compare-and-set, also used as the fencing token of the owner.
     private int version;
 
+    // Current owner of the lock, null if released.
+    private String owner;
+
+    // Millisecond time the lease expires, the lock can be grabbed by others after then.
+    private long expireTime;
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.meta;
+
+import java.util.function.Predicate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Criteria used to select a page of {@link Task}s, mainly used by the administrator to recover tasks in bulk.
+ * Absent criteria match any task. Pages are ordered by task id and continued from the {@link #afterTaskId} cursor,
+ * so tasks updated while the pages are walked through are neither skipped nor returned twice.
+ * @author guanxiong wei
+ *
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskQuery {
+
+    // Graph name.
+    private String graphName;
+
+    // Node the tasks are currently at.
+    private String nodeName;
+
+    // Task status code, see TaskStatus.
+    private Integer status;
+
+    // Tasks last executed at or after this time in milliseconds, 0 means unbounded.
+    private long from;
+
+    // Tasks last executed before this time in milliseconds, 0 means unbounded.
+    private long to;
+
+    // Only tasks whose id is greater than the cursor are returned, null to start from the first page.
+    private String afterTaskId;
+
+    // Max number of tasks in one page.
+    @Builder.Default
+    private int limit = 500;
+
+    // Extra criteria storages can not express, for example checking the error recorded in the latest step.
+    // It is evaluated by the caller on every returned task, storages ignore it.
+    private transient Predicate<Task> filter;
+
+    /**
+     * Check if the task matches the criteria expressible by the storages.
+     * Storages without query facility may scan and filter the tasks with this method.
+     * @param task Task to be checked.
+     * @return {@code true} if the task matches.
+     */
+    public boolean matches(final Task task) {
+        return (graphName == null || graphName.equals(task.getGraphName()))
+                && (nodeName == null || nodeName.equals(task.getNodeName()))
+                && (status == null || status == task.getStatus())
+                && (from == 0 || task.getLastExecutionTime() >= from)
+                && (to == 0 || task.getLastExecutionTime() < to)
+                && (afterTaskId == null || task.getTaskId().compareTo(afterTaskId) > 0);
+    }
+
+    /**
+     * Get the query for the page following the given task.
+     * @param last Last task of the current page.
+     * @return Query for the next page.
+     */
+    public TaskQuery next(final Task last) {
+        return toBuilder().afterTaskId(last.getTaskId()).build();
+    }
+}
@@ -46,7 +46,12 @@ public enum TaskStatus {
     /**
      * Suspended status, will be retried later.
      */
-    PENDING(5, "PendingOnRetry");
+    PENDING(5, "PendingOnRetry"),
+
+    /**
+     * Task cancelled by the administrator, will never be run again unless it is re-run manually.
+     */
+    CANCELLED(6, "Cancelled");
 
     private int code;
     private String type;
@@ -63,4 +68,14 @@ public enum TaskStatus {
     public String type() {
         return this.type;
     }
+
+    /**
+     * Check if the status code represents a terminal status, tasks in terminal status will never be picked up again
+     * by the engine unless they are re-run manually.
+     * @param code Task status code.
+     * @return {@code true} if the task is completed, failed or cancelled, otherwise {@code false}.
+     */
+    public static boolean isTerminal(final int code) {
+        return code == COMPLETED.code || code == FAILED.code || code == CANCELLED.code;
+    }
 }
@@ -53,4 +53,11 @@ public class TaskStep {
     // Database unique key in case needed.
     private long id;
 
+    /**
+     * Copy the step without the transfer data payload.
+     * @return Metadata only step.
+     */
+    public TaskStep withoutPayload() {
+        return new TaskStep(taskId, graphName, nodeName, null, createTime, status, id);
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.meta;
+
+import java.util.Comparator;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Criteria used to read a page of {@link TaskStep}s of one task in time order. Pages are continued from the
+ * (create time, id) cursor of the last step returned, so steps appended while paging never shift the pages.
+ * @author guanxiong wei
+ *
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStepQuery {
+
+    /**
+     * Time order of the steps, create time first then id.
+     */
+    public static final Comparator<TaskStep> ORDER = Comparator.comparingLong(TaskStep::getCreateTime).thenComparingLong(TaskStep::getId);
+
+    // Task id.
+    private String taskId;
+
+    // Create time of the last step of the previous page, the cursor is absent if it is negative.
+    @Builder.Default
+    private long afterCreateTime = -1;
+
+    // Id of the last step of the previous page.
+    private long afterId;
+
+    // Max number of steps in one page.
+    @Builder.Default
+    private int limit = 100;
+
+    // Read the latest steps first.
+    private boolean descending;
+
+    // Load the transfer data payloads, by default only the metadata is read.
+    private boolean withPayload;
+
+    /**
+     * Check if the step lies after the cursor in the query order.
+     * @param taskStep Step to be checked.
+     * @return {@code true} if the step belongs to the following pages.
+     */
+    public boolean isAfterCursor(final TaskStep taskStep) {
+        if (afterCreateTime < 0) {
+            return true;
+        }
+        int compared = taskStep.getCreateTime() != afterCreateTime ? Long.compare(taskStep.getCreateTime(), afterCreateTime)
+                : Long.compare(taskStep.getId(), afterId);
+        return descending ? compared < 0 : compared > 0;
+    }
+
+    /**
+     * Get the comparator of the query order.
+     * @return Comparator.
+     */
+    public Comparator<TaskStep> order() {
+        return descending ? ORDER.reversed() : ORDER;
+    }
+
+    /**
+     * Get the query for the page following the given step.
+     * @param last Last step of the current page.
+     * @return Query for the next page.
+     */
+    public TaskStepQuery next(final TaskStep last) {
+        return toBuilder().afterCreateTime(last.getCreateTime()).afterId(last.getId()).build();
+    }
+}
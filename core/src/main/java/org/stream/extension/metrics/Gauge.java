@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.metrics;
+
+import java.util.function.DoubleSupplier;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Meter sampling a value on demand, the supplier is invoked by exporters only.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class Gauge implements Meter {
+
+    @Getter
+    private final MetricId id;
+
+    private final DoubleSupplier supplier;
+
+    Gauge(final MetricId id, final DoubleSupplier supplier) {
+        this.id = id;
+        this.supplier = supplier;
+    }
+
+    /**
+     * Sample the current value.
+     * @return Current value, {@link Double#NaN} if the supplier fails.
+     */
+    public double value() {
+        try {
+            return supplier.getAsDouble();
+        } catch (Exception e) {
+            log.warn("Fail to sample gauge [{}]", id, e);
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * Lock-free log-linear histogram in the spirit of HDR histograms. Every power of two range is split into
+ * {@value #SUB_BUCKETS} linear buckets, so any reported percentile is within 6.25% of the recorded value while the
+ * whole value range of a long fits in a fixed array. Recording is a handful of arithmetic operations plus two atomic
+ * adds, no allocation and no locking, so it is safe to be used on the engine's hot paths.
+ *
+ * Latency histograms recorded by the engine are all in nanoseconds.
+ * @author guanxiong wei
+ *
+ */
+public class Histogram implements Meter {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    @Getter
+    private final MetricId id;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(final MetricId id) {
+        this.id = id;
+    }
+
+    /**
+     * Record a value, negative values are recorded as 0.
+     * @param value Value to be recorded.
+     */
+    public void record(final long value) {
+        long normalized = Math.max(0, value);
+        counts.incrementAndGet(index(normalized));
+        sum.add(normalized);
+        if (normalized > max.get()) {
+            max.accumulateAndGet(normalized, Math::max);
+        }
+    }
+
+    /**
+     * Take a snapshot of the histogram, concurrent recordings may or may not be included.
+     * @return Snapshot.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    static int index(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Point in time view of a histogram.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        @Getter
+        private final long count;
+
+        @Getter
+        private final long sum;
+
+        @Getter
+        private final long max;
+
+        Snapshot(final long[] counts, final long count, final long sum, final long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Estimate the value at the percentile.
+         * @param percentile Percentile between 0 and 1.
+         * @return Upper bound of the bucket holding the percentile, never above the recorded max.
+         */
+        public long percentile(final double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Identity of a meter, made up of the meter name and its tags sorted by key.
+ * @param name Meter name.
+ * @param tags Tags in the form of key value pairs sorted by key.
+ * @author guanxiong wei
+ *
+ */
+public record MetricId(String name, List<String> tags) {
+
+    /**
+     * Build a metric id.
+     * @param name Meter name.
+     * @param tags Tags in the form of key1, value1, key2, value2...
+     * @return Metric id.
+     */
+    public static MetricId of(final String name, final String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags should be key value pairs");
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            sorted.put(tags[i], tags[i + 1]);
+        }
+        List<String> pairs = new ArrayList<>(tags.length);
+        sorted.forEach((key, value) -> {
+            pairs.add(key);
+            pairs.add(value);
+        });
+        return new MetricId(name, Collections.unmodifiableList(pairs));
+    }
+
+    /**
+     * Get the value of a tag.
+     * @param key Tag key.
+     * @return Tag value, {@code null} if absent.
+     */
+    public String tag(final String key) {
+        for (int i = 0; i < tags.size(); i += 2) {
+            if (tags.get(i).equals(key)) {
+                return tags.get(i + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        if (tags.isEmpty()) {
+            return name;
+        }
+        StringBuilder builder = new StringBuilder(name).append('{');
+        for (int i = 0; i < tags.size(); i += 2) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(tags.get(i)).append('=').append(tags.get(i + 1));
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.metrics;
+
+import java.util.Collection;
+
+/**
+ * Exporter SPI publishing the meters to monitoring systems, implementations are invoked periodically by the
+ * {@link MetricsReporter} from a single thread.
+ * @author guanxiong wei
+ *
+ */
+public interface MetricsExporter {
+
+    /**
+     * Publish the meters.
+     * @param meters All the meters registered so far.
+     */
+    void export(Collection<Meter> meters);
+
+    /**
+     * Release resources held by the exporter, invoked once the reporter is stopped.
+     */
+    default void close() {
+    }
+}
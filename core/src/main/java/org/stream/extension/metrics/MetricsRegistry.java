@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Registry of the meters, meters are created on first use and live as long as the registry. Callers on hot paths
+ * are expected to keep the meter references instead of looking them up on every recording.
+ * @author guanxiong wei
+ *
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<MetricId, Meter> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Get the registry the engine records into.
+     * @return Default registry.
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get or create a counter.
+     * @param name Meter name.
+     * @param tags Tags in the form of key1, value1, key2, value2...
+     * @return Counter.
+     */
+    public Counter counter(final String name, final String... tags) {
+        return meter(MetricId.of(name, tags), Counter.class);
+    }
+
+    /**
+     * Get or create a histogram.
+     * @param name Meter name.
+     * @param tags Tags in the form of key1, value1, key2, value2...
+     * @return Histogram.
+     */
+    public Histogram histogram(final String name, final String... tags) {
+        return meter(MetricId.of(name, tags), Histogram.class);
+    }
+
+    /**
+     * Register a gauge, a gauge registered previously with the same id will be replaced.
+     * @param name Meter name.
+     * @param supplier Value supplier.
+     * @param tags Tags in the form of key1, value1, key2, value2...
+     * @return Gauge.
+     */
+    public Gauge gauge(final String name, final DoubleSupplier supplier, final String... tags) {
+        MetricId id = MetricId.of(name, tags);
+        Gauge gauge = new Gauge(id, supplier);
+        Meter previous = meters.put(id, gauge);
+        if (previous != null && !(previous instanceof Gauge)) {
+            meters.put(id, previous);
+            throw new IllegalArgumentException(String.format("Meter [%s] is not a gauge", id));
+        }
+        return gauge;
+    }
+
+    /**
+     * Find a meter.
+     * @param id Meter id.
+     * @return The meter, {@code null} if absent.
+     */
+    public Meter find(final MetricId id) {
+        return meters.get(id);
+    }
+
+    /**
+     * Remove a meter, recording into the references kept by the callers is no longer reported.
+     * @param id Meter id.
+     * @return {@code true} if the meter was registered.
+     */
+    public boolean remove(final MetricId id) {
+        return meters.remove(id) != null;
+    }
+
+    /**
+     * Get all the registered meters.
+     * @return Unmodifiable view of the meters.
+     */
+    public Collection<Meter> getMeters() {
+        return Collections.unmodifiableCollection(meters.values());
+    }
+
+    private <T extends Meter> T meter(final MetricId id, final Class<T> type) {
+        Meter meter = meters.get(id);
+        if (meter == null) {
+            meter = meters.computeIfAbsent(id, key -> type == Counter.class ? new Counter(key) : new Histogram(key));
+        }
+        if (!type.isInstance(meter)) {
+            throw new IllegalArgumentException(String.format("Meter [%s] is not a %s", id, type.getSimpleName()));
+        }
+        return type.cast(meter);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Schedule the registered {@link MetricsExporter}s to publish the meters of a registry periodically.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class MetricsReporter {
+
+    @Setter
+    private MetricsRegistry registry = MetricsRegistry.getDefault();
+
+    // Export interval in milliseconds.
+    @Setter
+    private long interval = 60000;
+
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Register an exporter.
+     * @param exporter Exporter to be registered.
+     */
+    public void register(final MetricsExporter exporter) {
+        exporters.add(exporter);
+    }
+
+    /**
+     * Start reporting.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stream-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::report, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publish the meters to every exporter once.
+     */
+    public void report() {
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.export(registry.getMeters());
+            } catch (Exception e) {
+                log.warn("Fail to export metrics via [{}]", exporter.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Stop reporting and close the exporters.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        exporters.forEach(MetricsExporter::close);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Adapter binding the stream meters to a Micrometer {@link MeterRegistry}. Micrometer is an optional dependency,
+ * applications using this exporter should put micrometer-core on their class path.
+ *
+ * Stream meters are bound once when first seen: counters become function counters, gauges become gauges and
+ * histograms become function timers plus percentile gauges tagged with {@code quantile}.
+ * @author guanxiong wei
+ *
+ */
+public class MicrometerMetricsExporter implements MetricsExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<MetricId, Boolean> bound = new ConcurrentHashMap<>();
+
+    public MicrometerMetricsExporter(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void export(final Collection<Meter> meters) {
+        for (Meter meter : meters) {
+            if (bound.putIfAbsent(meter.getId(), Boolean.TRUE) == null) {
+                bind(meter);
+            }
+        }
+    }
+
+    private void bind(final Meter meter) {
+        String name = meter.getId().name();
+        Tags tags = Tags.of(meter.getId().tags().toArray(new String[0]));
+        if (meter instanceof Counter counter) {
+            FunctionCounter.builder(name, counter, Counter::count).tags(tags).register(meterRegistry);
+        } else if (meter instanceof Gauge gauge) {
+            io.micrometer.core.instrument.Gauge.builder(name, gauge, Gauge::value).tags(tags).register(meterRegistry);
+        } else if (meter instanceof Histogram histogram) {
+            FunctionTimer.builder(name, histogram, h -> h.snapshot().getCount(), h -> h.snapshot().getSum(),
+                    TimeUnit.NANOSECONDS).tags(tags).register(meterRegistry);
+            for (double quantile : QUANTILES) {
+                io.micrometer.core.instrument.Gauge.builder(name + ".percentile", histogram,
+                        h -> h.snapshot().percentile(quantile))
+                        .tags(tags.and("quantile", String.valueOf(quantile)))
+                        .register(meterRegistry);
+            }
+        }
+    }
+}
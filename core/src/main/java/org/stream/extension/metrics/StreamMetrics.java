@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.stream.core.component.ActivityResult;
+import org.stream.core.sentinel.AdaptiveConcurrencyLimiter;
+
+/**
+ * Meters recorded by the engine itself. The meters are cached by their plain string keys so recording on the hot
+ * paths costs a couple of hash lookups and the atomic adds, without allocating any metric id.
+ * @author guanxiong wei
+ *
+ */
+public final class StreamMetrics {
+
+    public static final String NODE_EXECUTIONS = "stream.node.executions";
+    public static final String NODE_FAILURES = "stream.node.failures";
+    public static final String NODE_LATENCY = "stream.node.latency";
+    public static final String NODE_LIMITED = "stream.node.limited";
+    public static final String NODE_CONCURRENCY_LIMIT = "stream.node.concurrency.limit";
+    public static final String GRAPH_EXECUTIONS = "stream.graph.executions";
+    public static final String GRAPH_LATENCY = "stream.graph.latency";
+    public static final String LOCK_ACQUIRED = "stream.lock.acquired";
+    public static final String LOCK_REJECTED = "stream.lock.rejected";
+    public static final String LOCK_LOST = "stream.lock.lost";
+    public static final String DELAY_QUEUE_LAG = "stream.delayqueue.lag";
+    public static final String PERSIST_LATENCY = "stream.persist.latency";
+    public static final String PERSIST_FAILURES = "stream.persist.failures";
+
+    private static final Set<String> NODE_METERS = Set.of(NODE_EXECUTIONS, NODE_FAILURES, NODE_LATENCY, NODE_LIMITED,
+            NODE_CONCURRENCY_LIMIT);
+
+    private static final Map<String, Map<String, NodeMeters>> NODES = new ConcurrentHashMap<>();
+
+    private static final Map<String, GraphMeters> GRAPHS = new ConcurrentHashMap<>();
+
+    private static final Map<String, PersistMeters> PERSISTENCE = new ConcurrentHashMap<>();
+
+    private static final Counter LOCK_ACQUIRED_COUNTER = registry().counter(LOCK_ACQUIRED);
+    private static final Counter LOCK_REJECTED_COUNTER = registry().counter(LOCK_REJECTED);
+    private static final Counter LOCK_LOST_COUNTER = registry().counter(LOCK_LOST);
+    private static final Histogram DELAY_QUEUE_LAG_HISTOGRAM = registry().histogram(DELAY_QUEUE_LAG);
+
+    private StreamMetrics() { }
+
+    /**
+     * Record a node execution.
+     * @param graph Graph name.
+     * @param node Node name.
+     * @param result Execution result.
+     * @param nanos Time cost in nanoseconds.
+     */
+    public static void recordNode(final String graph, final String node, final ActivityResult result, final long nanos) {
+        NodeMeters meters = NODES.computeIfAbsent(graph, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(node, key -> new NodeMeters(graph, node));
+        meters.executions.increment();
+        if (result == ActivityResult.FAIL) {
+            meters.failures.increment();
+        }
+        meters.latency.record(nanos);
+    }
+
+    /**
+     * Record a node execution rejected by the node's concurrency limit.
+     * @param graph Graph name.
+     * @param node Node name.
+     */
+    public static void recordLimited(final String graph, final String node) {
+        NODES.computeIfAbsent(graph, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(node, key -> new NodeMeters(graph, node)).limited.increment();
+    }
+
+    /**
+     * Expose the current concurrency limit of a node as a gauge, replacing the one of the previous graph version.
+     * @param graph Graph name.
+     * @param node Node name.
+     * @param limiter Limiter guarding the node.
+     */
+    public static void registerConcurrencyLimit(final String graph, final String node, final AdaptiveConcurrencyLimiter limiter) {
+        registry().gauge(NODE_CONCURRENCY_LIMIT, limiter::getLimit, "graph", graph, "node", node);
+    }
+
+    /**
+     * Drop the meters of the nodes absent from the latest version of the graph, invoked when a graph is upgraded so
+     * that the meters of the removed nodes do not pile up.
+     * @param graph Graph name.
+     * @param nodes Names of the nodes in the latest version.
+     */
+    public static void retainNodes(final String graph, final Collection<String> nodes) {
+        Map<String, NodeMeters> meters = NODES.get(graph);
+        if (meters != null) {
+            meters.keySet().removeIf(node -> !nodes.contains(node));
+        }
+        MetricsRegistry registry = registry();
+        registry.getMeters().stream()
+                .map(Meter::getId)
+                .filter(id -> NODE_METERS.contains(id.name()) && graph.equals(id.tag("graph")) && !nodes.contains(id.tag("node")))
+                .toList()
+                .forEach(registry::remove);
+    }
+
+    /**
+     * Record a graph execution.
+     * @param graph Graph name.
+     * @param nanos Time cost in nanoseconds.
+     */
+    public static void recordGraph(final String graph, final long nanos) {
+        GraphMeters meters = GRAPHS.computeIfAbsent(graph, GraphMeters::new);
+        meters.executions.increment();
+        meters.latency.record(nanos);
+    }
+
+    /**
+     * Record a lock acquisition attempt.
+     * @param acquired {@code true} if the lock is grabbed.
+     */
+    public static void recordLock(final boolean acquired) {
+        (acquired ? LOCK_ACQUIRED_COUNTER : LOCK_REJECTED_COUNTER).increment();
+    }
+
+    /**
+     * Record that a lock hold by the current process has been grabbed by another one.
+     */
+    public static void recordLockLost() {
+        LOCK_LOST_COUNTER.increment();
+    }
+
+    /**
+     * Record the time between a suspended task becoming due and it being picked up again.
+     * @param millis Lag in milliseconds.
+     */
+    public static void recordDelayQueueLag(final long millis) {
+        DELAY_QUEUE_LAG_HISTOGRAM.record(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Record a persistence operation.
+     * @param operation Operation name.
+     * @param nanos Time cost in nanoseconds.
+     * @param success Operation result.
+     */
+    public static void recordPersist(final String operation, final long nanos, final boolean success) {
+        PersistMeters meters = PERSISTENCE.computeIfAbsent(operation, PersistMeters::new);
+        meters.latency.record(nanos);
+        if (!success) {
+            meters.failures.increment();
+        }
+    }
+
+    private static MetricsRegistry registry() {
+        return MetricsRegistry.getDefault();
+    }
+
+    private static final class NodeMeters {
+        private final Counter executions;
+        private final Counter failures;
+        private final Counter limited;
+        private final Histogram latency;
+
+        NodeMeters(final String graph, final String node) {
+            this.executions = registry().counter(NODE_EXECUTIONS, "graph", graph, "node", node);
+            this.failures = registry().counter(NODE_FAILURES, "graph", graph, "node", node);
+            this.limited = registry().counter(NODE_LIMITED, "graph", graph, "node", node);
+            this.latency = registry().histogram(NODE_LATENCY, "graph", graph, "node", node);
+        }
+    }
+
+    private static final class GraphMeters {
+        private final Counter executions;
+        private final Histogram latency;
+
+        GraphMeters(final String graph) {
+            this.executions = registry().counter(GRAPH_EXECUTIONS, "graph", graph);
+            this.latency = registry().histogram(GRAPH_LATENCY, "graph", graph);
+        }
+    }
+
+    private static final class PersistMeters {
+        private final Histogram latency;
+        private final Counter failures;
+
+        PersistMeters(final String operation) {
+            this.latency = registry().histogram(PERSIST_LATENCY, "operation", operation);
+            this.failures = registry().counter(PERSIST_FAILURES, "operation", operation);
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.stream.extension.monitor;
 
 import org.stream.extension.executors.TaskExecutor;
+import org.stream.extension.metrics.MetricsRegistry;
 import org.stream.extension.persist.QueueHelper;
 import org.stream.extension.persist.RedisService;
 
@@ -60,6 +61,20 @@ public class StatusMonitor {
         return taskExecutor.getPoolSize();
     }
 
+    /**
+     * Expose the executor status and the suspended task quantity as gauges.
+     * @param registry Metrics registry.
+     * @param application Application name.
+     */
+    public void register(final MetricsRegistry registry, final String application) {
+        registry.gauge("stream.executor.active", this::activeTasks, "application", application);
+        registry.gauge("stream.executor.queued", this::getQueuedTasks, "application", application);
+        registry.gauge("stream.executor.pool", this::getPoolSize, "application", application);
+        if (redisService != null) {
+            registry.gauge("stream.tasks.suspended", () -> getSuspendedTaks(application), "application", application);
+        }
+    }
+
     /**
      * Get the quantity of suspended tasks.
      * @param application Application name.
@@ -71,7 +86,7 @@ public class StatusMonitor {
             StringBuilder sb = new StringBuilder();
             sb.append(QueueHelper.RETRY_KEY).append(application).append("_").append(i);
             String queue = sb.toString();
-            sum += redisService.getListSize(queue);
+            sum += redisService.zcard(queue);
         }
 
         return sum;
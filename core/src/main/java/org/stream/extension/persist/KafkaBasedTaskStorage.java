@@ -23,12 +23,15 @@ import org.stream.extension.events.Event;
 import org.stream.extension.events.EventCenter;
 import org.stream.extension.events.TaskCompleteEvent;
 import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskQuery;
 
 import lombok.Setter;
 
 /**
  * Kafka based implementation of {@linkplain TaskStorage}.
  * Will push the entity to the kafka message queue so that anybody that is interested in can process the data.
+ * The storage is write only, tasks can not be queried back, so the bulk operations of
+ * {@link org.stream.extension.admin.TaskAdministrator} are rejected, run them against the storage consuming the topic.
  * @author guanxiong wei
  *
  */
@@ -70,4 +73,13 @@ public class KafkaBasedTaskStorage implements TaskStorage {
         return Collections.emptyList();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Task> queryTasks(final TaskQuery query) {
+        throw new UnsupportedOperationException("Kafka based task storage is write only, query the tasks from the storage"
+                + " consuming the topic");
+    }
+
 }
@@ -16,6 +16,8 @@
 
 package org.stream.extension.persist;
 
+import org.stream.extension.utils.SnowflakeTaskIDGenerator;
+
 /**
  * Utility class to help deduce queue name based on input information.
  * @author guanxiong wei
@@ -35,16 +37,29 @@ public final class QueueHelper {
      * @return Queue name.
      */
     public static String getQueueNameFromTaskID(final String prefix, final String application, final String taskID) {
-        int hashcode = taskID.hashCode();
-        int queue = hashcode % DEFAULT_QUEUES;
-        if (queue < 0) {
-            queue *= -1;
-        }
+        int queue = getQueueIndexFromTaskID(taskID);
         StringBuilder sb = new StringBuilder();
         sb.append(prefix).append(application).append("_").append(queue);
         return sb.toString();
     }
 
+    /**
+     * Find the index of the queue the task belongs to. Snowflake task ids carry the shard in their bits,
+     * the other ids are distributed by their hash code.
+     * @param taskID Task id.
+     * @return Queue index.
+     */
+    public static int getQueueIndexFromTaskID(final String taskID) {
+        if (SnowflakeTaskIDGenerator.isSnowflakeId(taskID)) {
+            return SnowflakeTaskIDGenerator.shard(SnowflakeTaskIDGenerator.decode(taskID), DEFAULT_QUEUES);
+        }
+        int queue = taskID.hashCode() % DEFAULT_QUEUES;
+        if (queue < 0) {
+            queue *= -1;
+        }
+        return queue;
+    }
+
     /**
      * Find the target queue based on the index.
     * @param prefix Pre-set prefix.
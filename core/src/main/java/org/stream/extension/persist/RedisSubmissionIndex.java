@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.persist;
+
+import org.stream.extension.clients.RedisClient;
+
+import lombok.Setter;
+
+/**
+ * Redis based {@link SubmissionIndex}, the bindings expire after the retention window.
+ * @author guanxiong wei
+ *
+ */
+public class RedisSubmissionIndex implements SubmissionIndex {
+
+    private static final String KEY_PREFIX = "stream_submission_";
+
+    @Setter
+    private RedisClient redisClient;
+
+    @Setter
+    private String application;
+
+    // Retention window of the bindings in seconds, one day by default.
+    @Setter
+    private int retention = 24 * 3600;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(final String key) {
+        return redisClient.get(redisKey(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean putIfAbsent(final String key, final String taskId) {
+        return redisClient.setnx(redisKey(key), taskId, retention);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(final String key) {
+        redisClient.del(redisKey(key));
+    }
+
+    private String redisKey(final String key) {
+        return KEY_PREFIX + application + "_" + key;
+    }
+}
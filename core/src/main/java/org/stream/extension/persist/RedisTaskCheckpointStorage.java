@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.persist;
+
+import java.util.Base64;
+
+import org.stream.extension.clients.RedisClient;
+import org.stream.extension.io.HessianIOSerializer;
+import org.stream.extension.meta.TaskCheckpoint;
+
+import lombok.Setter;
+
+/**
+ * Redis based {@link TaskCheckpointStorage}, each task keeps a single key holding its latest checkpoint
+ * so saving a checkpoint costs one write no matter how many times the activity saves.
+ * @author guanxiong wei
+ *
+ */
+public class RedisTaskCheckpointStorage implements TaskCheckpointStorage {
+
+    private static final String KEY_PREFIX = "stream_checkpoint_";
+
+    @Setter
+    private RedisClient redisClient;
+
+    // Retention of the checkpoints in seconds, seven days by default.
+    @Setter
+    private int retention = 7 * 24 * 3600;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean save(final TaskCheckpoint taskCheckpoint) {
+        var value = Base64.getEncoder().encodeToString(HessianIOSerializer.encode(taskCheckpoint));
+        return redisClient.setWithExpireTime(KEY_PREFIX + taskCheckpoint.getTaskId(), value, retention);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TaskCheckpoint load(final String taskId) {
+        var value = redisClient.get(KEY_PREFIX + taskId);
+        if (value == null) {
+            return null;
+        }
+        return HessianIOSerializer.decode(Base64.getDecoder().decode(value), TaskCheckpoint.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean clear(final String taskId) {
+        return redisClient.del(KEY_PREFIX + taskId);
+    }
+}
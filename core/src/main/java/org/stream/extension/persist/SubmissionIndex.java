@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.persist;
+
+/**
+ * Index shared by the engine instances mapping the idempotency keys of the submissions to the tasks initiated for them.
+ * @author guanxiong wei
+ *
+ */
+public interface SubmissionIndex {
+
+    /**
+     * Get the task initiated for the idempotency key.
+     * @param key Idempotency key.
+     * @return Task id, null if absent.
+     */
+    String get(final String key);
+
+    /**
+     * Bind the task to the idempotency key if the key is not bound yet.
+     * @param key Idempotency key.
+     * @param taskId Task id.
+     * @return {@code true} if bound, {@code false} if the key is already bound to another task.
+     */
+    boolean putIfAbsent(final String key, final String taskId);
+
+    /**
+     * Unbind the key, invoked when the task fails to be initiated so that the retries can go through.
+     * @param key Idempotency key.
+     */
+    void remove(final String key);
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.persist;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.util.CollectionUtils;
+import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskStatus;
+import org.stream.extension.meta.TaskStep;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tiering pipeline moving terminal tasks and their steps from the hot storage to the archive storage.
+ * <p>
+ * Completed and failed tasks are kept in the hot storage for {@link #retentionTime} milliseconds, so that
+ * recently finished tasks can still be checked or re-ran cheaply, after that they will be moved to the archive
+ * storage in batches of {@link #batchSize}, walking the hot storage with a task id cursor so tasks failing to be archived
+ * do not block the following ones. Each task is locked through the {@link TaskPersister} and re-checked before it is
+ * moved, so a task re-ran after being queried stays in the hot storage. Steps are archived before the task itself and deleted from the hot storage
+ * before the task, so a task whose procedure breaks in the middle stays in the hot storage and will be archived again
+ * in the next round. Archiving is idempotent, steps already in the archive storage are skipped and the archived task
+ * is updated in place.
+ * <p>
+ * The hot storage should support {@link TaskStorage#queryCompletedTasks(long, String, int)}, {@link TaskStorage#delete(String)}
+ * and {@link TaskStepStorage#deleteByTaskId(String)}, otherwise nothing can be archived.
+ * <p>
+ * Use {@link TieredTaskStorage} and {@link TieredTaskStepStorage} to read tasks across the tiers.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class TaskArchiver {
+
+    @Setter
+    private TaskPersister taskPersister;
+
+    @Setter
+    private TaskStorage hotTaskStorage;
+
+    @Setter
+    private TaskStepStorage hotTaskStepStorage;
+
+    @Setter
+    private TaskStorage archiveTaskStorage;
+
+    @Setter
+    private TaskStepStorage archiveTaskStepStorage;
+
+    // Time in milliseconds terminal tasks will be kept in the hot storage, default 7 days.
+    @Setter
+    private long retentionTime = 7 * 24 * 3600 * 1000L;
+
+    // Tasks to be archived in one batch.
+    @Setter
+    private int batchSize = 200;
+
+    // Max batches to be processed in one round, so that the archiver will not occupy the storage for a long time.
+    @Setter
+    private int maxBatchesPerRound = 50;
+
+    // Time interval in milliseconds between two rounds.
+    @Setter
+    private long interval = 60 * 1000L;
+
+    @Setter
+    private ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+
+    @Getter
+    private final AtomicLong archivedTasks = new AtomicLong();
+
+    @Getter
+    private final AtomicLong failedTasks = new AtomicLong();
+
+    /**
+     * Initiate the back-end worker to archive the terminal tasks periodically.
+     */
+    public void init() {
+        scheduledExecutorService.scheduleWithFixedDelay(() -> {
+            try {
+                archive();
+            } catch (Exception e) {
+                log.warn("Fail to archive completed tasks", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Task archiver initiated with retention time [{}] milliseconds", retentionTime);
+    }
+
+    /**
+     * Run one round of archiving.
+     * @return Number of tasks archived in this round.
+     */
+    public int archive() {
+        long before = System.currentTimeMillis() - retentionTime;
+        int total = 0;
+        String cursor = null;
+        try {
+            for (int i = 0; i < maxBatchesPerRound; i++) {
+                List<Task> tasks = hotTaskStorage.queryCompletedTasks(before, cursor, batchSize);
+                if (CollectionUtils.isEmpty(tasks)) {
+                    break;
+                }
+                total += archive(tasks);
+                if (tasks.size() < batchSize) {
+                    // No more tasks left, stop this round.
+                    break;
+                }
+                cursor = tasks.get(tasks.size() - 1).getTaskId();
+            }
+        } catch (UnsupportedOperationException e) {
+            log.error("Hot storages [{}, {}] can not query or delete completed tasks, nothing will be archived",
+                    hotTaskStorage.getClass().getName(), hotTaskStepStorage.getClass().getName(), e);
+        }
+        if (total > 0) {
+            log.info("[{}] tasks archived", total);
+        }
+        return total;
+    }
+
+    private int archive(final List<Task> tasks) {
+        int archived = 0;
+        for (Task task : tasks) {
+            String taskId = task.getTaskId();
+            if (!TaskStatus.isTerminal(task.getStatus()) || !taskPersister.tryLock(taskId)) {
+                // Task re-ran after being queried or being processed, leave it in the hot storage.
+                continue;
+            }
+            Task current = null;
+            try {
+                // Re-check under the lock, the queried task could be stale.
+                current = hotTaskStorage.query(taskId);
+                if (current == null || !TaskStatus.isTerminal(current.getStatus())) {
+                    continue;
+                }
+                if (archive(current)) {
+                    archived++;
+                    archivedTasks.incrementAndGet();
+                } else {
+                    failedTasks.incrementAndGet();
+                }
+            } catch (UnsupportedOperationException e) {
+                throw e;
+            } catch (Exception e) {
+                failedTasks.incrementAndGet();
+                log.warn("Fail to archive task [{}]", taskId, e);
+            } finally {
+                release(taskId, current);
+            }
+        }
+        return archived;
+    }
+
+    private void release(final String taskId, final Task current) {
+        // Locking put the task in the backup queue, put the queues back as they were.
+        try {
+            if (current == null) {
+                taskPersister.removeHub(taskId);
+            } else {
+                taskPersister.restore(current);
+            }
+        } finally {
+            taskPersister.releaseLock(taskId);
+        }
+    }
+
+    private boolean archive(final Task task) {
+        String taskId = task.getTaskId();
+        List<TaskStep> taskSteps = missingSteps(taskId);
+        if (!CollectionUtils.isEmpty(taskSteps) && !archiveTaskStepStorage.batchInsert(taskSteps)) {
+            log.warn("Fail to archive steps of task [{}]", taskId);
+            return false;
+        }
+
+        boolean saved = archiveTaskStorage.query(taskId) == null
+                ? archiveTaskStorage.persist(task)
+                : archiveTaskStorage.update(task);
+        if (!saved) {
+            log.warn("Fail to archive task [{}]", taskId);
+            return false;
+        }
+
+        // Steps go first, a task left in the hot storage will be picked up again while orphaned steps would not.
+        return hotTaskStepStorage.deleteByTaskId(taskId) && hotTaskStorage.delete(taskId);
+    }
+
+    private List<TaskStep> missingSteps(final String taskId) {
+        List<TaskStep> taskSteps = hotTaskStepStorage.getByTaskId(taskId);
+        if (CollectionUtils.isEmpty(taskSteps)) {
+            return taskSteps;
+        }
+        // Steps archived by a previous broken round should not be inserted again.
+        List<TaskStep> archivedSteps = archiveTaskStepStorage.getByTaskId(taskId);
+        if (CollectionUtils.isEmpty(archivedSteps)) {
+            return taskSteps;
+        }
+        Set<Long> archived = archivedSteps.stream()
+                .map(TaskStep::getId)
+                .collect(Collectors.toSet());
+        return taskSteps.stream()
+                .filter(taskStep -> !archived.contains(taskStep.getId()))
+                .collect(Collectors.toList());
+    }
+}
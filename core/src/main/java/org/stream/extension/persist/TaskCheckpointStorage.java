@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.persist;
+
+import org.stream.extension.meta.TaskCheckpoint;
+
+/**
+ * Task checkpoint data access layer object. Only the latest checkpoint of a task matters,
+ * implementations should overwrite the previous one on save.
+ * @author guanxiong wei
+ *
+ */
+public interface TaskCheckpointStorage {
+
+    /**
+     * Save the checkpoint, replacing the previous one of the task.
+     * @param taskCheckpoint Checkpoint to be saved.
+     * @return {@code true} succeed {@code false} failed.
+     */
+    boolean save(final TaskCheckpoint taskCheckpoint);
+
+    /**
+     * Load the latest checkpoint of the task.
+     * @param taskId Target task's identity.
+     * @return The latest checkpoint, null if absent.
+     */
+    TaskCheckpoint load(final String taskId);
+
+    /**
+     * Clear the checkpoint of the task.
+     * @param taskId Target task's identity.
+     * @return {@code true} succeed {@code false} failed.
+     */
+    boolean clear(final String taskId);
+}
@@ -16,6 +16,9 @@
 
 package org.stream.extension.persist;
 
+import java.util.LinkedList;
+import java.util.List;
+
 import org.stream.extension.meta.TaskLock;
 
 /**
@@ -39,4 +42,62 @@ public interface TaskLockStorage {
      * @return <code>true</code> lock grabbed, otherwise <code>false</code>.
      */
     boolean tryLock(final String taskId, final int version);
+
+    /**
+     * Query the task lock. Required by {@link org.stream.extension.lock.providers.StorageBasedLock}, storages
+     * written before it was introduced do not need to implement it.
+     * <p>
+     * Default implementation throws {@link UnsupportedOperationException}.
+     * @param taskId Task id.
+     * @return Task lock, {@code null} if not initiated.
+     */
+    default TaskLock query(final String taskId) {
+        throw new UnsupportedOperationException("Querying task locks is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Update the task lock if and only if the stored version equals {@code taskLock.getVersion() - 1}, typically
+     * implemented as {@code UPDATE ... SET version = ?, owner = ?, expire_time = ? WHERE task_id = ? AND version = ?}.
+     * The owner and the expire time must be saved together with the version, otherwise the lock will be treated as free.
+     * Required by {@link org.stream.extension.lock.providers.StorageBasedLock}.
+     * <p>
+     * Default implementation throws {@link UnsupportedOperationException}.
+     * @param taskLock Task lock with the new version, owner and expire time.
+     * @return <code>true</code> updated, otherwise <code>false</code>.
+     */
+    default boolean compareAndSet(final TaskLock taskLock) {
+        throw new UnsupportedOperationException("Compare and set task locks is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Query a batch of task locks, storages are encouraged to override it with one query.
+     * @param taskIds Task ids.
+     * @return Initiated task locks.
+     */
+    default List<TaskLock> batchQuery(final List<String> taskIds) {
+        List<TaskLock> result = new LinkedList<>();
+        for (String taskId : taskIds) {
+            TaskLock taskLock = query(taskId);
+            if (taskLock != null) {
+                result.add(taskLock);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compare and set a batch of task locks, see {@link #compareAndSet(TaskLock)}. Storages are encouraged to
+     * override it with one statement or one transaction.
+     * @param taskLocks Task locks with the new versions.
+     * @return Ids of the tasks updated.
+     */
+    default List<String> batchCompareAndSet(final List<TaskLock> taskLocks) {
+        List<String> result = new LinkedList<>();
+        for (TaskLock taskLock : taskLocks) {
+            if (compareAndSet(taskLock)) {
+                result.add(taskLock.getTaskId());
+            }
+        }
+        return result;
+    }
 }
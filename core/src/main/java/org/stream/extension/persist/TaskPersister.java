@@ -22,6 +22,7 @@ import java.util.concurrent.TimeUnit;
 import org.stream.core.component.Node;
 import org.stream.extension.io.StreamTransferData;
 import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskCheckpoint;
 import org.stream.extension.meta.TaskStep;
 
 /**
@@ -71,7 +72,7 @@ public interface TaskPersister {
     boolean initiateOrUpdateTask(final Task task, final boolean withInsert, final TaskStep taskStep);
 
     /**
-     * Remove the hub since the job is completely done.
+     * Remove the hub since the job is completely done, the task's checkpoint is cleared as well.
      * @param taskId Task id.
      * @return Manipulation result.
      */
@@ -123,4 +124,54 @@ public interface TaskPersister {
      * @return Application name.
      */
     String getApplication();
+
+    /**
+     * Put the task back to the retry queue so that it will be picked up by the retry runners after the delay,
+     * the task should be updated with the expected status and node before calling this method.
+     * The caller should hold the task's lock. Default implementation reschedules nothing and returns {@code false}.
+     * @param task Task to be rescheduled.
+     * @param delay Delay in {@link TimeUnit#MILLISECONDS}.
+     * @return Manipulation result.
+     */
+    default boolean reschedule(final Task task, final long delay) {
+        return false;
+    }
+
+    /**
+     * Put the task's queue entries back as they were before {@link #tryLock(String)}, used when the lock is given up
+     * without moving the task on. Pending tasks are pushed back to the retry queue at their next execution time,
+     * processing tasks are kept in the backup queue, the others are removed from the queues.
+     * The caller should hold the task's lock. Default implementation leaves the queues untouched, tasks left in the
+     * backup queue are picked up again by the stuck task scanner.
+     * @param task Task loaded from the storage.
+     */
+    default void restore(final Task task) {
+    }
+
+    /**
+     * Save the activity level checkpoint of the task as a delta, no task step will be added.
+     * The caller should hold the task's lock.
+     * @param taskCheckpoint Checkpoint to be saved.
+     * @return Manipulation result, {@code false} if checkpoints are not supported.
+     */
+    default boolean checkpoint(final TaskCheckpoint taskCheckpoint) {
+        return false;
+    }
+
+    /**
+     * Load the latest activity level checkpoint of the task.
+     * @param taskId Task id.
+     * @return The latest checkpoint, null if absent or checkpoints are not supported.
+     */
+    default TaskCheckpoint loadCheckpoint(final String taskId) {
+        return null;
+    }
+
+    /**
+     * Clear the activity level checkpoint of the task, invoked once the node the checkpoint belongs to is done
+     * or the task is completed, cancelled or re-ran.
+     * @param taskId Task id.
+     */
+    default void clearCheckpoint(final String taskId) {
+    }
 }
@@ -17,6 +17,7 @@
 package org.stream.extension.persist;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,8 +33,10 @@ import org.stream.extension.io.HessianIOSerializer;
 import org.stream.extension.io.StreamTransferData;
 import org.stream.extension.lock.Lock;
 import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskCheckpoint;
 import org.stream.extension.meta.TaskStatus;
 import org.stream.extension.meta.TaskStep;
+import org.stream.extension.metrics.StreamMetrics;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -88,12 +91,17 @@ public class TaskPersisterImpl implements TaskPersister {
     @Setter
     private Lock lock;
 
+    // Optional, activity level checkpoints are disabled if absent.
+    @Autowired(required = false)
+    @Setter
+    private TaskCheckpointStorage taskCheckpointStorage;
+
     /**
      * {@inheritDoc}
      */
     @Override
     public boolean persist(final Task task) {
-        return taskStorage.update(task) && messageQueueBasedTaskStorage.persist(task);
+        return timed("persist", () -> taskStorage.update(task) && messageQueueBasedTaskStorage.persist(task));
     }
 
     /**
@@ -115,7 +123,9 @@ public class TaskPersisterImpl implements TaskPersister {
      */
     @Override
     public boolean tryLock(final String taskId) {
-        return lock.tryLock(taskId, this::markAsLocked);
+        boolean locked = lock.tryLock(taskId, this::markAsLocked);
+        StreamMetrics.recordLock(locked);
+        return locked;
     }
 
     /**
@@ -133,12 +143,14 @@ public class TaskPersisterImpl implements TaskPersister {
     public boolean initiateOrUpdateTask(final Task task, final boolean withInsert, final TaskStep taskStep) {
         // Refresh lock time.
         if (lock.isLegibleOwner(task.getTaskId())) {
+            task.setFencingToken(lock.fencingToken(task.getTaskId()));
             if (withInsert) {
-                return taskStepStorage.insert(taskStep) && taskStorage.persist(task);
+                return timed("initiate", () -> taskStepStorage.insert(taskStep) && taskStorage.persist(task));
             } else {
-                return taskStepStorage.insert(taskStep) && taskStorage.update(task);
+                return timed("update", () -> taskStepStorage.insert(taskStep) && taskStorage.update(task));
             }
         } else {
+            StreamMetrics.recordLockLost();
             throw new WorkFlowExecutionException("Lock has been grabbed by other processors, give up execution");
         }
     }
@@ -151,6 +163,7 @@ public class TaskPersisterImpl implements TaskPersister {
         assert application != null;
 
         delayQueue.deleteItem(QueueHelper.getQueueNameFromTaskID(QueueHelper.RETRY_KEY, application, taskId), taskId);
+        clearCheckpoint(taskId);
         return fifoQueue.remove(QueueHelper.getQueueNameFromTaskID(QueueHelper.BACKUP_KEY, application, taskId), taskId);
     }
 
@@ -168,8 +181,10 @@ public class TaskPersisterImpl implements TaskPersister {
     @Override
     public void suspend(final Task task, final double time, final TaskStep taskStep, final Node current) {
         log.info("Suspend task [{}] at node [{}]", task.getTaskId(), task.getNodeName());
-        taskStorage.update(task);
-        taskStepStorage.insert(taskStep);
+        timed("suspend", () -> {
+            boolean updated = taskStorage.update(task);
+            return taskStepStorage.insert(taskStep) && updated;
+        });
         double score = System.currentTimeMillis() + time;
         if (debug) {
             // To make sure, Unit test cases can be run quickly.
@@ -197,6 +212,7 @@ public class TaskPersisterImpl implements TaskPersister {
         }
         delayQueue.deleteItem(QueueHelper.getQueueNameFromTaskID(QueueHelper.RETRY_KEY, application, task.getTaskId()), task.getTaskId());
         fifoQueue.remove(QueueHelper.getQueueNameFromTaskID(QueueHelper.BACKUP_KEY, application, task.getTaskId()), task.getTaskId());
+        clearCheckpoint(task.getTaskId());
         releaseLock(task.getTaskId());
     }
 
@@ -205,7 +221,7 @@ public class TaskPersisterImpl implements TaskPersister {
      */
     @Override
     public StreamTransferData retrieveData(final String taskId) {
-        TaskStep taskStep = taskStepStorage.getLatestStep(taskId);
+        TaskStep taskStep = timed("retrieveData", () -> taskStepStorage.getLatestStep(taskId));
         return HessianIOSerializer.decode(taskStep.getStreamTransferData(), StreamTransferData.class);
     }
 
@@ -217,6 +233,87 @@ public class TaskPersisterImpl implements TaskPersister {
         return taskStorage.queryStuckTasks();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean reschedule(final Task task, final long delay) {
+        if (!timed("reschedule", () -> taskStorage.update(task))) {
+            return false;
+        }
+        delayQueue.enqueue(QueueHelper.getQueueNameFromTaskID(QueueHelper.RETRY_KEY, application, task.getTaskId()), task.getTaskId(),
+                debug ? 5 : System.currentTimeMillis() + delay);
+        fifoQueue.remove(QueueHelper.getQueueNameFromTaskID(QueueHelper.BACKUP_KEY, application, task.getTaskId()), task.getTaskId());
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void restore(final Task task) {
+        if (task.getStatus() == TaskStatus.PROCESSING.code()) {
+            // Interrupted in the middle of the work-flow, keep it in the backup queue so that the sentinel recovers it.
+            return;
+        }
+        if (task.getStatus() != TaskStatus.PENDING.code()) {
+            removeHub(task.getTaskId());
+            return;
+        }
+        delayQueue.enqueue(QueueHelper.getQueueNameFromTaskID(QueueHelper.RETRY_KEY, application, task.getTaskId()), task.getTaskId(),
+                debug ? 5 : Math.max(task.getNextExecutionTime(), System.currentTimeMillis()));
+        fifoQueue.remove(QueueHelper.getQueueNameFromTaskID(QueueHelper.BACKUP_KEY, application, task.getTaskId()), task.getTaskId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean checkpoint(final TaskCheckpoint taskCheckpoint) {
+        if (taskCheckpointStorage == null) {
+            return false;
+        }
+        if (!lock.isLegibleOwner(taskCheckpoint.getTaskId())) {
+            StreamMetrics.recordLockLost();
+            log.warn("Lock of task [{}] has been grabbed by other processors, drop the checkpoint", taskCheckpoint.getTaskId());
+            return false;
+        }
+        return timed("checkpoint", () -> taskCheckpointStorage.save(taskCheckpoint));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TaskCheckpoint loadCheckpoint(final String taskId) {
+        if (taskCheckpointStorage == null) {
+            return null;
+        }
+        return timed("loadCheckpoint", () -> taskCheckpointStorage.load(taskId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clearCheckpoint(final String taskId) {
+        if (taskCheckpointStorage != null) {
+            timed("clearCheckpoint", () -> taskCheckpointStorage.clear(taskId));
+        }
+    }
+
+    private <T> T timed(final String operation, final Supplier<T> action) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = action.get();
+            success = !Boolean.FALSE.equals(result);
+            return result;
+        } finally {
+            StreamMetrics.recordPersist(operation, System.nanoTime() - start, success);
+        }
+    }
+
     private boolean markAsLocked(final String taskId, final Long current) {
         fifoQueue.push(QueueHelper.getQueueNameFromTaskID(QueueHelper.BACKUP_KEY, application, taskId), taskId);
         delayQueue.deleteItem(QueueHelper.getQueueNameFromTaskID(QueueHelper.RETRY_KEY, application, taskId), taskId);
@@ -17,8 +17,10 @@
 package org.stream.extension.persist;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.stream.extension.meta.TaskStep;
+import org.stream.extension.meta.TaskStepQuery;
 
 /**
  * Task step data access layer object provides data access methods like
@@ -48,4 +50,59 @@ public interface TaskStepStorage {
      * @return The latest step of the task.
      */
     TaskStep getLatestStep(final String taskId);
+
+    /**
+     * Insert a batch of step instances in DB. Implementations are encouraged to override this method
+     * with a real batch insert statement.
+     * @param taskSteps Task steps to be saved.
+     * @return {@code true} all the steps saved, otherwise {@code false}.
+     */
+    default boolean batchInsert(final List<TaskStep> taskSteps) {
+        boolean result = true;
+        for (TaskStep taskStep : taskSteps) {
+            result &= insert(taskStep);
+        }
+        return result;
+    }
+
+    /**
+     * Read a page of the task's steps in the query order. Storages are encouraged to override it with an indexed query
+     * like {@code SELECT ... WHERE task_id = ? AND (create_time, id) > (?, ?) ORDER BY create_time, id LIMIT ?}
+     * that skips the payload column unless {@link TaskStepQuery#isWithPayload()} is set.
+     * Default implementation loads all the steps and pages them in memory.
+     * @param query Step query.
+     * @return Step page, smaller than the limit if there are no more steps.
+     */
+    default List<TaskStep> getSteps(final TaskStepQuery query) {
+        return getByTaskId(query.getTaskId()).stream()
+                .filter(query::isAfterCursor)
+                .sorted(query.order())
+                .limit(query.getLimit())
+                .map(taskStep -> query.isWithPayload() ? taskStep : taskStep.withoutPayload())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get one step of the task including its payload.
+     * Default implementation loads all the steps of the task.
+     * @param taskId Targe task's identity.
+     * @param id Step id.
+     * @return The step, null if not found.
+     */
+    default TaskStep getStep(final String taskId, final long id) {
+        return getByTaskId(taskId).stream()
+                .filter(taskStep -> taskStep.getId() == id)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Delete all the steps belong to the target task.
+     * Default implementation throws {@link UnsupportedOperationException}, storages used as the hot tier must override it.
+     * @param taskId Targe task's identity.
+     * @return {@code true} deleted successfully, otherwise {@code false}.
+     */
+    default boolean deleteByTaskId(final String taskId) {
+        throw new UnsupportedOperationException("Deleting steps is not supported by " + getClass().getName());
+    }
 }
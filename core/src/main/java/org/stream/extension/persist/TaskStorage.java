@@ -16,9 +16,12 @@
 
 package org.stream.extension.persist;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskQuery;
 
 /**
  * Task data access layer object provides data access methods like saving a new task
@@ -49,9 +52,60 @@ public interface TaskStorage {
      */
     Task query(final String taskID);
 
+    /**
+     * Query a batch of tasks by their ids, storages are encouraged to override it with one query
+     * like {@code SELECT ... WHERE task_id IN (...)}. Default implementation queries the tasks one by one.
+     * @param taskIDs Task ids.
+     * @return Tasks found, tasks not found are absent.
+     */
+    default List<Task> queryBatch(final Collection<String> taskIDs) {
+        List<Task> tasks = new ArrayList<>(taskIDs.size());
+        for (String taskID : taskIDs) {
+            Task task = query(taskID);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
     /**
      * Query stuck tasks.
      * @return Stuck tasks.
      */
     List<Task> queryStuckTasks();
+
+    /**
+     * Query a page of tasks in terminal status ({@code COMPLETED}, {@code FAILED} or {@code CANCELLED}) that were last
+     * executed before the specific time, ordered by task id ascending, mainly used by {@link TaskArchiver} to move cold
+     * tasks out of the hot storage.
+     * Default implementation throws {@link UnsupportedOperationException}, storages used as the hot tier must override it.
+     * @param before Time in milliseconds, only tasks last executed before this time will be returned.
+     * @param afterTaskId Only tasks whose id is greater than the cursor are returned, null to start from the first page.
+     * @param limit Max number of tasks to be returned.
+     * @return Terminal task page, smaller than the limit if there are no more tasks.
+     */
+    default List<Task> queryCompletedTasks(final long before, final String afterTaskId, final int limit) {
+        throw new UnsupportedOperationException("Querying completed tasks is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Query a page of tasks matching the criteria, ordered by task id ascending. The tasks should match
+     * {@link TaskQuery#matches(Task)}, the extra {@link TaskQuery#getFilter()} is evaluated by the caller.
+     * @param query Query criteria.
+     * @return Task page, smaller than the limit if there are no more tasks.
+     */
+    default List<Task> queryTasks(final TaskQuery query) {
+        throw new UnsupportedOperationException("Querying tasks is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Delete the task from the persistent layer.
+     * Default implementation throws {@link UnsupportedOperationException}, storages used as the hot tier must override it.
+     * @param taskID Task id.
+     * @return {@code true} deleted successfully, otherwise {@code false}.
+     */
+    default boolean delete(final String taskID) {
+        throw new UnsupportedOperationException("Deleting tasks is not supported by " + getClass().getName());
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.persist;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.CollectionUtils;
+import org.stream.extension.meta.TaskStep;
+import org.stream.extension.meta.TaskStepQuery;
+
+import lombok.Setter;
+
+/**
+ * Two tiers implementation of {@link TaskStepStorage}, works together with {@link TieredTaskStorage}.
+ * New steps are always saved in the hot storage, reads check the hot storage first then fall back to the archive storage.
+ * @author guanxiong wei
+ *
+ */
+public class TieredTaskStepStorage implements TaskStepStorage {
+
+    @Setter
+    private TaskStepStorage hotTaskStepStorage;
+
+    @Setter
+    private TaskStepStorage archiveTaskStepStorage;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean insert(final TaskStep taskStep) {
+        return hotTaskStepStorage.insert(taskStep);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<TaskStep> getByTaskId(final String taskId) {
+        // Archived tasks may be re-ran and get new steps in the hot storage, so merge the steps from both tiers.
+        List<TaskStep> archived = archiveTaskStepStorage.getByTaskId(taskId);
+        List<TaskStep> taskSteps = hotTaskStepStorage.getByTaskId(taskId);
+        if (CollectionUtils.isEmpty(archived)) {
+            return taskSteps;
+        }
+        if (CollectionUtils.isEmpty(taskSteps)) {
+            return archived;
+        }
+
+        List<TaskStep> merged = new ArrayList<>(archived.size() + taskSteps.size());
+        merged.addAll(archived);
+        merged.addAll(taskSteps);
+        return merged;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TaskStep getLatestStep(final String taskId) {
+        TaskStep taskStep = hotTaskStepStorage.getLatestStep(taskId);
+        if (taskStep != null) {
+            return taskStep;
+        }
+
+        return archiveTaskStepStorage.getLatestStep(taskId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<TaskStep> getSteps(final TaskStepQuery query) {
+        List<TaskStep> archived = archiveTaskStepStorage.getSteps(query);
+        List<TaskStep> taskSteps = hotTaskStepStorage.getSteps(query);
+        if (CollectionUtils.isEmpty(archived)) {
+            return taskSteps;
+        }
+
+        // A step being archived may be present in both tiers, the hot copy wins.
+        Map<Long, TaskStep> steps = new LinkedHashMap<>();
+        taskSteps.forEach(taskStep -> steps.put(taskStep.getId(), taskStep));
+        archived.forEach(taskStep -> steps.putIfAbsent(taskStep.getId(), taskStep));
+        List<TaskStep> merged = new ArrayList<>(steps.values());
+        merged.sort(query.order());
+        return merged.size() > query.getLimit() ? new ArrayList<>(merged.subList(0, query.getLimit())) : merged;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TaskStep getStep(final String taskId, final long id) {
+        TaskStep taskStep = hotTaskStepStorage.getStep(taskId, id);
+        if (taskStep != null) {
+            return taskStep;
+        }
+
+        return archiveTaskStepStorage.getStep(taskId, id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean batchInsert(final List<TaskStep> taskSteps) {
+        return hotTaskStepStorage.batchInsert(taskSteps);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean deleteByTaskId(final String taskId) {
+        boolean deleted = hotTaskStepStorage.deleteByTaskId(taskId);
+        return archiveTaskStepStorage.deleteByTaskId(taskId) || deleted;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.persist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskQuery;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Two tiers implementation of {@link TaskStorage}. New and running tasks live in the hot storage,
+ * terminal tasks will be moved to the archive storage by {@link TaskArchiver} after the retention window.
+ * <p>
+ * Reads check the hot storage first then fall back to the archive storage, so that components like
+ * {@link org.stream.extension.admin.TaskAdministrator} do not need to know which tier the task is stored in.
+ * If an archived task is updated, for example re-ran by the administrator, it will be promoted back to the hot storage.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class TieredTaskStorage implements TaskStorage {
+
+    @Setter
+    private TaskStorage hotTaskStorage;
+
+    @Setter
+    private TaskStorage archiveTaskStorage;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean persist(final Task task) {
+        return hotTaskStorage.persist(task);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean update(final Task task) {
+        if (hotTaskStorage.update(task)) {
+            return true;
+        }
+
+        if (archiveTaskStorage.query(task.getTaskId()) == null) {
+            return false;
+        }
+
+        // The task has been archived, promote it back to the hot storage.
+        log.info("Promote archived task [{}] back to the hot storage", task.getTaskId());
+        return hotTaskStorage.persist(task) && archiveTaskStorage.delete(task.getTaskId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Task query(final String taskID) {
+        Task task = hotTaskStorage.query(taskID);
+        if (task != null) {
+            return task;
+        }
+
+        return archiveTaskStorage.query(taskID);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Task> queryBatch(final Collection<String> taskIDs) {
+        List<Task> tasks = new ArrayList<>(hotTaskStorage.queryBatch(taskIDs));
+        if (tasks.size() == taskIDs.size()) {
+            return tasks;
+        }
+        Set<String> found = tasks.stream().map(Task::getTaskId).collect(Collectors.toSet());
+        List<String> missing = taskIDs.stream().filter(taskID -> !found.contains(taskID)).collect(Collectors.toList());
+        tasks.addAll(archiveTaskStorage.queryBatch(missing));
+        return tasks;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Task> queryStuckTasks() {
+        // Archived tasks are always in terminal status, they will never be stuck.
+        return hotTaskStorage.queryStuckTasks();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Task> queryCompletedTasks(final long before, final String afterTaskId, final int limit) {
+        return hotTaskStorage.queryCompletedTasks(before, afterTaskId, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Both tiers are queried with the same cursor and the pages are merged, so failed tasks already archived
+     * are still visible to the administrator.
+     */
+    @Override
+    public List<Task> queryTasks(final TaskQuery query) {
+        List<Task> tasks = new ArrayList<>(hotTaskStorage.queryTasks(query));
+        tasks.addAll(archiveTaskStorage.queryTasks(query));
+        tasks.sort(Comparator.comparing(Task::getTaskId));
+        return tasks.size() > query.getLimit() ? new ArrayList<>(tasks.subList(0, query.getLimit())) : tasks;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean delete(final String taskID) {
+        boolean deleted = hotTaskStorage.delete(taskID);
+        return archiveTaskStorage.delete(taskID) || deleted;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.profile;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Aggregated profile of one graph.
+ * @author guanxiong wei
+ *
+ */
+@Getter
+@Builder
+@ToString
+public class GraphProfile {
+
+    private String graphName;
+
+    // Node profiles keyed by node name, only nodes that have been performed are included.
+    private Map<String, NodeProfile> nodes;
+
+    // Node names along the path from the start node with the largest summed mean time.
+    private List<String> criticalPath;
+
+    // Summed mean wall and subflow time of the critical path in nanoseconds.
+    private long criticalPathTime;
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.profile;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Aggregated profile of one node, all the durations are in nanoseconds.
+ * @author guanxiong wei
+ *
+ */
+@Getter
+@Builder
+@ToString
+public class NodeProfile {
+
+    private String nodeName;
+
+    // Times the node was performed.
+    private long executions;
+
+    private long p50Wall;
+
+    private long p90Wall;
+
+    private long p99Wall;
+
+    private long maxWall;
+
+    private long meanWall;
+
+    // Zero when the JVM does not support thread cpu time measurement.
+    private long meanCpu;
+
+    // Zero when the JVM does not support thread allocation measurement.
+    private long meanAllocatedBytes;
+
+    // Time spent waiting for asynchronous dependencies per execution.
+    private long meanAsyncWait;
+
+    // Times the node invoked a subflow.
+    private long subflowInvocations;
+
+    // Time spent in the invoked subflows per invocation.
+    private long meanSubflow;
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.profile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.stream.core.component.Graph;
+import org.stream.core.component.Node;
+import org.stream.core.runtime.GraphAnalyzer;
+import org.stream.extension.settings.Settings;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Low overhead execution profiler. When enabled, every node performed by the engine and every subflow invocation
+ * is measured on the executing thread and recorded into a per-thread primitive ring buffer; a background collector
+ * periodically folds the buffers into per node statistics that can be exported as {@link GraphProfile} reports or
+ * in the folded stack format consumed by flame graph tools.
+ *
+ * The profiler is off by default, it can be enabled by the system property {@value Settings#PROFILER_ENABLED} or
+ * at runtime via {@link #setEnabled(boolean)}. When disabled the hooks cost one volatile read.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public final class Profiler {
+
+    private static final int MAX_DEPTH = 64;
+
+    private static final int BUFFER_CAPACITY = 1024;
+
+    private static final long COLLECT_INTERVAL = 1000;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final boolean CPU_SUPPORTED = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+
+    private static volatile boolean enabled = Boolean.getBoolean(Settings.PROFILER_ENABLED);
+
+    private static volatile ScheduledExecutorService collector;
+
+    // Registered node names, the profile id of a node is its index plus one.
+    private static final List<String[]> NODES = new ArrayList<>();
+
+    // Interned stacks, the id of a stack is its index plus one and zero stands for the empty stack.
+    private static final Map<Long, Integer> STACK_IDS = new ConcurrentHashMap<>();
+    private static final List<long[]> STACKS = new ArrayList<>();
+
+    private static final List<SampleBuffer> BUFFERS = new LinkedList<>();
+
+    private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(() -> {
+        SampleBuffer buffer = new SampleBuffer(BUFFER_CAPACITY, Thread.currentThread());
+        synchronized (BUFFERS) {
+            BUFFERS.add(buffer);
+        }
+        return new Frames(buffer);
+    });
+
+    // Aggregated statistics guarded by the class lock.
+    private static final Map<String, Map<String, NodeStatistics>> STATISTICS = new HashMap<>();
+    private static final Map<Integer, Long> SELF_TIMES = new HashMap<>();
+
+    static {
+        if (enabled) {
+            startCollector();
+        }
+    }
+
+    private Profiler() { }
+
+    /**
+     * Switch the profiler on or off.
+     * @param on {@code true} to start profiling.
+     */
+    public static void setEnabled(final boolean on) {
+        enabled = on;
+        if (on) {
+            startCollector();
+        }
+    }
+
+    /**
+     * Check if the profiler is recording.
+     * @return {@code true} if the profiler is recording.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start measuring a node execution on the current thread.
+     * @param node Node to be performed.
+     * @return Token to be passed to {@link #exit(boolean)}, {@code true} if a frame was opened.
+     */
+    public static boolean enter(final Node node) {
+        return enabled && push(SampleBuffer.NODE_SAMPLE, node);
+    }
+
+    /**
+     * Finish measuring the node execution started by the paired {@link #enter(Node)}.
+     * @param token Token returned by {@link #enter(Node)}.
+     */
+    public static void exit(final boolean token) {
+        if (token) {
+            pop();
+        }
+    }
+
+    /**
+     * Start measuring a subflow invoked by the node.
+     * @param node Node invoking the subflow.
+     * @return Token to be passed to {@link #exitSubflow(boolean)}, {@code true} if a frame was opened.
+     */
+    public static boolean enterSubflow(final Node node) {
+        return enabled && push(SampleBuffer.SUBFLOW_SAMPLE, node);
+    }
+
+    /**
+     * Finish measuring the subflow started by the paired {@link #enterSubflow(Node)}.
+     * @param token Token returned by {@link #enterSubflow(Node)}.
+     */
+    public static void exitSubflow(final boolean token) {
+        if (token) {
+            pop();
+        }
+    }
+
+    /**
+     * Charge time spent waiting for asynchronous dependencies to the node being measured on the current thread.
+     * @param nanos Waiting time in nanoseconds.
+     */
+    public static void recordAsyncWait(final long nanos) {
+        if (!enabled) {
+            return;
+        }
+        Frames frames = FRAMES.get();
+        if (frames.depth > 0) {
+            frames.asyncWait[frames.depth - 1] += nanos;
+        }
+    }
+
+    /**
+     * Build the profile report of the graph from the samples collected so far.
+     * @param graph Graph to be reported, versions of the same graph share one report.
+     * @return Graph profile.
+     */
+    public static GraphProfile report(final Graph graph) {
+        collect();
+        Map<String, NodeProfile> nodes = new LinkedHashMap<>();
+        synchronized (Profiler.class) {
+            Map<String, NodeStatistics> statistics = STATISTICS.getOrDefault(graph.getGraphName(), Collections.emptyMap());
+            statistics.forEach((name, stat) -> nodes.put(name, stat.toProfile(name)));
+        }
+
+        LinkedList<String> path = new LinkedList<>();
+        long time = criticalPath(graph, graph.getStartNode(), nodes, new IdentityHashMap<>(), new IdentityHashMap<>(), path);
+        return GraphProfile.builder()
+                .graphName(graph.getGraphName())
+                .nodes(Collections.unmodifiableMap(nodes))
+                .criticalPath(Collections.unmodifiableList(path))
+                .criticalPathTime(time)
+                .build();
+    }
+
+    /**
+     * Export the collected samples in the folded stack format, one line per stack in the form
+     * {@code graph;node[;subgraph;subnode...] micros} where micros is the self time of the innermost frame.
+     * @return Folded stacks.
+     */
+    public static String folded() {
+        collect();
+        Map<String, Long> lines = new TreeMap<>();
+        synchronized (Profiler.class) {
+            SELF_TIMES.forEach((stack, nanos) -> lines.merge(render(stack), nanos, Long::sum));
+        }
+        StringBuilder builder = new StringBuilder();
+        lines.forEach((stack, nanos) -> {
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            if (micros > 0) {
+                builder.append(stack).append(' ').append(micros).append('\n');
+            }
+        });
+        return builder.toString();
+    }
+
+    /**
+     * Discard all the samples collected so far.
+     */
+    public static void reset() {
+        collect();
+        synchronized (Profiler.class) {
+            STATISTICS.clear();
+            SELF_TIMES.clear();
+        }
+    }
+
+    /**
+     * Drain the per-thread buffers into the aggregated statistics, invoked periodically by the collector.
+     */
+    public static synchronized void collect() {
+        List<SampleBuffer> buffers;
+        synchronized (BUFFERS) {
+            buffers = new ArrayList<>(BUFFERS);
+        }
+        for (SampleBuffer buffer : buffers) {
+            buffer.drain(Profiler::aggregate);
+            if (!buffer.isOwnerAlive()) {
+                synchronized (BUFFERS) {
+                    BUFFERS.remove(buffer);
+                }
+            }
+        }
+    }
+
+    private static void aggregate(final long[] sample) {
+        String[] names = nodeNames((int) sample[SampleBuffer.NODE]);
+        NodeStatistics statistics = STATISTICS.computeIfAbsent(names[0], key -> new LinkedHashMap<>())
+                .computeIfAbsent(names[1], key -> new NodeStatistics());
+        long wall = sample[SampleBuffer.WALL];
+        if (sample[SampleBuffer.KIND] == SampleBuffer.SUBFLOW_SAMPLE) {
+            statistics.subflowInvocations++;
+            statistics.subflow += wall;
+        } else {
+            statistics.histogram.record(wall);
+            statistics.wall += wall;
+            statistics.cpu += sample[SampleBuffer.CPU];
+            statistics.allocation += sample[SampleBuffer.ALLOCATION];
+            statistics.asyncWait += sample[SampleBuffer.ASYNC_WAIT];
+        }
+        SELF_TIMES.merge((int) sample[SampleBuffer.STACK], sample[SampleBuffer.SELF], Long::sum);
+    }
+
+    private static long criticalPath(final Graph graph, final Node node, final Map<String, NodeProfile> profiles,
+            final Map<Node, Long> times, final Map<Node, List<String>> paths, final List<String> path) {
+        if (node == null || !profiles.containsKey(node.getNodeName())) {
+            return 0;
+        }
+        if (times.containsKey(node)) {
+            // Either computed already or on the current path, back edges contribute nothing.
+            List<String> known = paths.get(node);
+            if (known != null) {
+                path.addAll(known);
+            }
+            return times.get(node);
+        }
+        times.put(node, 0L);
+        long best = 0;
+        List<String> bestPath = Collections.emptyList();
+        for (Node successor : GraphAnalyzer.successors(graph, node)) {
+            List<String> candidate = new ArrayList<>();
+            long time = criticalPath(graph, successor, profiles, times, paths, candidate);
+            if (time > best) {
+                best = time;
+                bestPath = candidate;
+            }
+        }
+        NodeProfile profile = profiles.get(node.getNodeName());
+        long total = profile.getMeanWall() + profile.getMeanSubflow() * profile.getSubflowInvocations()
+                / Math.max(1, profile.getExecutions()) + best;
+        List<String> result = new ArrayList<>();
+        result.add(node.getNodeName());
+        result.addAll(bestPath);
+        times.put(node, total);
+        paths.put(node, result);
+        path.addAll(result);
+        return total;
+    }
+
+    private static boolean push(final long kind, final Node node) {
+        Frames frames = FRAMES.get();
+        int depth = frames.depth;
+        if (depth == MAX_DEPTH) {
+            return false;
+        }
+        int id = idOf(node);
+        int parent = depth == 0 ? 0 : frames.stacks[depth - 1];
+        frames.kinds[depth] = kind;
+        frames.nodes[depth] = id;
+        frames.stacks[depth] = stackOf(parent, id);
+        frames.asyncWait[depth] = 0;
+        frames.children[depth] = 0;
+        frames.cpu[depth] = cpuTime();
+        frames.allocation[depth] = allocatedBytes();
+        frames.wall[depth] = System.nanoTime();
+        frames.depth = depth + 1;
+        return true;
+    }
+
+    private static void pop() {
+        long now = System.nanoTime();
+        Frames frames = FRAMES.get();
+        int depth = --frames.depth;
+        long wall = now - frames.wall[depth];
+        if (depth > 0) {
+            frames.children[depth - 1] += wall;
+        }
+        frames.buffer.record(frames.kinds[depth], frames.nodes[depth], frames.stacks[depth], wall,
+                cpuTime() - frames.cpu[depth], allocatedBytes() - frames.allocation[depth],
+                frames.asyncWait[depth], Math.max(0, wall - frames.children[depth]));
+    }
+
+    private static int idOf(final Node node) {
+        int id = node.getProfileId();
+        if (id == 0) {
+            synchronized (NODES) {
+                id = node.getProfileId();
+                if (id == 0) {
+                    NODES.add(new String[] {node.getGraph().getGraphName(), node.getNodeName()});
+                    id = NODES.size();
+                    node.setProfileId(id);
+                }
+            }
+        }
+        return id;
+    }
+
+    private static String[] nodeNames(final int id) {
+        synchronized (NODES) {
+            return NODES.get(id - 1);
+        }
+    }
+
+    private static int stackOf(final int parent, final int node) {
+        long key = ((long) parent << 32) | node;
+        Integer id = STACK_IDS.get(key);
+        if (id != null) {
+            return id;
+        }
+        synchronized (STACKS) {
+            return STACK_IDS.computeIfAbsent(key, k -> {
+                STACKS.add(new long[] {parent, node});
+                return STACKS.size();
+            });
+        }
+    }
+
+    private static String render(final int stack) {
+        LinkedList<String> frames = new LinkedList<>();
+        int current = stack;
+        while (current != 0) {
+            long[] entry;
+            synchronized (STACKS) {
+                entry = STACKS.get(current - 1);
+            }
+            String[] names = nodeNames((int) entry[1]);
+            frames.addFirst(names[1]);
+            frames.addFirst(names[0]);
+            current = (int) entry[0];
+        }
+        return String.join(";", frames);
+    }
+
+    private static long cpuTime() {
+        return CPU_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATIONS == null ? 0 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+
+    private static synchronized void startCollector() {
+        if (collector != null) {
+            return;
+        }
+        collector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stream-profiler-collector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        collector.scheduleWithFixedDelay(() -> {
+            try {
+                collect();
+            } catch (Exception e) {
+                log.warn("Fail to collect profiling samples", e);
+            }
+        }, COLLECT_INTERVAL, COLLECT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open frames of one thread, kept in parallel primitive arrays.
+     */
+    private static final class Frames {
+        private final SampleBuffer buffer;
+        private final long[] kinds = new long[MAX_DEPTH];
+        private final int[] nodes = new int[MAX_DEPTH];
+        private final int[] stacks = new int[MAX_DEPTH];
+        private final long[] wall = new long[MAX_DEPTH];
+        private final long[] cpu = new long[MAX_DEPTH];
+        private final long[] allocation = new long[MAX_DEPTH];
+        private final long[] asyncWait = new long[MAX_DEPTH];
+        private final long[] children = new long[MAX_DEPTH];
+        private int depth;
+
+        Frames(final SampleBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Running totals of one node.
+     */
+    private static final class NodeStatistics {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long wall;
+        private long cpu;
+        private long allocation;
+        private long asyncWait;
+        private long subflowInvocations;
+        private long subflow;
+
+        NodeProfile toProfile(final String nodeName) {
+            long executions = histogram.getTotal();
+            long divisor = Math.max(1, executions);
+            return NodeProfile.builder()
+                    .nodeName(nodeName)
+                    .executions(executions)
+                    .p50Wall(histogram.percentile(0.5))
+                    .p90Wall(histogram.percentile(0.9))
+                    .p99Wall(histogram.percentile(0.99))
+                    .maxWall(histogram.getMax())
+                    .meanWall(wall / divisor)
+                    .meanCpu(cpu / divisor)
+                    .meanAllocatedBytes(allocation / divisor)
+                    .meanAsyncWait(asyncWait / divisor)
+                    .subflowInvocations(subflowInvocations)
+                    .meanSubflow(subflow / Math.max(1, subflowInvocations))
+                    .build();
+        }
+    }
+}
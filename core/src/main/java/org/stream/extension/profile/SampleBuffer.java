@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.profile;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single writer ring buffer of profiling samples backed by a primitive array, so recording a sample allocates nothing.
+ * The owner thread writes samples and the aggregator drains them from another thread; samples overwritten while
+ * being drained are discarded.
+ * @author guanxiong wei
+ *
+ */
+final class SampleBuffer {
+
+    // Slots of a sample.
+    static final int KIND = 0;
+    static final int NODE = 1;
+    static final int STACK = 2;
+    static final int WALL = 3;
+    static final int CPU = 4;
+    static final int ALLOCATION = 5;
+    static final int ASYNC_WAIT = 6;
+    static final int SELF = 7;
+    static final int STRIDE = 8;
+
+    // Sample kinds.
+    static final long NODE_SAMPLE = 0;
+    static final long SUBFLOW_SAMPLE = 1;
+
+    private final long[] samples;
+
+    private final int capacity;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private long tail = 0;
+
+    private final WeakReference<Thread> owner;
+
+    SampleBuffer(final int capacity, final Thread owner) {
+        this.capacity = capacity;
+        this.samples = new long[capacity * STRIDE];
+        this.owner = new WeakReference<>(owner);
+    }
+
+    /**
+     * Record a sample, invoked by the owner thread only.
+     */
+    void record(final long kind, final long node, final long stack, final long wall, final long cpu, final long allocation,
+            final long asyncWait, final long self) {
+        long index = head.get();
+        int offset = (int) (index % capacity) * STRIDE;
+        samples[offset + KIND] = kind;
+        samples[offset + NODE] = node;
+        samples[offset + STACK] = stack;
+        samples[offset + WALL] = wall;
+        samples[offset + CPU] = cpu;
+        samples[offset + ALLOCATION] = allocation;
+        samples[offset + ASYNC_WAIT] = asyncWait;
+        samples[offset + SELF] = self;
+        // Publish the sample after all its slots are written.
+        head.lazySet(index + 1);
+    }
+
+    /**
+     * Drain the samples recorded since the last drain, invoked by the aggregator only.
+     * @param consumer Sample consumer, receiving the backing array and the offset of each sample.
+     */
+    void drain(final SampleConsumer consumer) {
+        long published = head.get();
+        long start = Math.max(tail, published - capacity);
+        long[] copy = new long[STRIDE];
+        for (long index = start; index < published; index++) {
+            int offset = (int) (index % capacity) * STRIDE;
+            System.arraycopy(samples, offset, copy, 0, STRIDE);
+            if (index + capacity <= head.get()) {
+                // Overwritten by the writer while copying.
+                continue;
+            }
+            consumer.accept(copy);
+        }
+        tail = published;
+    }
+
+    boolean isOwnerAlive() {
+        Thread thread = owner.get();
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Consumer of drained samples.
+     */
+    @FunctionalInterface
+    interface SampleConsumer {
+        void accept(long[] sample);
+    }
+}
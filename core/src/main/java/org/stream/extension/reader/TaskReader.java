@@ -16,6 +16,11 @@
 
 package org.stream.extension.reader;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.stream.core.resource.AbstractResourceReader;
 import org.stream.core.resource.ResourceAuthority;
 import org.stream.core.resource.ResourceURL;
@@ -52,4 +57,18 @@ public class TaskReader extends AbstractResourceReader<Task> {
         String key = resourceURL.getPath();
         return taskStorage.query(key);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Map<ResourceURL, Task> doReadAll(final Collection<ResourceURL> resourceURLs) {
+        Map<String, ResourceURL> references = new HashMap<>();
+        resourceURLs.forEach(resourceURL -> references.put(resourceURL.getPath(), resourceURL));
+        Map<ResourceURL, Task> result = new LinkedHashMap<>();
+        for (Task task : taskStorage.queryBatch(references.keySet())) {
+            result.put(references.get(task.getTaskId()), task);
+        }
+        return result;
+    }
 }
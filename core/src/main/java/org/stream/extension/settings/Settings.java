@@ -77,6 +77,58 @@ public final class Settings {
      */
     public static final String STREAM_POOL_SIZE = "stream.async.pool.size";
 
+    /**
+     * Interval in milliseconds between two rounds of graph reloading, graphs are not reloaded if absent or not positive.
+     */
+    public static final String GRAPH_RELOAD_INTERVAL = "stream.graph.reload.interval";
+
+    /**
+     * Resource prefetch executor pool size setting name.
+     */
+    public static final String STREAM_PREFETCH_POOL_SIZE = "stream.prefetch.pool.size";
+
+    /**
+     * Set to {@code true} to let the resource tanks of the work-flows spill resources to disk, disabled by default.
+     * Spilled values are read back as copies, so activities must not change the values they attached in place once
+     * spilling is enabled.
+     */
+    public static final String RESOURCE_TANK_SPILL_ENABLED = "stream.resource.tank.spill.enabled";
+
+    /**
+     * Estimated bytes of resources a single work-flow may keep in memory before spilling the cold ones to disk.
+     */
+    public static final String RESOURCE_TANK_WORKFLOW_BUDGET = "stream.resource.tank.workflow.budget";
+
+    /**
+     * Estimated bytes of resources all the work-flows in the JVM may keep in memory before spilling the cold ones to disk.
+     */
+    public static final String RESOURCE_TANK_GLOBAL_BUDGET = "stream.resource.tank.global.budget";
+
+    /**
+     * Resources estimated larger than this amount of bytes are spilled to disk as soon as they are attached.
+     */
+    public static final String RESOURCE_TANK_SPILL_THRESHOLD = "stream.resource.tank.spill.threshold";
+
+    /**
+     * Directory the spilled resources are written to, default to the JVM temporary directory.
+     */
+    public static final String RESOURCE_TANK_SPILL_DIRECTORY = "stream.resource.tank.spill.directory";
+
+    /**
+     * Flag enabling the execution profiler at startup, the profiler can also be switched at runtime.
+     */
+    public static final String PROFILER_ENABLED = "stream.profiler.enabled";
+
+    /**
+     * Ratio of the traces to be recorded when a span exporter is installed, between 0 and 1, defaults to 1.
+     */
+    public static final String TRACE_SAMPLE_RATIO = "stream.trace.sample.ratio";
+
+    /**
+     * Worker id embedded in the snowflake task ids, between 0 and 1023, assigned through redis at startup if absent.
+     */
+    public static final String WORKER_ID = "stream.worker.id";
+
     /**
      * Work flow close error message.
      */
@@ -20,6 +20,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.stream.core.component.ActivityResult;
+import org.stream.core.component.ExecutionPlan;
 import org.stream.core.component.Graph;
 import org.stream.core.component.Node;
 
@@ -30,24 +31,25 @@ import org.stream.core.component.Node;
  * where a execution pair is constructed by a previous node's name and a next node's name.
  * If the breaker find that a execution pair equals with the incoming pair, true will be returned by method {@link #isOpen(Node, Node, ActivityResult)}
  * otherwise false will be returned.
+ * <p>
+ * Graphs proved acyclic by their {@link ExecutionPlan} can never loop, hops in these graphs are not traced.
  * @author weiguanxiong
  *
  */
 public class DefaultExecutionStateSwitcher implements ExecutionStateSwitcher {
 
-    private ThreadLocal<Set<String>> pairs = new ThreadLocal<>();
+    private ThreadLocal<Set<Hop>> pairs = ThreadLocal.withInitial(HashSet::new);
 
     /**
      * {@inheritDoc}
      */
     @Override
     public boolean isOpen(final Node previous, final Node next, final ActivityResult activityResult) {
-        String first = previous == null ? "NULL" : previous.getNodeName();
-        String second = next == null ? "NULL" : next.getNodeName();
-        String pair = first + second + activityResult.name();
-        if (pairs.get() == null) {
-            pairs.set(new HashSet<>());
+        if (previous != null && previous.getGraph() != null && previous.getGraph().getExecutionPlan() != null
+                && previous.getGraph().getExecutionPlan().isAcyclic()) {
+            return false;
         }
+        Hop pair = new Hop(previous == null ? null : previous.getNodeName(), next == null ? null : next.getNodeName(), activityResult);
         if (pairs.get().contains(pair)) {
             pairs.get().clear();
             return true;
@@ -73,4 +75,5 @@ public class DefaultExecutionStateSwitcher implements ExecutionStateSwitcher {
         pairs.get().clear();
     }
 
+    private record Hop(String previous, String next, ActivityResult activityResult) { }
 }
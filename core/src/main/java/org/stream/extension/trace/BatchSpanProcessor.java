@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Queue finished spans and export them in batches from a daemon thread, spans are dropped when the queue is full
+ * so that a slow exporter never blocks the work-flows.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+final class BatchSpanProcessor {
+
+    private static final int BATCH_SIZE = 512;
+
+    private static final long FLUSH_INTERVAL = 1000;
+
+    private final SpanExporter exporter;
+
+    private final BlockingQueue<SpanData> queue;
+
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    @Getter
+    private final AtomicLong dropped = new AtomicLong();
+
+    BatchSpanProcessor(final SpanExporter exporter, final int capacity) {
+        this.exporter = exporter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.worker = new Thread(this::work, "stream-span-exporter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    void offer(final SpanData span) {
+        if (!queue.offer(span)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(FLUSH_INTERVAL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush(new ArrayList<>());
+        exporter.shutdown();
+    }
+
+    private void work() {
+        List<SpanData> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                SpanData head = queue.poll(FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+                if (head != null) {
+                    batch.add(head);
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(final List<SpanData> batch) {
+        queue.drainTo(batch, BATCH_SIZE - batch.size());
+        while (!batch.isEmpty()) {
+            try {
+                exporter.export(List.copyOf(batch));
+            } catch (Exception e) {
+                log.warn("Fail to export [{}] spans", batch.size(), e);
+            }
+            batch.clear();
+            queue.drainTo(batch, BATCH_SIZE);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.trace;
+
+/**
+ * Sampling policy deciding whether a new trace is recorded, the decision is made once at the root span and
+ * inherited by all the descendants, including the ones created in other processes.
+ * @author guanxiong wei
+ *
+ */
+@FunctionalInterface
+public interface Sampler {
+
+    Sampler ALWAYS_ON = (traceId, name) -> true;
+
+    Sampler ALWAYS_OFF = (traceId, name) -> false;
+
+    /**
+     * Decide whether the trace should be recorded.
+     * @param traceId Id of the new trace.
+     * @param name Name of the root span.
+     * @return {@code true} if the trace should be recorded.
+     */
+    boolean shouldSample(String traceId, String name);
+
+    /**
+     * Build a sampler recording the given ratio of the traces, the decision is derived from the trace id so every
+     * process makes the same decision for the same trace.
+     * @param ratio Ratio between 0 and 1.
+     * @return Sampler.
+     */
+    static Sampler ratio(final double ratio) {
+        if (ratio >= 1) {
+            return ALWAYS_ON;
+        }
+        if (ratio <= 0) {
+            return ALWAYS_OFF;
+        }
+        long bound = (long) (ratio * Long.MAX_VALUE);
+        return (traceId, name) -> (Long.parseUnsignedLong(traceId.substring(16), 16) >>> 1) < bound;
+    }
+}
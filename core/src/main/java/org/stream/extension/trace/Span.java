@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.trace;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * A timed operation in a trace. A span becomes the current span of the thread it is started on until it is ended,
+ * spans must be ended on the same thread in the reverse order they are started, preferably with try-with-resources.
+ * Spans of unsampled traces do not record anything.
+ * @author guanxiong wei
+ *
+ */
+public class Span implements AutoCloseable {
+
+    /**
+     * Span doing nothing, returned when there is nothing to record or to propagate.
+     */
+    public static final Span NOOP = new Span(null, null, null, null, false, null);
+
+    private final String name;
+
+    private final SpanKind kind;
+
+    @Getter
+    private final TraceContext context;
+
+    private final String parentSpanId;
+
+    @Getter
+    private final boolean recording;
+
+    private final Span previous;
+
+    private final long startEpochNanos;
+
+    private final long startNanos;
+
+    private Map<String, String> attributes;
+
+    private boolean error;
+
+    private String statusDescription;
+
+    private boolean ended;
+
+    Span(final String name, final SpanKind kind, final TraceContext context, final String parentSpanId,
+            final boolean recording, final Span previous) {
+        this.name = name;
+        this.kind = kind;
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.recording = recording;
+        this.previous = previous;
+        this.startEpochNanos = recording ? TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) : 0;
+        this.startNanos = recording ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Add an attribute.
+     * @param key Attribute key.
+     * @param value Attribute value.
+     * @return This span.
+     */
+    public Span setAttribute(final String key, final Object value) {
+        if (recording) {
+            if (attributes == null) {
+                attributes = new HashMap<>();
+            }
+            attributes.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+
+    /**
+     * Mark the span as failed.
+     * @param description Error description.
+     * @return This span.
+     */
+    public Span setError(final String description) {
+        if (recording) {
+            this.error = true;
+            this.statusDescription = description;
+        }
+        return this;
+    }
+
+    /**
+     * Mark the span as failed by the throwable.
+     * @param t Throwable failing the operation.
+     * @return This span.
+     */
+    public Span recordException(final Throwable t) {
+        setAttribute("exception.type", t.getClass().getName());
+        return setError(t.getMessage());
+    }
+
+    /**
+     * End the span, restore the previous current span and hand the span over to the exporters if recording.
+     */
+    public void end() {
+        if (this == NOOP || ended) {
+            return;
+        }
+        ended = true;
+        Tracer.restore(this, previous);
+        if (recording) {
+            long end = startEpochNanos + System.nanoTime() - startNanos;
+            Tracer.finish(new SpanData(context.traceId(), context.spanId(), parentSpanId, name, kind, startEpochNanos,
+                    end, attributes == null ? Collections.emptyMap() : Collections.unmodifiableMap(attributes),
+                    error, statusDescription));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        end();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.trace;
+
+import java.util.Map;
+
+/**
+ * Immutable data of a finished span handed over to the {@link SpanExporter}s, the fields map one to one to the
+ * OpenTelemetry span data model so exporters can convert them without any loss.
+ * @param traceId Trace id.
+ * @param spanId Span id.
+ * @param parentSpanId Parent span id, {@code null} for root spans.
+ * @param name Span name.
+ * @param kind Span kind.
+ * @param startEpochNanos Start time in nanoseconds since epoch.
+ * @param endEpochNanos End time in nanoseconds since epoch.
+ * @param attributes Span attributes.
+ * @param error Flag indicating whether the span ended with an error.
+ * @param statusDescription Error description, {@code null} if not failed.
+ * @author guanxiong wei
+ *
+ */
+public record SpanData(String traceId, String spanId, String parentSpanId, String name, SpanKind kind,
+        long startEpochNanos, long endEpochNanos, Map<String, String> attributes, boolean error,
+        String statusDescription) {
+}
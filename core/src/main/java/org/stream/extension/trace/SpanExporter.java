@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.trace;
+
+import java.util.Collection;
+
+/**
+ * Exporter SPI publishing finished spans, for example to an OpenTelemetry collector. Implementations are invoked
+ * in batches from a single background thread.
+ * @author guanxiong wei
+ *
+ */
+public interface SpanExporter {
+
+    /**
+     * Export a batch of finished spans.
+     * @param spans Finished spans.
+     */
+    void export(Collection<SpanData> spans);
+
+    /**
+     * Release resources held by the exporter.
+     */
+    default void shutdown() {
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Trace context propagated across nodes, threads, processes and retries, serialized as a
+ * <a href="https://www.w3.org/TR/trace-context/">W3C traceparent</a> header value.
+ * @param traceId 32 lower case hex characters trace id.
+ * @param spanId 16 lower case hex characters id of the span that is the parent of the spans created under this context.
+ * @param sampled Flag indicating whether the spans of the trace are recorded.
+ * @author guanxiong wei
+ *
+ */
+public record TraceContext(String traceId, String spanId, boolean sampled) {
+
+    private static final String VERSION = "00";
+    private static final int TRACEPARENT_LENGTH = 55;
+
+    /**
+     * Create a context starting a new trace.
+     * @param sampled Sampling decision of the trace.
+     * @return Root context.
+     */
+    public static TraceContext root(final boolean sampled) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new TraceContext(hex(random.nextLong() | 1L) + hex(random.nextLong()), hex(random.nextLong() | 1L), sampled);
+    }
+
+    /**
+     * Create a context for a child span in the same trace.
+     * @return Child context.
+     */
+    public TraceContext child() {
+        return new TraceContext(traceId, hex(ThreadLocalRandom.current().nextLong() | 1L), sampled);
+    }
+
+    /**
+     * Serialize the context as traceparent header value.
+     * @return Traceparent value.
+     */
+    public String toTraceparent() {
+        return VERSION + "-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    /**
+     * Parse a traceparent header value.
+     * @param traceparent Traceparent value.
+     * @return The trace context, {@code null} if the value is absent or malformed.
+     */
+    public static TraceContext parse(final String traceparent) {
+        if (traceparent == null || traceparent.length() != TRACEPARENT_LENGTH
+                || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return null;
+        }
+        String version = traceparent.substring(0, 2);
+        String traceId = traceparent.substring(3, 35);
+        String spanId = traceparent.substring(36, 52);
+        String flags = traceparent.substring(53);
+        if (!isHex(version) || "ff".equals(version) || !isValidId(traceId) || !isValidId(spanId) || !isHex(flags)) {
+            return null;
+        }
+        return new TraceContext(traceId, spanId, (Integer.parseInt(flags, 16) & 1) == 1);
+    }
+
+    private static boolean isValidId(final String id) {
+        return isHex(id) && id.chars().anyMatch(c -> c != '0');
+    }
+
+    private static boolean isHex(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String hex(final long value) {
+        String hex = Long.toHexString(value);
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+}
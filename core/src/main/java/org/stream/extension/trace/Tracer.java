@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.trace;
+
+import java.util.concurrent.Callable;
+
+import org.stream.extension.io.StreamTransferData;
+import org.stream.extension.settings.Settings;
+
+/**
+ * Tracing facility. Spans are created for graphs, nodes, asynchronous activities and {@link org.stream.extension.io.Tower}
+ * calls; the trace context travels with the {@link StreamTransferData} so that it survives persistence and retries on
+ * other machines, with the asynchronous jobs submitted by the work-flows and with the events fired to the event center.
+ *
+ * Nothing is recorded until an exporter is installed via {@link #setExporter(SpanExporter)}. The sampling decision is
+ * made once per trace by the {@link Sampler}, spans of unsampled traces are never allocated, the context of the trace
+ * is still propagated so logs can be correlated by the trace id. Without an exporter the graphs executed by the
+ * engines start no trace at all and get the shared {@link Span#NOOP} span.
+ * @author guanxiong wei
+ *
+ */
+public final class Tracer {
+
+    /**
+     * Key of the traceparent value in the {@link StreamTransferData} objects.
+     */
+    public static final String TRACEPARENT = "traceparent";
+
+    private static final int QUEUE_CAPACITY = 8192;
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private static volatile Sampler sampler = Sampler.ratio(Double.parseDouble(System.getProperty(Settings.TRACE_SAMPLE_RATIO, "1")));
+
+    private static volatile BatchSpanProcessor processor;
+
+    private Tracer() { }
+
+    /**
+     * Install the exporter the finished spans are handed over to, the previous one will be shut down.
+     * @param exporter Span exporter, {@code null} to stop recording.
+     */
+    public static synchronized void setExporter(final SpanExporter exporter) {
+        BatchSpanProcessor previous = processor;
+        processor = exporter == null ? null : new BatchSpanProcessor(exporter, QUEUE_CAPACITY);
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    public static void setSampler(final Sampler newSampler) {
+        sampler = newSampler;
+    }
+
+    /**
+     * Start a span under the current span of the thread, or a new trace if there is none.
+     * @param name Span name.
+     * @param kind Span kind.
+     * @return The new current span.
+     */
+    public static Span startSpan(final String name, final SpanKind kind) {
+        return startSpan(name, kind, null);
+    }
+
+    /**
+     * Start a span under a parent context received from other threads or processes.
+     * @param name Span name.
+     * @param kind Span kind.
+     * @param remoteParent Parent context, {@code null} to start the span under the current span of the thread.
+     * @return The new current span.
+     */
+    public static Span startSpan(final String name, final SpanKind kind, final TraceContext remoteParent) {
+        Span current = CURRENT.get();
+        TraceContext parent = remoteParent != null ? remoteParent : current == null ? null : current.getContext();
+        if (parent == null) {
+            if (processor == null) {
+                // Tracing is disabled, no context to propagate and no span to record.
+                return Span.NOOP;
+            }
+            boolean sampled = false;
+            TraceContext root = TraceContext.root(false);
+            if (sampler.shouldSample(root.traceId(), name)) {
+                sampled = true;
+                root = new TraceContext(root.traceId(), root.spanId(), true);
+            }
+            return open(name, kind, root, null, sampled, current);
+        }
+        if (!parent.sampled() || processor == null) {
+            // Nothing to record, only make the remote context visible on this thread.
+            return remoteParent == null ? Span.NOOP : open(name, kind, parent, null, false, current);
+        }
+        return open(name, kind, parent.child(), parent.spanId(), true, current);
+    }
+
+    /**
+     * Make the context current on this thread without creating a span, close the returned scope to restore.
+     * @param context Context to be attached.
+     * @return Scope to be closed.
+     */
+    public static Span attach(final TraceContext context) {
+        if (context == null) {
+            return Span.NOOP;
+        }
+        return open(null, null, context, null, false, CURRENT.get());
+    }
+
+    /**
+     * Get the context of the current span.
+     * @return Current context, {@code null} if no span is open on this thread.
+     */
+    public static TraceContext currentContext() {
+        Span current = CURRENT.get();
+        return current == null ? null : current.getContext();
+    }
+
+    /**
+     * Get the traceparent value of the current context.
+     * @return Traceparent value, {@code null} if no span is open on this thread.
+     */
+    public static String currentTraceparent() {
+        TraceContext context = currentContext();
+        return context == null ? null : context.toTraceparent();
+    }
+
+    /**
+     * Bind the current context to a job to be run on another thread.
+     * @param <T> Job result type.
+     * @param job Job to be wrapped.
+     * @return Job running under the current context of the submitting thread.
+     */
+    public static <T> Callable<T> wrap(final Callable<T> job) {
+        TraceContext context = currentContext();
+        if (context == null) {
+            return job;
+        }
+        return () -> {
+            try (Span scope = attach(context)) {
+                return job.call();
+            }
+        };
+    }
+
+    /**
+     * Bind the current context to a job to be run on another thread.
+     * @param job Job to be wrapped.
+     * @return Job running under the current context of the submitting thread.
+     */
+    public static Runnable wrap(final Runnable job) {
+        TraceContext context = currentContext();
+        if (context == null) {
+            return job;
+        }
+        return () -> {
+            try (Span scope = attach(context)) {
+                job.run();
+            }
+        };
+    }
+
+    /**
+     * Save the current context into the transfer data, a new trace is started if there is no current context.
+     * @param data Transfer data to carry the context.
+     */
+    public static void inject(final StreamTransferData data) {
+        TraceContext context = currentContext();
+        if (context == null) {
+            context = TraceContext.root(processor != null);
+            if (context.sampled() && !sampler.shouldSample(context.traceId(), TRACEPARENT)) {
+                context = new TraceContext(context.traceId(), context.spanId(), false);
+            }
+        }
+        data.set(TRACEPARENT, context.toTraceparent());
+    }
+
+    /**
+     * Read the context carried by the transfer data.
+     * @param data Transfer data.
+     * @return Carried context, {@code null} if absent.
+     */
+    public static TraceContext extract(final StreamTransferData data) {
+        if (data == null) {
+            return null;
+        }
+        Object traceparent = data.get(TRACEPARENT);
+        return traceparent instanceof String value ? TraceContext.parse(value) : null;
+    }
+
+    private static Span open(final String name, final SpanKind kind, final TraceContext context,
+            final String parentSpanId, final boolean recording, final Span previous) {
+        Span span = new Span(name, kind, context, parentSpanId, recording, previous);
+        CURRENT.set(span);
+        return span;
+    }
+
+    static void restore(final Span ended, final Span previous) {
+        if (CURRENT.get() == ended) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    static void finish(final SpanData span) {
+        BatchSpanProcessor current = processor;
+        if (current != null) {
+            current.offer(span);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.utils;
+
+import org.stream.core.resource.Resource;
+
+/**
+ * Extract the idempotency key of a submission from its primary resource, submissions sharing the same key
+ * are treated as retries of the same business request by the auto scheduled engine.
+ * @author guanxiong wei
+ *
+ */
+@FunctionalInterface
+public interface IdempotencyKeyExtractor {
+
+    /**
+     * Extract the idempotency key.
+     * @param graphName Graph the submission asks for.
+     * @param primary Primary resource.
+     * @return Idempotency key, null if the submission should not be deduplicated.
+     */
+    String extract(final String graphName, final Resource primary);
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2021 guanxiongwei
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.stream.extension.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.stream.core.resource.Resource;
+import org.stream.extension.clients.RedisClient;
+import org.stream.extension.settings.Settings;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Snowflake style {@link TaskIDGenerator} producing time ordered 64 bits ids, from the highest bits: 1 bit sign (always 0),
+ * 41 bits milliseconds since 2024-01-01, 10 bits worker id and 12 bits sequence. The ids are rendered as 13 characters
+ * Crockford base32 strings so that the string order is the same as the numeric order.
+ * <p>
+ * The generator never waits: when the sequence of the current millisecond is exhausted or the clock steps backward it
+ * keeps issuing ids on top of the latest one, borrowing the following milliseconds until the clock catches up.
+ * @author guanxiong wei
+ *
+ */
+@Slf4j
+public class SnowflakeTaskIDGenerator implements TaskIDGenerator {
+
+    /**
+     * Custom epoch, 2024-01-01T00:00:00Z.
+     */
+    public static final long EPOCH = 1704067200000L;
+
+    public static final int WORKER_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_WORKER_ID = (1 << WORKER_BITS) - 1;
+
+    /**
+     * Length of the string form.
+     */
+    public static final int LENGTH = 13;
+
+    private static final String WORKER_KEY = "stream_worker_id_";
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private final long workerId;
+
+    // Elapsed milliseconds shifted left by the sequence bits, plus the sequence of the latest id.
+    private final AtomicLong latest = new AtomicLong();
+
+    /**
+     * Constructor.
+     * @param workerId Worker id of the current process, between 0 and {@link #MAX_WORKER_ID}.
+     */
+    public SnowflakeTaskIDGenerator(final int workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException(String.format("Worker id should be between 0 and %d", MAX_WORKER_ID));
+        }
+        this.workerId = workerId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String generateTaskID(final Resource primary) {
+        return encode(nextId());
+    }
+
+    /**
+     * Generate the next id in numeric form.
+     * @return Next id.
+     */
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = latest.get();
+            next = Math.max(now, previous + 1);
+        } while (!latest.compareAndSet(previous, next));
+        return (next >>> SEQUENCE_BITS) << (WORKER_BITS + SEQUENCE_BITS) | workerId << SEQUENCE_BITS | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * Render the id as a fixed length base32 string.
+     * @param id Numeric id.
+     * @return String form.
+     */
+    public static String encode(final long id) {
+        char[] chars = new char[LENGTH];
+        long value = id;
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Parse the string form back to the numeric id.
+     * @param id String form.
+     * @return Numeric id.
+     */
+    public static long decode(final String id) {
+        if (!isSnowflakeId(id)) {
+            throw new IllegalArgumentException(String.format("[%s] is not a snowflake task id", id));
+        }
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            value = value << 5 | DIGITS[id.charAt(i)];
+        }
+        return value;
+    }
+
+    /**
+     * Check if the task id is generated by this generator.
+     * @param id Task id.
+     * @return {@code true} if the id is a snowflake id.
+     */
+    public static boolean isSnowflakeId(final String id) {
+        if (id == null || id.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = id.charAt(i);
+            if (c >= DIGITS.length || DIGITS[c] < 0) {
+                return false;
+            }
+        }
+        // The 13 characters hold 65 bits, the two highest ones are always 0.
+        return DIGITS[id.charAt(0)] < 8;
+    }
+
+    /**
+     * Extract the generation time.
+     * @param id Numeric id.
+     * @return Time in milliseconds since the unix epoch.
+     */
+    public static long timestamp(final long id) {
+        return (id >>> (WORKER_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    /**
+     * Extract the worker id.
+     * @param id Numeric id.
+     * @return Worker id.
+     */
+    public static int workerId(final long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_WORKER_ID;
+    }
+
+    /**
+     * Deduce the shard the id belongs to from its time, worker and sequence bits, ids generated at low rate
+     * spread by time while bursts spread by sequence.
+     * @param id Numeric id.
+     * @param shards Number of shards.
+     * @return Shard index between 0 and shards - 1.
+     */
+    public static int shard(final long id, final int shards) {
+        long mixed = (id >>> (WORKER_BITS + SEQUENCE_BITS)) + workerId(id) + (id & SEQUENCE_MASK);
+        return (int) Math.floorMod(mixed, (long) shards);
+    }
+
+    /**
+     * Assign the worker id of the current process, the {@link Settings#WORKER_ID} property is used if present,
+     * otherwise a counter shared through redis by the processes of the application. Processes get distinct ids as long
+     * as less than 1024 of them are alive at the same time.
+     * @param redisClient Redis client, may be null.
+     * @param application Application name.
+     * @return Worker id.
+     */
+    public static int assignWorkerId(final RedisClient redisClient, final String application) {
+        String configured = System.getProperty(Settings.WORKER_ID);
+        if (configured != null) {
+            return Integer.parseInt(configured);
+        }
+        if (redisClient != null) {
+            try {
+                return (int) Math.floorMod(redisClient.incr(WORKER_KEY + application), (long) (MAX_WORKER_ID + 1));
+            } catch (Exception e) {
+                log.warn("Fail to assign worker id through redis", e);
+            }
+        }
+        int workerId = ThreadLocalRandom.current().nextInt(MAX_WORKER_ID + 1);
+        log.warn("Worker id is neither configured nor assigned by redis, use random worker id [{}]", workerId);
+        return workerId;
+    }
+}
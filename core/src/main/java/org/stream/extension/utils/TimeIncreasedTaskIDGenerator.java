@@ -16,9 +16,9 @@
 
 package org.stream.extension.utils;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -26,27 +26,39 @@ import org.stream.core.resource.Resource;
 
 /**
  * Snowflake version task id generator.
- * Constructed by time in milliseconds + counts + random key.
- * The length will be kept at 26.
+ * Constructed by time in milliseconds + random key + counts.
+ * The length will be kept at 26. Up to 1000 ids are issued per millisecond, bursts beyond that
+ * borrow the following milliseconds so the ids stay unique and increasing.
+ * Prefer {@link SnowflakeTaskIDGenerator} when several processes share the task storage.
  * 
  * @author weiguanxiong
  * @since 2024/09/01
  */
 public class TimeIncreasedTaskIDGenerator implements TaskIDGenerator {
 
-    private static final AtomicLong COUNTER = new AtomicLong(0);
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS")
+            .withZone(ZoneId.systemDefault());
+
+    // Time in milliseconds multiplied by 1000, plus the counter of the latest id.
+    private static final AtomicLong LATEST = new AtomicLong(0);
 
     private static final String RANDOM = UUID.randomUUID().toString().substring(0, 6);
 
     /**
-     * {@inheritDoc}}
+     * {@inheritDoc}
      */
     @Override
     public String generateTaskID(final Resource primary) {
-        long now = System.currentTimeMillis();
-        DateFormat format = new SimpleDateFormat("yyyyMMddhhmmssSSS");
-        return format.format(new Date(now)) +
+        long now = System.currentTimeMillis() * 1000;
+        long previous;
+        long next;
+        do {
+            previous = LATEST.get();
+            next = Math.max(now, previous + 1);
+        } while (!LATEST.compareAndSet(previous, next));
+        int counter = (int) (next % 1000);
+        return FORMATTER.format(Instant.ofEpochMilli(next / 1000)) +
                 RANDOM +
-                COUNTER.addAndGet(1) % 1000;
+                (char) ('0' + counter / 100) + (char) ('0' + counter / 10 % 10) + (char) ('0' + counter % 10);
     }
 }
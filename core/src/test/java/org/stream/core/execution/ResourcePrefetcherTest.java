@@ -0,0 +1,128 @@
+package org.stream.core.execution;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.stream.core.component.Node;
+import org.stream.core.component.Prefetch;
+import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceAuthority;
+import org.stream.core.resource.ResourceCatalog;
+import org.stream.core.resource.ResourceReader;
+import org.stream.core.resource.ResourceURL;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ResourcePrefetcherTest {
+
+    private static final ResourceAuthority AUTHORITY = new ResourceAuthority("prefetch", String.class);
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private Executor original;
+    private WorkFlow workFlow;
+    private Node node;
+
+    @BeforeMethod
+    public void setUp() {
+        original = ResourcePrefetcher.getExecutor();
+        ResourceCatalog catalog = new ResourceCatalog();
+        catalog.registerReader(new ResourceReader() {
+            @Override
+            public Resource read(final ResourceURL resourceURL) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Backend unavailable");
+                }
+                return Resource.builder()
+                        .resourceURL(resourceURL)
+                        .resourceReference(resourceURL.getPath())
+                        .value("value of " + resourceURL.getPath())
+                        .build();
+            }
+
+            @Override
+            public ResourceAuthority resolve() {
+                return AUTHORITY;
+            }
+        });
+        GraphContext graphContext = new GraphContext();
+        graphContext.setResourceCatalog(catalog);
+        workFlow = new WorkFlow();
+        workFlow.setGraphContext(graphContext);
+        node = Node.builder()
+                .nodeName("node")
+                .prefetches(List.of(new Prefetch(AUTHORITY.getValue(), "order", 0)))
+                .build();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ResourcePrefetcher.setExecutor(original);
+    }
+
+    @Test
+    public void testRejectedPrefetchLoadedOnCaller() {
+        ResourcePrefetcher.setExecutor(job -> {
+            throw new RejectedExecutionException("Saturated");
+        });
+        ResourcePrefetcher.prefetch(workFlow, node);
+
+        Assert.assertTrue(workFlow.getPrefetches().isEmpty());
+        Assert.assertEquals(workFlow.getResourceTank().resolve("order").getValue(), "value of order");
+    }
+
+    @Test
+    public void testFailedPrefetchReadOnDemand() {
+        List<Runnable> jobs = new LinkedList<>();
+        ResourcePrefetcher.setExecutor(jobs::add);
+        ResourcePrefetcher.prefetch(workFlow, node);
+        failures.set(1);
+        CompletableFuture<Resource> prefetch = workFlow.getPrefetches().get("order");
+        jobs.get(0).run();
+
+        Assert.assertTrue(prefetch.isCompletedExceptionally());
+        Assert.assertNull(workFlow.getResourceTank().resolve("order"));
+        Resource resource = ResourcePrefetcher.await(workFlow, new ResourceURL("order", AUTHORITY), prefetch);
+        Assert.assertEquals(resource.getValue(), "value of order");
+        Assert.assertNotNull(workFlow.getResourceTank().resolve("order"));
+    }
+
+    @Test
+    public void testClosedWorkflowNotAttached() {
+        List<Runnable> jobs = new LinkedList<>();
+        ResourcePrefetcher.setExecutor(jobs::add);
+        ResourcePrefetcher.prefetch(workFlow, node);
+        workFlow.close();
+        jobs.get(0).run();
+
+        Assert.assertTrue(workFlow.getPrefetches().isEmpty());
+        Assert.assertNull(workFlow.getResourceTank().resolve("order"));
+    }
+
+    @Test
+    public void testResolveWhileInFlight() throws Exception {
+        List<Runnable> jobs = new LinkedList<>();
+        ResourcePrefetcher.setExecutor(jobs::add);
+        ResourcePrefetcher.prefetch(workFlow, node);
+        Assert.assertEquals(jobs.size(), 1);
+        Assert.assertTrue(workFlow.getPrefetches().containsKey("order"));
+
+        CompletableFuture<Resource> resolved = CompletableFuture.supplyAsync(
+                () -> workFlow.resolveResource(new ResourceURL("order", AUTHORITY)));
+        jobs.get(0).run();
+
+        Resource resource = resolved.get(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(resource);
+        Assert.assertEquals(resource.getValue(), "value of order");
+        Assert.assertTrue(workFlow.getPrefetches().isEmpty());
+        // Prefetch is done and unregistered, the resource is now resolved from the resource tank.
+        Assert.assertNotNull(workFlow.resolveResource(new ResourceURL("order", AUTHORITY)));
+    }
+}
@@ -24,9 +24,12 @@ import org.stream.extension.meta.TaskStatus;
 import org.stream.extension.meta.TaskStep;
 import org.stream.extension.pattern.RetryPattern;
 import org.stream.extension.pattern.defaults.EqualTimeIntervalPattern;
+import org.stream.extension.persist.RedisSubmissionIndex;
+import org.stream.extension.persist.SubmissionIndex;
 import org.stream.extension.persist.TaskPersister;
 import org.stream.extension.settings.Settings;
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -71,6 +74,13 @@ public class AutoScheduledEngineTest {
         autoScheduledEngine.setTaskExecutor(new ThreadPoolTaskExecutor(new MockExecutorService(), taskPersister, retryPattern, graphContext));
     }
 
+    @AfterMethod
+    public void AfterMethod() {
+        // The engine instance is reused by the following methods, drop the submission settings of this one.
+        autoScheduledEngine.setSubmissionIndex(null);
+        autoScheduledEngine.setIdempotencyKeyExtractor(null);
+    }
+
     @Test
     public void testNormal() throws Exception {
         Resource primary = Resource.builder()
@@ -118,4 +128,54 @@ public class AutoScheduledEngineTest {
 
         Assert.assertEquals(resource.getValue(), captor.getValue().getTaskId());
     }
+
+    @Test
+    public void testDuplicateSubmissionsCoalesced() throws Exception {
+        RedisSubmissionIndex submissionIndex = new RedisSubmissionIndex();
+        submissionIndex.setRedisClient(new MockRedisClient());
+        submissionIndex.setApplication(application);
+        autoScheduledEngine.setSubmissionIndex(submissionIndex);
+        autoScheduledEngine.setIdempotencyKeyExtractor((graphName, primary) -> (String) primary.getValue());
+
+        String key = RandomStringUtils.randomAlphabetic(10);
+        Resource primary = Resource.builder()
+                .value(key)
+                .resourceReference(RandomStringUtils.randomAlphabetic(10))
+                .build();
+        Resource first = autoScheduledEngine.execute(graphContext, "autoSchedule1", primary, false)
+                .resolve(Settings.TASK_REFERENCE);
+        Resource second = autoScheduledEngine.execute(graphContext, "autoSchedule1", primary, false)
+                .resolve(Settings.TASK_REFERENCE);
+
+        Assert.assertEquals(second.getValue(), first.getValue());
+        Mockito.verify(taskPersister, Mockito.times(1))
+                .initiateOrUpdateTask(Mockito.any(), Mockito.anyBoolean(), Mockito.any());
+
+        // Different graphs never share the key.
+        Resource other = autoScheduledEngine.execute(graphContext, "autoSchedule2", primary, false)
+                .resolve(Settings.TASK_REFERENCE);
+        Assert.assertNotEquals(other.getValue(), first.getValue());
+    }
+
+    @Test
+    public void testKeyClaimRetriedWhenReleased() throws Exception {
+        SubmissionIndex submissionIndex = Mockito.mock(SubmissionIndex.class);
+        // The key is released by a failed submission between the claim and the lookup.
+        Mockito.when(submissionIndex.putIfAbsent(Mockito.anyString(), Mockito.anyString())).thenReturn(false, true);
+        autoScheduledEngine.setSubmissionIndex(submissionIndex);
+        autoScheduledEngine.setIdempotencyKeyExtractor((graphName, primary) -> (String) primary.getValue());
+
+        Resource primary = Resource.builder()
+                .value(RandomStringUtils.randomAlphabetic(10))
+                .resourceReference(RandomStringUtils.randomAlphabetic(10))
+                .build();
+        Resource resource = autoScheduledEngine.execute(graphContext, "autoSchedule1", primary, false)
+                .resolve(Settings.TASK_REFERENCE);
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(submissionIndex, Mockito.times(2)).putIfAbsent(Mockito.anyString(), captor.capture());
+        Assert.assertEquals(captor.getValue(), resource.getValue());
+        Mockito.verify(taskPersister, Mockito.times(1))
+                .initiateOrUpdateTask(Mockito.any(), Mockito.anyBoolean(), Mockito.any());
+    }
 }
@@ -0,0 +1,58 @@
+package org.stream.core.execution.test;
+
+import org.stream.core.component.Graph;
+import org.stream.core.execution.GraphContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GraphContextTest {
+
+    @Test
+    public void testUpgradeKeepsPreviousVersions() {
+        GraphContext graphContext = new GraphContext();
+        Graph first = graph("versioned", "hash1");
+        graphContext.addGraph(first);
+        Assert.assertEquals(first.getVersion(), 1L);
+
+        Graph second = graph("versioned", "hash2");
+        Assert.assertSame(graphContext.upgradeGraph(second), second);
+        Assert.assertEquals(second.getVersion(), 2L);
+
+        Assert.assertSame(graphContext.getGraph("versioned"), second);
+        Assert.assertSame(graphContext.getGraph("versioned", "hash1"), first);
+        Assert.assertSame(graphContext.getGraph("versioned", "hash2"), second);
+        Assert.assertSame(graphContext.getGraph("versioned", "missing"), second);
+        Assert.assertSame(graphContext.getGraph("versioned", null), second);
+    }
+
+    @Test
+    public void testUpgradeWithSameContentIsIgnored() {
+        GraphContext graphContext = new GraphContext();
+        Graph first = graph("unchanged", "hash");
+        graphContext.addGraph(first);
+
+        Assert.assertSame(graphContext.upgradeGraph(graph("unchanged", "hash")), first);
+        Assert.assertEquals(graphContext.getGraph("unchanged").getVersion(), 1L);
+    }
+
+    @Test
+    public void testRetainedVersionsAreBounded() {
+        GraphContext graphContext = new GraphContext();
+        graphContext.setMaxRetainedVersions(2);
+        Graph first = graph("bounded", "hash1");
+        graphContext.addGraph(first);
+        graphContext.upgradeGraph(graph("bounded", "hash2"));
+        Graph third = graph("bounded", "hash3");
+        graphContext.upgradeGraph(third);
+
+        Assert.assertSame(graphContext.getGraph("bounded", "hash1"), third);
+        Assert.assertEquals(graphContext.getGraph("bounded", "hash2").getVersion(), 2L);
+    }
+
+    private Graph graph(final String name, final String hash) {
+        Graph graph = new Graph();
+        graph.setGraphName(name);
+        graph.setContentHash(hash);
+        return graph;
+    }
+}
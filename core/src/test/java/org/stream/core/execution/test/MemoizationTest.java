@@ -0,0 +1,136 @@
+package org.stream.core.execution.test;
+
+import java.util.List;
+
+import org.stream.core.component.ActivityRepository;
+import org.stream.core.component.ActivityResult;
+import org.stream.core.execution.DefaultEngine;
+import org.stream.core.execution.GraphContext;
+import org.stream.core.execution.WorkFlowContext;
+import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceTank;
+import org.stream.core.runtime.LocalGraphLoader;
+import org.stream.core.test.base.MemoizedActivity;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(singleThreaded = true)
+public class MemoizationTest {
+
+    private DefaultEngine defaultEngine;
+
+    private GraphContext graphContext;
+
+    @BeforeClass
+    public void beforeClass() throws Exception {
+        this.defaultEngine = new DefaultEngine();
+        this.graphContext = new GraphContext();
+        this.graphContext.setActivityRepository(new ActivityRepository());
+        LocalGraphLoader graphLoader = new LocalGraphLoader();
+        graphLoader.setGraphContext(graphContext);
+        graphLoader.setGraphFilePaths(List.of("MemoizedGraph.graph", "MemoizedNode.graph", "MemoizedParent.graph"));
+        graphLoader.init();
+    }
+
+    @BeforeMethod
+    public void beforeMethod() {
+        if (WorkFlowContext.isThereWorkingWorkFlow()) {
+            WorkFlowContext.reboot();
+        }
+        MemoizedActivity.reset();
+        graphContext.getGraph("memoizedgraph").getMemoizer().invalidateAll();
+        graphContext.getGraph("memoizednode").getNode("node1").getMemoizer().invalidateAll();
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        WorkFlowContext.reboot();
+    }
+
+    @Test
+    public void testGraphResultsReplayed() {
+        ResourceTank first = execute("memoizedgraph", "a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 1);
+        first.resolve("memo").setValue("changed");
+
+        ResourceTank second = execute("memoizedgraph", "a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 1);
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(second.resolve("memo").getValue(), "value of a");
+        second.resolve("memo").setValue("changed");
+        Assert.assertEquals(execute("memoizedgraph", "a").resolve("memo").getValue(), "value of a");
+
+        Assert.assertEquals(execute("memoizedgraph", "b").resolve("memo").getValue(), "value of b");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 2);
+    }
+
+    @Test
+    public void testFailedGraphNotMemoized() {
+        MemoizedActivity.fail = true;
+        execute("memoizedgraph", "a");
+        execute("memoizedgraph", "a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 2);
+        Assert.assertEquals(graphContext.getGraph("memoizedgraph").getMemoizer().size(), 0);
+
+        MemoizedActivity.fail = false;
+        execute("memoizedgraph", "a");
+        execute("memoizedgraph", "a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 3);
+    }
+
+    @Test
+    public void testNestedGraphNotMemoized() {
+        execute("memoizedparent", "a");
+        execute("memoizedparent", "a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 2);
+        Assert.assertEquals(graphContext.getGraph("memoizedgraph").getMemoizer().size(), 0);
+    }
+
+    @Test
+    public void testNodeResultsReplayed() {
+        ResourceTank first = execute("memoizednode", "a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 1);
+        first.resolve("memo").setValue("changed");
+        WorkFlowContext.reboot();
+
+        ResourceTank second = execute("memoizednode", "a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 1);
+        Assert.assertEquals(second.resolve("memo").getValue(), "value of a");
+        second.resolve("memo").setValue("changed");
+        WorkFlowContext.reboot();
+
+        Assert.assertEquals(execute("memoizednode", "a").resolve("memo").getValue(), "value of a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 1);
+    }
+
+    @Test
+    public void testSuspendedNodeNotMemoized() {
+        MemoizedActivity.result = ActivityResult.SUSPEND;
+        execute("memoizednode", "a");
+        WorkFlowContext.reboot();
+        execute("memoizednode", "a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 2);
+        Assert.assertEquals(graphContext.getGraph("memoizednode").getNode("node1").getMemoizer().size(), 0);
+    }
+
+    @Test
+    public void testFailedNodeNotMemoized() {
+        MemoizedActivity.fail = true;
+        execute("memoizednode", "a");
+        WorkFlowContext.reboot();
+        execute("memoizednode", "a");
+        Assert.assertEquals(MemoizedActivity.INVOCATIONS.get(), 2);
+        Assert.assertEquals(graphContext.getGraph("memoizednode").getNode("node1").getMemoizer().size(), 0);
+    }
+
+    private ResourceTank execute(final String graphName, final String primary) {
+        Resource resource = Resource.builder()
+                .resourceReference("primary")
+                .value(primary)
+                .build();
+        return defaultEngine.execute(graphContext, graphName, resource, false);
+    }
+}
@@ -30,6 +30,7 @@ public class MockRedisClient implements RedisClient {
      */
     @Override
     public boolean set(final String key, final String value) {
+        EXPIRES.remove(key);
         return ITEMS.put(key, value) == null;
     }
 
@@ -144,8 +145,18 @@ public class MockRedisClient implements RedisClient {
      */
     @Override
     public boolean setWithExpireTime(final String key, final String value, final int seconds) {
-        // TODO Auto-generated method stub
-        return false;
+        ITEMS.put(key, value);
+        EXPIRES.put(key, System.currentTimeMillis() + seconds * 1000L);
+        return true;
+    }
+
+    /**
+     * Get the expire time of the key.
+     * @param key Redis key.
+     * @return Expire time in milliseconds, {@code null} if the key never expires.
+     */
+    public Long expireTime(final String key) {
+        return EXPIRES.get(key);
     }
 
     /**
@@ -224,6 +235,52 @@ public class MockRedisClient implements RedisClient {
         return target == null ? 0 : target.size();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long zcard(final String set) {
+        List<Item> zlist = ZLISTS.get(set);
+        if (zlist == null) {
+            return 0;
+        }
+        synchronized (zlist) {
+            return zlist.size();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long pttl(final String key) {
+        if (!ITEMS.containsKey(key)) {
+            return -2;
+        }
+        Long expireTime = EXPIRES.get(key);
+        return expireTime == null ? -1 : Math.max(0, expireTime - System.currentTimeMillis());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long incr(final String key) {
+        return Long.parseLong(ITEMS.merge(key, "1", (old, one) -> String.valueOf(Long.parseLong(old) + 1)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean setnx(final String key, final String value, final int seconds) {
+        boolean result = ITEMS.putIfAbsent(key, value) == null;
+        if (result) {
+            EXPIRES.put(key, System.currentTimeMillis() + seconds * 1000L);
+        }
+        return result;
+    }
+
     @Data
     @Builder
     public static class Item {
@@ -21,6 +21,8 @@ import org.stream.core.execution.WorkFlowContext;
 import org.stream.core.runtime.Jackson;
 import org.stream.core.runtime.LocalGraphLoader;
 import org.stream.core.resource.Resource;
+import org.stream.core.sentinel.AdaptiveConcurrencyLimiter;
+import org.stream.core.sentinel.ConcurrencyLimitConfiguration;
 import org.stream.extension.clients.RedisClient;
 import org.stream.extension.io.StreamTransferData;
 import org.stream.extension.lock.providers.RedisClusterBasedLock;
@@ -188,7 +190,9 @@ public class RetryRunnerTest {
         content = task.toString();
         retryRunner = new RetryRunner(task.getTaskId(), graphContext, taskPersister, pattern, null);
         Mockito.when(taskPersister.get(task.getTaskId())).thenReturn(content);
-        Mockito.when(taskPersister.tryLock(task.getTaskId())).thenReturn(true);
+        // The local retry scheduled after the suspension must not grab the lock and suspend the task again.
+        Thread current = Thread.currentThread();
+        Mockito.when(taskPersister.tryLock(task.getTaskId())).thenAnswer(invocation -> Thread.currentThread() == current);
         Mockito.when(pattern.getTimeInterval(0)).thenReturn(10);
 
         retryRunner.run();
@@ -265,7 +269,9 @@ public class RetryRunnerTest {
         content = task.toString();
         retryRunner = new RetryRunner(task.getTaskId(), graphContext, taskPersister, pattern, null);
         Mockito.when(taskPersister.get(task.getTaskId())).thenReturn(content);
-        Mockito.when(taskPersister.tryLock(task.getTaskId())).thenReturn(true);
+        // The local retry scheduled after the suspension must not grab the lock and suspend the task again.
+        Thread current = Thread.currentThread();
+        Mockito.when(taskPersister.tryLock(task.getTaskId())).thenAnswer(invocation -> Thread.currentThread() == current);
         Mockito.when(pattern.getTimeInterval(6)).thenReturn(10);
         Mockito.when(taskPersister.retrieveData(Mockito.anyString())).thenReturn(data);
 
@@ -288,6 +294,49 @@ public class RetryRunnerTest {
         assertFalse(WorkFlowContext.isThereWorkingWorkFlow());
     }
 
+    @Test
+    public void testLimitedSuspendCase() {
+        ConcurrencyLimitConfiguration configuration = new ConcurrencyLimitConfiguration();
+        configuration.setInitialLimit(1);
+        configuration.setMaxLimit(1);
+        configuration.setBackoff(50);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(configuration);
+        Assert.assertTrue(limiter.tryAcquire());
+        Node node = graphContext.getGraph("autoSchedule2").getNode("node5");
+        node.setConcurrencyLimiter(limiter);
+        try {
+            Task task = Task.builder()
+                    .graphName("autoSchedule2")
+                    .jsonfiedPrimaryResource(Jackson.json(primaryResource.getValue()))
+                    .lastExecutionTime(System.currentTimeMillis() - 5 * 1000)
+                    .nodeName("node5")
+                    .retryTimes(24)
+                    .status(TaskStatus.PENDING.code())
+                    .taskId(UUID.randomUUID().toString())
+                    .build();
+
+            content = task.toString();
+            retryRunner = new RetryRunner(task.getTaskId(), graphContext, taskPersister, pattern, null);
+            Mockito.when(taskPersister.get(task.getTaskId())).thenReturn(content);
+            Mockito.when(taskPersister.tryLock(task.getTaskId())).thenReturn(true);
+
+            retryRunner.run();
+
+            // Retries are exhausted, but being limited is not a failure of the node.
+            ArgumentCaptor<Task> captor1 = ArgumentCaptor.forClass(Task.class);
+            ArgumentCaptor<Double> captor2 = ArgumentCaptor.forClass(Double.class);
+            Mockito.verify(taskPersister).suspend(captor1.capture(), captor2.capture(), Mockito.any(), Mockito.any());
+            Mockito.verify(taskPersister, Mockito.never()).complete(Mockito.any(), Mockito.any());
+            Assert.assertEquals(captor2.getValue().intValue(), 50);
+            Assert.assertEquals(captor1.getValue().getRetryTimes(), 24);
+            Assert.assertEquals(captor1.getValue().getNodeName(), "node5");
+            assertFalse(WorkFlowContext.isThereWorkingWorkFlow());
+        } finally {
+            // Graphs are shared by the test cases, do not leak the exhausted limiter.
+            node.setConcurrencyLimiter(null);
+        }
+    }
+
     @Test
     public void testDuplicatedRun() throws Throwable {
         Task task = Task.builder()
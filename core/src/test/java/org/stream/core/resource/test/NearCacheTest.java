@@ -0,0 +1,103 @@
+package org.stream.core.resource.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceAuthority;
+import org.stream.core.resource.ResourceURL;
+import org.stream.core.resource.cache.NearCache;
+import org.stream.core.resource.test.infrastructure.TestObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class NearCacheTest {
+
+    private final ResourceAuthority resourceAuthority = new ResourceAuthority("testObject", TestObject.class);
+
+    @Test
+    public void testFrequentEntriesSurvive() {
+        NearCache cache = new NearCache(100, 60000);
+        ResourceURL hot = url("hot");
+        cache.put(hot, resource(hot));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotNull(cache.get(hot));
+        }
+        for (int i = 0; i < 1000; i++) {
+            ResourceURL cold = url("cold" + i);
+            cache.put(cold, resource(cold));
+        }
+        Assert.assertNotNull(cache.get(hot));
+        Assert.assertTrue(cache.size() <= 100);
+        Assert.assertTrue(cache.getStatistics().evictions() > 0);
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        NearCache cache = new NearCache(100, 60000);
+        ResourceURL url = url("ttl");
+        cache.put(url, resource(url), 0);
+        Thread.sleep(5);
+        Assert.assertNull(cache.get(url));
+        Assert.assertEquals(cache.getStatistics().misses(), 1L);
+    }
+
+    @Test
+    public void testRefreshAhead() {
+        NearCache cache = new NearCache(100, 60000);
+        cache.setRefreshAheadRatio(0.000001);
+        ResourceURL url = url("refresh");
+        cache.put(url, resource(url));
+        Assert.assertTrue(cache.shouldRefresh(url));
+        Assert.assertFalse(cache.shouldRefresh(url));
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        NearCache cache = new NearCache(100, 60000);
+        ResourceURL hot = url("hot");
+        cache.put(hot, resource(hot));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    Assert.assertNotNull(cache.get(hot));
+                    if (i % 10 == 0) {
+                        ResourceURL cold = url("cold" + thread + "-" + i);
+                        cache.put(cold, resource(cold));
+                        cache.get(cold);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assert.assertTrue(cache.size() <= 100);
+        Assert.assertEquals(cache.getStatistics().hits() + cache.getStatistics().misses(), 8800L);
+    }
+
+    @Test
+    public void testRemainingTtl() {
+        NearCache cache = new NearCache(100, 60000);
+        ResourceURL url = url("remaining");
+        Assert.assertEquals(cache.remainingTtl(url), -1L);
+        cache.put(url, resource(url), 10);
+        long ttl = cache.remainingTtl(url);
+        Assert.assertTrue(ttl > 9000 && ttl <= 10000);
+    }
+
+    private ResourceURL url(final String path) {
+        return new ResourceURL(path, resourceAuthority);
+    }
+
+    private Resource resource(final ResourceURL url) {
+        return Resource.builder().resourceURL(url).value(url.getPath()).build();
+    }
+}
@@ -0,0 +1,119 @@
+package org.stream.core.resource.test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceAuthority;
+import org.stream.core.resource.ResourceCatalog;
+import org.stream.core.resource.ResourceURL;
+import org.stream.core.resource.test.infrastructure.TestObject;
+import org.stream.core.resource.test.infrastructure.TestObjectReader;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ResourceCatalogBatchTest {
+
+    private final ResourceAuthority resourceAuthority = new ResourceAuthority("testObject", TestObject.class);
+
+    @Test
+    public void testReadOutsideScopeDispatchedImmediately() throws Exception {
+        CountingReader reader = new CountingReader();
+        ResourceCatalog catalog = catalog(reader);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Resource> future = pool.submit(() -> catalog.readResourceAsync(url("outside"))).get();
+            // Not waited on via get() or join(), the read must still have been performed.
+            Assert.assertTrue(future.isDone());
+            Assert.assertNotNull(future.getNow(null));
+            Assert.assertEquals(reader.batches.size(), 1);
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testReadsInScopeBatched() {
+        CountingReader reader = new CountingReader();
+        ResourceCatalog catalog = catalog(reader);
+        List<CompletableFuture<Resource>> futures = new ArrayList<>();
+        ResourceCatalog.openBatchScope();
+        try {
+            futures.add(catalog.readResourceAsync(url("a")));
+            futures.add(catalog.readResourceAsync(url("b")));
+            futures.add(catalog.readResourceAsync(url("a")));
+            Assert.assertTrue(reader.batches.isEmpty());
+            Assert.assertFalse(futures.get(0).isDone());
+        } finally {
+            ResourceCatalog.closeBatchScope();
+        }
+        Assert.assertEquals(reader.batches.size(), 1);
+        Assert.assertEquals(reader.batches.get(0).size(), 2);
+        futures.forEach(future -> Assert.assertTrue(future.isDone()));
+
+        // Scope closed, following reads are no longer batched.
+        CompletableFuture<Resource> future = catalog.readResourceAsync(url("c"));
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(reader.batches.size(), 2);
+    }
+
+    @Test
+    public void testNestedScopes() {
+        CountingReader reader = new CountingReader();
+        ResourceCatalog catalog = catalog(reader);
+        ResourceCatalog.openBatchScope();
+        try {
+            ResourceCatalog.openBatchScope();
+            try {
+                catalog.readResourceAsync(url("inner"));
+            } finally {
+                ResourceCatalog.closeBatchScope();
+            }
+            Assert.assertEquals(reader.batches.size(), 1);
+            CompletableFuture<Resource> future = catalog.readResourceAsync(url("outer"));
+            Assert.assertFalse(future.isDone());
+        } finally {
+            ResourceCatalog.closeBatchScope();
+        }
+        Assert.assertEquals(reader.batches.size(), 2);
+    }
+
+    private ResourceCatalog catalog(final CountingReader reader) {
+        ResourceCatalog catalog = new ResourceCatalog();
+        catalog.registerReader(reader);
+        return catalog;
+    }
+
+    private ResourceURL url(final String path) {
+        return new ResourceURL(path, resourceAuthority);
+    }
+
+    private static class CountingReader extends TestObjectReader {
+
+        private final List<Collection<ResourceURL>> batches = new ArrayList<>();
+
+        @Override
+        public Resource read(final ResourceURL resourceURL) {
+            batches.add(List.of(resourceURL));
+            return super.read(resourceURL);
+        }
+
+        @Override
+        public Map<ResourceURL, Resource> readAll(final Collection<ResourceURL> resourceURLs) {
+            batches.add(new ArrayList<>(resourceURLs));
+            Map<ResourceURL, Resource> result = new HashMap<>();
+            for (ResourceURL resourceURL : resourceURLs) {
+                result.put(resourceURL, super.read(resourceURL));
+            }
+            return result;
+        }
+    }
+}
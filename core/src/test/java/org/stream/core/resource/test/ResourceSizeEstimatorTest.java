@@ -0,0 +1,88 @@
+package org.stream.core.resource.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.stream.core.resource.ResourceSizeEstimator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ResourceSizeEstimatorTest {
+
+    private static class Node {
+        private long id;
+        private String name;
+        private Node next;
+
+        Node(final long id, final String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private static class Sampled {
+        private final int[] data;
+
+        Sampled(final int length) {
+            this.data = new int[length];
+        }
+    }
+
+    @Test
+    public void testDirectValues() {
+        Assert.assertEquals(ResourceSizeEstimator.estimate(null), 0L);
+        Assert.assertEquals(ResourceSizeEstimator.estimate("abcd"), 16 + 24 + 4L);
+        Assert.assertEquals(ResourceSizeEstimator.estimate(1L), 24L);
+        Assert.assertEquals(ResourceSizeEstimator.estimate(new long[10]), 16 + 80L);
+        Assert.assertEquals(ResourceSizeEstimator.sample(new byte[100]), 116L);
+    }
+
+    @Test
+    public void testObjectGraph() {
+        Node first = new Node(1, "first");
+        Node second = new Node(2, "second");
+        first.next = second;
+        // Cycles are walked once.
+        second.next = first;
+
+        long node = 16 + 8 + 8 + 8;
+        Assert.assertEquals(ResourceSizeEstimator.estimate(first), 2 * node + (16 + 24 + 5) + (16 + 24 + 6));
+    }
+
+    @Test
+    public void testCollectionsAndExtrapolation() {
+        List<String> list = new ArrayList<>();
+        Map<String, Long> map = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add("0123456789");
+            map.put("key" + i, (long) i);
+        }
+        long exact = ResourceSizeEstimator.estimate(list);
+        // Identical strings are counted once.
+        Assert.assertEquals(exact, 16 + 1000L * 24 + 16 + 24 + 10);
+        long mapSize = ResourceSizeEstimator.estimate(map);
+        long sampled = ResourceSizeEstimator.estimate(map, 100);
+        Assert.assertTrue(sampled > mapSize / 2 && sampled < mapSize * 2, sampled + " vs " + mapSize);
+    }
+
+    @Test
+    public void testSampleUsesClassAverage() {
+        long walked = ResourceSizeEstimator.sample(new Sampled(100));
+        Assert.assertEquals(walked, 16 + 8 + 16 + 400L);
+        // Not walked, estimated from the class average, which does not follow the array length.
+        Assert.assertEquals(ResourceSizeEstimator.sample(new Sampled(1000)), walked);
+
+        List<String> small = new ArrayList<>();
+        small.add("first");
+        small.add("second");
+        ResourceSizeEstimator.sample(small);
+        List<String> large = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            large.add("x" + i);
+        }
+        // Collections are scaled by their sizes.
+        Assert.assertTrue(ResourceSizeEstimator.sample(large) > 50 * ResourceSizeEstimator.sample(small) / 2);
+    }
+}
@@ -0,0 +1,154 @@
+package org.stream.core.resource.test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceTank;
+import org.stream.core.resource.SpillStore;
+import org.stream.core.resource.SpilledResource;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ResourceTankTest {
+
+    private Path directory;
+    private SpillStore spillStore;
+
+    @BeforeMethod
+    public void beforeMethod() throws Exception {
+        directory = Files.createTempDirectory("stream-spill-test");
+        spillStore = new SpillStore(directory, 1024 * 1024);
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        spillStore.close();
+    }
+
+    @Test
+    public void testLargeResourceSpilledOnAttach() {
+        ResourceTank tank = new ResourceTank(1024 * 1024, 1024, spillStore);
+        tank.setGraphName("testLargeResourceSpilledOnAttach");
+        tank.addResource(resource("large", payload(4096)));
+
+        Resource resource = tank.resolve("large");
+        Assert.assertTrue(resource instanceof SpilledResource);
+        Assert.assertEquals(tank.getResidentBytes(), 0L);
+        Assert.assertEquals(resource.getValue(), payload(4096));
+        Assert.assertEquals(spillStore.getSegments().get(), 1);
+        // The loaded value is kept in memory and charged again.
+        Assert.assertEquals(tank.getResidentBytes(), (long) ((SpilledResource) resource).getSlot().getLength());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testChangesOnLoadedValueKept() {
+        ResourceTank tank = new ResourceTank(1024 * 1024, 1024, spillStore);
+        tank.addResource(resource("large", payload(4096)));
+
+        ((List<String>) tank.resolve("large").getValue()).add("changed");
+        System.gc();
+        Assert.assertTrue(((List<String>) tank.resolve("large").getValue()).contains("changed"));
+
+        // Spilled again once the tank is over its budget, the changes go with the value.
+        ResourceTank small = new ResourceTank(2 * 1024, 1024 * 1024, spillStore);
+        small.addResource(resource("r", payload(1024)));
+        ((List<String>) small.resolve("r").getValue()).add("changed");
+        small.addResource(resource("r1", payload(1024)));
+        small.addResource(resource("r2", payload(1024)));
+        Assert.assertTrue(small.resolve("r") instanceof SpilledResource);
+        Assert.assertTrue(((List<String>) small.resolve("r").getValue()).contains("changed"));
+    }
+
+    @Test
+    public void testReservedResourcesNeverSpilled() {
+        ResourceTank tank = new ResourceTank(1024, 1024, spillStore);
+        String reference = "Stream::Workflow::Transfer::Data::Reference";
+        tank.addResource(resource(reference, payload(4096)));
+        tank.addResource(resource("other", payload(4096)));
+
+        Assert.assertFalse(tank.resolve(reference) instanceof SpilledResource);
+        Assert.assertTrue(tank.resolve("other") instanceof SpilledResource);
+    }
+
+    @Test
+    public void testIdentityDoesNotLoad() {
+        ResourceTank tank = new ResourceTank(1024 * 1024, 1024, spillStore);
+        tank.addResource(resource("large", payload(4096)));
+        SpilledResource resource = (SpilledResource) tank.resolve("large");
+
+        Assert.assertEquals(resource, tank.resolve("large"));
+        Assert.assertEquals(resource.hashCode(), tank.resolve("large").hashCode());
+        Assert.assertTrue(resource.toString().contains("large"));
+        Assert.assertFalse(resource.isLoaded());
+        Assert.assertEquals(tank.getResidentBytes(), 0L);
+    }
+
+    @Test
+    public void testSegmentsReleased() throws Exception {
+        SpillStore.Slot first = spillStore.write(new byte[1024 * 1024]);
+        SpillStore.Slot second = spillStore.write(new byte[16]);
+        Assert.assertEquals(spillStore.getSegments().get(), 2);
+
+        spillStore.free(first);
+        Assert.assertEquals(spillStore.getSegments().get(), 1);
+        Assert.assertEquals(spillStore.read(second).length, 16);
+
+        spillStore.close();
+        Assert.assertEquals(spillStore.getSegments().get(), 0);
+        Assert.assertEquals(Files.list(directory).count(), 0L);
+    }
+
+    @Test
+    public void testColdResourcesSpilledOverBudget() {
+        ResourceTank tank = new ResourceTank(8 * 1024, 1024 * 1024, spillStore);
+        tank.setGraphName("testColdResourcesSpilledOverBudget");
+        for (int i = 0; i < 10; i++) {
+            tank.addResource(resource("r" + i, payload(1024)));
+            // Keep the first resource hot.
+            tank.resolve("r0");
+        }
+
+        Assert.assertTrue(tank.getResidentBytes() <= 8 * 1024);
+        Assert.assertFalse(tank.resolve("r0") instanceof SpilledResource);
+        Assert.assertTrue(tank.resolve("r1") instanceof SpilledResource);
+        Assert.assertEquals(tank.resolve("r1").getValue(), payload(1024));
+    }
+
+    @Test
+    public void testSpillingDisabledByDefault() {
+        ResourceTank tank = new ResourceTank();
+        ArrayList<String> value = payload(64 * 1024);
+        tank.addResource(resource("large", value));
+
+        Assert.assertSame(tank.resolve("large").getValue(), value);
+        Assert.assertEquals(tank.getResidentBytes(), 0L);
+    }
+
+    @Test
+    public void testRemoveReleasesBudget() {
+        ResourceTank tank = new ResourceTank(1024 * 1024, 1024 * 1024, spillStore);
+        tank.addResource(resource("r", payload(1024)));
+        Assert.assertTrue(tank.getResidentBytes() > 0);
+        tank.remove("r");
+        Assert.assertEquals(tank.getResidentBytes(), 0L);
+        Assert.assertNull(tank.resolve("r"));
+    }
+
+    private Resource resource(final String reference, final List<String> value) {
+        return Resource.builder().resourceReference(reference).value(value).build();
+    }
+
+    private ArrayList<String> payload(final int chars) {
+        ArrayList<String> list = new ArrayList<>();
+        for (int i = 0; i < chars / 64; i++) {
+            list.add("x".repeat(64));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,92 @@
+package org.stream.core.resource.test;
+
+import java.io.Serializable;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.stream.core.execution.test.MockRedisClient;
+import org.stream.core.resource.Cache;
+import org.stream.core.resource.Resource;
+import org.stream.core.resource.ResourceAuthority;
+import org.stream.core.resource.ResourceURL;
+import org.stream.core.resource.cache.NearCache;
+import org.stream.core.resource.cache.TieredCache;
+import org.stream.core.resource.sample.RedisCache;
+import org.stream.core.resource.test.infrastructure.TestObject;
+import org.stream.extension.clients.RedisClient;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+public class TieredCacheTest {
+
+    private final ResourceAuthority resourceAuthority = new ResourceAuthority("testObject", TestObject.class);
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class Amount implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final long cents;
+    }
+
+    @Spy
+    private RedisClient redisClient = new MockRedisClient();
+
+    @InjectMocks
+    private RedisCache redisCache;
+
+    @BeforeMethod
+    public void BeforeMethod() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testRedisCacheKeepsValueType() {
+        ResourceURL url = url("typed");
+        redisCache.put(url, Resource.builder().resourceURL(url).resourceReference("amount").value(new Amount(150)).build());
+
+        Resource resource = redisCache.get(url);
+        Assert.assertEquals(resource.getValue(), new Amount(150));
+        Assert.assertEquals(resource.getResourceReference(), "amount");
+        Assert.assertEquals(resource.getResourceURL(), url);
+        Assert.assertEquals(redisCache.remainingTtl(url), -1L);
+    }
+
+    @Test
+    public void testPromoteWithRemainingTtl() {
+        ResourceURL url = url("promoted");
+        redisCache.put(url, Resource.builder().resourceURL(url).value("value").build(), 2);
+        NearCache nearCache = new NearCache(100, 60000);
+        TieredCache cache = new TieredCache(nearCache, redisCache);
+
+        Assert.assertEquals(cache.get(url).getValue(), "value");
+        long ttl = nearCache.remainingTtl(url);
+        Assert.assertTrue(ttl > 0 && ttl <= 2000, "Near cache ttl " + ttl);
+    }
+
+    @Test
+    public void testRemoteFailures() {
+        Cache remote = Mockito.mock(Cache.class);
+        Mockito.when(remote.get(Mockito.any())).thenThrow(new IllegalStateException("Remote down"));
+        Mockito.doThrow(new IllegalStateException("Remote down")).when(remote).put(Mockito.any(), Mockito.any());
+        Mockito.doThrow(new IllegalStateException("Remote down")).when(remote).put(Mockito.any(), Mockito.any(), Mockito.anyInt());
+        TieredCache cache = new TieredCache(new NearCache(100, 60000), remote);
+
+        ResourceURL missing = url("missing");
+        Assert.assertNull(cache.get(missing));
+
+        ResourceURL url = url("written");
+        cache.put(url, Resource.builder().resourceURL(url).value("value").build());
+        cache.put(url, Resource.builder().resourceURL(url).value("value").build(), 10);
+        Assert.assertEquals(cache.get(url).getValue(), "value");
+    }
+
+    private ResourceURL url(final String path) {
+        return new ResourceURL(path + System.nanoTime(), resourceAuthority);
+    }
+}
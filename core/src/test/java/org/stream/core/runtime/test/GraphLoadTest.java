@@ -2,14 +2,19 @@ package org.stream.core.runtime.test;
 
 import static org.testng.Assert.assertTrue;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.stream.core.component.ActivityRepository;
+import org.stream.core.component.ExecutionPlan;
 import org.stream.core.component.Graph;
 import org.stream.core.component.Node;
 import org.stream.core.exception.GraphLoadException;
 import org.stream.core.execution.GraphContext;
+import org.stream.core.runtime.GraphDefinitionCache;
 import org.stream.core.runtime.LocalGraphLoader;
 import org.stream.core.runtime.SmartLocalGraphLoader;
 import org.stream.core.test.base.TestActivity;
@@ -166,6 +171,54 @@ public class GraphLoadTest {
         assertTrue(graphLoader.getGraphFilePaths().size() > 0);
     }
 
+    @Test
+    public void testParallelLoadingWithDefinitionCache() throws Exception {
+        Path directory = Files.createTempDirectory("stream-graph-cache");
+        paths.add("SimpleCase.graph");
+        paths.add("CheckCase.graph");
+        graphContext.setActivityRepository(new ActivityRepository());
+        graphLoader.setDefinitionCache(new GraphDefinitionCache(directory));
+        graphLoader.init();
+
+        Assert.assertEquals(graphContext.getGraphRegistered(), 2);
+        Assert.assertEquals(graphLoader.getLoadTimes().size(), 2);
+        Assert.assertEquals(Files.list(directory).count(), 2L);
+
+        // A fresh cache instance reads the validated definitions back from the directory.
+        GraphContext context = new GraphContext();
+        context.setActivityRepository(new ActivityRepository());
+        LocalGraphLoader loader = new LocalGraphLoader();
+        loader.setGraphContext(context);
+        loader.setCircuitChecking(true);
+        loader.setGraphFilePaths(paths);
+        loader.setDefinitionCache(new GraphDefinitionCache(directory));
+        loader.init();
+
+        Graph graph = context.getGraph("testname");
+        Assert.assertNotNull(graph);
+        Assert.assertEquals(graph.getContentHash(), graphContext.getGraph("testname").getContentHash());
+        Assert.assertEquals(graph.getStartNode().getNodeName(), "node1");
+    }
+
+    @Test
+    public void testExecutionPlan() throws Exception {
+        paths.add("SimpleCase.graph");
+        paths.add("CircuitFailCase.graph");
+        graphContext.setActivityRepository(new ActivityRepository());
+        graphLoader.setCircuitChecking(false);
+        graphLoader.init();
+
+        ExecutionPlan simple = graphContext.getGraph("testname").getExecutionPlan();
+        Assert.assertTrue(simple.isAcyclic());
+        Assert.assertEquals(simple.getReachableNodes(), Set.of("node1", "node2"));
+        Assert.assertEquals(simple.getMaxSubflowDepth(), 0);
+
+        ExecutionPlan circuit = graphContext.getGraph("circuitFailCaseGraph").getExecutionPlan();
+        Assert.assertFalse(circuit.isAcyclic());
+        Assert.assertEquals(circuit.getCyclesWithoutSuspendExit(), List.of(Set.of("node1")));
+        Assert.assertEquals(circuit.getUnreachableNodes(), Set.of("node2"));
+    }
+
     @DataProvider(name = "noProvider")
     private Object[][] noProvider() {
         return new Object[][] {
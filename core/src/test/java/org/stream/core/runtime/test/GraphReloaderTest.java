@@ -0,0 +1,202 @@
+package org.stream.core.runtime.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.stream.core.component.ActivityRepository;
+import org.stream.core.component.Graph;
+import org.stream.core.exception.GraphLoadException;
+import org.stream.core.execution.GraphContext;
+import org.stream.core.runtime.AbstractGraphLoader;
+import org.stream.core.runtime.GraphReloader;
+import org.stream.core.runtime.GraphSourceState;
+import org.stream.core.runtime.HttpGraphLoader;
+import org.stream.core.runtime.LocalGraphLoader;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class GraphReloaderTest {
+
+    private static final String DEFINITION = "{\"graphName\":\"reloaded\",\"resourceType\":\"OBJECT\",\"startNode\":\"node1\","
+            + "\"nodes\":[{\"nodeName\":\"node1\",\"activityClass\":\"org.stream.core.test.base.TestActivity\"}%s]}";
+
+    private static final String SECOND_NODE = ",{\"nodeName\":\"node2\",\"activityClass\":\"org.stream.core.test.base.TestActivity\"}";
+
+    private GraphContext graphContext;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        graphContext = new GraphContext();
+        graphContext.setActivityRepository(new ActivityRepository());
+    }
+
+    @Test
+    public void testChangedGraphReloaded() throws Exception {
+        VersionedGraphLoader graphLoader = loader();
+        graphLoader.update("source", String.format(DEFINITION, ""));
+        Graph first = graphLoader.loadGraphFromSource("source");
+
+        GraphReloader reloader = new GraphReloader();
+        reloader.setGraphLoader(graphLoader);
+        Assert.assertEquals(reloader.reload(), 0);
+        Assert.assertSame(graphContext.getGraph("reloaded"), first);
+
+        graphLoader.update("source", String.format(DEFINITION, SECOND_NODE));
+        Assert.assertEquals(reloader.reload(), 1);
+        Graph second = graphContext.getGraph("reloaded");
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(second.getVersion(), first.getVersion() + 1);
+        Assert.assertEquals(reloader.getReloadedGraphs().get(), 1L);
+        Assert.assertEquals(reloader.reload(), 0);
+    }
+
+    @Test
+    public void testFailedReloadRetried() throws Exception {
+        VersionedGraphLoader graphLoader = loader();
+        graphLoader.update("source", String.format(DEFINITION, ""));
+        Graph first = graphLoader.loadGraphFromSource("source");
+        GraphReloader reloader = new GraphReloader();
+        reloader.setGraphLoader(graphLoader);
+
+        graphLoader.update("source", String.format(DEFINITION, SECOND_NODE));
+        graphLoader.failNextRead = true;
+        Assert.assertEquals(reloader.reload(), 0);
+        Assert.assertEquals(reloader.getFailedReloads().get(), 1L);
+        Assert.assertSame(graphContext.getGraph("reloaded"), first);
+
+        // The source is not changed again, but the failed version must still be picked up.
+        Assert.assertEquals(reloader.reload(), 1);
+        Assert.assertNotSame(graphContext.getGraph("reloaded"), first);
+    }
+
+    @Test
+    public void testHttpConditionalLoading() throws Exception {
+        AtomicInteger transferred = new AtomicInteger();
+        AtomicInteger notModified = new AtomicInteger();
+        String[] current = {String.format(DEFINITION, ""), "\"v1\""};
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/graph", exchange -> {
+            if (current[1].equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            transferred.incrementAndGet();
+            byte[] body = current[0].getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", current[1]);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/graph";
+            HttpGraphLoader graphLoader = new HttpGraphLoader();
+            graphLoader.setGraphContext(graphContext);
+            Graph first = graphLoader.loadGraphFromSource(url);
+
+            Assert.assertSame(graphLoader.reloadGraphFromSource(url), first);
+            Assert.assertEquals(transferred.get(), 1);
+            Assert.assertEquals(notModified.get(), 1);
+
+            current[0] = String.format(DEFINITION, SECOND_NODE);
+            current[1] = "\"v2\"";
+            Graph second = graphLoader.reloadGraphFromSource(url);
+            Assert.assertNotSame(second, first);
+            Assert.assertEquals(transferred.get(), 2);
+            Assert.assertSame(graphLoader.reloadGraphFromSource(url), second);
+            Assert.assertEquals(notModified.get(), 2);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testLocalConditionalLoading() throws Exception {
+        CountingLocalGraphLoader graphLoader = new CountingLocalGraphLoader();
+        graphLoader.setGraphContext(graphContext);
+        Graph graph = graphLoader.loadGraphFromSource("SimpleCase.graph");
+        Assert.assertEquals(graphLoader.reads.get(), 1);
+
+        Assert.assertSame(graphLoader.reloadGraphFromSource("SimpleCase.graph"), graph);
+        File file = new File(getClass().getResource("/graph/SimpleCase.graph").toURI());
+        Assert.assertEquals(graphLoader.reads.get(), 1);
+
+        Assert.assertTrue(file.setLastModified(file.lastModified() + 1000));
+        // Modification time changed but the content did not, the current version is kept.
+        Assert.assertSame(graphLoader.reloadGraphFromSource("SimpleCase.graph"), graph);
+        Assert.assertEquals(graphLoader.reads.get(), 2);
+        Assert.assertSame(graphLoader.reloadGraphFromSource("SimpleCase.graph"), graph);
+        Assert.assertEquals(graphLoader.reads.get(), 2);
+    }
+
+    private VersionedGraphLoader loader() {
+        VersionedGraphLoader graphLoader = new VersionedGraphLoader();
+        graphLoader.setGraphContext(graphContext);
+        return graphLoader;
+    }
+
+    /**
+     * Graph loader reading definitions from memory, each update bumps the version used as the modification time.
+     */
+    private static class VersionedGraphLoader extends AbstractGraphLoader {
+
+        private final Map<String, String> definitions = new ConcurrentHashMap<>();
+        private final Map<String, Long> versions = new ConcurrentHashMap<>();
+        private volatile boolean failNextRead = false;
+
+        private void update(final String source, final String definition) {
+            definitions.put(source, definition);
+            versions.merge(source, 1L, Long::sum);
+        }
+
+        @Override
+        protected InputStream loadInputStream(final String sourcePath) throws GraphLoadException {
+            if (failNextRead) {
+                failNextRead = false;
+                return new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Connection reset");
+                    }
+                };
+            }
+            return new ByteArrayInputStream(definitions.get(sourcePath).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        protected InputStream loadInputStreamIfModified(final String sourcePath, final GraphSourceState state)
+                throws GraphLoadException {
+            long version = versions.get(sourcePath);
+            if (version == state.getLastModified()) {
+                return null;
+            }
+            state.setLastModified(version);
+            return loadInputStream(sourcePath);
+        }
+    }
+
+    private static class CountingLocalGraphLoader extends LocalGraphLoader {
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        protected InputStream loadInputStream(final String sourcePath) throws GraphLoadException {
+            reads.incrementAndGet();
+            return super.loadInputStream(sourcePath);
+        }
+    }
+}
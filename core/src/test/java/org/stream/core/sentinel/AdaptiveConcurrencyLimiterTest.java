@@ -0,0 +1,66 @@
+package org.stream.core.sentinel;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static ConcurrencyLimitConfiguration configuration() {
+        ConcurrencyLimitConfiguration configuration = new ConcurrencyLimitConfiguration();
+        configuration.setInitialLimit(10);
+        configuration.setMaxLimit(100);
+        configuration.setWindowMillis(0);
+        configuration.setMinWindowSamples(1);
+        return configuration;
+    }
+
+    // Saturate the limiter and complete all the works with the same latency.
+    private static void round(final AdaptiveConcurrencyLimiter limiter, final long millis) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    @Test
+    public void testRejectWhenLimitReached() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(configuration());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+        }
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(limiter.getInflight(), 10);
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testLimitFollowsLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(configuration());
+        for (int i = 0; i < 20; i++) {
+            round(limiter, 1);
+        }
+        int healthy = limiter.getLimit();
+        Assert.assertTrue(healthy > 10);
+
+        round(limiter, 20);
+        Assert.assertTrue(limiter.getLimit() < healthy);
+        Assert.assertTrue(limiter.getLimit() >= 1);
+        Assert.assertEquals(limiter.getInflight(), 0);
+    }
+
+    @Test
+    public void testLimitDoesNotGrowWhenUnderUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(configuration());
+        for (int i = 0; i < 50; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        Assert.assertEquals(limiter.getLimit(), 10);
+    }
+}
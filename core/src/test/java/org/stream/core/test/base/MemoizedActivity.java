@@ -0,0 +1,36 @@
+package org.stream.core.test.base;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.stream.core.component.Activity;
+import org.stream.core.component.ActivityResult;
+import org.stream.core.execution.WorkFlowContext;
+import org.stream.core.resource.Resource;
+
+public class MemoizedActivity extends Activity {
+
+    public static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+    public static volatile ActivityResult result = ActivityResult.SUCCESS;
+
+    public static volatile boolean fail = false;
+
+    public static void reset() {
+        INVOCATIONS.set(0);
+        result = ActivityResult.SUCCESS;
+        fail = false;
+    }
+
+    @Override
+    public ActivityResult act() {
+        INVOCATIONS.incrementAndGet();
+        if (fail) {
+            throw new IllegalStateException("Memoized activity fails");
+        }
+        WorkFlowContext.attachResource(Resource.builder()
+                .resourceReference("memo")
+                .value("value of " + WorkFlowContext.getPrimary().getValue())
+                .build());
+        return result;
+    }
+}
@@ -0,0 +1,27 @@
+package org.stream.extension;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.stream.core.component.Activity;
+import org.stream.core.component.ActivityResult;
+import org.stream.core.execution.Checkpoints;
+
+public class CheckpointActivity extends Activity {
+
+    public static final List<Integer> PROCESSED = new CopyOnWriteArrayList<>();
+
+    @Override
+    public ActivityResult act() {
+        Integer cursor = Checkpoints.get("page", Integer.class);
+        for (int page = cursor == null ? 0 : cursor + 1; page < 4; page++) {
+            if (page == 2 && cursor == null) {
+                throw new RuntimeException("Interrupted midway");
+            }
+            PROCESSED.add(page);
+            Checkpoints.save("page", page);
+        }
+        return ActivityResult.SUCCESS;
+    }
+
+}
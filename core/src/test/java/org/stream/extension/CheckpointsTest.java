@@ -0,0 +1,132 @@
+package org.stream.extension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.stream.core.component.ActivityRepository;
+import org.stream.core.execution.ExecutionRunner;
+import org.stream.core.execution.GraphContext;
+import org.stream.core.execution.RetryRunner;
+import org.stream.core.execution.TaskHelper;
+import org.stream.core.execution.WorkFlowContext;
+import org.stream.core.resource.Resource;
+import org.stream.core.runtime.LocalGraphLoader;
+import org.stream.extension.io.HessianIOSerializer;
+import org.stream.extension.io.StreamTransferData;
+import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskCheckpoint;
+import org.stream.extension.meta.TaskStatus;
+import org.stream.extension.meta.TaskStep;
+import org.stream.extension.pattern.RetryPattern;
+import org.stream.extension.persist.TaskPersister;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CheckpointsTest {
+
+    @Mock
+    private TaskPersister taskPersister;
+
+    @Mock
+    private RetryPattern pattern;
+
+    private GraphContext graphContext;
+
+    @BeforeMethod
+    public void BeforeMethod() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        graphContext = new GraphContext();
+        graphContext.setActivityRepository(new ActivityRepository());
+        LocalGraphLoader graphLoader = new LocalGraphLoader();
+        graphLoader.setGraphContext(graphContext);
+        graphLoader.setGraphFilePaths(Collections.singletonList("AutoScheduleCheckpoint.graph"));
+        graphLoader.init();
+        CheckpointActivity.PROCESSED.clear();
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() {
+        Resource primaryResource = Resource.builder()
+                .resourceReference("Auto::Scheduled::Workflow::PrimaryResource::Reference")
+                .value("resource")
+                .build();
+        TaskHelper.prepare("autoCheckpoint", primaryResource, graphContext);
+        StreamTransferData streamTransferData = new StreamTransferData();
+        streamTransferData.add("primaryClass", String.class.getName());
+        Resource dataResource = Resource.builder()
+                .resourceReference(WorkFlowContext.WORK_FLOW_TRANSFER_DATA_REFERENCE)
+                .value(streamTransferData)
+                .build();
+        WorkFlowContext.attachResource(dataResource);
+        Task task = Task.builder()
+                .application("testApplication")
+                .graphName("autoCheckpoint")
+                .nodeName("pager")
+                .jsonfiedPrimaryResource("\"resource\"")
+                .retryTimes(0)
+                .status(TaskStatus.INITIATED.code())
+                .taskId(UUID.randomUUID().toString())
+                .build();
+        Mockito.when(taskPersister.tryLock(task.getTaskId())).thenReturn(true);
+        Mockito.when(taskPersister.checkpoint(Mockito.any())).thenReturn(true);
+        Mockito.when(pattern.getTimeInterval(Mockito.anyInt())).thenReturn(5000);
+
+        // The first attempt is interrupted after two pages.
+        new ExecutionRunner(pattern, graphContext, primaryResource, task, taskPersister, dataResource, null).run();
+
+        ArgumentCaptor<TaskCheckpoint> checkpoints = ArgumentCaptor.forClass(TaskCheckpoint.class);
+        Mockito.verify(taskPersister, Mockito.times(2)).checkpoint(checkpoints.capture());
+        TaskCheckpoint last = checkpoints.getValue();
+        Assert.assertEquals(last.getNodeName(), "pager");
+        Assert.assertEquals(last.getSequence(), 2);
+        Mockito.verify(taskPersister).suspend(Mockito.any(), Mockito.anyDouble(), Mockito.any(), Mockito.any());
+        Mockito.verify(taskPersister, Mockito.never()).clearCheckpoint(Mockito.anyString());
+
+        // The latest step only holds the first cursor, the retry resumes from the newer checkpoint.
+        task.setStatus(TaskStatus.PENDING.code());
+        task.setNextExecutionTime(0);
+        Mockito.when(taskPersister.get(task.getTaskId())).thenReturn(task.toString());
+        Mockito.when(taskPersister.retrieveData(task.getTaskId()))
+                .thenReturn(new StreamTransferData().add("primaryClass", String.class.getName())
+                        .add("Stream::Checkpoint::pager::page", 0));
+        Mockito.when(taskPersister.loadCheckpoint(task.getTaskId())).thenReturn(last);
+        new RetryRunner(task.getTaskId(), graphContext, taskPersister, pattern, null).run();
+
+        Assert.assertEquals(CheckpointActivity.PROCESSED, Arrays.asList(0, 1, 2, 3));
+        Mockito.verify(taskPersister).clearCheckpoint(task.getTaskId());
+        ArgumentCaptor<TaskStep> steps = ArgumentCaptor.forClass(TaskStep.class);
+        Mockito.verify(taskPersister).initiateOrUpdateTask(Mockito.any(), Mockito.eq(false), steps.capture());
+        StreamTransferData data = HessianIOSerializer.decode(steps.getValue().getStreamTransferData(),
+                StreamTransferData.class);
+        Assert.assertTrue(data.getObjects().keySet().stream().noneMatch(key -> key.contains("pager")));
+    }
+
+    @Test
+    public void testCheckpointNotLoadedWithoutMarker() {
+        Task task = Task.builder()
+                .application("testApplication")
+                .graphName("autoCheckpoint")
+                .nodeName("pager")
+                .jsonfiedPrimaryResource("\"resource\"")
+                .retryTimes(1)
+                .status(TaskStatus.PENDING.code())
+                .taskId(UUID.randomUUID().toString())
+                .build();
+        Mockito.when(taskPersister.tryLock(task.getTaskId())).thenReturn(true);
+        Mockito.when(taskPersister.get(task.getTaskId())).thenReturn(task.toString());
+        Mockito.when(taskPersister.retrieveData(task.getTaskId()))
+                .thenReturn(new StreamTransferData().add("primaryClass", String.class.getName()));
+        Mockito.when(pattern.getTimeInterval(Mockito.anyInt())).thenReturn(5000);
+
+        new RetryRunner(task.getTaskId(), graphContext, taskPersister, pattern, null).run();
+
+        Mockito.verify(taskPersister, Mockito.never()).loadCheckpoint(Mockito.anyString());
+        Assert.assertEquals(CheckpointActivity.PROCESSED, Arrays.asList(0, 1));
+    }
+}
@@ -0,0 +1,142 @@
+package org.stream.extension;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mockito.Mockito;
+import org.stream.extension.clients.MessageClient;
+import org.stream.extension.events.Event;
+import org.stream.extension.events.EventDispatcher;
+import org.stream.extension.events.Listener;
+import org.stream.extension.events.ListenerOptions;
+import org.stream.extension.events.ListenerRegistration;
+import org.stream.extension.events.ListenerRegistry;
+import org.stream.extension.io.HessianIOSerializer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class EventDispatcherTest {
+
+    public static class DispatchedEvent extends Event implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String type() {
+            return "Dispatched";
+        }
+    }
+
+    private ListenerRegistry registry;
+
+    private MessageClient messageClient;
+
+    private EventDispatcher eventDispatcher;
+
+    @BeforeMethod
+    public void BeforeMethod() {
+        registry = new ListenerRegistry();
+        messageClient = Mockito.mock(MessageClient.class);
+        eventDispatcher = new EventDispatcher();
+        eventDispatcher.setRegistry(registry);
+        eventDispatcher.setMessageClient(messageClient);
+        eventDispatcher.setScaleInterval(10);
+        eventDispatcher.setMaxWorkers(4);
+        eventDispatcher.setScaleUpBacklog(1);
+    }
+
+    @AfterMethod
+    public void AfterMethod() {
+        eventDispatcher.stop();
+    }
+
+    @Test
+    public void testRegistry() {
+        Listener first = event -> { };
+        Listener second = event -> { };
+        registry.register(DispatchedEvent.class, first, ListenerOptions.DEFAULT);
+        List<ListenerRegistration> snapshot = registry.getRegistrations(DispatchedEvent.class);
+        registry.register(DispatchedEvent.class, second, ListenerOptions.builder().ordered(true).build());
+
+        Assert.assertEquals(registry.getListeners(DispatchedEvent.class).size(), 2);
+        Assert.assertTrue(registry.isOrdered(DispatchedEvent.class));
+        Assert.assertTrue(registry.eventTypes().contains(DispatchedEvent.class));
+
+        // Iterating a snapshot is safe while the listeners are being removed.
+        for (ListenerRegistration registration : snapshot) {
+            registry.remove(registration.getListener());
+        }
+        Assert.assertEquals(registry.getListeners(DispatchedEvent.class).size(), 1);
+        Assert.assertFalse(registry.isOrdered(Event.class));
+        Assert.assertTrue(registry.getRegistrations(Event.class).isEmpty());
+    }
+
+    @Test
+    public void testDispatch() throws Exception {
+        DispatchedEvent event = new DispatchedEvent();
+        event.setTrigger("task");
+        List<Object> handled = new CopyOnWriteArrayList<>();
+        List<Listener> failed = new CopyOnWriteArrayList<>();
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(2);
+        registry.register(DispatchedEvent.class, e -> {
+            handled.add(e.getTrigger());
+            latch.countDown();
+        }, ListenerOptions.DEFAULT);
+        Listener failing = e -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException();
+        };
+        registry.register(DispatchedEvent.class, failing, ListenerOptions.DEFAULT);
+        eventDispatcher.setRetryDelay(10);
+        eventDispatcher.setFailureHandler((e, registration) -> {
+            failed.add(registration.getListener());
+            latch.countDown();
+        });
+        Mockito.when(messageClient.pullMessage("DispatchedEvent"))
+                .thenReturn(HessianIOSerializer.encode(event))
+                .thenReturn(null);
+        CountDownLatch consumed = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            consumed.countDown();
+            return true;
+        }).when(messageClient).markAsConsumed();
+
+        eventDispatcher.start();
+
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(consumed.await(5, TimeUnit.SECONDS));
+        Mockito.verify(messageClient).subscribe("DispatchedEvent");
+        // Only the failing listener is retried.
+        Assert.assertEquals(attempts.get(), 3);
+        Assert.assertEquals(handled, List.of("task"));
+        Assert.assertEquals(failed, List.of(failing));
+    }
+
+    @Test
+    public void testOrderedListenersServedByOneWorker() throws Exception {
+        registry.register(DispatchedEvent.class, e -> { }, ListenerOptions.builder().ordered(true).build());
+        Mockito.when(messageClient.backlog("DispatchedEvent")).thenReturn(100L);
+
+        eventDispatcher.start();
+        Thread.sleep(200);
+
+        Assert.assertEquals(eventDispatcher.workers(DispatchedEvent.class), 1);
+    }
+
+    @Test
+    public void testScaleUpWithBacklog() throws Exception {
+        registry.register(DispatchedEvent.class, e -> { }, ListenerOptions.DEFAULT);
+        Mockito.when(messageClient.backlog("DispatchedEvent")).thenReturn(100L);
+
+        eventDispatcher.start();
+        Thread.sleep(200);
+
+        Assert.assertEquals(eventDispatcher.workers(DispatchedEvent.class), 4);
+    }
+}
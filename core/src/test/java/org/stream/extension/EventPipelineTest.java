@@ -0,0 +1,177 @@
+package org.stream.extension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.stream.extension.EventDispatcherTest.DispatchedEvent;
+import org.stream.extension.clients.MessageClient;
+import org.stream.extension.events.Event;
+import org.stream.extension.events.EventPipeline;
+import org.stream.extension.events.MemoryEventCenter;
+import org.stream.extension.io.HessianIOSerializer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class EventPipelineTest {
+
+    // Message client failing the first attempts of every message.
+    private static class FlakyMessageClient implements MessageClient {
+
+        private final int failures;
+
+        private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+        private final Map<String, List<Long>> attempts = new ConcurrentHashMap<>();
+
+        FlakyMessageClient(final int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public boolean sendMessage(final String topic, final byte[] data) {
+            return sendMessage(topic, null, data);
+        }
+
+        @Override
+        public boolean sendMessage(final String topic, final String key, final byte[] data) {
+            DispatchedEvent event = HessianIOSerializer.decode(data, DispatchedEvent.class);
+            String trigger = event.getTrigger();
+            List<Long> times = attempts.computeIfAbsent(trigger, k -> new CopyOnWriteArrayList<>());
+            times.add(System.currentTimeMillis());
+            if (times.size() <= failures) {
+                return false;
+            }
+            delivered.add(trigger);
+            return true;
+        }
+
+        @Override
+        public void sendMessage(final String topic, final String key, final byte[] data, final Consumer<Exception> callback) {
+            callback.accept(sendMessage(topic, key, data) ? null : new IllegalStateException("Broker unavailable"));
+        }
+
+        @Override
+        public byte[] pullMessage(final String key) {
+            return null;
+        }
+
+        @Override
+        public boolean markAsConsumed() {
+            return true;
+        }
+    }
+
+    private static Event event(final String trigger) {
+        DispatchedEvent event = new DispatchedEvent();
+        event.setTrigger(trigger);
+        event.setTime(System.currentTimeMillis());
+        return event;
+    }
+
+    private static EventPipeline pipeline(final int capacity, final MessageClient messageClient) {
+        EventPipeline pipeline = new EventPipeline(capacity);
+        pipeline.setMessageClient(messageClient);
+        pipeline.setTopic("events");
+        pipeline.setBatchSize(3);
+        pipeline.setRetryBackoff(50);
+        return pipeline;
+    }
+
+    @Test
+    public void testBatchesDeliveredInOrder() throws Exception {
+        FlakyMessageClient messageClient = new FlakyMessageClient(0);
+        EventPipeline pipeline = pipeline(100, messageClient);
+        Thread worker = new Thread(pipeline.createWorker());
+        worker.start();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(pipeline.offer(event(String.valueOf(i))));
+        }
+        pipeline.shutdown(5000);
+        worker.join(5000);
+
+        Assert.assertEquals(pipeline.getSent().get(), 10L);
+        Assert.assertEquals(pipeline.backlog(), 0L);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(messageClient.delivered.get(i), String.valueOf(i));
+        }
+    }
+
+    @Test
+    public void testFailedEventsRetriedWithBackoff() {
+        FlakyMessageClient messageClient = new FlakyMessageClient(2);
+        EventPipeline pipeline = pipeline(100, messageClient);
+        pipeline.offer(event("a"));
+        pipeline.offer(event("b"));
+        pipeline.shutdown(5000);
+
+        Assert.assertEquals(pipeline.getSent().get(), 2L);
+        Assert.assertEquals(pipeline.getFailed().get(), 4L);
+        Assert.assertEquals(pipeline.getRetried().get(), 4L);
+        Assert.assertEquals(pipeline.getDropped().get(), 0L);
+        Assert.assertEquals(pipeline.retryBufferBytes(), 0L);
+        // The back off doubles after every failed attempt.
+        List<Long> times = messageClient.attempts.get("a");
+        Assert.assertEquals(times.size(), 3);
+        Assert.assertTrue(times.get(1) - times.get(0) >= 50);
+        Assert.assertTrue(times.get(2) - times.get(1) >= 100);
+    }
+
+    @Test
+    public void testEventDroppedAfterMaxAttempts() {
+        FlakyMessageClient messageClient = new FlakyMessageClient(Integer.MAX_VALUE);
+        EventPipeline pipeline = pipeline(100, messageClient);
+        pipeline.setMaxAttempts(2);
+        pipeline.offer(event("a"));
+        pipeline.shutdown(5000);
+
+        Assert.assertEquals(messageClient.attempts.get("a").size(), 2);
+        Assert.assertEquals(pipeline.getDropped().get(), 1L);
+        Assert.assertEquals(pipeline.backlog(), 0L);
+    }
+
+    @Test
+    public void testRetryBufferBounded() {
+        FlakyMessageClient messageClient = new FlakyMessageClient(1);
+        EventPipeline pipeline = pipeline(100, messageClient);
+        pipeline.setMaxRetryBufferBytes(1);
+        pipeline.offer(event("a"));
+        pipeline.shutdown(5000);
+
+        Assert.assertEquals(messageClient.attempts.get("a").size(), 1);
+        Assert.assertEquals(pipeline.getDropped().get(), 1L);
+        Assert.assertEquals(pipeline.getSent().get(), 0L);
+    }
+
+    @Test
+    public void testRejectedWhenFull() {
+        EventPipeline pipeline = pipeline(2, new FlakyMessageClient(0));
+        Assert.assertTrue(pipeline.offer(event("a")));
+        Assert.assertTrue(pipeline.offer(event("b")));
+        Assert.assertFalse(pipeline.offer(event("c")));
+
+        Assert.assertEquals(pipeline.getRejected().get(), 1L);
+        Assert.assertEquals(pipeline.backlog(), 2L);
+    }
+
+    @Test
+    public void testEventsFiredBeforeInitAreKept() {
+        FlakyMessageClient messageClient = new FlakyMessageClient(0);
+        MemoryEventCenter eventCenter = new MemoryEventCenter();
+        eventCenter.setKafkaClient(messageClient);
+        eventCenter.setTopic("events");
+        eventCenter.setSendOnly(true);
+        eventCenter.setCapacity(2);
+        eventCenter.fireEvent(event("a"));
+        eventCenter.fireEvent(event("b"));
+        eventCenter.fireEvent(event("c"));
+        Assert.assertEquals(eventCenter.getPipeline().backlog(), 2L);
+        Assert.assertEquals(eventCenter.getPipeline().getRejected().get(), 1L);
+
+        eventCenter.init();
+        eventCenter.getPipeline().shutdown(5000);
+        Assert.assertEquals(messageClient.delivered, List.of("a", "b"));
+    }
+}
@@ -0,0 +1,102 @@
+package org.stream.extension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.stream.extension.events.EventRingBuffer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class EventRingBufferTest {
+
+    @Test
+    public void testCapacityRoundedUp() {
+        Assert.assertEquals(new EventRingBuffer<Integer>(5).capacity(), 8);
+        Assert.assertEquals(new EventRingBuffer<Integer>(8).capacity(), 8);
+        Assert.assertEquals(new EventRingBuffer<Integer>(1).capacity(), 2);
+    }
+
+    @Test
+    public void testWrapAround() {
+        EventRingBuffer<Integer> ringBuffer = new EventRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                Assert.assertTrue(ringBuffer.publish(next++, 0));
+            }
+            Assert.assertEquals(ringBuffer.backlog(), 3);
+            Assert.assertEquals(ringBuffer.drainTo(drained, 2), 2);
+            Assert.assertEquals(ringBuffer.drainTo(drained, 10), 1);
+            Assert.assertEquals(ringBuffer.backlog(), 0);
+        }
+        for (int i = 0; i < next; i++) {
+            Assert.assertEquals(drained.get(i).intValue(), i);
+        }
+    }
+
+    @Test
+    public void testFullBuffer() {
+        EventRingBuffer<Integer> ringBuffer = new EventRingBuffer<>(2);
+        Assert.assertTrue(ringBuffer.publish(1, 0));
+        Assert.assertTrue(ringBuffer.publish(2, 0));
+
+        long start = System.nanoTime();
+        Assert.assertFalse(ringBuffer.publish(3, TimeUnit.MILLISECONDS.toNanos(5)));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(5));
+        Assert.assertEquals(ringBuffer.backlog(), 2);
+
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(ringBuffer.drainTo(drained, 1), 1);
+        Assert.assertTrue(ringBuffer.publish(3, 0));
+        Assert.assertEquals(ringBuffer.drainTo(drained, 10), 2);
+        Assert.assertEquals(drained, List.of(1, 2, 3));
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 20000;
+        EventRingBuffer<long[]> ringBuffer = new EventRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (long i = 0; i < perProducer; i++) {
+                        Assert.assertTrue(ringBuffer.publish(new long[] {producer, i}, TimeUnit.SECONDS.toNanos(10)));
+                    }
+                });
+            }
+            start.countDown();
+
+            // Every element is consumed once and the elements of each producer keep their order.
+            long[] expected = new long[producers];
+            List<long[]> batch = new ArrayList<>();
+            long consumed = 0;
+            long deadline = System.currentTimeMillis() + 30000;
+            while (consumed < (long) producers * perProducer && System.currentTimeMillis() < deadline) {
+                consumed += ringBuffer.drainTo(batch, 32);
+                for (long[] element : batch) {
+                    Assert.assertEquals(element[1], expected[(int) element[0]]++);
+                }
+                batch.clear();
+            }
+            Assert.assertEquals(consumed, (long) producers * perProducer);
+            Assert.assertEquals(ringBuffer.backlog(), 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
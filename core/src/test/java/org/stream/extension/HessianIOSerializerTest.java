@@ -2,7 +2,10 @@ package org.stream.extension;
 
 import static org.testng.Assert.assertEquals;
 
+import java.util.Arrays;
+
 import org.stream.extension.io.HessianIOSerializer;
+import org.stream.extension.io.ReusableHessianEncoder;
 import org.stream.extension.io.StreamTransferData;
 import org.testng.annotations.Test;
 
@@ -17,4 +20,26 @@ public class HessianIOSerializerTest {
         assertEquals(data.getActivityResult(), transferData.getActivityResult());
         assertEquals(data.get("primaryClass"), transferData.get("primaryClass"));
     }
+
+    @Test
+    public void testReusableEncoder() {
+        ReusableHessianEncoder encoder = new ReusableHessianEncoder(16);
+        StreamTransferData data = StreamTransferData.succeed();
+        data.add("primaryClass", String.class.getName());
+
+        // Each result is self contained, references of the previous objects are not carried over.
+        byte[] first = encoder.encode(data);
+        byte[] second = encoder.encode(data);
+        assertEquals(second, first);
+        assertEquals(first, HessianIOSerializer.encode(data));
+
+        // A huge object grows the buffer, the following small ones are still encoded correctly.
+        char[] huge = new char[2 << 20];
+        Arrays.fill(huge, 'a');
+        StreamTransferData big = StreamTransferData.succeed();
+        big.add("payload", new String(huge));
+        StreamTransferData decoded = HessianIOSerializer.decode(encoder.encode(big), StreamTransferData.class);
+        assertEquals(((String) decoded.get("payload")).length(), huge.length);
+        assertEquals(encoder.encode(data), first);
+    }
 }
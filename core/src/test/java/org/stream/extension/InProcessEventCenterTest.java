@@ -0,0 +1,117 @@
+package org.stream.extension;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.stream.extension.events.Event;
+import org.stream.extension.events.InProcessEventCenter;
+import org.stream.extension.events.ListenerOptions;
+import org.stream.extension.events.TaskCompleteEvent;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class InProcessEventCenterTest {
+
+    private InProcessEventCenter eventCenter;
+
+    @BeforeMethod
+    public void BeforeMethod() {
+        eventCenter = new InProcessEventCenter();
+        eventCenter.setCapacity(64);
+        eventCenter.setWorkers(4);
+        eventCenter.init();
+    }
+
+    @AfterMethod
+    public void AfterMethod() {
+        eventCenter.shutdown();
+    }
+
+    private static Event event(final Object trigger) {
+        return Event.of(TaskCompleteEvent.class, trigger, null);
+    }
+
+    @Test
+    public void testIdleConsumerWokenUp() throws Exception {
+        CountDownLatch handled = new CountDownLatch(1);
+        eventCenter.registerListener(TaskCompleteEvent.class, event -> handled.countDown());
+
+        // Let the consumer run dry and park.
+        Thread.sleep(50);
+        eventCenter.fireEvent(event("task"));
+
+        Assert.assertTrue(handled.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(eventCenter.getPublished().get(), 1L);
+    }
+
+    @Test
+    public void testOrderedListener() throws Exception {
+        int events = 1000;
+        // Wait for the consumer instead of dropping events when the buffer is full on a busy machine.
+        eventCenter.setPublishTimeout(10_000);
+        List<Object> received = new CopyOnWriteArrayList<>();
+        CountDownLatch handled = new CountDownLatch(events);
+        eventCenter.registerListener(TaskCompleteEvent.class, event -> {
+            received.add(event.getTrigger());
+            handled.countDown();
+        }, ListenerOptions.builder().ordered(true).build());
+
+        for (int i = 0; i < events; i++) {
+            eventCenter.fireEvent(event(i));
+        }
+
+        Assert.assertTrue(handled.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < events; i++) {
+            Assert.assertEquals(received.get(i), i);
+        }
+    }
+
+    @Test
+    public void testUnorderedListenersRunConcurrently() throws Exception {
+        // Both events have to be handled at the same time to pass the barrier.
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        AtomicInteger passed = new AtomicInteger();
+        eventCenter.registerListener(TaskCompleteEvent.class, event -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+                passed.incrementAndGet();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, ListenerOptions.builder().concurrency(2).build());
+
+        eventCenter.fireEvent(event("first"));
+        eventCenter.fireEvent(event("second"));
+        eventCenter.shutdown();
+
+        Assert.assertEquals(passed.get(), 2);
+        Assert.assertEquals(eventCenter.getFailed().get(), 0L);
+    }
+
+    @Test
+    public void testEventsWithoutListenersNotPublished() {
+        eventCenter.fireEvent(event("task"));
+
+        Assert.assertEquals(eventCenter.getPublished().get(), 0L);
+        Assert.assertEquals(eventCenter.backlog(), 0L);
+    }
+
+    @Test
+    public void testShutdownDrainsBacklog() {
+        AtomicInteger handled = new AtomicInteger();
+        eventCenter.registerListener(TaskCompleteEvent.class, event -> handled.incrementAndGet());
+        for (int i = 0; i < 100; i++) {
+            eventCenter.fireEvent(event(i));
+        }
+        eventCenter.shutdown();
+
+        Assert.assertEquals(handled.get() + eventCenter.getDropped().get(), 100L);
+        Assert.assertEquals(eventCenter.backlog(), 0L);
+    }
+}
@@ -0,0 +1,86 @@
+package org.stream.extension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.stream.core.component.ActivityResult;
+import org.stream.core.component.Graph;
+import org.stream.core.component.Node;
+import org.stream.extension.intercept.Interceptor;
+import org.stream.extension.intercept.InterceptorChain;
+import org.stream.extension.intercept.Interceptors;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class InterceptorsTest {
+
+    @AfterMethod
+    public void afterMethod() {
+        Interceptors.clear();
+    }
+
+    @Test
+    public void testChainsAreKeptPerGraph() {
+        List<String> calls = new ArrayList<>();
+        Interceptors.merge(Map.of("a", List.of(recording("a1", calls)), "b", List.of(recording("b1", calls))));
+        Interceptors.register(recording("a2", calls));
+
+        Graph a = graph("a");
+        Graph b = graph("b");
+        Node node = Node.builder().nodeName("node").graph(a).build();
+        Interceptors.before(node);
+        Interceptors.after(node, ActivityResult.SUCCESS);
+        Assert.assertEquals(calls, List.of("a1.before", "a2.before", "a1.after", "a2.after"));
+
+        calls.clear();
+        Interceptors.before(Node.builder().nodeName("node").graph(b).build());
+        Assert.assertEquals(calls, List.of("b1.before"));
+    }
+
+    @Test
+    public void testCachedChainRefreshedOnRegistration() {
+        Graph graph = graph("a");
+        InterceptorChain empty = Interceptors.chainOf(graph);
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertSame(Interceptors.chainOf(graph), empty);
+
+        List<String> calls = new ArrayList<>();
+        Interceptors.register(recording("a1", calls));
+        InterceptorChain chain = Interceptors.chainOf(graph);
+        Assert.assertFalse(chain.isEmpty());
+        Assert.assertSame(graph.getInterceptorChain(), chain);
+    }
+
+    private static Graph graph(final String name) {
+        Graph graph = new Graph();
+        graph.setGraphName(name);
+        return graph;
+    }
+
+    private static Interceptor recording(final String name, final List<String> calls) {
+        String target = name.substring(0, 1);
+        return new Interceptor() {
+            @Override
+            public void before(final Node currentNode) {
+                calls.add(name + ".before");
+            }
+
+            @Override
+            public void after(final Node currentNode, final ActivityResult activityResult) {
+                calls.add(name + ".after");
+            }
+
+            @Override
+            public void onError(final Node currentNode, final Throwable t) {
+                calls.add(name + ".onError");
+            }
+
+            @Override
+            public String targetGraph() {
+                return target;
+            }
+        };
+    }
+}
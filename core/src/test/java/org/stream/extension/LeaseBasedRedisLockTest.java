@@ -0,0 +1,149 @@
+package org.stream.extension;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.stream.core.execution.test.MockRedisClient;
+import org.stream.extension.clients.RedisClient;
+import org.stream.extension.lock.providers.LeaseBasedRedisLock;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LeaseBasedRedisLockTest {
+
+    private MockRedisClient redisClient;
+
+    private LeaseBasedRedisLock lock;
+
+    @BeforeMethod
+    public void BeforeMethod() {
+        redisClient = new MockRedisClient();
+        lock = lock(redisClient);
+    }
+
+    @AfterMethod
+    public void AfterMethod() {
+        lock.destroy();
+    }
+
+    private static LeaseBasedRedisLock lock(final RedisClient redisClient) {
+        LeaseBasedRedisLock lock = new LeaseBasedRedisLock();
+        lock.setRedisClient(redisClient);
+        lock.setLuaSupported(false);
+        return lock;
+    }
+
+    @Test
+    public void testFencingTokensPerLock() throws Exception {
+        String task = UUID.randomUUID().toString();
+        String other = UUID.randomUUID().toString();
+
+        assertTrue(lock.tryLock(task, (k, c) -> true));
+        assertEquals(lock.fencingToken(task), 1L);
+        assertTrue(lock.tryLock(task, (k, c) -> true));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Another thread of the process can not take the lease.
+            assertFalse(executor.submit(() -> lock.tryLock(task, (k, c) -> true)).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(lock.release(task));
+        assertTrue(lock.tryLock(task, (k, c) -> true));
+        assertEquals(lock.fencingToken(task), 2L);
+
+        // Tokens are counted per lock, not by a global counter.
+        assertTrue(lock.tryLock(other, (k, c) -> true));
+        assertEquals(lock.fencingToken(other), 1L);
+    }
+
+    @Test
+    public void testLostLeaseIsNotLegible() {
+        String task = UUID.randomUUID().toString();
+        assertTrue(lock.isLegibleOwner(task));
+        assertTrue(lock.tryLock(task, (k, c) -> true));
+
+        // The lock expired and this process forgot about the lease.
+        redisClient.del(task + "_lock");
+        LeaseBasedRedisLock restarted = lock(redisClient);
+        assertFalse(restarted.isLegibleOwner(task));
+        assertEquals(restarted.fencingToken(task), 0L);
+    }
+
+    @Test
+    public void testRenewInBatch() throws Exception {
+        String kept = UUID.randomUUID().toString();
+        String lost = UUID.randomUUID().toString();
+        assertTrue(lock.tryLock(kept, (k, c) -> true));
+        assertTrue(lock.tryLock(lost, (k, c) -> true));
+        redisClient.set(lost + "_lock", "grabbed by others");
+
+        lock.setRenewInterval(20);
+        lock.init();
+        Thread.sleep(200);
+
+        assertEquals(lock.leases(), 1);
+        assertTrue(lock.isLegibleOwner(kept));
+        assertFalse(lock.isLegibleOwner(lost));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testAcquireByScript() {
+        RedisClient client = Mockito.mock(RedisClient.class);
+        Mockito.when(client.eval(Mockito.anyString(), Mockito.anyList(), Mockito.anyList())).thenReturn(5L, 0L);
+        LeaseBasedRedisLock scripted = lock(client);
+        scripted.setLuaSupported(true);
+
+        assertTrue(scripted.tryLock("task", (k, c) -> true));
+        assertEquals(scripted.fencingToken("task"), 5L);
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass((Class) List.class);
+        Mockito.verify(client).eval(Mockito.anyString(), keys.capture(), Mockito.anyList());
+        assertEquals(keys.getValue(), List.of("task_lock", "{task_lock}_fencing"));
+        Mockito.verify(client, Mockito.never()).incr(Mockito.anyString());
+
+        assertFalse(scripted.tryLock("other", (k, c) -> true));
+        scripted.destroy();
+    }
+
+    @Test
+    public void testFencingCounterExpires() {
+        String task = UUID.randomUUID().toString();
+        lock.setTokenRetention(3600 * 1000L);
+        assertTrue(lock.tryLock(task, (k, c) -> true));
+
+        Long expireTime = redisClient.expireTime("{" + task + "_lock}_fencing");
+        assertNotNull(expireTime);
+        assertTrue(expireTime > System.currentTimeMillis() + 3500 * 1000L);
+    }
+
+    @Test
+    public void testReleaseKeepsLockGrabbedByOthers() {
+        String task = UUID.randomUUID().toString();
+        assertTrue(lock.tryLock(task, (k, c) -> true));
+        redisClient.set(task + "_lock", "grabbed by others");
+
+        assertFalse(lock.release(task));
+        assertEquals(redisClient.get(task + "_lock"), "grabbed by others");
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testLuaWithoutScriptSupportFailsFast() {
+        // The mock client does not support lua scripts.
+        lock.setLuaSupported(true);
+        lock.init();
+    }
+}
@@ -0,0 +1,80 @@
+package org.stream.extension;
+
+import java.util.List;
+
+import org.stream.core.component.ActivityResult;
+import org.stream.extension.metrics.Counter;
+import org.stream.extension.metrics.Histogram;
+import org.stream.extension.metrics.MetricId;
+import org.stream.extension.metrics.MetricsRegistry;
+import org.stream.extension.metrics.StreamMetrics;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testMetersAreSharedByIdentity() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("requests", "graph", "a", "node", "b");
+        Assert.assertSame(registry.counter("requests", "node", "b", "graph", "a"), counter);
+        counter.increment();
+        counter.add(2);
+        Assert.assertEquals(counter.count(), 3);
+        Assert.assertEquals(counter.getId().toString(), "requests{graph=a,node=b}");
+        Assert.assertSame(registry.find(MetricId.of("requests", "graph", "a", "node", "b")), counter);
+    }
+
+    @Test
+    public void testRemovedNodesMetersEvicted() {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        StreamMetrics.recordNode("testRemovedNodesMetersEvicted", "kept", ActivityResult.SUCCESS, 1000);
+        StreamMetrics.recordNode("testRemovedNodesMetersEvicted", "removed", ActivityResult.FAIL, 1000);
+        StreamMetrics.recordNode("another", "removed", ActivityResult.SUCCESS, 1000);
+        MetricId removed = MetricId.of(StreamMetrics.NODE_LATENCY, "graph", "testRemovedNodesMetersEvicted", "node", "removed");
+        Assert.assertNotNull(registry.find(removed));
+
+        StreamMetrics.retainNodes("testRemovedNodesMetersEvicted", List.of("kept"));
+
+        Assert.assertNull(registry.find(removed));
+        Assert.assertNull(registry.find(MetricId.of(StreamMetrics.NODE_FAILURES, "graph", "testRemovedNodesMetersEvicted", "node", "removed")));
+        Assert.assertNotNull(registry.find(MetricId.of(StreamMetrics.NODE_LATENCY, "graph", "testRemovedNodesMetersEvicted", "node", "kept")));
+        Assert.assertNotNull(registry.find(MetricId.of(StreamMetrics.NODE_LATENCY, "graph", "another", "node", "removed")));
+        Assert.assertEquals(MetricId.of("requests", "node", "b", "graph", "a").tag("graph"), "a");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMeterTypeConflict() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("conflict");
+        registry.histogram("conflict");
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new MetricsRegistry().histogram("latency");
+        for (long i = 1; i <= 10000; i++) {
+            histogram.record(i * 1000);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(snapshot.getCount(), 10000);
+        Assert.assertEquals(snapshot.getMax(), 10_000_000L);
+        assertWithin(snapshot.percentile(0.5), 5_000_000L);
+        assertWithin(snapshot.percentile(0.99), 9_900_000L);
+        Assert.assertEquals(snapshot.percentile(1.0), 10_000_000L);
+    }
+
+    @Test
+    public void testGaugeSampledOnDemand() {
+        MetricsRegistry registry = new MetricsRegistry();
+        long[] value = {1};
+        registry.gauge("size", () -> value[0]);
+        value[0] = 42;
+        Assert.assertEquals(registry.gauge("size", () -> value[0] * 2).value(), 84.0);
+        Assert.assertEquals(registry.getMeters().size(), 1);
+    }
+
+    private static void assertWithin(final long actual, final long expected) {
+        Assert.assertTrue(actual >= expected && actual <= expected * 1.0625, actual + " vs " + expected);
+    }
+}
@@ -0,0 +1,47 @@
+package org.stream.extension;
+
+import static org.testng.Assert.assertEquals;
+
+import org.stream.extension.clients.OffsetTracker;
+import org.testng.annotations.Test;
+
+public class OffsetTrackerTest {
+
+    @Test
+    public void testContiguousCommit() {
+        OffsetTracker tracker = new OffsetTracker();
+        tracker.track(10);
+        tracker.track(11);
+        tracker.track(12);
+        assertEquals(tracker.poll(), 10L);
+
+        tracker.complete(11);
+        assertEquals(tracker.poll(), -1L);
+
+        tracker.complete(10);
+        assertEquals(tracker.poll(), 12L);
+        assertEquals(tracker.pendingCount(), 1);
+
+        tracker.complete(12);
+        assertEquals(tracker.poll(), 13L);
+        assertEquals(tracker.poll(), -1L);
+    }
+
+    @Test
+    public void testFailedCommitPolledAgain() {
+        OffsetTracker tracker = new OffsetTracker();
+        tracker.track(0);
+        tracker.complete(0);
+        assertEquals(tracker.poll(), 1L);
+        // Being committed, not returned twice.
+        assertEquals(tracker.poll(), -1L);
+
+        tracker.failed(1);
+        assertEquals(tracker.committed(), -1L);
+        assertEquals(tracker.poll(), 1L);
+
+        tracker.committed(1);
+        assertEquals(tracker.committed(), 1L);
+        assertEquals(tracker.poll(), -1L);
+    }
+}
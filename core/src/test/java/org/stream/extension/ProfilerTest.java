@@ -0,0 +1,87 @@
+package org.stream.extension;
+
+import java.util.Arrays;
+
+import org.stream.core.component.Graph;
+import org.stream.core.component.Node;
+import org.stream.core.execution.NextSteps;
+import org.stream.extension.profile.GraphProfile;
+import org.stream.extension.profile.Profiler;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ProfilerTest {
+
+    private Graph graph;
+    private Graph subGraph;
+    private Node start;
+    private Node slow;
+    private Node fast;
+    private Node sub;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        graph = new Graph();
+        graph.setGraphName("profiled");
+        subGraph = new Graph();
+        subGraph.setGraphName("profiledSub");
+        start = node(graph, "start");
+        slow = node(graph, "slow");
+        fast = node(graph, "fast");
+        sub = node(subGraph, "sub");
+        NextSteps next = new NextSteps();
+        next.setSuccess(slow);
+        next.setFail(fast);
+        start.setNext(next);
+        graph.setNodes(Arrays.asList(start, slow, fast));
+        graph.setStartNode(start);
+        Profiler.setEnabled(true);
+        Profiler.reset();
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        Profiler.setEnabled(false);
+    }
+
+    @Test
+    public void testReportAndFoldedStacks() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            run(start, 1);
+            run(slow, 20);
+            run(fast, 1);
+        }
+        boolean token = Profiler.enterSubflow(start);
+        run(sub, 5);
+        Profiler.exitSubflow(token);
+
+        GraphProfile profile = Profiler.report(graph);
+        Assert.assertEquals(profile.getNodes().get("slow").getExecutions(), 3);
+        Assert.assertTrue(profile.getNodes().get("slow").getP99Wall() >= 20_000_000L);
+        Assert.assertEquals(profile.getNodes().get("start").getSubflowInvocations(), 1);
+        Assert.assertEquals(profile.getCriticalPath(), Arrays.asList("start", "slow"));
+
+        String folded = Profiler.folded();
+        Assert.assertTrue(folded.contains("profiled;slow "));
+        Assert.assertTrue(folded.contains("profiled;start;profiledSub;sub "));
+    }
+
+    @Test
+    public void testDisabledProfilerRecordsNothing() throws Exception {
+        Profiler.setEnabled(false);
+        Assert.assertFalse(Profiler.enter(start));
+        Assert.assertTrue(Profiler.report(graph).getNodes().isEmpty());
+    }
+
+    private static void run(final Node node, final long millis) throws InterruptedException {
+        boolean token = Profiler.enter(node);
+        Thread.sleep(millis);
+        Profiler.exit(token);
+    }
+
+    private static Node node(final Graph graph, final String name) {
+        return Node.builder().nodeName(name).graph(graph).build();
+    }
+}
@@ -0,0 +1,91 @@
+package org.stream.extension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.stream.core.resource.Resource;
+import org.stream.extension.memo.Fingerprints;
+import org.stream.extension.memo.MemoizationConfiguration;
+import org.stream.extension.memo.ResultMemoizer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ResultMemoizerTest {
+
+    private static ResultMemoizer<String> memoizer() {
+        MemoizationConfiguration configuration = new MemoizationConfiguration();
+        configuration.setMaxSize(2);
+        return new ResultMemoizer<>("test", configuration);
+    }
+
+    @Test
+    public void testMemoize() {
+        ResultMemoizer<String> memoizer = memoizer();
+        AtomicInteger calls = new AtomicInteger();
+        Assert.assertEquals(memoizer.memoize("a", () -> "v" + calls.incrementAndGet(), value -> true), "v1");
+        Assert.assertEquals(memoizer.memoize("a", () -> "v" + calls.incrementAndGet(), value -> true), "v1");
+        Assert.assertEquals(calls.get(), 1);
+
+        // Uncacheable results are returned but not kept.
+        Assert.assertEquals(memoizer.memoize("b", () -> "v" + calls.incrementAndGet(), value -> false), "v2");
+        Assert.assertEquals(memoizer.memoize("b", () -> "v" + calls.incrementAndGet(), value -> true), "v3");
+
+        // No key, no memoization.
+        Assert.assertEquals(memoizer.memoize(null, () -> "v" + calls.incrementAndGet(), value -> true), "v4");
+        Assert.assertEquals(memoizer.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testExceptionPropagated() {
+        memoizer().memoize("a", () -> {
+            throw new IllegalStateException();
+        }, value -> true);
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        ResultMemoizer<String> memoizer = memoizer();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> memoizer.memoize("a", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "leader";
+            }, value -> true));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> memoizer.memoize("a", () -> {
+                calls.incrementAndGet();
+                return "follower";
+            }, value -> true));
+            Thread.sleep(100);
+            release.countDown();
+            Assert.assertEquals(leader.get(5, TimeUnit.SECONDS), "leader");
+            Assert.assertEquals(follower.get(5, TimeUnit.SECONDS), "leader");
+            Assert.assertEquals(calls.get(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFingerprints() {
+        Resource first = Resource.builder().resourceReference("a").value("primary").build();
+        Resource second = Resource.builder().resourceReference("b").value("primary").build();
+        Resource third = Resource.builder().resourceReference("a").value("other").build();
+        Assert.assertEquals(Fingerprints.of(first), Fingerprints.of(second));
+        Assert.assertNotEquals(Fingerprints.of(first), Fingerprints.of(third));
+        Assert.assertNull(Fingerprints.of(null));
+    }
+}
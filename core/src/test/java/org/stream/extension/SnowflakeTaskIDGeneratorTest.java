@@ -0,0 +1,76 @@
+package org.stream.extension;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.stream.extension.persist.QueueHelper;
+import org.stream.extension.utils.SnowflakeTaskIDGenerator;
+import org.stream.extension.utils.TimeIncreasedTaskIDGenerator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SnowflakeTaskIDGeneratorTest {
+
+    @Test
+    public void testIdsAreOrderedAndUnique() {
+        SnowflakeTaskIDGenerator generator = new SnowflakeTaskIDGenerator(5);
+        Set<String> ids = new HashSet<>();
+        String previous = "";
+        for (int i = 0; i < 100000; i++) {
+            String id = generator.generateTaskID(null);
+            Assert.assertEquals(id.length(), SnowflakeTaskIDGenerator.LENGTH);
+            Assert.assertTrue(id.compareTo(previous) > 0);
+            Assert.assertTrue(ids.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    public void testDecode() {
+        long before = System.currentTimeMillis();
+        SnowflakeTaskIDGenerator generator = new SnowflakeTaskIDGenerator(1023);
+        long id = generator.nextId();
+        String text = SnowflakeTaskIDGenerator.encode(id);
+        Assert.assertTrue(SnowflakeTaskIDGenerator.isSnowflakeId(text));
+        Assert.assertEquals(SnowflakeTaskIDGenerator.decode(text), id);
+        Assert.assertEquals(SnowflakeTaskIDGenerator.workerId(id), 1023);
+        Assert.assertTrue(SnowflakeTaskIDGenerator.timestamp(id) >= before);
+        Assert.assertTrue(SnowflakeTaskIDGenerator.timestamp(id) <= System.currentTimeMillis() + 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidWorkerId() {
+        new SnowflakeTaskIDGenerator(1024);
+    }
+
+    @Test
+    public void testQueueIndex() {
+        SnowflakeTaskIDGenerator generator = new SnowflakeTaskIDGenerator(3);
+        boolean[] used = new boolean[QueueHelper.DEFAULT_QUEUES];
+        for (int i = 0; i < 1000; i++) {
+            int queue = QueueHelper.getQueueIndexFromTaskID(generator.generateTaskID(null));
+            Assert.assertTrue(queue >= 0 && queue < QueueHelper.DEFAULT_QUEUES);
+            used[queue] = true;
+        }
+        for (boolean queue : used) {
+            Assert.assertTrue(queue);
+        }
+
+        // Legacy ids keep their queues.
+        String uuid = "5d1c0b9e-8f7a-4c1e-9d3b-2a6f4e8c7b10";
+        Assert.assertFalse(SnowflakeTaskIDGenerator.isSnowflakeId(uuid));
+        Assert.assertEquals(QueueHelper.getQueueIndexFromTaskID(uuid), Math.abs(uuid.hashCode() % QueueHelper.DEFAULT_QUEUES));
+    }
+
+    @Test
+    public void testTimeIncreasedIds() {
+        TimeIncreasedTaskIDGenerator generator = new TimeIncreasedTaskIDGenerator();
+        String previous = "";
+        for (int i = 0; i < 5000; i++) {
+            String id = generator.generateTaskID(null);
+            Assert.assertEquals(id.length(), 26);
+            Assert.assertTrue(id.compareTo(previous) > 0);
+            previous = id;
+        }
+    }
+}
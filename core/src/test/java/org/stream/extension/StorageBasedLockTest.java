@@ -0,0 +1,123 @@
+package org.stream.extension;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.stream.extension.lock.providers.StorageBasedLock;
+import org.stream.extension.meta.TaskLock;
+import org.stream.extension.persist.TaskLockStorage;
+import org.stream.extension.settings.Settings;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class StorageBasedLockTest {
+
+    private StorageBasedLock lock;
+
+    private MemoryTaskLockStorage storage;
+
+    @BeforeMethod
+    public void BeforeMethod() {
+        storage = new MemoryTaskLockStorage();
+        lock = new StorageBasedLock();
+        lock.setTaskLockStorage(storage);
+    }
+
+    @Test
+    public void testTryLock() throws Exception {
+        assertTrue(lock.tryLock("task1", (k, t) -> true));
+        assertTrue(lock.isLegibleOwner("task1"));
+        assertEquals(lock.fencingToken("task1"), 0L);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertFalse(executor.submit(() -> lock.tryLock("task1", (k, c) -> true)).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(lock.release("task1"));
+        assertTrue(lock.tryLock("task1", (k, c) -> true));
+        assertEquals(lock.fencingToken("task1"), 2L);
+    }
+
+    @Test
+    public void testLegibleOwner() {
+        assertFalse(lock.isLegibleOwner("task6"));
+
+        String owner = Settings.HOST_NAME + "_" + Thread.currentThread().getName();
+        storage.initiate(TaskLock.builder().taskId("task7").owner(Settings.HOST_NAME + "_other").expireTime(Long.MAX_VALUE).build());
+        storage.initiate(TaskLock.builder().taskId("task8").owner(owner).expireTime(1).build());
+        storage.initiate(TaskLock.builder().taskId("task9").owner(owner).expireTime(Long.MAX_VALUE).build());
+        assertFalse(lock.isLegibleOwner("task7"));
+        assertFalse(lock.isLegibleOwner("task8"));
+        assertTrue(lock.isLegibleOwner("task9"));
+    }
+
+        @Test
+    public void testTryLockAll() {
+        storage.initiate(TaskLock.builder().taskId("task2").version(3).owner("other").expireTime(Long.MAX_VALUE).build());
+        storage.initiate(TaskLock.builder().taskId("task3").version(5).build());
+        Set<String> locked = lock.tryLockAll(Arrays.asList("task2", "task3", "task4"), (k, c) -> true);
+        assertEquals(locked.size(), 2);
+        assertTrue(locked.contains("task3"));
+        assertTrue(locked.contains("task4"));
+        assertEquals(lock.fencingToken("task3"), 6L);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testLegacyStorageFailsExplicitly() {
+        TaskLockStorage legacy = new TaskLockStorage() {
+            @Override
+            public int initiate(final TaskLock taskLock) {
+                return 1;
+            }
+
+            @Override
+            public boolean tryLock(final String taskId, final int version) {
+                return true;
+            }
+        };
+        lock.setTaskLockStorage(legacy);
+        lock.tryLock("task5", (k, c) -> true);
+    }
+
+    private static class MemoryTaskLockStorage implements TaskLockStorage {
+
+        private final Map<String, TaskLock> locks = new ConcurrentHashMap<>();
+
+        @Override
+        public int initiate(final TaskLock taskLock) {
+            return locks.putIfAbsent(taskLock.getTaskId(), taskLock) == null ? 1 : 0;
+        }
+
+        @Override
+        public boolean tryLock(final String taskId, final int version) {
+            return false;
+        }
+
+        @Override
+        public TaskLock query(final String taskId) {
+            return locks.get(taskId);
+        }
+
+        @Override
+        public synchronized boolean compareAndSet(final TaskLock taskLock) {
+            TaskLock current = locks.get(taskLock.getTaskId());
+            if (current == null || current.getVersion() != taskLock.getVersion() - 1) {
+                return false;
+            }
+            locks.put(taskLock.getTaskId(), taskLock);
+            return true;
+        }
+    }
+}
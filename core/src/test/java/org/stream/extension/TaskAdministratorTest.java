@@ -0,0 +1,136 @@
+package org.stream.extension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.stream.extension.admin.BulkProgress;
+import org.stream.extension.admin.TaskAdministrator;
+import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskQuery;
+import org.stream.extension.meta.TaskStatus;
+import org.stream.extension.persist.TaskPersister;
+import org.stream.extension.persist.TaskStepStorage;
+import org.stream.extension.persist.TaskStorage;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TaskAdministratorTest {
+
+    @InjectMocks
+    private TaskAdministrator taskAdministrator;
+
+    @Mock
+    private TaskPersister taskPersister;
+
+    @Mock
+    private TaskStorage taskStorage;
+
+    @Mock
+    private TaskStepStorage taskStepStorage;
+
+    @BeforeMethod
+    public void BeforeMethod() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(taskPersister.tryLock(Mockito.anyString())).thenReturn(true);
+        Mockito.when(taskPersister.reschedule(Mockito.any(), Mockito.anyLong())).thenReturn(true);
+        Mockito.when(taskStorage.update(Mockito.any())).thenReturn(true);
+    }
+
+    private Task task(final String taskId, final int status) {
+        Task task = Task.builder().taskId(taskId).graphName("graph").nodeName("node").status(status).build();
+        Mockito.when(taskStorage.query(taskId)).thenReturn(task);
+        return task;
+    }
+
+    @Test
+    public void testReRunTasksPageByPage() {
+        // Create the tasks before stubbing the query, task() stubs the storage itself.
+        List<Task> first = Arrays.asList(task("a", TaskStatus.FAILED.code()), task("b", TaskStatus.COMPLETED.code()));
+        List<Task> second = Collections.singletonList(task("c", TaskStatus.FAILED.code()));
+        Mockito.when(taskStorage.queryTasks(Mockito.any())).thenReturn(first, second);
+
+        List<Long> pages = new ArrayList<>();
+        TaskQuery query = TaskQuery.builder().graphName("graph").limit(2).build();
+        BulkProgress progress = taskAdministrator.reRunTasks(query, 1000, current -> pages.add(current.getScanned()));
+
+        Assert.assertEquals(progress.getScanned(), 3);
+        Assert.assertEquals(progress.getSucceeded(), 2);
+        Assert.assertEquals(progress.getSkipped(), 1);
+        Assert.assertEquals(progress.getPages(), 2);
+        Assert.assertEquals(progress.getLastTaskId(), "c");
+        Assert.assertEquals(pages, Arrays.asList(2L, 3L));
+
+        ArgumentCaptor<TaskQuery> captor = ArgumentCaptor.forClass(TaskQuery.class);
+        Mockito.verify(taskStorage, Mockito.times(2)).queryTasks(captor.capture());
+        Assert.assertNull(captor.getAllValues().get(0).getAfterTaskId());
+        Assert.assertEquals(captor.getAllValues().get(1).getAfterTaskId(), "b");
+
+        ArgumentCaptor<Task> rescheduled = ArgumentCaptor.forClass(Task.class);
+        Mockito.verify(taskPersister, Mockito.times(2)).reschedule(rescheduled.capture(), Mockito.anyLong());
+        Assert.assertEquals(rescheduled.getValue().getStatus(), TaskStatus.PENDING.code());
+        Mockito.verify(taskPersister, Mockito.times(2)).clearCheckpoint(Mockito.anyString());
+        Mockito.verify(taskPersister, Mockito.times(2)).releaseLock(Mockito.anyString());
+    }
+
+    @Test
+    public void testCancelStopsWhenListenerAsks() {
+        List<Task> tasks = Arrays.asList(task("a", TaskStatus.PENDING.code()), task("b", TaskStatus.PENDING.code()));
+        Mockito.when(taskStorage.queryTasks(Mockito.any())).thenReturn(tasks);
+        Mockito.when(taskPersister.tryLock("b")).thenReturn(false);
+
+        BulkProgress progress = taskAdministrator.cancelTasks(TaskQuery.builder().limit(2).build(), 1000, current -> false);
+
+        Assert.assertEquals(progress.getSucceeded(), 1);
+        Assert.assertEquals(progress.getSkipped(), 1);
+        Mockito.verify(taskStorage, Mockito.times(1)).queryTasks(Mockito.any());
+        Mockito.verify(taskPersister).removeHub("a");
+        Assert.assertEquals(tasks.get(0).getStatus(), TaskStatus.CANCELLED.code());
+    }
+
+    @Test
+    public void testMoveTasksWithFilter() {
+        List<Task> tasks = Arrays.asList(task("a", TaskStatus.FAILED.code()), task("b", TaskStatus.FAILED.code()));
+        Mockito.when(taskStorage.queryTasks(Mockito.any())).thenReturn(tasks);
+
+        TaskQuery query = TaskQuery.builder().filter(task -> "a".equals(task.getTaskId())).build();
+        BulkProgress progress = taskAdministrator.moveTasks(query, "target", 1000, null);
+
+        Assert.assertEquals(progress.getSucceeded(), 1);
+        Assert.assertEquals(tasks.get(0).getNodeName(), "target");
+        Assert.assertEquals(tasks.get(1).getNodeName(), "node");
+    }
+
+    @Test
+    public void testQueuesRestoredWhenNotApplied() {
+        Task pending = task("a", TaskStatus.PENDING.code());
+        Task failed = task("b", TaskStatus.FAILED.code());
+        Mockito.when(taskStorage.queryTasks(Mockito.any())).thenReturn(Arrays.asList(pending, failed), Collections.emptyList());
+        Mockito.when(taskPersister.reschedule(Mockito.any(), Mockito.anyLong())).thenReturn(false);
+        // Task b completed since the page was queried.
+        Task completed = Task.builder().taskId("b").status(TaskStatus.COMPLETED.code()).build();
+        Mockito.when(taskStorage.query("b")).thenReturn(completed);
+
+        BulkProgress progress = taskAdministrator.reRunTasks(TaskQuery.builder().limit(2).build(), 1000, null);
+
+        Assert.assertEquals(progress.getFailed(), 1);
+        Assert.assertEquals(progress.getSkipped(), 1);
+        Mockito.verify(taskPersister).restore(pending);
+        Mockito.verify(taskPersister).restore(completed);
+        Mockito.verify(taskPersister, Mockito.times(2)).releaseLock(Mockito.anyString());
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testUnsupportedQueryFailsLoudly() {
+        Mockito.when(taskStorage.queryTasks(Mockito.any())).thenThrow(new UnsupportedOperationException());
+
+        taskAdministrator.reRunTasks(TaskQuery.builder().build(), 1000, null);
+    }
+}
@@ -0,0 +1,171 @@
+package org.stream.extension;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskStatus;
+import org.stream.extension.meta.TaskStep;
+import org.stream.extension.persist.TaskArchiver;
+import org.stream.extension.persist.TaskPersister;
+import org.stream.extension.persist.TaskStepStorage;
+import org.stream.extension.persist.TaskStorage;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TaskArchiverTest {
+
+    private TaskArchiver taskArchiver;
+
+    @Mock
+    private TaskStorage hotTaskStorage;
+
+    @Mock
+    private TaskStorage archiveTaskStorage;
+
+    @Mock
+    private TaskStepStorage hotTaskStepStorage;
+
+    @Mock
+    private TaskStepStorage archiveTaskStepStorage;
+
+    @Mock
+    private TaskPersister taskPersister;
+
+    @BeforeMethod
+    public void BeforeMethod() {
+        MockitoAnnotations.initMocks(this);
+        taskArchiver = new TaskArchiver();
+        taskArchiver.setHotTaskStorage(hotTaskStorage);
+        taskArchiver.setArchiveTaskStorage(archiveTaskStorage);
+        taskArchiver.setHotTaskStepStorage(hotTaskStepStorage);
+        taskArchiver.setArchiveTaskStepStorage(archiveTaskStepStorage);
+        taskArchiver.setTaskPersister(taskPersister);
+        taskArchiver.setBatchSize(10);
+        Mockito.when(taskPersister.tryLock(Mockito.anyString())).thenReturn(true);
+    }
+
+    @Test
+    public void testArchive() {
+        Task completed = task("completed", TaskStatus.COMPLETED.code());
+        Task running = task("running", TaskStatus.PENDING.code());
+        List<TaskStep> steps = Collections.singletonList(new TaskStep());
+        Mockito.when(hotTaskStorage.queryCompletedTasks(Mockito.anyLong(), Mockito.isNull(String.class), Mockito.eq(10)))
+                .thenReturn(Arrays.asList(completed, running));
+        Mockito.when(hotTaskStepStorage.getByTaskId("completed")).thenReturn(steps);
+        // Storages may answer null for a task without archived steps.
+        Mockito.when(archiveTaskStepStorage.getByTaskId("completed")).thenReturn(null);
+        Mockito.when(archiveTaskStepStorage.batchInsert(steps)).thenReturn(true);
+        Mockito.when(archiveTaskStorage.persist(completed)).thenReturn(true);
+        Mockito.when(hotTaskStorage.delete("completed")).thenReturn(true);
+        Mockito.when(hotTaskStepStorage.deleteByTaskId("completed")).thenReturn(true);
+
+        assertEquals(taskArchiver.archive(), 1);
+        assertEquals(taskArchiver.getArchivedTasks().get(), 1L);
+        Mockito.verify(hotTaskStorage).delete("completed");
+        Mockito.verify(hotTaskStorage, Mockito.never()).delete("running");
+        Mockito.verify(taskPersister).restore(completed);
+        Mockito.verify(taskPersister).releaseLock("completed");
+        Mockito.verify(taskPersister, Mockito.never()).tryLock("running");
+    }
+
+    @Test
+    public void testArchiveStepsFailed() {
+        Task completed = task("completed", TaskStatus.FAILED.code());
+        List<TaskStep> steps = Collections.singletonList(new TaskStep());
+        Mockito.when(hotTaskStorage.queryCompletedTasks(Mockito.anyLong(), Mockito.isNull(String.class), Mockito.eq(10)))
+                .thenReturn(Collections.singletonList(completed));
+        Mockito.when(hotTaskStepStorage.getByTaskId("completed")).thenReturn(steps);
+        Mockito.when(archiveTaskStepStorage.batchInsert(steps)).thenReturn(false);
+
+        assertEquals(taskArchiver.archive(), 0);
+        assertEquals(taskArchiver.getFailedTasks().get(), 1L);
+        Mockito.verify(archiveTaskStorage, Mockito.never()).persist(completed);
+        Mockito.verify(hotTaskStorage, Mockito.never()).delete("completed");
+    }
+
+    @Test
+    public void testArchiveIdempotent() {
+        Task completed = task("completed", TaskStatus.COMPLETED.code());
+        TaskStep archived = TaskStep.builder().taskId("completed").id(1).build();
+        TaskStep missing = TaskStep.builder().taskId("completed").id(2).build();
+        Mockito.when(hotTaskStorage.queryCompletedTasks(Mockito.anyLong(), Mockito.isNull(String.class), Mockito.eq(10)))
+                .thenReturn(Collections.singletonList(completed));
+        Mockito.when(hotTaskStepStorage.getByTaskId("completed")).thenReturn(Arrays.asList(archived, missing));
+        // The previous round archived the first step and broke.
+        Mockito.when(archiveTaskStepStorage.getByTaskId("completed")).thenReturn(Collections.singletonList(archived));
+        Mockito.when(archiveTaskStepStorage.batchInsert(Mockito.anyList())).thenReturn(true);
+        Mockito.when(archiveTaskStorage.query("completed")).thenReturn(completed);
+        Mockito.when(archiveTaskStorage.update(completed)).thenReturn(true);
+        Mockito.when(hotTaskStepStorage.deleteByTaskId("completed")).thenReturn(false);
+
+        assertEquals(taskArchiver.archive(), 0);
+        Mockito.verify(archiveTaskStepStorage).batchInsert(Collections.singletonList(missing));
+        Mockito.verify(archiveTaskStorage, Mockito.never()).persist(completed);
+        // The steps are not deleted, the task stays in the hot storage to be retried.
+        Mockito.verify(hotTaskStorage, Mockito.never()).delete("completed");
+    }
+
+    @Test
+    public void testHotStorageNotQueryable() {
+        Mockito.when(hotTaskStorage.queryCompletedTasks(Mockito.anyLong(), Mockito.anyString(), Mockito.anyInt()))
+                .thenThrow(new UnsupportedOperationException());
+
+        assertEquals(taskArchiver.archive(), 0);
+        Mockito.verify(hotTaskStepStorage, Mockito.never()).getByTaskId(Mockito.anyString());
+    }
+
+    @Test
+    public void testArchiveWithCursor() {
+        taskArchiver.setBatchSize(2);
+        Task first = task("a", TaskStatus.COMPLETED.code());
+        Task second = task("b", TaskStatus.COMPLETED.code());
+        Task third = task("c", TaskStatus.COMPLETED.code());
+        Mockito.when(hotTaskStorage.queryCompletedTasks(Mockito.anyLong(), Mockito.isNull(String.class), Mockito.eq(2)))
+                .thenReturn(Arrays.asList(first, second));
+        Mockito.when(hotTaskStorage.queryCompletedTasks(Mockito.anyLong(), Mockito.eq("b"), Mockito.eq(2)))
+                .thenReturn(Collections.singletonList(third));
+        // Task a keeps failing, it should not block the others.
+        Mockito.when(archiveTaskStorage.persist(Mockito.any())).thenReturn(true);
+        Mockito.when(hotTaskStepStorage.deleteByTaskId(Mockito.anyString())).thenReturn(true);
+        Mockito.when(hotTaskStorage.delete("b")).thenReturn(true);
+        Mockito.when(hotTaskStorage.delete("c")).thenReturn(true);
+
+        assertEquals(taskArchiver.archive(), 2);
+        assertEquals(taskArchiver.getFailedTasks().get(), 1L);
+        Mockito.verify(hotTaskStorage, Mockito.times(2)).queryCompletedTasks(Mockito.anyLong(), Mockito.any(), Mockito.eq(2));
+    }
+
+    @Test
+    public void testStaleTaskRecheckedUnderLock() {
+        Task stale = task("rerun", TaskStatus.FAILED.code());
+        Task busy = task("busy", TaskStatus.FAILED.code());
+        Mockito.when(hotTaskStorage.queryCompletedTasks(Mockito.anyLong(), Mockito.isNull(String.class), Mockito.eq(10)))
+                .thenReturn(Arrays.asList(stale, busy));
+        // Re-ran by the administrator after being queried.
+        Task rerun = task("rerun", TaskStatus.PENDING.code());
+        Mockito.when(hotTaskStorage.query("rerun")).thenReturn(rerun);
+        Mockito.when(taskPersister.tryLock("busy")).thenReturn(false);
+
+        assertEquals(taskArchiver.archive(), 0);
+        Mockito.verify(archiveTaskStorage, Mockito.never()).persist(Mockito.any());
+        Mockito.verify(hotTaskStepStorage, Mockito.never()).getByTaskId(Mockito.anyString());
+        Mockito.verify(taskPersister).restore(rerun);
+        Mockito.verify(taskPersister).releaseLock("rerun");
+        Mockito.verify(taskPersister, Mockito.never()).releaseLock("busy");
+    }
+
+    private Task task(final String taskId, final int status) {
+        Task task = new Task();
+        task.setTaskId(taskId);
+        task.setStatus(status);
+        Mockito.when(hotTaskStorage.query(taskId)).thenReturn(task);
+        return task;
+    }
+}
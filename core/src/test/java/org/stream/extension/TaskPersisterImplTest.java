@@ -14,10 +14,12 @@ import org.stream.core.execution.test.MockRedisClient;
 import org.stream.extension.clients.RedisClient;
 import org.stream.extension.lock.providers.RedisClusterBasedLock;
 import org.stream.extension.meta.Task;
+import org.stream.extension.meta.TaskStatus;
 import org.stream.extension.meta.TaskStep;
 import org.stream.extension.persist.DelayQueue;
 import org.stream.extension.persist.FifoQueue;
 import org.stream.extension.persist.QueueHelper;
+import org.stream.extension.persist.TaskCheckpointStorage;
 import org.stream.extension.persist.TaskPersisterImpl;
 import org.stream.extension.persist.TaskStepStorage;
 import org.stream.extension.persist.TaskStorage;
@@ -46,6 +48,9 @@ public class TaskPersisterImplTest {
     @Mock
     private FifoQueue fifoQueue;
 
+    @Mock
+    private TaskCheckpointStorage taskCheckpointStorage;
+
     private String application = "test";
 
     private RedisClusterBasedLock lock;
@@ -206,4 +211,14 @@ public class TaskPersisterImplTest {
         ArgumentCaptor<String> captor2 = ArgumentCaptor.forClass(String.class);
         Mockito.verify(redisClient, Mockito.times(1)).setnxWithExpireTime(captor.capture(), captor2.capture());
     }
+
+    @Test
+    public void testCheckpointClearedWhenDone() {
+        Task task = Task.builder().taskId(RandomStringUtils.randomAlphabetic(10)).status(TaskStatus.COMPLETED.code()).build();
+        taskPersisterImpl.complete(task, null);
+        Mockito.verify(taskCheckpointStorage).clear(task.getTaskId());
+
+        taskPersisterImpl.removeHub("cancelled");
+        Mockito.verify(taskCheckpointStorage).clear("cancelled");
+    }
 }
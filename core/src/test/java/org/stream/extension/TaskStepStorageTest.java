@@ -0,0 +1,116 @@
+package org.stream.extension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.stream.extension.meta.TaskStep;
+import org.stream.extension.meta.TaskStepQuery;
+import org.stream.extension.persist.TaskStepStorage;
+import org.stream.extension.persist.TieredTaskStepStorage;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TaskStepStorageTest {
+
+    private static class MemoryTaskStepStorage implements TaskStepStorage {
+
+        private final List<TaskStep> taskSteps = new ArrayList<>();
+
+        @Override
+        public boolean insert(final TaskStep taskStep) {
+            return taskSteps.add(taskStep);
+        }
+
+        @Override
+        public List<TaskStep> getByTaskId(final String taskId) {
+            List<TaskStep> result = taskSteps.stream().filter(step -> step.getTaskId().equals(taskId)).collect(Collectors.toList());
+            Collections.shuffle(result);
+            return result;
+        }
+
+        @Override
+        public TaskStep getLatestStep(final String taskId) {
+            return null;
+        }
+    }
+
+    private static TaskStep step(final long createTime, final long id) {
+        return TaskStep.builder().taskId("task").createTime(createTime).id(id).streamTransferData(new byte[] {1}).build();
+    }
+
+    private static List<Long> ids(final List<TaskStep> taskSteps) {
+        return taskSteps.stream().map(TaskStep::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPaging() {
+        MemoryTaskStepStorage storage = new MemoryTaskStepStorage();
+        // Steps 2 and 3 share the same create time.
+        storage.insert(step(10, 1));
+        storage.insert(step(20, 3));
+        storage.insert(step(20, 2));
+        storage.insert(step(30, 4));
+        storage.insert(step(40, 5));
+
+        TaskStepQuery query = TaskStepQuery.builder().taskId("task").limit(2).build();
+        List<TaskStep> page = storage.getSteps(query);
+        Assert.assertEquals(ids(page), List.of(1L, 2L));
+        Assert.assertNull(page.get(0).getStreamTransferData());
+
+        page = storage.getSteps(query.next(page.get(1)));
+        Assert.assertEquals(ids(page), List.of(3L, 4L));
+        page = storage.getSteps(query.next(page.get(1)));
+        Assert.assertEquals(ids(page), List.of(5L));
+
+        TaskStepQuery latest = TaskStepQuery.builder().taskId("task").limit(3).descending(true).withPayload(true).build();
+        page = storage.getSteps(latest);
+        Assert.assertEquals(ids(page), List.of(5L, 4L, 3L));
+        Assert.assertNotNull(page.get(0).getStreamTransferData());
+        Assert.assertEquals(ids(storage.getSteps(latest.next(page.get(2)))), List.of(2L, 1L));
+
+        Assert.assertNotNull(storage.getStep("task", 4).getStreamTransferData());
+        Assert.assertNull(storage.getStep("task", 6));
+    }
+
+    @Test
+    public void testTieredPaging() {
+        MemoryTaskStepStorage hot = new MemoryTaskStepStorage();
+        MemoryTaskStepStorage archive = new MemoryTaskStepStorage();
+        archive.insert(step(10, 1));
+        archive.insert(step(30, 3));
+        hot.insert(step(20, 2));
+        hot.insert(step(40, 4));
+        TieredTaskStepStorage storage = new TieredTaskStepStorage();
+        storage.setHotTaskStepStorage(hot);
+        storage.setArchiveTaskStepStorage(archive);
+
+        TaskStepQuery query = TaskStepQuery.builder().taskId("task").limit(3).build();
+        List<TaskStep> page = storage.getSteps(query);
+        Assert.assertEquals(ids(page), List.of(1L, 2L, 3L));
+        Assert.assertEquals(ids(storage.getSteps(query.next(page.get(2)))), List.of(4L));
+        Assert.assertEquals(storage.getStep("task", 3).getCreateTime(), 30);
+    }
+
+    @Test
+    public void testTieredPagingDeduplicated() {
+        MemoryTaskStepStorage hot = new MemoryTaskStepStorage();
+        MemoryTaskStepStorage archive = new MemoryTaskStepStorage();
+        // Steps 2 and 3 are being archived and present in both tiers.
+        archive.insert(step(10, 1));
+        archive.insert(step(20, 2));
+        archive.insert(step(30, 3));
+        hot.insert(step(20, 2));
+        hot.insert(step(30, 3));
+        hot.insert(step(40, 4));
+        TieredTaskStepStorage storage = new TieredTaskStepStorage();
+        storage.setHotTaskStepStorage(hot);
+        storage.setArchiveTaskStepStorage(archive);
+
+        TaskStepQuery query = TaskStepQuery.builder().taskId("task").limit(3).build();
+        List<TaskStep> page = storage.getSteps(query);
+        Assert.assertEquals(ids(page), List.of(1L, 2L, 3L));
+        Assert.assertEquals(ids(storage.getSteps(query.next(page.get(2)))), List.of(4L));
+    }
+}
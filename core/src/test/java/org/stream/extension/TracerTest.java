@@ -0,0 +1,106 @@
+package org.stream.extension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.stream.extension.io.StreamTransferData;
+import org.stream.extension.trace.Sampler;
+import org.stream.extension.trace.Span;
+import org.stream.extension.trace.SpanData;
+import org.stream.extension.trace.SpanKind;
+import org.stream.extension.trace.TraceContext;
+import org.stream.extension.trace.Tracer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TracerTest {
+
+    private final List<SpanData> exported = new CopyOnWriteArrayList<>();
+
+    @BeforeMethod
+    public void beforeMethod() {
+        exported.clear();
+        Tracer.setSampler(Sampler.ALWAYS_ON);
+        Tracer.setExporter(exported::addAll);
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        Tracer.setExporter(null);
+    }
+
+    @Test
+    public void testTraceparentRoundTrip() {
+        TraceContext context = TraceContext.root(true);
+        Assert.assertEquals(TraceContext.parse(context.toTraceparent()), context);
+        Assert.assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        Assert.assertNull(TraceContext.parse("garbage"));
+        Assert.assertFalse(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00").sampled());
+    }
+
+    @Test
+    public void testContextSurvivesTransferDataAndThreads() throws Exception {
+        StreamTransferData data = new StreamTransferData();
+        String traceId;
+        try (Span graph = Tracer.startSpan("graph", SpanKind.INTERNAL)) {
+            traceId = graph.getContext().traceId();
+            Tracer.inject(data);
+            CompletableFuture.runAsync(Tracer.wrap(() -> Tracer.startSpan("async", SpanKind.INTERNAL).end())).get();
+        }
+
+        // Resumed later, e.g. by a retry runner on another machine.
+        try (Span retry = Tracer.startSpan("retry", SpanKind.SERVER, Tracer.extract(data))) {
+            Assert.assertEquals(retry.getContext().traceId(), traceId);
+        }
+        Assert.assertNull(Tracer.currentContext());
+
+        waitFor(traceId, 3);
+        SpanData graph = find(traceId, "graph");
+        Assert.assertNull(graph.parentSpanId());
+        Assert.assertEquals(find(traceId, "async").parentSpanId(), graph.spanId());
+        Assert.assertEquals(find(traceId, "retry").parentSpanId(), graph.spanId());
+    }
+
+    @Test
+    public void testUnsampledTraceRecordsNothing() throws Exception {
+        Tracer.setSampler(Sampler.ALWAYS_OFF);
+        String traceId;
+        try (Span root = Tracer.startSpan("root", SpanKind.INTERNAL)) {
+            traceId = root.getContext().traceId();
+            Assert.assertFalse(root.isRecording());
+            Assert.assertSame(Tracer.startSpan("child", SpanKind.INTERNAL), Span.NOOP);
+            Assert.assertEquals(Tracer.currentContext(), root.getContext());
+        }
+        Thread.sleep(200);
+        Assert.assertTrue(spans(traceId).isEmpty());
+    }
+
+    private SpanData find(final String traceId, final String name) {
+        return spans(traceId).stream().filter(span -> span.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    // Spans of other test classes running at the same time are exported too, only count the spans of the trace.
+    private List<SpanData> spans(final String traceId) {
+        return exported.stream().filter(span -> span.traceId().equals(traceId)).toList();
+    }
+
+    private void waitFor(final String traceId, final int spans) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (spans(traceId).size() < spans && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(spans(traceId).size(), spans);
+    }
+
+    @Test
+    public void testDisabledTracingAllocatesNothing() {
+        Tracer.setExporter(null);
+        try (Span root = Tracer.startSpan("root", SpanKind.INTERNAL)) {
+            Assert.assertSame(root, Span.NOOP);
+            Assert.assertNull(Tracer.currentContext());
+        }
+    }
+}
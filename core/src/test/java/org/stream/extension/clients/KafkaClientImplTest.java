@@ -0,0 +1,122 @@
+package org.stream.extension.clients;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class KafkaClientImplTest {
+
+    private static final TopicPartition FIRST = new TopicPartition("events", 0);
+
+    private static final TopicPartition SECOND = new TopicPartition("events", 1);
+
+    // Mock consumer failing the next asynchronous commit once asked to.
+    private static class FlakyConsumer extends MockConsumer<String, byte[]> {
+
+        private boolean failing = false;
+
+        FlakyConsumer() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        @Override
+        public synchronized void commitAsync(final Map<TopicPartition, OffsetAndMetadata> offsets,
+                final OffsetCommitCallback callback) {
+            if (failing) {
+                failing = false;
+                callback.onComplete(offsets, new IllegalStateException("Coordinator unavailable"));
+                return;
+            }
+            super.commitAsync(offsets, callback);
+        }
+    }
+
+    private KafkaClientImpl kafkaClient;
+
+    private FlakyConsumer consumer;
+
+    @BeforeMethod
+    public void BeforeMethod() {
+        kafkaClient = new KafkaClientImpl();
+        kafkaClient.setTopic("events");
+        kafkaClient.setPollTimeout(1000);
+        kafkaClient.setHighWatermark(3);
+        kafkaClient.setLowWatermark(1);
+        kafkaClient.subscribe("key");
+        consumer = new FlakyConsumer();
+        kafkaClient.initiateConsumer(consumer);
+        consumer.rebalance(Arrays.asList(FIRST, SECOND));
+        Map<TopicPartition, Long> beginning = new HashMap<>();
+        beginning.put(FIRST, 0L);
+        beginning.put(SECOND, 0L);
+        consumer.updateBeginningOffsets(beginning);
+    }
+
+    private void record(final TopicPartition partition, final long offset) {
+        consumer.addRecord(new ConsumerRecord<>(partition.topic(), partition.partition(), offset, "key",
+                (partition.partition() + "-" + offset).getBytes()));
+    }
+
+    private String consume() {
+        byte[] value = kafkaClient.pullMessage("key");
+        Assert.assertNotNull(value);
+        Assert.assertTrue(kafkaClient.markAsConsumed());
+        return new String(value);
+    }
+
+    @Test
+    public void testLanesPerPartition() {
+        record(FIRST, 0);
+        record(SECOND, 0);
+        record(FIRST, 1);
+        kafkaClient.pollOnce();
+
+        // Each partition keeps its order in its own lane.
+        String[] values = {consume(), consume(), consume()};
+        Assert.assertEquals(Arrays.stream(values).filter(value -> value.startsWith("0-")).toArray(), new String[] {"0-0", "0-1"});
+        Assert.assertEquals(Arrays.stream(values).filter(value -> value.startsWith("1-")).toArray(), new String[] {"1-0"});
+
+        // The commit fails and is retried by the following idle poll.
+        consumer.failing = true;
+        kafkaClient.pollOnce();
+        Assert.assertEquals(consumer.committed(FIRST).offset(), 0L);
+        kafkaClient.pollOnce();
+        Assert.assertEquals(consumer.committed(FIRST).offset(), 2L);
+        Assert.assertEquals(consumer.committed(SECOND).offset(), 1L);
+
+        // Acknowledged offsets are not committed again.
+        kafkaClient.pollOnce();
+        Assert.assertEquals(consumer.committed(FIRST).offset(), 2L);
+    }
+
+    @Test
+    public void testPauseAndResume() {
+        record(FIRST, 0);
+        record(FIRST, 1);
+        record(FIRST, 2);
+        record(FIRST, 3);
+        kafkaClient.pollOnce();
+        Assert.assertEquals(consumer.paused(), Collections.singleton(FIRST));
+
+        // Still above the low watermark.
+        consume();
+        consume();
+        kafkaClient.pollOnce();
+        Assert.assertEquals(consumer.paused(), Collections.singleton(FIRST));
+
+        consume();
+        kafkaClient.pollOnce();
+        Assert.assertTrue(consumer.paused().isEmpty());
+    }
+}